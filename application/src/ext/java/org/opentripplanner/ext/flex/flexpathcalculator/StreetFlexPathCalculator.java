@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.HeapType;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
@@ -88,6 +89,7 @@ public class StreetFlexPathCalculator implements FlexPathCalculator {
       .withPreStartHook(OTPRequestTimeoutException::checkForTimeout)
       .withSkipEdgeStrategy(new DurationSkipEdgeStrategy<>(maxFlexTripDuration))
       .withDominanceFunction(new DominanceFunctions.EarliestArrival())
+      .withHeapType(HeapType.RADIX)
       .withRequest(streetRequest)
       .withFrom(reverseDirection ? null : vertex)
       .withTo(reverseDirection ? vertex : null)
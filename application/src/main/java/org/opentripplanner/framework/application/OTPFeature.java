@@ -22,6 +22,16 @@ public enum OTPFeature {
   ),
   APIServerInfo(true, false, "Enable the server info endpoint."),
   APIUpdaterStatus(true, false, "Enable endpoint for graph updaters status."),
+  BidirectionalStreetSearch(
+    false,
+    false,
+    "Search from both the origin and the destination in direct street searches. This explores fewer vertices for long walk and bicycle searches. Searches using vehicle rental, parking or car pickup always use the normal search."
+  ),
+  CachedStreetEdgeCosts(
+    false,
+    false,
+    "Precompute the time and cost of traversing each street edge for the street profiles used by the `transferCacheRequests` and by the first few other walk, bike and car requests. The tables are built in the background and use 12 bytes per street edge each. Direct street searches with a matching profile read the costs from the table instead of computing them for each edge."
+  ),
   ConsiderPatternsForDirectTransfers(
     true,
     false,
@@ -63,6 +73,16 @@ public enum OTPFeature {
     no effect if `ConsiderPatternsForDirectTransfers` is disabled.
     """
   ),
+  LinkingCache(
+    false,
+    false,
+    "Cache the street edges the coordinates of requests are linked to. Requests from the same place, rounded to about a meter, and with the same modes reuse the nearest edge search of the first request. The entries are dropped when a real-time update changes the linked edges."
+  ),
+  MappedStreetNetwork(
+    false,
+    false,
+    "Read the street edge geometries from a memory-mapped file in the base directory, written at startup if missing. OTP instances on the same host serving the same graph share the file through the page cache of the operating system, instead of keeping the geometries on the heap."
+  ),
   /**
    * If this feature flag is switched on, then the minimum transfer time is not the minimum transfer
    * time, but the definitive transfer time. Use this to override what we think the transfer will
@@ -98,6 +118,11 @@ public enum OTPFeature {
   ),
 
   ParallelRouting(false, false, "Enable performing parts of the trip planning in parallel."),
+  PrecomputeRaptorTripPatterns(
+    false,
+    false,
+    "Compute the scheduled trip patterns running on each date for Raptor when the graph is saved, and store them in the graph file. A server loading the graph uses them instead of computing them at startup, if the timetable is unchanged. This makes the graph file larger."
+  ),
   TransferConstraints(
     true,
     false,
@@ -0,0 +1,113 @@
+package org.opentripplanner.framework.concurrent;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+
+/**
+ * Load a list of inputs, like the files or feeds of a graph build, on a pool of worker threads,
+ * while the caller processes the results one by one in the order of the list. This is used where
+ * reading and parsing the input is independent for each element, but the result must be added to
+ * the model in a fixed order to keep the build deterministic.
+ * <p>
+ * At most {@code parallelism} results are loaded ahead of the caller, this bounds the memory used
+ * by results waiting to be processed. With a parallelism of one, or a single input, the inputs are
+ * loaded by the caller when they are taken, without creating any threads.
+ * <p>
+ * This class is not thread-safe, the results should be taken from a single thread.
+ */
+public class ParallelReadAhead<T, R> implements AutoCloseable {
+
+  private final List<T> inputs;
+  private final Loader<T, R> loader;
+  private final int parallelism;
+
+  @Nullable
+  private final ExecutorService executor;
+
+  private final Deque<Future<R>> pending = new ArrayDeque<>();
+  private int nextToSubmit = 0;
+  private int nextToTake = 0;
+
+  /**
+   * @param threadNameFormat the name format of the worker threads, see
+   *                         {@link ThreadFactoryBuilder#setNameFormat(String)}
+   */
+  public ParallelReadAhead(
+    String threadNameFormat,
+    int parallelism,
+    List<T> inputs,
+    Loader<T, R> loader
+  ) {
+    this.inputs = List.copyOf(inputs);
+    this.loader = loader;
+    this.parallelism = Math.max(1, Math.min(parallelism, this.inputs.size()));
+    if (this.parallelism > 1) {
+      var threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat(threadNameFormat)
+        .setDaemon(true)
+        .build();
+      this.executor = Executors.newFixedThreadPool(this.parallelism, threadFactory);
+    } else {
+      this.executor = null;
+    }
+  }
+
+  /**
+   * Return the result of the given input, which must be the next input in the list. The caller
+   * is blocked until the input is loaded. An exception thrown by the loader is rethrown here,
+   * wrapped in a {@link RuntimeException} if it is checked.
+   */
+  public R take(T input) {
+    if (nextToTake >= inputs.size() || inputs.get(nextToTake) != input) {
+      throw new IllegalStateException("The inputs must be taken in order, got: " + input);
+    }
+    nextToTake++;
+    if (executor == null) {
+      return load(input);
+    }
+    while (nextToSubmit < inputs.size() && pending.size() < parallelism) {
+      T next = inputs.get(nextToSubmit++);
+      pending.add(executor.submit(() -> loader.load(next)));
+    }
+    try {
+      return pending.poll().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private R load(T input) {
+    try {
+      return loader.load(input);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @FunctionalInterface
+  public interface Loader<T, R> {
+    R load(T input) throws Exception;
+  }
+}
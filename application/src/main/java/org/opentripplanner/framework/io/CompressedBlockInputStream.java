@@ -0,0 +1,160 @@
+package org.opentripplanner.framework.io;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read a stream written by {@link CompressedBlockOutputStream}. The compressed blocks are read
+ * from the underlying stream by the caller, and decompressed ahead of the caller on a pool of
+ * worker threads. The checksum of each block is verified, and an {@link IOException} is thrown if
+ * the stream is corrupt.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CompressedBlockInputStream extends InputStream {
+
+  private final DataInputStream in;
+  private final int parallelism;
+  private final ExecutorService executor;
+  private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+  private byte[] block = new byte[0];
+  private int position = 0;
+  private int blockIndex = 0;
+  private boolean endOfCompressedStream = false;
+
+  public CompressedBlockInputStream(InputStream in, int parallelism) {
+    this.in = new DataInputStream(in);
+    this.parallelism = Math.max(1, parallelism);
+    var threadFactory = new ThreadFactoryBuilder()
+      .setNameFormat("decompress-%d")
+      .setDaemon(true)
+      .build();
+    this.executor = Executors.newFixedThreadPool(this.parallelism, threadFactory);
+  }
+
+  public CompressedBlockInputStream(InputStream in) {
+    this(in, Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextBlockIfEmpty()) {
+      return -1;
+    }
+    return block[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextBlockIfEmpty()) {
+      return -1;
+    }
+    int n = Math.min(len, block.length - position);
+    System.arraycopy(block, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return block.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    executor.shutdownNow();
+    in.close();
+  }
+
+  /**
+   * Move to the next block if all bytes of the current block are read. Return {@code false} at
+   * the end of the stream.
+   */
+  private boolean nextBlockIfEmpty() throws IOException {
+    while (position == block.length) {
+      // Keep the workers busy with the blocks after the one returned
+      while (!endOfCompressedStream && pending.size() <= parallelism) {
+        submitNextBlock();
+      }
+      if (pending.isEmpty()) {
+        return false;
+      }
+      try {
+        block = pending.poll().get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(e.getMessage());
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException ioe) {
+          throw ioe;
+        }
+        throw new IOException(e.getCause());
+      }
+      position = 0;
+    }
+    return true;
+  }
+
+  private void submitNextBlock() throws IOException {
+    int rawSize = in.readInt();
+    int compressedSize = in.readInt();
+    int checksum = in.readInt();
+    if (rawSize == 0) {
+      endOfCompressedStream = true;
+      return;
+    }
+    if (rawSize < 0 || compressedSize < 0) {
+      throw new IOException("Invalid block size in block " + blockIndex);
+    }
+    var compressed = new byte[compressedSize];
+    in.readFully(compressed);
+    int index = blockIndex++;
+    pending.add(executor.submit(() -> decompress(index, compressed, rawSize, checksum)));
+  }
+
+  private static byte[] decompress(int index, byte[] compressed, int rawSize, int checksum)
+    throws IOException {
+    var raw = new byte[rawSize];
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      int n = 0;
+      while (n < rawSize && !inflater.finished()) {
+        int read = inflater.inflate(raw, n, rawSize - n);
+        if (read == 0) {
+          // Needs more input or a dictionary, the block is truncated or corrupt
+          break;
+        }
+        n += read;
+      }
+      if (n != rawSize || !inflater.finished()) {
+        throw new IOException("Unexpected size of block " + index);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Unable to decompress block " + index, e);
+    } finally {
+      inflater.end();
+    }
+    var crc = new CRC32C();
+    crc.update(raw);
+    if ((int) crc.getValue() != checksum) {
+      throw new IOException("Checksum mismatch in block " + index);
+    }
+    return raw;
+  }
+}
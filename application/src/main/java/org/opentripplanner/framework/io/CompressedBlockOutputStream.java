@@ -0,0 +1,161 @@
+package org.opentripplanner.framework.io;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Write a stream as a sequence of independently compressed blocks, each with a checksum of the
+ * uncompressed bytes. The blocks are compressed on a pool of worker threads, while the caller
+ * continues to write the next block. Read the stream with {@link CompressedBlockInputStream}.
+ * <p>
+ * Each block is written as the uncompressed size, the compressed size, the CRC-32C checksum and
+ * the Deflate compressed bytes. The stream ends with a block of size zero.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CompressedBlockOutputStream extends OutputStream {
+
+  public static final int DEFAULT_BLOCK_SIZE = 4 * 1024 * 1024;
+
+  private final DataOutputStream out;
+  private final int parallelism;
+  private final ExecutorService executor;
+  private final Deque<Future<Block>> pending = new ArrayDeque<>();
+  private byte[] buffer;
+  private int size = 0;
+  private boolean closed = false;
+
+  public CompressedBlockOutputStream(OutputStream out, int blockSize, int parallelism) {
+    this.out = new DataOutputStream(out);
+    this.buffer = new byte[blockSize];
+    this.parallelism = Math.max(1, parallelism);
+    var threadFactory = new ThreadFactoryBuilder()
+      .setNameFormat("compress-%d")
+      .setDaemon(true)
+      .build();
+    this.executor = Executors.newFixedThreadPool(this.parallelism, threadFactory);
+  }
+
+  public CompressedBlockOutputStream(OutputStream out) {
+    this(out, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (size == buffer.length) {
+      submitBlock();
+    }
+    buffer[size++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (size == buffer.length) {
+        submitBlock();
+      }
+      int n = Math.min(len, buffer.length - size);
+      System.arraycopy(b, off, buffer, size, n);
+      size += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Write the blocks already compressed, without waiting for the blocks being compressed. The
+   * last block is not complete until the stream is closed.
+   */
+  @Override
+  public void flush() throws IOException {
+    while (!pending.isEmpty() && pending.peek().isDone()) {
+      writeNextBlock();
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (size > 0) {
+        submitBlock();
+      }
+      while (!pending.isEmpty()) {
+        writeNextBlock();
+      }
+      // End of stream
+      out.writeInt(0);
+      out.writeInt(0);
+      out.writeInt(0);
+      out.close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    var raw = buffer;
+    int rawSize = size;
+    pending.add(executor.submit(() -> compress(raw, rawSize)));
+    buffer = new byte[raw.length];
+    size = 0;
+    // Bound the number of blocks kept in memory
+    while (pending.size() > parallelism) {
+      writeNextBlock();
+    }
+  }
+
+  private void writeNextBlock() throws IOException {
+    Block block;
+    try {
+      block = pending.poll().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+    out.writeInt(block.rawSize());
+    out.writeInt(block.compressed().length);
+    out.writeInt(block.checksum());
+    out.write(block.compressed());
+  }
+
+  private static Block compress(byte[] raw, int rawSize) {
+    var checksum = new CRC32C();
+    checksum.update(raw, 0, rawSize);
+
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(raw, 0, rawSize);
+      deflater.finish();
+      var compressed = new ByteArrayOutputStream(rawSize / 2);
+      var chunk = new byte[64 * 1024];
+      while (!deflater.finished()) {
+        int n = deflater.deflate(chunk);
+        compressed.write(chunk, 0, n);
+      }
+      return new Block(rawSize, compressed.toByteArray(), (int) checksum.getValue());
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private record Block(int rawSize, byte[] compressed, int checksum) {}
+}
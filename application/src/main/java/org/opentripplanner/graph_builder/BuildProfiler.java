@@ -0,0 +1,209 @@
+package org.opentripplanner.graph_builder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.transit.service.TimetableRepository;
+import org.opentripplanner.utils.text.Table;
+import org.opentripplanner.utils.time.DurationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Record the time and memory used by each graph builder module, and the number of vertices, edges
+ * and patterns it created. The result is logged as a table when the build is complete, and can be
+ * written to a JSON file.
+ * <p>
+ * The numbers are taken from the JVM management beans and are approximate. The CPU time is the
+ * time of the whole process, including the garbage collector and the worker threads used by the
+ * module. The allocated bytes are summed over the live threads, so allocations made by threads
+ * terminated during the module are not counted. The peak heap is the sum of the peak usage of
+ * each heap memory pool, which is an upper bound of the actual peak.
+ */
+class BuildProfiler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BuildProfiler.class);
+  private static final long MB = 1024 * 1024;
+
+  private final Graph graph;
+  private final TimetableRepository timetableRepository;
+  private final List<ModuleProfile> modules = new ArrayList<>();
+
+  BuildProfiler(Graph graph, TimetableRepository timetableRepository) {
+    this.graph = graph;
+    this.timetableRepository = timetableRepository;
+  }
+
+  /** Run the given module and record its profile. */
+  void buildGraph(GraphBuilderModule module) {
+    var before = Snapshot.take(graph, timetableRepository);
+    resetPeakHeapUsage();
+
+    module.buildGraph();
+
+    long peakHeapBytes = peakHeapUsage();
+    var after = Snapshot.take(graph, timetableRepository);
+    modules.add(
+      new ModuleProfile(
+        module.getClass().getSimpleName(),
+        after.wallTimeMs - before.wallTimeMs,
+        diff(before.cpuTimeMs, after.cpuTimeMs),
+        diff(before.allocatedBytes, after.allocatedBytes),
+        peakHeapBytes,
+        after.heapUsedBytes,
+        after.nVertices - before.nVertices,
+        after.nEdges - before.nEdges,
+        after.nPatterns - before.nPatterns
+      )
+    );
+  }
+
+  List<ModuleProfile> modules() {
+    return List.copyOf(modules);
+  }
+
+  void logSummary() {
+    var table = Table.of()
+      .withHeaders(
+        "Module",
+        "Wall",
+        "CPU",
+        "Allocated",
+        "Peak heap",
+        "Heap after",
+        "Vertices",
+        "Edges",
+        "Patterns"
+      )
+      .withAlights(
+        Table.Align.Left,
+        Table.Align.Right,
+        Table.Align.Right,
+        Table.Align.Right,
+        Table.Align.Right,
+        Table.Align.Right,
+        Table.Align.Right,
+        Table.Align.Right,
+        Table.Align.Right
+      );
+    for (var it : modules) {
+      table.addRow(
+        it.module(),
+        DurationUtils.msToSecondsStr(it.wallTimeMs()),
+        it.cpuTimeMs() < 0 ? "-" : DurationUtils.msToSecondsStr(it.cpuTimeMs()),
+        toMb(it.allocatedBytes()),
+        toMb(it.peakHeapBytes()),
+        toMb(it.heapUsedAfterBytes()),
+        it.verticesCreated(),
+        it.edgesCreated(),
+        it.patternsCreated()
+      );
+    }
+    LOG.info("Build profile (memory in MB):");
+    table.build().toTextRows().forEach(LOG::info);
+  }
+
+  /**
+   * Write the profile to the given file as JSON. A failure is logged, but does not fail the build.
+   */
+  void writeJson(File file) {
+    try {
+      new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, modules);
+      LOG.info("Build profile written to {}", file);
+    } catch (IOException e) {
+      LOG.warn("Unable to write the build profile to {}: {}", file, e.getMessage());
+    }
+  }
+
+  private static String toMb(long bytes) {
+    return bytes < 0 ? "-" : Long.toString(bytes / MB);
+  }
+
+  private static long diff(long before, long after) {
+    return before < 0 || after < 0 ? -1 : after - before;
+  }
+
+  private static void resetPeakHeapUsage() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  private static long peakHeapUsage() {
+    long sum = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        sum += pool.getPeakUsage().getUsed();
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * The profile of one module. The CPU time and allocated bytes are -1 if the JVM does not support
+   * measuring them.
+   */
+  record ModuleProfile(
+    String module,
+    long wallTimeMs,
+    long cpuTimeMs,
+    long allocatedBytes,
+    long peakHeapBytes,
+    long heapUsedAfterBytes,
+    int verticesCreated,
+    int edgesCreated,
+    int patternsCreated
+  ) {}
+
+  private record Snapshot(
+    long wallTimeMs,
+    long cpuTimeMs,
+    long allocatedBytes,
+    long heapUsedBytes,
+    int nVertices,
+    int nEdges,
+    int nPatterns
+  ) {
+    static Snapshot take(Graph graph, TimetableRepository timetableRepository) {
+      return new Snapshot(
+        System.currentTimeMillis(),
+        processCpuTimeMs(),
+        allocatedBytes(),
+        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+        graph.countVertices(),
+        graph.countEdges(),
+        timetableRepository.getAllTripPatterns().size()
+      );
+    }
+
+    private static long processCpuTimeMs() {
+      if (
+        ManagementFactory.getOperatingSystemMXBean() instanceof
+          com.sun.management.OperatingSystemMXBean os
+      ) {
+        long nanos = os.getProcessCpuTime();
+        return nanos < 0 ? -1 : nanos / 1_000_000;
+      }
+      return -1;
+    }
+
+    private static long allocatedBytes() {
+      if (
+        ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads &&
+        threads.isThreadAllocatedMemoryEnabled()
+      ) {
+        return threads.getTotalThreadAllocatedBytes();
+      }
+      return -1;
+    }
+  }
+}
@@ -5,6 +5,7 @@ import static org.opentripplanner.datastore.api.FileType.NETEX;
 import static org.opentripplanner.datastore.api.FileType.OSM;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.LinkedList;
@@ -44,6 +45,7 @@ import org.slf4j.LoggerFactory;
 public class GraphBuilder implements Runnable {
 
   private static final Logger LOG = LoggerFactory.getLogger(GraphBuilder.class);
+  private static final String BUILD_PROFILE_FILENAME = "build-profile.json";
 
   private final Queue<GraphBuilderModule> graphBuilderModules = new LinkedList<>();
   private final Graph graph;
@@ -54,6 +56,10 @@ public class GraphBuilder implements Runnable {
 
   private boolean hasTransitData = false;
 
+  /** The file to write the build profile to, or null if the graph is not saved to a local file. */
+  @Nullable
+  private File buildProfileFile = null;
+
   public GraphBuilder(
     Graph baseGraph,
     DeduplicatorService deduplicator,
@@ -120,6 +126,7 @@ public class GraphBuilder implements Runnable {
     var graphBuilder = factory.graphBuilder();
 
     graphBuilder.hasTransitData = hasTransitData;
+    graphBuilder.buildProfileFile = buildProfileFile(dataSources);
 
     if (hasOsm) {
       graphBuilder.addModule(factory.osmModule());
@@ -199,6 +206,19 @@ public class GraphBuilder implements Runnable {
 
     graphBuilder.addModuleOptional(factory.dataOverlayFactory(), OTPFeature.DataOverlay);
 
+    // Landmarks and the contraction hierarchy must be computed after all other modules adding or
+    // removing street vertices
+    if (loadStreetGraph || hasOsm) {
+      graphBuilder.addModuleOptional(
+        factory.streetLandmarkModule(),
+        config.streetRoutingLandmarks > 0
+      );
+      graphBuilder.addModuleOptional(
+        factory.carContractionHierarchyModule(),
+        config.carContractionHierarchy
+      );
+    }
+
     graphBuilder.addModule(factory.calculateWorldEnvelopeModule());
 
     return graphBuilder;
@@ -215,14 +235,21 @@ public class GraphBuilder implements Runnable {
         builder.checkInputs();
       }
 
+      var profiler = new BuildProfiler(graph, timetableRepository);
+
       // because we want to garbage-collect the modules as soon as they are finished
       // we remove them from the queue during the build process
       while (!graphBuilderModules.isEmpty()) {
         var builder = graphBuilderModules.poll();
-        builder.buildGraph();
+        profiler.buildGraph(builder);
       }
 
-      new DataImportIssueSummary(issueStore.listIssues()).logSummary();
+      issueStore.summary().logSummary();
+
+      profiler.logSummary();
+      if (buildProfileFile != null) {
+        profiler.writeJson(buildProfileFile);
+      }
 
       // Log before we validate, this way we have more information if the validation fails
       logGraphBuilderCompleteStatus(startTime, graph, timetableRepository, deduplicator);
@@ -230,9 +257,22 @@ public class GraphBuilder implements Runnable {
       validate();
     } finally {
       closeDataSources();
+      closeIssueStore();
     }
   }
 
+  /**
+   * The build profile is written next to the output graph, if the graph is saved to a local file.
+   */
+  @Nullable
+  private static File buildProfileFile(GraphBuilderDataSources dataSources) {
+    var outputGraph = dataSources.getOutputGraph();
+    if (outputGraph == null || !"file".equals(outputGraph.uri().getScheme())) {
+      return null;
+    }
+    return new File(new File(outputGraph.uri()).getParentFile(), BUILD_PROFILE_FILENAME);
+  }
+
   private void addModuleOptional(@Nullable GraphBuilderModule module, OTPFeature feature) {
     addModuleOptional(module, feature.isOn());
   }
@@ -258,7 +298,7 @@ public class GraphBuilder implements Runnable {
   }
 
   public DataImportIssueSummary issueSummary() {
-    return new DataImportIssueSummary(issueStore.listIssues());
+    return issueStore.summary();
   }
 
   /**
@@ -284,6 +324,20 @@ public class GraphBuilder implements Runnable {
     }
   }
 
+  /**
+   * Release the resources held by the issue store, like the issue log on disk. The issue summary
+   * is still available.
+   */
+  private void closeIssueStore() {
+    if (issueStore instanceof Closeable closeable) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
   private static void logGraphBuilderCompleteStatus(
     long startTime,
     Graph graph,
@@ -1,6 +1,8 @@
 package org.opentripplanner.graph_builder.issue.api;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 import org.opentripplanner.framework.error.OtpError;
 
 /**
@@ -51,4 +53,21 @@ public interface DataImportIssueStore {
 
   /** List all issues added */
   List<DataImportIssue> listIssues();
+
+  /** The number of issues added of each type. */
+  default DataImportIssueSummary summary() {
+    return new DataImportIssueSummary(listIssues());
+  }
+
+  /**
+   * Call the given consumer with all issues of the given type, sorted by priority, the highest
+   * priority first. Issues with the same priority are visited in the order they were added.
+   */
+  default void forEachIssue(String type, Consumer<DataImportIssue> consumer) {
+    listIssues()
+      .stream()
+      .filter(it -> it.getType().equals(type))
+      .sorted(Comparator.comparing(DataImportIssue::getPriority, Comparator.reverseOrder()))
+      .forEach(consumer);
+  }
 }
@@ -29,7 +29,7 @@ public class DataImportIssueSummary implements Serializable {
     );
   }
 
-  private DataImportIssueSummary(Map<String, Long> summary) {
+  public DataImportIssueSummary(Map<String, Long> summary) {
     this.summary = Map.copyOf(summary);
   }
 
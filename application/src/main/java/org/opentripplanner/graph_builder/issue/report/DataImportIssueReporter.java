@@ -1,12 +1,11 @@
 package org.opentripplanner.graph_builder.issue.report;
 
-import com.google.common.collect.Lists;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssue;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
@@ -53,19 +52,20 @@ public class DataImportIssueReporter implements GraphBuilderModule {
       if (!deleteReportDirectoryAndContent()) {
         return;
       }
-      List<Bucket> buckets = partitionIssues(issueStore.listIssues(), maxNumberOfIssuesPerFile);
-      List<BucketKey> keys = buckets.stream().map(Bucket::key).sorted().toList();
+      Map<String, Long> countByType = issueStore.summary().asMap();
+      List<BucketKey> keys = bucketKeys(countByType, maxNumberOfIssuesPerFile);
 
-      var progress = ProgressTracker.track("Creating data import issue report", 50, buckets.size());
+      var progress = ProgressTracker.track("Creating data import issue report", 50, keys.size());
 
       LOG.info(progress.startMessage());
 
-      for (Bucket bucket : buckets) {
+      // The issues are partitioned one type at a time, so only one bucket is kept in memory
+      partitionIssues(issueStore, countByType, maxNumberOfIssuesPerFile, bucket -> {
         boolean addGeoJSONLink = new GeoJsonWriter(reportDirectory, bucket).writeFile();
         new HTMLWriter(reportDirectory, bucket, keys, addGeoJSONLink).writeFile();
         //noinspection Convert2MethodRef
         progress.step(m -> LOG.info(m));
-      }
+      });
 
       try {
         HTMLWriter indexFileWriter = new HTMLWriter(reportDirectory, "index", keys);
@@ -114,42 +114,62 @@ public class DataImportIssueReporter implements GraphBuilderModule {
   }
 
   /**
-   * Creates buckets, where each bucket has only a single issue type and max approximately
-   * {@link this#maxNumberOfIssuesPerFile} issues
+   * Return the sorted keys of the buckets created by {@link #partitionIssues}.
    */
-  static List<Bucket> partitionIssues(List<DataImportIssue> issues, int maxNumberOfIssuesPerFile) {
-    //Groups issues according to issue type
-    Map<String, List<DataImportIssue>> issuesByType = issues
-      .stream()
-      .collect(Collectors.groupingBy(DataImportIssue::getType));
-
-    List<Bucket> buckets = new ArrayList<>();
-
-    for (Map.Entry<String, List<DataImportIssue>> entry : issuesByType.entrySet()) {
-      var key = entry.getKey();
-
-      // Sort each issue type by priority
-      var sortedIssues = entry
-        .getValue()
-        .stream()
-        .sorted(Comparator.comparing(DataImportIssue::getPriority, Comparator.reverseOrder()))
-        .toList();
-
-      // Split the issues to buckets if needed
-      if (sortedIssues.size() > 1.2 * maxNumberOfIssuesPerFile) {
-        List<List<DataImportIssue>> partitions = Lists.partition(
-          sortedIssues,
-          maxNumberOfIssuesPerFile
-        );
-        for (int i = 0; i < partitions.size(); i++) {
-          buckets.add(new Bucket(new BucketKey(key, i + 1), partitions.get(i)));
+  static List<BucketKey> bucketKeys(Map<String, Long> countByType, int maxNumberOfIssuesPerFile) {
+    List<BucketKey> keys = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : countByType.entrySet()) {
+      long count = entry.getValue();
+      if (isSplit(count, maxNumberOfIssuesPerFile)) {
+        long nBuckets = (count + maxNumberOfIssuesPerFile - 1) / maxNumberOfIssuesPerFile;
+        for (int i = 0; i < nBuckets; i++) {
+          keys.add(new BucketKey(entry.getKey(), i + 1));
         }
       } else {
-        buckets.add(new Bucket(new BucketKey(key, null), sortedIssues));
+        keys.add(new BucketKey(entry.getKey(), null));
+      }
+    }
+    Collections.sort(keys);
+    return keys;
+  }
+
+  /**
+   * Creates buckets, where each bucket has only a single issue type and max approximately
+   * {@link this#maxNumberOfIssuesPerFile} issues. The issues of each type are sorted by priority.
+   * The buckets are passed to the given consumer as soon as they are complete, sorted by key.
+   */
+  static void partitionIssues(
+    DataImportIssueStore issueStore,
+    Map<String, Long> countByType,
+    int maxNumberOfIssuesPerFile,
+    Consumer<Bucket> consumer
+  ) {
+    for (String type : countByType.keySet().stream().sorted().toList()) {
+      if (!isSplit(countByType.get(type), maxNumberOfIssuesPerFile)) {
+        List<DataImportIssue> issues = new ArrayList<>();
+        issueStore.forEachIssue(type, issues::add);
+        consumer.accept(new Bucket(new BucketKey(type, null), issues));
+        continue;
+      }
+
+      // Split the issues to buckets
+      var bucket = new ArrayList<DataImportIssue>();
+      var index = new int[] { 1 };
+      issueStore.forEachIssue(type, issue -> {
+        bucket.add(issue);
+        if (bucket.size() == maxNumberOfIssuesPerFile) {
+          consumer.accept(new Bucket(new BucketKey(type, index[0]++), List.copyOf(bucket)));
+          bucket.clear();
+        }
+      });
+      if (!bucket.isEmpty()) {
+        consumer.accept(new Bucket(new BucketKey(type, index[0]), List.copyOf(bucket)));
       }
     }
+  }
 
-    return buckets;
+  private static boolean isSplit(long count, int maxNumberOfIssuesPerFile) {
+    return count > 1.2 * maxNumberOfIssuesPerFile;
   }
 
   private void closeReportDirectory() {
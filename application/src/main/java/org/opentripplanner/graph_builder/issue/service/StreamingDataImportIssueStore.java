@@ -0,0 +1,394 @@
+package org.opentripplanner.graph_builder.issue.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+import org.opentripplanner.framework.error.OtpError;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssue;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
+import org.opentripplanner.graph_builder.issue.api.Issue;
+import org.opentripplanner.graph_builder.issue.api.IssueWithSource;
+import org.opentripplanner.street.geometry.GeometryUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An issue store which writes the issues to a log on disk as they are added, and only keeps the
+ * number of issues of each type in memory. This is used when the issue report is generated, to
+ * avoid keeping millions of issues, and the graph objects they reference, in memory until the end
+ * of the build.
+ * <p>
+ * The issues are written to one file per issue type, with the values needed by the report: the
+ * priority, the message, the HTML message and the geometry. When the issues of a type are read
+ * back, only the priority and the position of each issue are kept in memory to sort them, and
+ * the issues are read one by one.
+ * <p>
+ * The files are deleted when the store is closed.
+ */
+public class StreamingDataImportIssueStore implements DataImportIssueStore, Closeable {
+
+  private static final Logger ISSUE_LOG = LoggerFactory.getLogger(ISSUES_LOG_NAME);
+  private static final int NO_GEOMETRY = -1;
+
+  private final Path directory;
+  private final Map<String, TypeLog> logs = new LinkedHashMap<>();
+  private String currentSource = null;
+
+  public StreamingDataImportIssueStore(Path directory) {
+    this.directory = directory;
+  }
+
+  public static StreamingDataImportIssueStore createInTempDirectory() {
+    try {
+      return new StreamingDataImportIssueStore(Files.createTempDirectory("otp-import-issues"));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void add(DataImportIssue issue) {
+    ISSUE_LOG.debug("{} - {}", issue.getType(), issue.getMessage());
+    if (currentSource != null) {
+      issue = new IssueWithSource(issue, currentSource);
+    }
+    try {
+      logs.computeIfAbsent(issue.getType(), this::openLog).write(issue);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void add(OtpError issue) {
+    add(issue.errorCode(), issue.messageTemplate(), issue.messageArguments());
+  }
+
+  @Override
+  public void add(String type, String message) {
+    add(Issue.issue(type, message));
+  }
+
+  @Override
+  public void add(String type, String message, Object... arguments) {
+    add(Issue.issue(type, message, arguments));
+  }
+
+  @Override
+  public synchronized void startProcessingSource(String source) {
+    this.currentSource = source;
+  }
+
+  @Override
+  public synchronized void stopProcessingSource() {
+    this.currentSource = null;
+  }
+
+  /**
+   * Read all issues back from disk. This keeps all issues in memory, use
+   * {@link #forEachIssue(String, Consumer)} to stream them.
+   */
+  @Override
+  public synchronized List<DataImportIssue> listIssues() {
+    var list = new ArrayList<DataImportIssue>();
+    for (String type : logs.keySet()) {
+      forEachInOrderAdded(type, list::add);
+    }
+    return list;
+  }
+
+  @Override
+  public synchronized DataImportIssueSummary summary() {
+    var summary = new HashMap<String, Long>();
+    logs.forEach((type, log) -> summary.put(type, log.count));
+    return new DataImportIssueSummary(summary);
+  }
+
+  @Override
+  public synchronized void forEachIssue(String type, Consumer<DataImportIssue> consumer) {
+    var log = logs.get(type);
+    if (log == null) {
+      return;
+    }
+    try {
+      log.out.flush();
+      var index = log.readIndex();
+      if (index.sameForAll()) {
+        forEachInOrderAdded(type, consumer);
+        return;
+      }
+      try (var in = new RandomAccessFile(log.file.toFile(), "r")) {
+        for (long position : index.positionsByPriority()) {
+          in.seek(position);
+          var record = new byte[in.readInt()];
+          in.readFully(record);
+          consumer.accept(
+            readIssue(type, new DataInputStream(new ByteArrayInputStream(record)))
+          );
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Delete the issue log. The summary of the issues is still available after the store is closed.
+   */
+  @Override
+  public synchronized void close() {
+    for (TypeLog log : logs.values()) {
+      try {
+        log.out.close();
+        Files.deleteIfExists(log.file);
+      } catch (IOException e) {
+        ISSUE_LOG.warn("Unable to delete the issue log {}: {}", log.file, e.getMessage());
+      }
+    }
+    try {
+      Files.deleteIfExists(directory);
+    } catch (IOException e) {
+      ISSUE_LOG.warn("Unable to delete the issue log {}: {}", directory, e.getMessage());
+    }
+  }
+
+  @Override
+  public String toString() {
+    throw new UnsupportedOperationException(
+      "Printing the StreamingDataImportIssueStore is not a good idea!"
+    );
+  }
+
+  private TypeLog openLog(String type) {
+    // The type is not used in the file name, it may contain characters not allowed in a path
+    var file = directory.resolve("issues-" + logs.size() + ".log");
+    try {
+      return new TypeLog(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void forEachInOrderAdded(String type, Consumer<DataImportIssue> consumer) {
+    var log = logs.get(type);
+    try {
+      log.out.flush();
+      try (
+        var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log.file)))
+      ) {
+        for (long i = 0; i < log.count; i++) {
+          in.readInt();
+          consumer.accept(readIssue(type, in));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Each issue is written as the size of the record followed by the record: the priority, the
+   * message, the HTML message and the geometry as WKB.
+   */
+  private static byte[] toRecord(DataImportIssue issue) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    var out = new DataOutputStream(bytes);
+    out.writeInt(issue.getPriority());
+    writeString(out, issue.getMessage());
+    writeString(out, issue.getHTMLMessage());
+    var geometry = issue.getGeometry();
+    if (geometry == null) {
+      out.writeInt(NO_GEOMETRY);
+    } else {
+      var wkb = new WKBWriter().write(geometry);
+      out.writeInt(wkb.length);
+      out.write(wkb);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static DataImportIssue readIssue(String type, DataInput in) throws IOException {
+    int priority = in.readInt();
+    String message = readString(in);
+    String htmlMessage = readString(in);
+    int wkbLength = in.readInt();
+    Geometry geometry = null;
+    if (wkbLength != NO_GEOMETRY) {
+      var wkb = new byte[wkbLength];
+      in.readFully(wkb);
+      try {
+        geometry = new WKBReader(GeometryUtils.getGeometryFactory()).read(wkb);
+      } catch (ParseException e) {
+        throw new IOException(e);
+      }
+    }
+    return new StoredIssue(type, priority, message, htmlMessage, geometry);
+  }
+
+  /** Write the string as UTF-8, unlike {@link DataOutputStream#writeUTF} any size is allowed. */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    var bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** The log of all issues of one type. */
+  private static class TypeLog {
+
+    private final Path file;
+    private final DataOutputStream out;
+    private long count = 0;
+
+    private TypeLog(Path file) throws IOException {
+      this.file = file;
+      this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private void write(DataImportIssue issue) throws IOException {
+      var record = toRecord(issue);
+      out.writeInt(record.length);
+      out.write(record);
+      count++;
+    }
+
+    /** Read the priority and the position in the file of each issue. */
+    private PriorityIndex readIndex() throws IOException {
+      var index = new PriorityIndex((int) count);
+      try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+        long position = 0;
+        for (int i = 0; i < count; i++) {
+          int length = in.readInt();
+          index.add(i, position, in.readInt());
+          in.skipNBytes(length - Integer.BYTES);
+          position += Integer.BYTES + length;
+        }
+      } catch (EOFException e) {
+        throw new IOException("The issue log is truncated: " + file, e);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * The priority and file position of the issues of one type. The issues are sorted by priority
+   * and then by the order they were added, by sorting the priority and index packed into a long.
+   */
+  private static class PriorityIndex {
+
+    private final long[] positions;
+    private final long[] sortKeys;
+
+    private PriorityIndex(int size) {
+      this.positions = new long[size];
+      this.sortKeys = new long[size];
+    }
+
+    private void add(int i, long position, int priority) {
+      positions[i] = position;
+      // Highest priority first: the inverted priority in the high bits, the index in the low bits
+      sortKeys[i] = ((long) ~priority << 32) | i;
+    }
+
+    private boolean sameForAll() {
+      for (int i = 1; i < sortKeys.length; i++) {
+        if ((sortKeys[i] >>> 32) != (sortKeys[0] >>> 32)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private long[] positionsByPriority() {
+      var keys = sortKeys.clone();
+      Arrays.sort(keys);
+      var result = new long[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        result[i] = positions[(int) keys[i]];
+      }
+      return result;
+    }
+  }
+
+  /** An issue read back from the log. */
+  private static class StoredIssue implements DataImportIssue {
+
+    private final String type;
+    private final int priority;
+    private final String message;
+    private final String htmlMessage;
+
+    @Nullable
+    private final Geometry geometry;
+
+    private StoredIssue(
+      String type,
+      int priority,
+      String message,
+      String htmlMessage,
+      @Nullable Geometry geometry
+    ) {
+      this.type = type;
+      this.priority = priority;
+      this.message = message;
+      this.htmlMessage = htmlMessage;
+      this.geometry = geometry;
+    }
+
+    @Override
+    public String getType() {
+      return type;
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public int getPriority() {
+      return priority;
+    }
+
+    @Override
+    public String getHTMLMessage() {
+      return htmlMessage;
+    }
+
+    @Override
+    public Geometry getGeometry() {
+      return geometry;
+    }
+  }
+}
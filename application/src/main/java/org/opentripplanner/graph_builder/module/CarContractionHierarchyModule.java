@@ -0,0 +1,33 @@
+package org.opentripplanner.graph_builder.module;
+
+import jakarta.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.search.ch.CarContractionHierarchyBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build the contraction hierarchy used for direct car routing. This must run after all modules
+ * adding or removing street vertices and edges, the hierarchy only covers the edges present when
+ * it is built.
+ */
+public class CarContractionHierarchyModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CarContractionHierarchyModule.class);
+
+  private final Graph graph;
+
+  @Inject
+  public CarContractionHierarchyModule(Graph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public void buildGraph() {
+    LOG.info("Building car contraction hierarchy...");
+    graph.setCarContractionHierarchy(
+      new CarContractionHierarchyBuilder().build(graph.getVertices())
+    );
+  }
+}
@@ -0,0 +1,44 @@
+package org.opentripplanner.graph_builder.module;
+
+import jakarta.inject.Inject;
+import org.opentripplanner.graph_builder.model.GraphBuilderModule;
+import org.opentripplanner.standalone.config.BuildConfig;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.search.landmark.LandmarkIndex;
+import org.opentripplanner.street.search.landmark.LandmarkIndexBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Precompute the landmark distances used by the landmark (ALT) heuristic in direct street
+ * searches. This must run after all modules adding or removing street vertices and edges, the
+ * index only covers the vertices present when it is built.
+ */
+public class StreetLandmarkModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetLandmarkModule.class);
+
+  private final Graph graph;
+  private final int nLandmarks;
+
+  @Inject
+  public StreetLandmarkModule(Graph graph, BuildConfig config) {
+    this(graph, config.streetRoutingLandmarks);
+  }
+
+  public StreetLandmarkModule(Graph graph, int nLandmarks) {
+    this.graph = graph;
+    this.nLandmarks = nLandmarks;
+  }
+
+  @Override
+  public void buildGraph() {
+    LOG.info("Computing street routing landmarks...");
+    // The landmark tables are looked up by vertex index, so number the vertices added or removed
+    // since the graph was last indexed
+    graph.index();
+    LandmarkIndex index = new LandmarkIndexBuilder(graph.getVertices(), nLandmarks).build();
+    graph.setLandmarkIndex(index);
+    LOG.info("Street routing landmarks done: {}", index);
+  }
+}
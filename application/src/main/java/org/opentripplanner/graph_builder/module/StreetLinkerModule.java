@@ -13,6 +13,7 @@ import org.opentripplanner.graph_builder.model.GraphBuilderModule;
 import org.opentripplanner.service.vehicleparking.VehicleParkingRepository;
 import org.opentripplanner.service.vehicleparking.model.VehicleParking;
 import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.linking.LinkingBatch;
 import org.opentripplanner.street.linking.LinkingDirection;
 import org.opentripplanner.street.linking.VehicleParkingHelper;
 import org.opentripplanner.street.linking.VertexLinker;
@@ -99,6 +100,7 @@ public class StreetLinkerModule implements GraphBuilderModule {
     Set<StopLocation> stopLocationsUsedForCarsAllowedTrips =
       timetableRepository.getStopLocationsUsedForCarsAllowedTrips();
 
+    List<StopToLink> stopsToLink = new ArrayList<>();
     for (TransitStopVertex stopVertex : vertices) {
       var stop = Objects.requireNonNull(
         timetableRepository.getSiteRepository().getRegularStop(stopVertex.getId())
@@ -121,13 +123,20 @@ public class StreetLinkerModule implements GraphBuilderModule {
       ) {
         linkType = StopLinkType.WALK_AND_CAR;
       }
+      stopsToLink.add(new StopToLink(stopVertex, linkType));
+    }
 
-      linkStopToStreetNetwork(stopVertex, linkType);
+    var stopVertices = stopsToLink.stream().map(StopToLink::vertex).toList();
+    try (var batch = vertexLinker.prepareLinkingPermanently(stopVertices, WALK_ONLY)) {
+      for (StopToLink stopToLink : stopsToLink) {
+        linkStopToStreetNetwork(batch, stopToLink.vertex(), stopToLink.linkType());
 
-      //noinspection Convert2MethodRef
-      progress.step(m -> LOG.info(m));
+        //noinspection Convert2MethodRef
+        progress.step(m -> LOG.info(m));
+      }
+      LOG.info(progress.completeMessage());
+      LOG.debug("Searched again for {} stops near split edges", batch.searchedAgain());
     }
-    LOG.info(progress.completeMessage());
   }
 
   /**
@@ -158,10 +167,13 @@ public class StreetLinkerModule implements GraphBuilderModule {
    * car-accessible. Therefore, flex stops are ensured to be connected to the car-accessible
    * edge. This may lead to several links being created.
    */
-  private void linkStopToStreetNetwork(TransitStopVertex tStop, StopLinkType linkType) {
-    vertexLinker.linkVertexPermanently(
+  private void linkStopToStreetNetwork(
+    LinkingBatch batch,
+    TransitStopVertex tStop,
+    StopLinkType linkType
+  ) {
+    batch.linkVertexPermanently(
       tStop,
-      WALK_ONLY,
       LinkingDirection.BIDIRECTIONAL,
       (transitVertex, streetVertex) -> {
         var linkEdges = createStopLinkEdges((TransitStopVertex) transitVertex, streetVertex);
@@ -245,23 +257,25 @@ public class StreetLinkerModule implements GraphBuilderModule {
 
   private void linkTransitEntrances(Graph graph) {
     LOG.info("Linking transit entrances to graph...");
-    for (TransitEntranceVertex tEntrance : graph.getVerticesOfType(TransitEntranceVertex.class)) {
-      vertexLinker.linkVertexPermanently(
-        tEntrance,
-        new TraverseModeSet(TraverseMode.WALK),
-        LinkingDirection.BIDIRECTIONAL,
-        (vertex, streetVertex) ->
-          List.of(
-            StreetTransitEntranceLink.createStreetTransitEntranceLink(
-              (TransitEntranceVertex) vertex,
-              streetVertex
-            ),
-            StreetTransitEntranceLink.createStreetTransitEntranceLink(
-              streetVertex,
-              (TransitEntranceVertex) vertex
+    var entrances = graph.getVerticesOfType(TransitEntranceVertex.class);
+    try (var batch = vertexLinker.prepareLinkingPermanently(entrances, WALK_ONLY)) {
+      for (TransitEntranceVertex tEntrance : entrances) {
+        batch.linkVertexPermanently(
+          tEntrance,
+          LinkingDirection.BIDIRECTIONAL,
+          (vertex, streetVertex) ->
+            List.of(
+              StreetTransitEntranceLink.createStreetTransitEntranceLink(
+                (TransitEntranceVertex) vertex,
+                streetVertex
+              ),
+              StreetTransitEntranceLink.createStreetTransitEntranceLink(
+                streetVertex,
+                (TransitEntranceVertex) vertex
+              )
             )
-          )
-      );
+        );
+      }
     }
   }
 
@@ -281,13 +295,15 @@ public class StreetLinkerModule implements GraphBuilderModule {
         )
       );
 
-    for (StationCentroidVertex station : graph.getVerticesOfType(StationCentroidVertex.class)) {
-      vertexLinker.linkVertexPermanently(
-        station,
-        new TraverseModeSet(TraverseMode.WALK),
-        LinkingDirection.BIDIRECTIONAL,
-        stationAndStreetVertexLinker
-      );
+    var stations = graph.getVerticesOfType(StationCentroidVertex.class);
+    try (var batch = vertexLinker.prepareLinkingPermanently(stations, WALK_ONLY)) {
+      for (StationCentroidVertex station : stations) {
+        batch.linkVertexPermanently(
+          station,
+          LinkingDirection.BIDIRECTIONAL,
+          stationAndStreetVertexLinker
+        );
+      }
     }
   }
 
@@ -388,6 +404,8 @@ public class StreetLinkerModule implements GraphBuilderModule {
     return stopLocations;
   }
 
+  private record StopToLink(TransitStopVertex vertex, StopLinkType linkType) {}
+
   private enum StopLinkType {
     /**
      * Only ensure that the link leads to a walkable edge.
@@ -23,9 +23,11 @@ import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.graph_builder.GraphBuilderDataSources;
 import org.opentripplanner.graph_builder.configure.GraphBuilderModule;
 import org.opentripplanner.graph_builder.issue.report.DataImportIssueReporter;
+import org.opentripplanner.graph_builder.module.CarContractionHierarchyModule;
 import org.opentripplanner.graph_builder.module.GraphCoherencyCheckerModule;
 import org.opentripplanner.graph_builder.module.OsmBoardingLocationsModule;
 import org.opentripplanner.graph_builder.module.RouteToCentroidStationIdsValidator;
+import org.opentripplanner.graph_builder.module.StreetLandmarkModule;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.graph_builder.module.TimeZoneAdjusterModule;
 import org.opentripplanner.graph_builder.module.TripPatternNamer;
@@ -68,6 +70,7 @@ import org.opentripplanner.transit.service.TimetableRepository;
 public interface GraphBuilderFactory {
   AreaStopsToVerticesMapper areaStopsToVerticesMapper();
   CalculateWorldEnvelopeModule calculateWorldEnvelopeModule();
+  CarContractionHierarchyModule carContractionHierarchyModule();
   DataImportIssueReporter dataImportIssueReporter();
   DirectTransferGenerator directTransferGenerator();
   DirectTransferAnalyzer directTransferAnalyzer();
@@ -80,6 +83,7 @@ public interface GraphBuilderFactory {
   OsmModule osmModule();
   PruneIslands pruneIslands();
   StopConnectivityModule stopConnectivityModule();
+  StreetLandmarkModule streetLandmarkModule();
   StreetLinkerModule streetLinkerModule();
   TimeZoneAdjusterModule timeZoneAdjusterModule();
   TripPatternNamer tripPatternNamer();
@@ -21,6 +21,7 @@ import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.graph_builder.issue.report.DataImportIssueReporter;
 import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueStore;
+import org.opentripplanner.graph_builder.issue.service.StreamingDataImportIssueStore;
 import org.opentripplanner.graph_builder.model.ConfiguredDataSource;
 import org.opentripplanner.graph_builder.module.RouteToCentroidStationIdsValidator;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
@@ -107,6 +108,7 @@ public class GraphBuilderModules {
       .withMaxAreaNodes(config.maxAreaNodes)
       .withBoardingAreaRefTags(config.boardingLocationTags)
       .withIncludeOsmSubwayEntrances(config.osmDefaults.includeOsmSubwayEntrances())
+      .withNodesOffHeap(config.osmNodesOffHeap)
       .withIssueStore(issueStore)
       .build();
   }
@@ -301,8 +303,11 @@ public class GraphBuilderModules {
 
   @Provides
   @Singleton
-  static DataImportIssueStore provideDataImportIssuesStore() {
-    return new DefaultDataImportIssueStore();
+  static DataImportIssueStore provideDataImportIssuesStore(BuildConfig config) {
+    // The issues are only needed for the report, so there is no need to keep them in memory
+    return config.dataImportReport
+      ? StreamingDataImportIssueStore.createInTempDirectory()
+      : new DefaultDataImportIssueStore();
   }
 
   @Provides
@@ -322,7 +327,7 @@ public class GraphBuilderModules {
   @Provides
   @Singleton
   static DataImportIssueSummary providesDataImportIssueSummary(DataImportIssueStore issueStore) {
-    return new DataImportIssueSummary(issueStore.listIssues());
+    return issueStore.summary();
   }
 
   @Provides
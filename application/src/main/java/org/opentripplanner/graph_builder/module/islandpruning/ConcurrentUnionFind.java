@@ -0,0 +1,57 @@
+package org.opentripplanner.graph_builder.module.islandpruning;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A union-find (disjoint-set) structure over the elements {@code 0} to {@code size - 1}, which can
+ * be updated from many threads at once without locking.
+ * <p>
+ * A root is always linked below the smaller of the two roots, so the root of a set is its smallest
+ * element. The sets and their roots are therefore the same whatever the order of the unions is.
+ */
+class ConcurrentUnionFind {
+
+  private final AtomicIntegerArray parent;
+
+  ConcurrentUnionFind(int size) {
+    this.parent = new AtomicIntegerArray(size);
+    for (int i = 0; i < size; i++) {
+      parent.set(i, i);
+    }
+  }
+
+  /** Return the root of the set of the element, which is the smallest element in the set. */
+  int find(int element) {
+    int i = element;
+    while (true) {
+      int p = parent.get(i);
+      if (p == i) {
+        return i;
+      }
+      int grandParent = parent.get(p);
+      if (grandParent != p) {
+        // Path halving, it does not matter if another thread got here first
+        parent.compareAndSet(i, p, grandParent);
+      }
+      i = grandParent;
+    }
+  }
+
+  void union(int a, int b) {
+    while (true) {
+      int rootA = find(a);
+      int rootB = find(b);
+      if (rootA == rootB) {
+        return;
+      }
+      int larger = Math.max(rootA, rootB);
+      int smaller = Math.min(rootA, rootB);
+      if (parent.compareAndSet(larger, larger, smaller)) {
+        return;
+      }
+      // The larger root was linked by another thread, try again from the new roots
+      a = larger;
+      b = smaller;
+    }
+  }
+}
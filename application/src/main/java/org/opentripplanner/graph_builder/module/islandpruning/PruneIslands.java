@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.GraphConnectivity;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
@@ -224,6 +225,23 @@ public class PruneIslands implements GraphBuilderModule {
       }
     }
 
+    // The distances to the rest of the graph only depend on the positions of the vertices, which
+    // are not changed by pruning, so they are computed up front in parallel
+    Subgraph largestIsland = largest;
+    Map<Subgraph, Double> sizeCoeffs = adaptivePruningFactor > 1.0
+      ? islands
+        .parallelStream()
+        .filter(island -> island != largestIsland && isPruningCandidate(island))
+        .collect(
+          Collectors.toMap(
+            island -> island,
+            island ->
+              island.distanceFromOtherGraph(graph, adaptivePruningDistance) /
+              adaptivePruningDistance
+          )
+        )
+      : Map.of();
+
     int count = 0;
     int islandsWithStops = 0;
     int islandsWithStopsChanged = 0;
@@ -234,13 +252,9 @@ public class PruneIslands implements GraphBuilderModule {
       if (island.stopSize() > 0) {
         //for islands with stops
         islandsWithStops++;
-        boolean onlyFerry = island.hasOnlyFerryStops();
         // do not remove real islands which have only ferry stops
-        if (!onlyFerry && island.streetSize() < pruningThresholdWithStops * adaptivePruningFactor) {
-          double sizeCoeff = (adaptivePruningFactor > 1.0)
-            ? island.distanceFromOtherGraph(graph, adaptivePruningDistance) /
-              adaptivePruningDistance
-            : 1.0;
+        if (isPruningCandidate(island)) {
+          double sizeCoeff = sizeCoeffs.getOrDefault(island, 1.0);
 
           if (island.streetSize() * sizeCoeff < pruningThresholdWithStops) {
             if (restrictOrRemove(island, isolated, stats, markIsolated, traverseMode)) {
@@ -251,11 +265,8 @@ public class PruneIslands implements GraphBuilderModule {
         }
       } else {
         //for islands without stops
-        if (island.streetSize() < pruningThresholdWithoutStops * adaptivePruningFactor) {
-          double sizeCoeff = (adaptivePruningFactor > 1.0)
-            ? island.distanceFromOtherGraph(graph, adaptivePruningDistance) /
-              adaptivePruningDistance
-            : 1.0;
+        if (isPruningCandidate(island)) {
+          double sizeCoeff = sizeCoeffs.getOrDefault(island, 1.0);
           if (island.streetSize() * sizeCoeff < pruningThresholdWithoutStops) {
             if (restrictOrRemove(island, isolated, stats, markIsolated, traverseMode)) {
               count++;
@@ -287,6 +298,20 @@ public class PruneIslands implements GraphBuilderModule {
     return count;
   }
 
+  /**
+   * An island is a candidate for pruning if it is small enough to be pruned when it is far away
+   * from the rest of the graph. Real islands with only ferry stops are never pruned.
+   */
+  private boolean isPruningCandidate(Subgraph island) {
+    if (island.stopSize() > 0) {
+      return (
+        !island.hasOnlyFerryStops() &&
+        island.streetSize() < pruningThresholdWithStops * adaptivePruningFactor
+      );
+    }
+    return island.streetSize() < pruningThresholdWithoutStops * adaptivePruningFactor;
+  }
+
   private void collectNeighbourVertices(
     Map<Vertex, ArrayList<Vertex>> neighborsForVertex,
     TraverseMode traverseMode,
@@ -301,34 +326,54 @@ public class PruneIslands implements GraphBuilderModule {
 
     StreetSearchRequest request = StreetSearchRequest.of().withMode(streetMode).build();
 
-    for (Vertex gv : graph.getVertices()) {
-      if (!(gv instanceof StreetVertex)) {
+    List<Vertex> streetVertices = graph
+      .getVertices()
+      .stream()
+      .filter(StreetVertex.class::isInstance)
+      .toList();
+
+    // Traversing the edges is the expensive part and is done in parallel, the neighbours are then
+    // added in the order of the vertices to keep the result the same as a sequential run
+    List<List<Vertex>> reachable = streetVertices
+      .parallelStream()
+      .map(gv -> reachableVertices(gv, request, traverseMode, shouldMatchNoThruType))
+      .toList();
+
+    for (int i = 0; i < streetVertices.size(); i++) {
+      Vertex gv = streetVertices.get(i);
+      for (Vertex out : reachable.get(i)) {
+        var vertexList = neighborsForVertex.computeIfAbsent(gv, k -> new ArrayList<>());
+        vertexList.add(out);
+
+        // note: this assumes that edges are bi-directional. Maybe explicit state traversal is needed for CAR mode.
+        vertexList = neighborsForVertex.computeIfAbsent(out, k -> new ArrayList<>());
+        vertexList.add(gv);
+      }
+    }
+  }
+
+  private static List<Vertex> reachableVertices(
+    Vertex gv,
+    StreetSearchRequest request,
+    TraverseMode traverseMode,
+    boolean shouldMatchNoThruType
+  ) {
+    List<Vertex> reachable = new ArrayList<>();
+    State s0 = new State(gv, request);
+    for (Edge e : gv.getOutgoing()) {
+      if (
+        e instanceof StreetEdge &&
+        shouldMatchNoThruType != ((StreetEdge) e).isNoThruTraffic(traverseMode)
+      ) {
         continue;
       }
-      State s0 = new State(gv, request);
-      for (Edge e : gv.getOutgoing()) {
-        if (
-          e instanceof StreetEdge &&
-          shouldMatchNoThruType != ((StreetEdge) e).isNoThruTraffic(traverseMode)
-        ) {
-          continue;
-        }
-        State[] states = e.traverse(s0);
-        if (State.isEmpty(states)) {
-          continue;
-        }
-        Arrays.stream(states)
-          .map(State::getVertex)
-          .forEach(out -> {
-            var vertexList = neighborsForVertex.computeIfAbsent(gv, k -> new ArrayList<>());
-            vertexList.add(out);
-
-            // note: this assumes that edges are bi-directional. Maybe explicit state traversal is needed for CAR mode.
-            vertexList = neighborsForVertex.computeIfAbsent(out, k -> new ArrayList<>());
-            vertexList.add(gv);
-          });
+      State[] states = e.traverse(s0);
+      if (State.isEmpty(states)) {
+        continue;
       }
+      Arrays.stream(states).map(State::getVertex).forEach(reachable::add);
     }
+    return reachable;
   }
 
   private int collectSubGraphs(
@@ -340,6 +385,9 @@ public class PruneIslands implements GraphBuilderModule {
     // final list of islands or null
     ArrayList<Subgraph> islands
   ) {
+    if (subgraphs == null && newgraphs.isEmpty()) {
+      return collectConnectedSubGraphs(neighborsForVertex, newgraphs, islands);
+    }
     int count = 0;
     for (Vertex gv : graph.getVertices()) {
       if (!(gv instanceof StreetVertex)) {
@@ -370,6 +418,63 @@ public class PruneIslands implements GraphBuilderModule {
     return count;
   }
 
+  /**
+   * Find the connected subgraphs when the expansion is not restricted by earlier subgraphs. Then
+   * the subgraphs are the connected components of the neighbourhood, which are found with a
+   * union-find over the neighbour lists in parallel. The subgraphs and their order are the same as
+   * when expanding them one by one from the vertices of the graph.
+   */
+  private int collectConnectedSubGraphs(
+    Map<Vertex, ArrayList<Vertex>> neighborsForVertex,
+    Map<Vertex, Subgraph> newgraphs,
+    ArrayList<Subgraph> islands
+  ) {
+    List<Vertex> vertices = new ArrayList<>(neighborsForVertex.keySet());
+    Map<Vertex, Integer> indexOf = new HashMap<>(2 * vertices.size());
+    for (int i = 0; i < vertices.size(); i++) {
+      indexOf.put(vertices.get(i), i);
+    }
+
+    var unionFind = new ConcurrentUnionFind(vertices.size());
+    IntStream.range(0, vertices.size())
+      .parallel()
+      .forEach(i -> {
+        for (Vertex neighbor : neighborsForVertex.get(vertices.get(i))) {
+          unionFind.union(i, indexOf.get(neighbor));
+        }
+      });
+    int[] roots = IntStream.range(0, vertices.size()).parallel().map(unionFind::find).toArray();
+
+    // Number the subgraphs in the order of their first street vertex in the graph
+    Map<Integer, Subgraph> subgraphForRoot = new HashMap<>();
+    List<Subgraph> subgraphs = new ArrayList<>();
+    for (Vertex gv : graph.getVertices()) {
+      Integer index = indexOf.get(gv);
+      if (gv instanceof StreetVertex && index != null) {
+        subgraphForRoot.computeIfAbsent(roots[index], root -> {
+          var subgraph = new Subgraph();
+          subgraphs.add(subgraph);
+          return subgraph;
+        });
+      }
+    }
+    for (int i = 0; i < vertices.size(); i++) {
+      Subgraph subgraph = subgraphForRoot.get(roots[i]);
+      if (subgraph != null) {
+        subgraph.addVertex(vertices.get(i));
+      }
+    }
+    for (Subgraph subgraph : subgraphs) {
+      for (Iterator<Vertex> vIter = subgraph.streetIterator(); vIter.hasNext(); ) {
+        newgraphs.put(vIter.next(), subgraph);
+      }
+    }
+    if (islands != null) {
+      islands.addAll(subgraphs);
+    }
+    return subgraphs.size();
+  }
+
   private boolean restrictOrRemove(
     Subgraph island,
     Map<Edge, Boolean> isolated,
@@ -1,9 +1,11 @@
 package org.opentripplanner.graph_builder.module.nearbystops;
 
 import java.util.Collection;
+import java.util.List;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 
 /**
@@ -20,4 +22,16 @@ public interface NearbyStopFinder {
     StreetMode streetMode,
     boolean reverseDirection
   );
+
+  /**
+   * Search from all the given stops at once, before {@link #findNearbyStops} is called for each of
+   * them with the same request and mode. A finder which can share work between the searches keeps
+   * the result until the next call for the same request and mode. This must not be called while
+   * other threads are finding nearby stops. The default implementation does nothing.
+   */
+  default void prepare(
+    RouteRequest routingRequest,
+    StreetMode streetMode,
+    List<TransitStopVertex> stopVertices
+  ) {}
 }
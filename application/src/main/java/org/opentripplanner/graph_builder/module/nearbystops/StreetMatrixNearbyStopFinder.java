@@ -0,0 +1,133 @@
+package org.opentripplanner.graph_builder.module.nearbystops;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.graphfinder.NearbyStop;
+import org.opentripplanner.routing.graphfinder.NearbyStopFactory;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.matrix.StreetMatrix;
+import org.opentripplanner.street.search.matrix.StreetMatrixSearch;
+import org.opentripplanner.streetadapter.StreetSearchRequestMapper;
+
+/**
+ * Find the stops near other stops with one {@link StreetMatrixSearch} for many stops, instead of
+ * one street search per stop. This is used to generate transfers, where the stops near every stop
+ * are found with the same requests.
+ * <p>
+ * The stops are searched from in {@link #prepare}, and the paths to the stops they reach are kept
+ * until the next call for the same request and mode. Only the stops given to {@link #prepare} are
+ * answered from the matrix. Other stops, and searches in the reverse direction, are delegated to
+ * a {@link StreetNearbyStopFinder}. The result of each search is the same as the one of the
+ * {@link StreetNearbyStopFinder}, except that only the path with the lowest weight to each stop is
+ * returned. Area stops are not found, so this finder is not used when flex routing is on.
+ */
+public class StreetMatrixNearbyStopFinder implements NearbyStopFinder {
+
+  private final StopResolver stopResolver;
+  private final Duration durationLimit;
+  private final List<TransitStopVertex> targets;
+  private final NearbyStopFactory nearbyStopFactory;
+  private final StreetNearbyStopFinder delegate;
+
+  /** The searches of each request and mode, reused for all stops prepared for them. */
+  private final Map<SearchKey, StreetMatrixSearch> searches = new HashMap<>();
+
+  /** The matrices of the last stops prepared for each request and mode. */
+  private final Map<SearchKey, PreparedStops> preparedStops = new ConcurrentHashMap<>();
+
+  /**
+   * @param targets the stop vertices which can be found, all of them must be indexed by the graph
+   */
+  public StreetMatrixNearbyStopFinder(
+    StopResolver stopResolver,
+    Duration durationLimit,
+    Collection<TransitStopVertex> targets
+  ) {
+    this.stopResolver = requireNonNull(stopResolver);
+    this.durationLimit = requireNonNull(durationLimit);
+    this.targets = List.copyOf(targets);
+    this.nearbyStopFactory = new NearbyStopFactory(stopResolver::getRegularStop);
+    this.delegate = StreetNearbyStopFinder.of(stopResolver, durationLimit, 0).build();
+  }
+
+  @Override
+  public void prepare(
+    RouteRequest routingRequest,
+    StreetMode streetMode,
+    List<TransitStopVertex> stopVertices
+  ) {
+    var key = new SearchKey(routingRequest, streetMode);
+    preparedStops.remove(key);
+    if (streetMode == StreetMode.NOT_SET || stopVertices.isEmpty()) {
+      return;
+    }
+    var search = searches.computeIfAbsent(key, k ->
+      StreetMatrixSearch.of(
+        StreetSearchRequestMapper.map(routingRequest)
+          .withMode(streetMode)
+          .withArriveBy(false)
+          .build(),
+        durationLimit
+      )
+        .withTargets(targets)
+        .withStates(true)
+        .build()
+    );
+    var sourceByVertex = new HashMap<Vertex, Integer>();
+    for (int i = 0; i < stopVertices.size(); i++) {
+      sourceByVertex.put(stopVertices.get(i), i);
+    }
+    preparedStops.put(key, new PreparedStops(sourceByVertex, search.search(stopVertices)));
+  }
+
+  @Override
+  public Collection<NearbyStop> findNearbyStops(
+    Vertex vertex,
+    RouteRequest routingRequest,
+    StreetMode streetMode,
+    boolean reverseDirection
+  ) {
+    var prepared = reverseDirection
+      ? null
+      : preparedStops.get(new SearchKey(routingRequest, streetMode));
+    Integer source = prepared == null ? null : prepared.sourceByVertex().get(vertex);
+    if (source == null) {
+      return delegate.findNearbyStops(vertex, routingRequest, streetMode, reverseDirection);
+    }
+
+    // The origin stop is included, as in the street search
+    List<NearbyStop> stopsFound = new ArrayList<>(
+      nearbyStopFactory.nearbyStopsForTransitStopVerticesFiltered(
+        Set.of(vertex),
+        false,
+        routingRequest,
+        streetMode
+      )
+    );
+    StreetMatrix matrix = prepared.matrix();
+    for (int entry = matrix.start(source); entry < matrix.end(source); entry++) {
+      TransitStopVertex target = targets.get(matrix.target(entry));
+      if (target == vertex) {
+        continue;
+      }
+      var stop = requireNonNull(stopResolver.getRegularStop(target.getId()));
+      stopsFound.add(NearbyStop.nearbyStopForState(matrix.state(entry), stop));
+    }
+    return stopsFound;
+  }
+
+  private record SearchKey(RouteRequest request, StreetMode mode) {}
+
+  private record PreparedStops(Map<Vertex, Integer> sourceByVertex, StreetMatrix matrix) {}
+}
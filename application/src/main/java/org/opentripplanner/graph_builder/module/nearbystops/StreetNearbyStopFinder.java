@@ -13,6 +13,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.model.HeapType;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
 import org.opentripplanner.astar.strategy.MaxCountTerminationStrategy;
@@ -26,6 +28,7 @@ import org.opentripplanner.street.model.StreetMode;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.ExtensionRequestContext;
 import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
 import org.opentripplanner.street.model.vertex.StreetVertex;
 import org.opentripplanner.street.model.vertex.TemporaryStreetLocation;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
@@ -46,19 +49,25 @@ public class StreetNearbyStopFinder implements NearbyStopFinder {
   private final Set<Vertex> ignoreVertices;
   private final NearbyStopFactory nearbyStopFactory;
 
+  @Nullable
+  private final StreetEdgeCostCache edgeCostCache;
+
   /**
    * Construct a NearbyStopFinder for the given graph and search radius.
    *
    * @param maxStopCount The maximum stops to return. 0 means no limit. Regardless of the maxStopCount
    *                     we will always return all the directly connected stops.
    * @param ignoreVertices   A set of stop vertices to ignore and not return NearbyStops for.
+   * @param edgeCostCache    If set, the searches use the precomputed edge costs of their street
+   *                         profile, if they exist.
    */
   private StreetNearbyStopFinder(
     StopResolver stopResolver,
     Duration durationLimit,
     int maxStopCount,
     Collection<ExtensionRequestContext> extensionRequestContexts,
-    Set<Vertex> ignoreVertices
+    Set<Vertex> ignoreVertices,
+    @Nullable StreetEdgeCostCache edgeCostCache
   ) {
     this.stopResolver = requireNonNull(stopResolver);
     this.durationLimit = requireNonNull(durationLimit);
@@ -66,6 +75,7 @@ public class StreetNearbyStopFinder implements NearbyStopFinder {
     this.extensionRequestContexts = requireNonNull(extensionRequestContexts);
     this.ignoreVertices = requireNonNull(ignoreVertices);
     this.nearbyStopFactory = new NearbyStopFactory(stopResolver::getRegularStop);
+    this.edgeCostCache = edgeCostCache;
   }
 
   /**
@@ -124,10 +134,13 @@ public class StreetNearbyStopFinder implements NearbyStopFinder {
     }
     stopsFound = new ArrayList<>(stopsFound);
 
+    // There is no heuristic, so the keys of the queue are monotone and the radix heap can be used
     var streetSearch = StreetSearchBuilder.of()
       .withPreStartHook(OTPRequestTimeoutException::checkForTimeout)
       .withSkipEdgeStrategy(new DurationSkipEdgeStrategy<>(durationLimit))
       .withDominanceFunction(new DominanceFunctions.MinimumWeight())
+      .withHeapType(HeapType.RADIX)
+      .withEdgeCostCache(edgeCostCache)
       .withRequest(
         StreetSearchRequestMapper.map(request)
           .withMode(streetMode)
@@ -235,6 +248,7 @@ public class StreetNearbyStopFinder implements NearbyStopFinder {
     private final int maxStopCount;
     private Collection<ExtensionRequestContext> extensionRequestContexts = List.of();
     private Set<Vertex> ignoreVertices = Set.of();
+    private StreetEdgeCostCache edgeCostCache;
     private final StopResolver stopResolver;
 
     public Builder(StopResolver stopResolver, Duration durationLimit, int maxStopCount) {
@@ -264,13 +278,23 @@ public class StreetNearbyStopFinder implements NearbyStopFinder {
       return this;
     }
 
+    /**
+     * Use the precomputed edge costs of the cache, if the cache has a table for the street profile
+     * of a search.
+     */
+    public Builder withEdgeCostCache(@Nullable StreetEdgeCostCache edgeCostCache) {
+      this.edgeCostCache = edgeCostCache;
+      return this;
+    }
+
     public StreetNearbyStopFinder build() {
       return new StreetNearbyStopFinder(
         stopResolver,
         durationLimit,
         maxStopCount,
         extensionRequestContexts,
-        ignoreVertices
+        ignoreVertices,
+        edgeCostCache
       );
     }
   }
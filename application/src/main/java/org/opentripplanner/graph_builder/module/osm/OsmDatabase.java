@@ -16,6 +16,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -46,7 +47,7 @@ import org.opentripplanner.street.search.TraverseModeSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class OsmDatabase {
+public class OsmDatabase implements AutoCloseable {
 
   private static final Logger LOG = LoggerFactory.getLogger(OsmDatabase.class);
 
@@ -56,6 +57,10 @@ public class OsmDatabase {
   /* Map of all nodes used in ways/areas keyed by their OSM ID */
   private final TLongObjectMap<OsmNode> nodesById = new TLongObjectHashMap<>();
 
+  /* Untagged nodes used in ways/areas, kept off-heap instead of in nodesById if enabled */
+  @Nullable
+  private final OsmNodeStore nodeStore;
+
   /* Map of all bike parking nodes, keyed by their OSM ID */
   private final TLongObjectMap<OsmNode> bikeParkingNodes = new TLongObjectHashMap<>();
 
@@ -126,12 +131,27 @@ public class OsmDatabase {
   private long virtualNodeId = -100000;
 
   public OsmDatabase(DataImportIssueStore issueStore) {
+    this(issueStore, false);
+  }
+
+  /**
+   * @param nodesOffHeap keep the coordinates of untagged nodes in a memory-mapped file instead of
+   *                     on the heap, see {@link OsmNodeStore}. The database must then be closed
+   *                     after use.
+   */
+  public OsmDatabase(DataImportIssueStore issueStore, boolean nodesOffHeap) {
     this.issueStore = issueStore;
     this.osmLevelFactory = new OsmLevelFactory(issueStore);
+    this.nodeStore = nodesOffHeap ? new OsmNodeStore() : null;
   }
 
+  @Nullable
   public OsmNode getNode(Long nodeId) {
-    return nodesById.get(nodeId);
+    OsmNode node = nodesById.get(nodeId);
+    if (node == null && nodeStore != null) {
+      return nodeStore.get(nodeId);
+    }
+    return node;
   }
 
   public OsmWay getWay(Long wayId) {
@@ -147,7 +167,7 @@ public class OsmDatabase {
   }
 
   public int nodeCount() {
-    return nodesById.size();
+    return nodesById.size() + (nodeStore == null ? 0 : (int) nodeStore.size());
   }
 
   public int wayCount() {
@@ -239,6 +259,14 @@ public class OsmDatabase {
     return waysNodeIds.contains(nodeId);
   }
 
+  /**
+   * Return true if the node is used by a kept way or area. Only valid after the way phase, and
+   * safe to call from many threads during the node phase since the sets are not modified then.
+   */
+  public boolean isNodeReferenced(long nodeId) {
+    return waysNodeIds.contains(nodeId) || areaNodeIds.contains(nodeId);
+  }
+
   public void addNode(OsmNode node) {
     createLevelsForEntity(node);
     if (node.isBikeParking()) {
@@ -255,9 +283,17 @@ public class OsmDatabase {
       return;
     }
 
-    if (nodesById.containsKey(node.getId())) {
+    if (containsNode(node.getId())) {
       return;
     }
+    if (nodeStore != null) {
+      if (nodeStore.size() == 0) {
+        nodeStore.reserve(waysNodeIds.size() + areaNodeIds.size());
+      }
+      if (nodeStore.add(node)) {
+        return;
+      }
+    }
     nodesById.put(node.getId(), node);
   }
 
@@ -370,6 +406,14 @@ public class OsmDatabase {
     processUnconnectedAreas();
   }
 
+  /** Release the off-heap node store, if used. */
+  @Override
+  public void close() {
+    if (nodeStore != null) {
+      nodeStore.close();
+    }
+  }
+
   /**
    * Check if a point is within an epsilon of a node.
    */
@@ -413,8 +457,8 @@ public class OsmDatabase {
 
       // For each segment of the way
       for (int i = 0; i < way.getNodeRefs().size() - 1; i++) {
-        OsmNode nA = nodesById.get(way.getNodeRefs().get(i));
-        OsmNode nB = nodesById.get(way.getNodeRefs().get(i + 1));
+        OsmNode nA = getNode(way.getNodeRefs().get(i));
+        OsmNode nB = getNode(way.getNodeRefs().get(i + 1));
         if (nA == null || nB == null) {
           continue;
         }
@@ -671,6 +715,10 @@ public class OsmDatabase {
     return node;
   }
 
+  private boolean containsNode(long nodeId) {
+    return nodesById.containsKey(nodeId) || (nodeStore != null && nodeStore.contains(nodeId));
+  }
+
   private void createLevelsForEntity(OsmEntity entity) {
     entityLevels.putAll(entity, osmLevelFactory.createOsmLevelsForEntity(entity));
   }
@@ -696,12 +744,12 @@ public class OsmDatabase {
       TLongIterator longIterator = way.getNodeRefs().iterator();
       while (longIterator.hasNext()) {
         long nodeRef = longIterator.next();
-        if (!nodesById.containsKey(nodeRef)) {
+        if (!containsNode(nodeRef)) {
           continue AREA;
         }
       }
       try {
-        addArea(new OsmArea(way, List.of(way), Collections.emptyList(), nodesById));
+        addArea(new OsmArea(way, List.of(way), Collections.emptyList(), this::getNode));
         // do not keep the way used in an area, it creates duplicated edges from the basic
         // street graph and from the area processing
         waysById.remove(way.getId());
@@ -747,7 +795,7 @@ public class OsmDatabase {
         TLongIterator wayNodeIterator = way.getNodeRefs().iterator();
         while (wayNodeIterator.hasNext()) {
           long nodeId = wayNodeIterator.next();
-          if (nodesById.containsKey(nodeId)) {
+          if (containsNode(nodeId)) {
             TroveUtils.addToMapSet(areasForNode, nodeId, way);
           } else {
             // this area is missing some nodes, perhaps because it is on
@@ -765,7 +813,7 @@ public class OsmDatabase {
       }
       processedAreas.add(relation);
       try {
-        addArea(new OsmArea(relation, outerWays, innerWays, nodesById));
+        addArea(new OsmArea(relation, outerWays, innerWays, this::getNode));
       } catch (OsmArea.AreaConstructionException | Ring.RingConstructionException e) {
         issueStore.add(new InvalidOsmGeometry(relation));
       }
@@ -987,7 +1035,7 @@ public class OsmDatabase {
     for (OsmRelationMember member : relation.getMembers()) {
       switch (member.getType()) {
         case NODE -> {
-          var node = nodesById.get(member.getRef());
+          var node = getNode(member.getRef());
           if (node != null && (node.isEntrance() || node.isBoardingLocation())) {
             platformNodes.add(node);
           }
@@ -51,6 +51,7 @@ import org.opentripplanner.street.model.vertex.BarrierVertex;
 import org.opentripplanner.street.model.vertex.IntersectionVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.utils.logging.ProgressTracker;
+import org.opentripplanner.utils.time.DurationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +62,9 @@ public class OsmModule implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(OsmModule.class);
 
+  /** Areas taking longer than this to build are logged, to make the pathological ones visible. */
+  private static final long SLOW_AREA_THRESHOLD_MS = 1000;
+
   private final Map<Vertex, Double> elevationData = new HashMap<>();
 
   /**
@@ -121,7 +125,12 @@ public class OsmModule implements GraphBuilderModule {
     // the OsmDatabase contains very large collections and should _not_ be stored as an instance
     // variable of this class, because this prevents it from being garbage collected at the end of
     // this method.
-    var osmdb = new OsmDatabase(issueStore);
+    try (var osmdb = new OsmDatabase(issueStore, params.nodesOffHeap())) {
+      buildGraph(osmdb);
+    }
+  }
+
+  private void buildGraph(OsmDatabase osmdb) {
     var vertexGenerator = new VertexGenerator(
       osmdb,
       graph,
@@ -304,7 +313,17 @@ public class OsmModule implements GraphBuilderModule {
         areaGroups.size()
       );
       for (OsmAreaGroup group : areaGroups) {
+        long startTime = System.currentTimeMillis();
         walkableAreaBuilder.buildWithVisibility(group);
+        long time = System.currentTimeMillis() - startTime;
+        if (time >= SLOW_AREA_THRESHOLD_MS) {
+          LOG.info(
+            "Built visibility graph for area {} with {} sub-areas in {}",
+            group.getSomeOsmObject().url(),
+            group.areas.size(),
+            DurationUtils.msToSecondsStr(time)
+          );
+        }
         //Keep lambda! A method-ref would log incorrect class and line number
         //noinspection Convert2MethodRef
         progress.step(m -> LOG.info(m));
@@ -35,6 +35,7 @@ public class OsmModuleBuilder {
   private boolean staticBikeParkAndRide = false;
   private boolean includeInclinedEdgeLevelInfo = false;
   private boolean includeOsmSubwayEntrances = false;
+  private boolean nodesOffHeap = false;
   private int maxAreaNodes = StreetConstants.DEFAULT_MAX_AREA_NODES;
 
   public OsmModuleBuilder(
@@ -103,6 +104,11 @@ public class OsmModuleBuilder {
     return this;
   }
 
+  public OsmModuleBuilder withNodesOffHeap(boolean nodesOffHeap) {
+    this.nodesOffHeap = nodesOffHeap;
+    return this;
+  }
+
   public OsmModule build() {
     return new OsmModule(
       providers,
@@ -121,7 +127,8 @@ public class OsmModuleBuilder {
         staticParkAndRide,
         staticBikeParkAndRide,
         includeInclinedEdgeLevelInfo,
-        includeOsmSubwayEntrances
+        includeOsmSubwayEntrances,
+        nodesOffHeap
       )
     );
   }
@@ -0,0 +1,234 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
+import org.opentripplanner.osm.OsmProvider;
+import org.opentripplanner.osm.model.OsmNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An off-heap store for the untagged OSM nodes referenced by ways and areas. These are the bulk of
+ * the nodes of an extract, and keeping an {@link OsmNode} object for each of them takes a large
+ * share of the heap during the graph build.
+ * <p>
+ * The nodes are kept in an open addressing hash table in a memory-mapped temporary file, so the
+ * operating system pages them in and out as needed. Each slot holds the id, with the index of the
+ * provider in the top byte, and the exact latitude and longitude. A node is materialized as an
+ * {@link OsmNode} when it is looked up. The materialized nodes are kept for as long as they are
+ * referenced elsewhere, so looking up the same node twice returns the same object. The graph build
+ * relies on this, since nodes are compared by identity.
+ * <p>
+ * Nodes are added from a single thread, after that they can be looked up from many threads.
+ */
+class OsmNodeStore implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OsmNodeStore.class);
+
+  private static final long SLOT_SIZE = 3 * Long.BYTES;
+  private static final int PROVIDER_SHIFT = 56;
+  private static final long ID_MASK = (1L << PROVIDER_SHIFT) - 1;
+  private static final int MAX_PROVIDERS = 128;
+  private static final long MIN_CAPACITY = 1024;
+
+  private final List<OsmProvider> providers = new ArrayList<>();
+  private final Cache<Long, OsmNode> materialized = CacheBuilder.newBuilder().weakValues().build();
+
+  private Table table;
+  private long size = 0;
+
+  OsmNodeStore() {
+    this.table = new Table(MIN_CAPACITY);
+  }
+
+  /**
+   * Add an untagged node, unless a node with the same id is already stored. Return false if the
+   * node can not be stored, it should then be kept on the heap.
+   */
+  boolean add(OsmNode node) {
+    long id = node.getId();
+    if (!node.getTags().isEmpty() || id < 0 || id >= ID_MASK) {
+      return false;
+    }
+    int provider = providerIndex(node.getOsmProvider());
+    if (provider < 0) {
+      return false;
+    }
+    if (2 * (size + 1) > table.capacity) {
+      resize(2 * table.capacity);
+    }
+    if (table.insert(((long) provider << PROVIDER_SHIFT) | (id + 1), node.lat, node.lon)) {
+      size++;
+    }
+    return true;
+  }
+
+  /** Make room for the given number of nodes in total, to avoid resizing the table repeatedly. */
+  void reserve(long expectedSize) {
+    long capacity = table.capacity;
+    while (capacity < 2 * expectedSize) {
+      capacity *= 2;
+    }
+    if (capacity > table.capacity) {
+      resize(capacity);
+    }
+  }
+
+  @Nullable
+  OsmNode get(long id) {
+    if (id < 0 || id >= ID_MASK || table.find(id + 1) < 0) {
+      return null;
+    }
+    try {
+      return materialized.get(id, () -> materialize(id));
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  boolean contains(long id) {
+    return id >= 0 && id < ID_MASK && table.find(id + 1) >= 0;
+  }
+
+  long size() {
+    return size;
+  }
+
+  @Override
+  public void close() {
+    materialized.invalidateAll();
+    table.close();
+  }
+
+  private OsmNode materialize(long id) {
+    long offset = table.find(id + 1);
+    var node = new OsmNode(table.lat(offset), table.lon(offset));
+    node.setId(id);
+    node.setOsmProvider(providers.get((int) (table.key(offset) >>> PROVIDER_SHIFT)));
+    return node;
+  }
+
+  private int providerIndex(OsmProvider provider) {
+    int index = providers.indexOf(provider);
+    if (index < 0 && providers.size() < MAX_PROVIDERS) {
+      providers.add(provider);
+      index = providers.size() - 1;
+    }
+    return index;
+  }
+
+  private void resize(long capacity) {
+    var resized = new Table(capacity);
+    for (long offset = 0; offset < table.capacity * SLOT_SIZE; offset += SLOT_SIZE) {
+      long key = table.key(offset);
+      if (key != 0) {
+        resized.insert(key, table.lat(offset), table.lon(offset));
+      }
+    }
+    table.close();
+    table = resized;
+    LOG.debug("Resized OSM node store to {} slots for {} nodes", capacity, size);
+  }
+
+  /**
+   * A hash table with linear probing in a temporary file. The capacity is a power of two. The key
+   * of an empty slot is 0, which is why the ids are stored incremented by one.
+   */
+  private static class Table {
+
+    private final long capacity;
+    private final long mask;
+    private final Path file;
+    private final Arena arena;
+    private final MemorySegment slots;
+
+    private Table(long capacity) {
+      this.capacity = capacity;
+      this.mask = capacity - 1;
+      try {
+        this.file = Files.createTempFile("otp-osm-nodes", ".bin");
+        this.arena = Arena.ofShared();
+        try (var channel = FileChannel.open(file, READ, WRITE)) {
+          // The file is sparse and the mapped slots are zero until written
+          this.slots = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity * SLOT_SIZE, arena);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to create the OSM node store", e);
+      }
+    }
+
+    /** Insert the node, return false if the id is already in the table. */
+    private boolean insert(long key, double lat, double lon) {
+      long id = key & ID_MASK;
+      for (long i = hash(id) & mask; ; i = (i + 1) & mask) {
+        long offset = i * SLOT_SIZE;
+        long existing = key(offset);
+        if (existing == 0) {
+          slots.set(ValueLayout.JAVA_LONG, offset, key);
+          slots.set(ValueLayout.JAVA_DOUBLE, offset + Long.BYTES, lat);
+          slots.set(ValueLayout.JAVA_DOUBLE, offset + 2 * Long.BYTES, lon);
+          return true;
+        }
+        if ((existing & ID_MASK) == id) {
+          return false;
+        }
+      }
+    }
+
+    /** Return the offset of the slot with the (incremented) id, or -1 if not found. */
+    private long find(long id) {
+      for (long i = hash(id) & mask; ; i = (i + 1) & mask) {
+        long offset = i * SLOT_SIZE;
+        long existing = key(offset);
+        if (existing == 0) {
+          return -1;
+        }
+        if ((existing & ID_MASK) == id) {
+          return offset;
+        }
+      }
+    }
+
+    private long key(long offset) {
+      return slots.get(ValueLayout.JAVA_LONG, offset);
+    }
+
+    private double lat(long offset) {
+      return slots.get(ValueLayout.JAVA_DOUBLE, offset + Long.BYTES);
+    }
+
+    private double lon(long offset) {
+      return slots.get(ValueLayout.JAVA_DOUBLE, offset + 2 * Long.BYTES);
+    }
+
+    private void close() {
+      arena.close();
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOG.warn("Unable to delete the OSM node store file {}", file, e);
+      }
+    }
+
+    /** Spread the ids, which are often consecutive, over the table. */
+    private static long hash(long id) {
+      long h = id * 0x9E3779B97F4A7C15L;
+      return h ^ (h >>> 32);
+    }
+  }
+}
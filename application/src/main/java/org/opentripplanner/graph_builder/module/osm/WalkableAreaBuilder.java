@@ -2,6 +2,7 @@ package org.opentripplanner.graph_builder.module.osm;
 
 import static org.opentripplanner.graph_builder.module.osm.LinearBarrierNodeType.SPLIT;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -11,6 +12,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -302,6 +304,7 @@ class WalkableAreaBuilder {
       // so that at least some edges passing through the area are added
       // otherwise routing can use only area boundary edges
       float skip_ratio = (float) maxAreaNodes / (float) visibilityVertices.size();
+      List<NodeEdge> candidates = new ArrayList<>();
       int i = 0;
       float sum_i = 0;
       for (IntersectionVertex vertex1 : visibilityVertices) {
@@ -321,21 +324,36 @@ class WalkableAreaBuilder {
           if (shouldSkipEdge(vertex1, vertex2, alreadyAddedEdges)) {
             continue;
           }
-          Coordinate[] coordinates = new Coordinate[] {
-            vertex1.getCoordinate(),
-            vertex2.getCoordinate(),
-          };
-          LineString line = geometryFactory.createLineString(coordinates);
-          if (polygon.contains(line)) {
-            Set<AreaEdge> segments = createSegments(vertex1, vertex2, group.areas, areaGroup, true);
-            edges.addAll(segments);
-            if (platformLinkingVertices.contains(vertex1)) {
-              ringEdges.addAll(segments);
-            }
-            if (platformLinkingVertices.contains(vertex2)) {
-              ringEdges.addAll(segments);
-            }
-          }
+          candidates.add(new NodeEdge(vertex1, vertex2));
+        }
+      }
+
+      // Testing the candidates against the area geometry is the expensive part, which grows with
+      // the square of the number of visibility vertices. The tests are done in parallel, and the
+      // edges are then created in the order of the candidates.
+      List<List<OsmArea>> crossedAreas = candidates
+        .parallelStream()
+        .map(candidate -> crossedAreas(candidate, polygon, group.areas))
+        .toList();
+      for (int c = 0; c < candidates.size(); c++) {
+        if (crossedAreas.get(c) == null) {
+          continue;
+        }
+        var vertex1 = candidates.get(c).from();
+        var vertex2 = candidates.get(c).to();
+        Set<AreaEdge> segments = createSegments(
+          vertex1,
+          vertex2,
+          crossedAreas.get(c),
+          areaGroup,
+          false
+        );
+        edges.addAll(segments);
+        if (platformLinkingVertices.contains(vertex1)) {
+          ringEdges.addAll(segments);
+        }
+        if (platformLinkingVertices.contains(vertex2)) {
+          ringEdges.addAll(segments);
         }
       }
     }
@@ -381,23 +399,28 @@ class WalkableAreaBuilder {
     }
     // TODO: This is incorrect, the configured defaults are not used.
     var request = StreetSearchRequest.of().withMode(mode).build();
-    Set<Edge> usedEdges = new HashSet<>();
-    for (Vertex vertex : startingVertices) {
-      ShortestPathTree<State, Edge, Vertex> spt = StreetSearchBuilder.of()
-        .withPreStartHook(OTPRequestTimeoutException::checkForTimeout)
-        .withSkipEdgeStrategy(new ListedEdgesOnly(edges))
-        .withDominanceFunction(new DominanceFunctions.EarliestArrival())
-        .withRequest(request)
-        .withFrom(vertex)
-        .getShortestPathTree();
-
-      for (Vertex endVertex : startingVertices) {
-        GraphPath<State, Edge, Vertex> path = spt.getPath(endVertex);
-        if (path != null) {
-          usedEdges.addAll(path.edges);
+    // The searches only read the graph and are done in parallel
+    Set<Edge> usedEdges = startingVertices
+      .parallelStream()
+      .flatMap(vertex -> {
+        ShortestPathTree<State, Edge, Vertex> spt = StreetSearchBuilder.of()
+          .withPreStartHook(OTPRequestTimeoutException::checkForTimeout)
+          .withSkipEdgeStrategy(new ListedEdgesOnly(edges))
+          .withDominanceFunction(new DominanceFunctions.EarliestArrival())
+          .withRequest(request)
+          .withFrom(vertex)
+          .getShortestPathTree();
+
+        List<Edge> used = new ArrayList<>();
+        for (Vertex endVertex : startingVertices) {
+          GraphPath<State, Edge, Vertex> path = spt.getPath(endVertex);
+          if (path != null) {
+            used.addAll(path.edges);
+          }
         }
-      }
-    }
+        return used.stream();
+      })
+      .collect(Collectors.toSet());
     for (Edge edge : edges) {
       if (!usedEdges.contains(edge) && !edgesToKeep.contains(edge)) {
         graph.removeEdge(edge);
@@ -446,6 +469,31 @@ class WalkableAreaBuilder {
     return createSegments(v1, v2, List.of(area), areaGroup, false);
   }
 
+  /**
+   * Return the areas crossed by the edge between the vertices of the candidate, or null if the edge
+   * is not inside the polygon of the area group. This only reads the geometries and can be called
+   * from many threads.
+   */
+  @Nullable
+  private static List<OsmArea> crossedAreas(
+    NodeEdge candidate,
+    Polygon polygon,
+    Collection<OsmArea> areas
+  ) {
+    Coordinate[] coordinates = new Coordinate[] {
+      candidate.from().getCoordinate(),
+      candidate.to().getCoordinate(),
+    };
+    LineString line = GeometryUtils.getGeometryFactory().createLineString(coordinates);
+    if (!polygon.contains(line)) {
+      return null;
+    }
+    return areas
+      .stream()
+      .filter(area -> area.jtsMultiPolygon.intersection(line).getLength() > 0.000001)
+      .toList();
+  }
+
   private Set<AreaEdge> createSegments(
     IntersectionVertex vertex1,
     IntersectionVertex vertex2,
@@ -15,6 +15,7 @@ import org.opentripplanner.graph_builder.services.osm.EdgeNamer;
  * @param staticBikeParkAndRide  Whether we should create bike P+R stations from OSM data.
  * @param includeInclinedEdgeLevelInfo Whether level info for inclined edges should be stored.
  * @param includeOsmSubwayEntrances Whether we should create subway entrances from OSM data.
+ * @param nodesOffHeap           Whether untagged nodes should be kept in a memory-mapped file.
  */
 public record OsmProcessingParameters(
   Set<String> boardingAreaRefTags,
@@ -25,7 +26,8 @@ public record OsmProcessingParameters(
   boolean staticParkAndRide,
   boolean staticBikeParkAndRide,
   boolean includeInclinedEdgeLevelInfo,
-  boolean includeOsmSubwayEntrances
+  boolean includeOsmSubwayEntrances,
+  boolean nodesOffHeap
 ) {
   public OsmProcessingParameters {
     boardingAreaRefTags = Set.copyOf(Objects.requireNonNull(boardingAreaRefTags));
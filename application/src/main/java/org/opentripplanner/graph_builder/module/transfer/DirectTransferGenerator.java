@@ -1,16 +1,17 @@
 package org.opentripplanner.graph_builder.module.transfer;
 
 import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.StopNotLinkedForTransfers;
@@ -19,6 +20,7 @@ import org.opentripplanner.graph_builder.module.nearbystops.NearbyStopFinder;
 import org.opentripplanner.graph_builder.module.nearbystops.SiteRepositoryResolver;
 import org.opentripplanner.graph_builder.module.nearbystops.StopResolver;
 import org.opentripplanner.graph_builder.module.nearbystops.StraightLineNearbyStopFinder;
+import org.opentripplanner.graph_builder.module.nearbystops.StreetMatrixNearbyStopFinder;
 import org.opentripplanner.graph_builder.module.nearbystops.StreetNearbyStopFinder;
 import org.opentripplanner.graph_builder.module.transfer.api.RegularTransferParameters;
 import org.opentripplanner.graph_builder.module.transfer.api.TransferParametersForMode;
@@ -29,6 +31,7 @@ import org.opentripplanner.street.graph.Graph;
 import org.opentripplanner.street.model.StreetMode;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.transfer.regular.TransferRepository;
 import org.opentripplanner.transfer.regular.model.PathTransfer;
 import org.opentripplanner.transit.model.site.RegularStop;
@@ -51,6 +54,12 @@ public class DirectTransferGenerator implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(DirectTransferGenerator.class);
 
+  /**
+   * The number of stops searched from together. The paths from these stops to their nearby stops
+   * are kept in memory until the transfers of the stops are created.
+   */
+  private static final int STOP_CHUNK_SIZE = 2048;
+
   private final Duration defaultMaxTransferDuration;
 
   private final List<RouteRequest> transferRequests;
@@ -101,10 +110,11 @@ public class DirectTransferGenerator implements GraphBuilderModule {
     // Initialize transit model index which is needed by the nearby stop finder.
     timetableRepository.index();
 
+    List<TransitStopVertex> stops = graph.getVerticesOfType(TransitStopVertex.class);
+
     // The linker will use streets if they are available, or straight-line distance otherwise.
-    NearbyStopFinder nearbyStopFinder = createNearbyStopFinder(defaultMaxTransferDuration);
+    NearbyStopFinder nearbyStopFinder = createNearbyStopFinder(defaultMaxTransferDuration, stops);
 
-    List<TransitStopVertex> stops = graph.getVerticesOfType(TransitStopVertex.class);
     Set<StopLocation> carsAllowedStops =
       timetableRepository.getStopLocationsUsedForCarsAllowedTrips();
     Set<StopLocation> bikesAllowedStops =
@@ -127,16 +137,8 @@ public class DirectTransferGenerator implements GraphBuilderModule {
       stops.size()
     );
 
-    AtomicInteger nTransfersTotal = new AtomicInteger();
-    AtomicInteger nLinkedStops = new AtomicInteger();
-
-    // This is a synchronizedMultimap so that a parallel stream may be used to insert elements.
-    var transfersByStop = Multimaps.<StopLocation, PathTransfer>synchronizedMultimap(
-      HashMultimap.create()
-    );
-
     // Parse the transfer configuration from the parameters given in the build config.
-    TransferConfiguration transferConfiguration = parseTransferParameters(nearbyStopFinder);
+    TransferConfiguration transferConfiguration = parseTransferParameters(nearbyStopFinder, stops);
 
     var transitService = new DefaultTransitService(timetableRepository);
     var emptyStops = timetableRepository
@@ -155,60 +157,45 @@ public class DirectTransferGenerator implements GraphBuilderModule {
      */
     bikesAllowedStops.addAll(emptyStops);
 
-    stops
+    // The stops are handled in chunks of neighbouring stops. The nearby stops of all stops in a
+    // chunk are searched for together, then the transfers of each stop are created in parallel.
+    // The transfers of each stop are returned in a list of their own, and the lists are merged
+    // after the parallel search, so that the workers do not wait for each other to add them.
+    List<TransitStopVertex> sortedStops = stops
       .stream()
-      .parallel()
-      .forEach(ts0 -> {
-        /* Make transfers to each nearby stop that has lowest weight on some trip pattern.
-         * Use map based on the list of edges, so that only distinct transfers are stored. */
-        Map<TransferKey, PathTransfer> distinctTransfers = new HashMap<>();
-        RegularStop stop = Objects.requireNonNull(
-          timetableRepository.getSiteRepository().getRegularStop(ts0.getId())
-        );
-
-        if (stop.transfersNotAllowed()) {
-          return;
-        }
-
-        LOG.debug("Linking stop '{}' {}", stop, ts0);
-
-        calculateDefaultTransfers(transferConfiguration, ts0, stop, distinctTransfers);
-        calculateFlexTransfers(transferConfiguration, ts0, stop, distinctTransfers);
-        calculateCarsAllowedTransfers(
-          transferConfiguration,
-          ts0,
-          stop,
-          distinctTransfers,
-          carsAllowedStops
-        );
-        calculateBikesAllowedTransfers(
-          transferConfiguration,
-          ts0,
-          stop,
-          distinctTransfers,
-          bikesAllowedStops
-        );
-
-        LOG.debug(
-          "Linked stop {} with {} transfers to stops with different patterns.",
-          stop,
-          distinctTransfers.size()
-        );
-        if (distinctTransfers.isEmpty()) {
-          issueStore.add(new StopNotLinkedForTransfers(ts0));
-        } else {
-          distinctTransfers
-            .values()
-            .forEach(transfer -> transfersByStop.put(transfer.from, transfer));
-          nLinkedStops.incrementAndGet();
-          nTransfersTotal.addAndGet(distinctTransfers.size());
-        }
-
-        //Keep lambda! A method-ref would causes incorrect class and line number to be logged
-        //noinspection Convert2MethodRef
-        progress.step(m -> LOG.info(m));
-      });
+      .sorted(Comparator.comparingInt(Vertex::getIndex))
+      .toList();
+    List<List<PathTransfer>> transfersForStops = new ArrayList<>();
+    for (List<TransitStopVertex> chunk : Lists.partition(sortedStops, STOP_CHUNK_SIZE)) {
+      prepareNearbyStops(transferConfiguration, chunk, carsAllowedStops, bikesAllowedStops);
+      transfersForStops.addAll(
+        chunk
+          .parallelStream()
+          .map(ts0 ->
+            createTransfersForStop(
+              transferConfiguration,
+              ts0,
+              carsAllowedStops,
+              bikesAllowedStops,
+              progress
+            )
+          )
+          .toList()
+      );
+    }
 
+    Multimap<StopLocation, PathTransfer> transfersByStop = HashMultimap.create();
+    int nTransfersTotal = 0;
+    int nLinkedStops = 0;
+    for (List<PathTransfer> transfers : transfersForStops) {
+      for (PathTransfer transfer : transfers) {
+        transfersByStop.put(transfer.from, transfer);
+      }
+      if (!transfers.isEmpty()) {
+        nLinkedStops++;
+        nTransfersTotal += transfers.size();
+      }
+    }
     transferRepository.addAllTransfersByStops(transfersByStop);
 
     LOG.info(progress.completeMessage());
@@ -230,12 +217,133 @@ public class DirectTransferGenerator implements GraphBuilderModule {
       );
   }
 
+  /**
+   * Create the transfers from the stop, and the flex transfers to it.
+   */
+  private List<PathTransfer> createTransfersForStop(
+    TransferConfiguration transferConfiguration,
+    TransitStopVertex ts0,
+    Set<StopLocation> carsAllowedStops,
+    Set<StopLocation> bikesAllowedStops,
+    ProgressTracker progress
+  ) {
+    /* Make transfers to each nearby stop that has lowest weight on some trip pattern.
+     * Use map based on the list of edges, so that only distinct transfers are stored. */
+    Map<TransferKey, PathTransfer> distinctTransfers = new HashMap<>();
+    RegularStop stop = regularStop(ts0);
+
+    if (stop.transfersNotAllowed()) {
+      return List.of();
+    }
+
+    LOG.debug("Linking stop '{}' {}", stop, ts0);
+
+    calculateDefaultTransfers(transferConfiguration, ts0, stop, distinctTransfers);
+    calculateFlexTransfers(transferConfiguration, ts0, stop, distinctTransfers);
+    calculateCarsAllowedTransfers(
+      transferConfiguration,
+      ts0,
+      stop,
+      distinctTransfers,
+      carsAllowedStops
+    );
+    calculateBikesAllowedTransfers(
+      transferConfiguration,
+      ts0,
+      stop,
+      distinctTransfers,
+      bikesAllowedStops
+    );
+
+    LOG.debug(
+      "Linked stop {} with {} transfers to stops with different patterns.",
+      stop,
+      distinctTransfers.size()
+    );
+    if (distinctTransfers.isEmpty()) {
+      issueStore.add(new StopNotLinkedForTransfers(ts0));
+    }
+
+    //Keep lambda! A method-ref would causes incorrect class and line number to be logged
+    //noinspection Convert2MethodRef
+    progress.step(m -> LOG.info(m));
+    return List.copyOf(distinctTransfers.values());
+  }
+
+  /**
+   * Search for the nearby stops of all stops in the chunk which allow transfers, with each of the
+   * forward searches done when the transfers are created. This lets the nearby stop finders share
+   * the work of the searches.
+   */
+  private void prepareNearbyStops(
+    TransferConfiguration transferConfiguration,
+    List<TransitStopVertex> chunk,
+    Set<StopLocation> carsAllowedStops,
+    Set<StopLocation> bikesAllowedStops
+  ) {
+    List<TransitStopVertex> sources = chunk
+      .stream()
+      .filter(ts -> !regularStop(ts).transfersNotAllowed())
+      .toList();
+    for (RouteRequest transferProfile : transferConfiguration.defaultTransferRequests()) {
+      StreetMode mode = transferProfile.journey().transfer().mode();
+      transferConfiguration
+        .defaultNearbyStopFinderForMode()
+        .get(mode)
+        .prepare(transferProfile, mode, sources);
+    }
+    prepareNearbyStopsForAllowedStops(
+      transferConfiguration.carsAllowedStopTransferRequests(),
+      transferConfiguration.carsAllowedStopNearbyStopFinderForMode(),
+      sources,
+      carsAllowedStops
+    );
+    prepareNearbyStopsForAllowedStops(
+      transferConfiguration.bikesAllowedStopTransferRequests(),
+      transferConfiguration.bikesAllowedStopNearbyStopFinderForMode(),
+      sources,
+      bikesAllowedStops
+    );
+  }
+
+  private void prepareNearbyStopsForAllowedStops(
+    List<RouteRequest> transferRequests,
+    HashMap<StreetMode, NearbyStopFinder> nearbyStopFinder,
+    List<TransitStopVertex> sources,
+    Set<StopLocation> allowedStops
+  ) {
+    if (transferRequests.isEmpty()) {
+      return;
+    }
+    List<TransitStopVertex> allowedSources = sources
+      .stream()
+      .filter(ts -> allowedStops.contains(regularStop(ts)))
+      .toList();
+    for (RouteRequest transferProfile : transferRequests) {
+      StreetMode mode = transferProfile.journey().transfer().mode();
+      nearbyStopFinder.get(mode).prepare(transferProfile, mode, allowedSources);
+    }
+  }
+
+  private RegularStop regularStop(TransitStopVertex vertex) {
+    return Objects.requireNonNull(
+      timetableRepository.getSiteRepository().getRegularStop(vertex.getId())
+    );
+  }
+
   /**
    * Factory method for creating a NearbyStopFinder. Will create different finders depending on
    * whether the graph has a street network and if ConsiderPatternsForDirectTransfers feature is
    * enabled.
+   * <p>
+   * The nearby stops are found by one street matrix search for many stops, unless flex routing is
+   * on or some stops are not indexed by the graph. The matrix search does not find area stops, and
+   * needs the index of the stops to look them up.
    */
-  private NearbyStopFinder createNearbyStopFinder(Duration radiusAsDuration) {
+  private NearbyStopFinder createNearbyStopFinder(
+    Duration radiusAsDuration,
+    List<TransitStopVertex> stops
+  ) {
     var transitService = new DefaultTransitService(timetableRepository);
     NearbyStopFinder finder;
     if (!graph.hasStreets) {
@@ -248,7 +356,11 @@ public class DirectTransferGenerator implements GraphBuilderModule {
       final StopResolver stopResolver = new SiteRepositoryResolver(
         timetableRepository.getSiteRepository()
       );
-      finder = StreetNearbyStopFinder.of(stopResolver, radiusAsDuration, 0).build();
+      if (OTPFeature.FlexRouting.isOn() || stops.stream().anyMatch(ts -> ts.getIndex() < 0)) {
+        finder = StreetNearbyStopFinder.of(stopResolver, radiusAsDuration, 0).build();
+      } else {
+        finder = new StreetMatrixNearbyStopFinder(stopResolver, radiusAsDuration, stops);
+      }
     }
 
     if (OTPFeature.ConsiderPatternsForDirectTransfers.isOn()) {
@@ -282,7 +394,10 @@ public class DirectTransferGenerator implements GraphBuilderModule {
   /**
    * This method parses the given transfer parameters into a transfer configuration and checks for invalid input.
    */
-  private TransferConfiguration parseTransferParameters(NearbyStopFinder nearbyStopFinder) {
+  private TransferConfiguration parseTransferParameters(
+    NearbyStopFinder nearbyStopFinder,
+    List<TransitStopVertex> stops
+  ) {
     List<RouteRequest> defaultTransferRequests = new ArrayList<>();
     List<RouteRequest> carsAllowedStopTransferRequests = new ArrayList<>();
     List<RouteRequest> bikesAllowedStopTransferRequests = new ArrayList<>();
@@ -323,7 +438,7 @@ public class DirectTransferGenerator implements GraphBuilderModule {
           // Set mode-specific maxDuration, if it is set in the build config.
           Duration maxDuration = transferParameters.maxDuration();
           if (maxDuration != null) {
-            defaultNearbyStopFinderForMode.put(mode, createNearbyStopFinder(maxDuration));
+            defaultNearbyStopFinderForMode.put(mode, createNearbyStopFinder(maxDuration, stops));
           } else {
             defaultNearbyStopFinderForMode.put(mode, nearbyStopFinder);
           }
@@ -335,7 +450,7 @@ public class DirectTransferGenerator implements GraphBuilderModule {
           carsAllowedStopTransferRequests.add(transferProfile);
           carsAllowedStopNearbyStopFinderForMode.put(
             mode,
-            createNearbyStopFinder(carsAllowedStopMaxDuration)
+            createNearbyStopFinder(carsAllowedStopMaxDuration, stops)
           );
         }
         // Create transfers between bikesAllowedStops for the specific mode if
@@ -345,7 +460,7 @@ public class DirectTransferGenerator implements GraphBuilderModule {
           bikesAllowedStopTransferRequests.add(transferProfile);
           bikesAllowedStopNearbyStopFinderForMode.put(
             mode,
-            createNearbyStopFinder(bikesAllowedStopMaxDuration)
+            createNearbyStopFinder(bikesAllowedStopMaxDuration, stops)
           );
         }
       } else {
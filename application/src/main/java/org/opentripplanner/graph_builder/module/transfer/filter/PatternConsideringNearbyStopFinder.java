@@ -45,6 +45,15 @@ public class PatternConsideringNearbyStopFinder implements NearbyStopFinder {
     this.delegateNearbyStopFinder = delegateNearbyStopFinder;
   }
 
+  @Override
+  public void prepare(
+    RouteRequest routingRequest,
+    StreetMode streetMode,
+    List<TransitStopVertex> stopVertices
+  ) {
+    delegateNearbyStopFinder.prepare(routingRequest, streetMode, stopVertices);
+  }
+
   @Override
   public List<NearbyStop> findNearbyStops(
     Vertex vertex,
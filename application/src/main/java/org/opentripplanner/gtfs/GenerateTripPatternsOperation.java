@@ -87,6 +87,9 @@ public class GenerateTripPatternsOperation {
       } catch (DataValidationException e) {
         issueStore.add(e.error());
       }
+      // The stop pattern and trip times are copied from the stop times, so they are not needed
+      // anymore. Releasing them trip by trip keeps the peak memory use down for large feeds.
+      transitServiceBuilder.getStopTimesSortedByTrip().remove(trip);
     }
 
     tripPatternBuilders
@@ -22,6 +22,7 @@ import org.opentripplanner.core.model.time.LocalDateInterval;
 import org.opentripplanner.ext.fares.service.gtfs.v1.DefaultFareServiceFactory;
 import org.opentripplanner.ext.flex.FlexTripsMapper;
 import org.opentripplanner.framework.application.OTPFeature;
+import org.opentripplanner.framework.concurrent.ParallelReadAhead;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.graph_builder.model.GraphBuilderModule;
 import org.opentripplanner.graph_builder.module.AddTransitEntitiesToGraph;
@@ -43,6 +44,7 @@ import org.opentripplanner.standalone.config.BuildConfig;
 import org.opentripplanner.street.graph.Graph;
 import org.opentripplanner.transit.model.framework.Deduplicator;
 import org.opentripplanner.transit.service.TimetableRepository;
+import org.opentripplanner.utils.time.DurationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +62,10 @@ public class GtfsModule implements GraphBuilderModule {
   );
 
   private static final Logger LOG = LoggerFactory.getLogger(GtfsModule.class);
+
+  /** Limit the number of feeds kept in memory while waiting to be mapped. */
+  private static final int MAX_PARALLEL_FEEDS = 4;
+
   /**
    * @see BuildConfig#transitServiceStart
    * @see BuildConfig#transitServiceEnd
@@ -130,9 +136,17 @@ public class GtfsModule implements GraphBuilderModule {
 
     Map<String, GtfsBundle> feedIdsEncountered = new HashMap<>();
 
-    try {
+    // Read the feeds in parallel, but map them one by one in the configured order. The stop
+    // indices are assigned in the order the stops are mapped, and a feed might refer to the stops
+    // of the feeds mapped before it. The feed ids are resolved here, in the configured order, since
+    // feeds without a feed id are given the next number of a global sequence.
+    gtfsBundles.forEach(GtfsBundle::getFeedId);
+    int parallelism = Math.min(MAX_PARALLEL_FEEDS, Runtime.getRuntime().availableProcessors());
+    var feeds = new ParallelReadAhead<>("gtfs-read-%d", parallelism, gtfsBundles, this::loadBundle);
+    try (feeds) {
       for (GtfsBundle gtfsBundle : gtfsBundles) {
-        var gtfsDao = loadBundle(gtfsBundle);
+        var gtfsDao = feeds.take(gtfsBundle);
+        long startTime = System.currentTimeMillis();
 
         var feedId = gtfsBundle.getFeedId();
         verifyUniqueFeedId(gtfsBundle, feedIdsEncountered, feedId);
@@ -206,9 +220,12 @@ public class GtfsModule implements GraphBuilderModule {
         }
 
         fareServiceFactory.processGtfs(fareRulesData);
+        LOG.info(
+          "Mapped GTFS feed {} in {}",
+          feedId,
+          DurationUtils.msToSecondsStr(System.currentTimeMillis() - startTime)
+        );
       }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
     }
 
     timetableRepository.updateCalendarServiceData(calendarServiceData);
@@ -307,6 +324,7 @@ public class GtfsModule implements GraphBuilderModule {
   }
 
   private GtfsRelationalDao loadBundle(GtfsBundle gtfsBundle) throws IOException {
+    long startTime = System.currentTimeMillis();
     var dao = new GtfsRelationalDaoImpl();
     dao.setPackShapePoints(true);
     LOG.info("reading {}", gtfsBundle.feedInfo());
@@ -330,6 +348,11 @@ public class GtfsModule implements GraphBuilderModule {
     }
 
     dao.close();
+    LOG.info(
+      "Read GTFS feed {} in {}",
+      gtfsFeedId,
+      DurationUtils.msToSecondsStr(System.currentTimeMillis() - startTime)
+    );
     return dao;
   }
 
@@ -201,7 +201,12 @@ public class GTFSToTransitDataImportMapper {
     }
 
     builder.getPathways().addAll(pathwayMapper.map(data.getAllPathways()));
-    builder.getStopTimesSortedByTrip().addAll(stopTimeMapper.map(data.getAllStopTimes()));
+    // stop times is the largest collection, so they are released from the GTFS data one trip at
+    // a time as they are mapped
+    stopTimeMapper.mapByTripAndClear(
+      data.getAllStopTimes(),
+      builder.getStopTimesSortedByTrip()::addAll
+    );
     builder.getFlexTimePenalty().putAll(tripMapper.flexSafeTimePenalties());
     builder.getTripsById().addAll(tripMapper.map(data.getAllTrips()));
 
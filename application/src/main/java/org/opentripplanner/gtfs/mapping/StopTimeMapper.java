@@ -1,12 +1,17 @@
 package org.opentripplanner.gtfs.mapping;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import org.onebusaway.gtfs.model.Location;
 import org.onebusaway.gtfs.model.LocationGroup;
 import org.onebusaway.gtfs.model.Stop;
+import org.onebusaway.gtfs.model.Trip;
 import org.opentripplanner.core.model.i18n.I18NString;
 import org.opentripplanner.model.StopTime;
 import org.opentripplanner.utils.collection.MapUtils;
@@ -49,6 +54,42 @@ class StopTimeMapper {
     return MapUtils.mapToList(times, this::map);
   }
 
+  /**
+   * Map the stop times without caching the result. The stop times are usually the largest
+   * collection of a feed, so the mapped stop times are not kept a second time in the cache.
+   */
+  List<StopTime> mapUncached(Collection<org.onebusaway.gtfs.model.StopTime> times) {
+    List<StopTime> result = new ArrayList<>(times.size());
+    for (var stopTime : times) {
+      result.add(doMap(stopTime));
+    }
+    return result;
+  }
+
+  /**
+   * Map the stop times one trip at a time, and pass the mapped stop times of each trip to the
+   * consumer. The given collection is cleared before the mapping starts, and the GTFS stop times
+   * of a trip are released as soon as the trip is mapped. This way the GTFS and the OTP stop times
+   * of the feed are not all kept in memory at the same time. The mapped stop times are not cached.
+   */
+  void mapByTripAndClear(
+    Collection<org.onebusaway.gtfs.model.StopTime> times,
+    Consumer<List<StopTime>> tripStopTimes
+  ) {
+    // Feed order, so that the trips are mapped in the same order in every build
+    Map<Trip, List<org.onebusaway.gtfs.model.StopTime>> byTrip = new LinkedHashMap<>();
+    for (var stopTime : times) {
+      byTrip.computeIfAbsent(stopTime.getTrip(), trip -> new ArrayList<>()).add(stopTime);
+    }
+    times.clear();
+
+    var it = byTrip.values().iterator();
+    while (it.hasNext()) {
+      tripStopTimes.accept(mapUncached(it.next()));
+      it.remove();
+    }
+  }
+
   /** Map from GTFS to OTP model, {@code null} safe. */
   StopTime map(org.onebusaway.gtfs.model.StopTime orginal) {
     return orginal == null ? null : mappedStopTimes.computeIfAbsent(orginal, this::doMap);
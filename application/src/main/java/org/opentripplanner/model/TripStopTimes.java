@@ -53,6 +53,10 @@ public class TripStopTimes {
     map.put(key, sort(list));
   }
 
+  public void remove(Trip key) {
+    map.remove(key);
+  }
+
   public void removeIf(Predicate<Trip> test) {
     List<Trip> removeKeys = map.keySet().stream().filter(test).collect(Collectors.toList());
     for (Trip removeKey : removeKeys) {
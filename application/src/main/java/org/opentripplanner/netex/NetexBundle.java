@@ -3,6 +3,7 @@ package org.opentripplanner.netex;
 import jakarta.xml.bind.JAXBException;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -10,6 +11,7 @@ import org.opentripplanner.core.framework.deduplicator.DeduplicatorService;
 import org.opentripplanner.core.model.id.FeedScopedId;
 import org.opentripplanner.datastore.api.CompositeDataSource;
 import org.opentripplanner.datastore.api.DataSource;
+import org.opentripplanner.framework.concurrent.ParallelReadAhead;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.model.impl.TransitDataImportBuilder;
 import org.opentripplanner.netex.config.IgnorableFeature;
@@ -21,6 +23,7 @@ import org.opentripplanner.netex.loader.NetexXmlParser;
 import org.opentripplanner.netex.loader.parser.NetexDocumentParser;
 import org.opentripplanner.netex.mapping.NetexMapper;
 import org.opentripplanner.netex.validation.Validator;
+import org.opentripplanner.utils.time.DurationUtils;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +42,9 @@ public class NetexBundle implements Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(NetexBundle.class);
 
+  /** Limit the number of parsed documents kept in memory while waiting to be indexed. */
+  private static final int MAX_PARALLEL_FILES = 4;
+
   private final CompositeDataSource source;
 
   private final NetexDataSourceHierarchy hierarchy;
@@ -57,6 +63,8 @@ public class NetexBundle implements Closeable {
   /** maps the NeTEx XML document to OTP transit model. */
   private NetexMapper mapper;
   private NetexXmlParser xmlParser;
+  /** The documents of the bundle, parsed ahead in parallel and indexed in order. */
+  private ParallelReadAhead<DataSource, PublicationDeliveryStructure> documents;
 
   public NetexBundle(
     String feedId,
@@ -86,6 +94,7 @@ public class NetexBundle implements Closeable {
     DataImportIssueStore issueStore
   ) {
     LOG.info("Reading {}", hierarchy.description());
+    long startTime = System.currentTimeMillis();
 
     this.issueStore = issueStore;
 
@@ -105,6 +114,11 @@ public class NetexBundle implements Closeable {
     // Load data
     loadFileEntries();
 
+    LOG.info(
+      "Loaded NeTEx feed {} in {}",
+      feedId,
+      DurationUtils.msToSecondsStr(System.currentTimeMillis() - startTime)
+    );
     return transitBuilder;
   }
 
@@ -123,6 +137,19 @@ public class NetexBundle implements Closeable {
 
   /** Load all files entries in the bundle */
   private void loadFileEntries() {
+    // The files are parsed in parallel in the order they are loaded below. Indexing and mapping a
+    // file depends on the files loaded before it, so that is done one file at a time.
+    int parallelism = Math.min(MAX_PARALLEL_FILES, Runtime.getRuntime().availableProcessors());
+    documents = new ParallelReadAhead<>("netex-parse-%d", parallelism, fileEntries(), this::parse);
+    try {
+      loadFileEntriesInOrder();
+    } finally {
+      documents.close();
+      documents = null;
+    }
+  }
+
+  private void loadFileEntriesInOrder() {
     // Load global shared files
     loadFilesThenMapToTimetableRepository("shared file", hierarchy.sharedEntries());
 
@@ -145,6 +172,17 @@ public class NetexBundle implements Closeable {
     NetexDocumentParser.finishUp();
   }
 
+  /** All the file entries, in the order they are loaded. */
+  private List<DataSource> fileEntries() {
+    List<DataSource> entries = new ArrayList<>();
+    hierarchy.sharedEntries().forEach(entries::add);
+    for (GroupEntries group : hierarchy.groups()) {
+      entries.addAll(group.sharedEntries());
+      entries.addAll(group.independentEntries());
+    }
+    return entries;
+  }
+
   /**
    * make a new index and pushes it on the index stack, before executing the task and at the end pop
    * of the index.
@@ -184,12 +222,26 @@ public class NetexBundle implements Closeable {
     try {
       LOG.info("reading entity {}: {}", fileDescription, entry.name());
       issueStore.startProcessingSource(entry.name());
-      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry.asInputStream());
+      PublicationDeliveryStructure doc = documents.take(entry);
       NetexDocumentParser.parseAndPopulateIndex(index, doc, ignoredFeatures);
+    } finally {
+      issueStore.stopProcessingSource();
+    }
+  }
+
+  /** Parse a single entry, this is called from the worker threads of {@link #documents}. */
+  private PublicationDeliveryStructure parse(DataSource entry) {
+    long startTime = System.currentTimeMillis();
+    try {
+      return xmlParser.parseXmlDoc(entry.asInputStream());
     } catch (JAXBException e) {
       throw new RuntimeException(e.getMessage(), e);
     } finally {
-      issueStore.stopProcessingSource();
+      LOG.debug(
+        "Parsed {} in {}",
+        entry.name(),
+        DurationUtils.msToSecondsStr(System.currentTimeMillis() - startTime)
+      );
     }
   }
 }
@@ -7,14 +7,17 @@ import jakarta.xml.bind.Unmarshaller;
 import java.io.InputStream;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
 
-/** Simple wrapper to perform typesafe xml parsing and simple error handling. */
+/**
+ * Simple wrapper to perform typesafe xml parsing and simple error handling. The parser is
+ * thread-safe, so several documents can be parsed at the same time.
+ */
 public class NetexXmlParser {
 
-  /** used to parse the XML. */
-  private final Unmarshaller unmarshaller;
+  /** The JAXB context is thread-safe and expensive to create, while unmarshallers are not. */
+  private final JAXBContext context;
 
   public NetexXmlParser() {
-    this.unmarshaller = createUnmarshaller();
+    this.context = createContext();
   }
 
   /**
@@ -22,6 +25,7 @@ public class NetexXmlParser {
    */
   public PublicationDeliveryStructure parseXmlDoc(InputStream stream) throws JAXBException {
     JAXBElement<PublicationDeliveryStructure> root;
+    Unmarshaller unmarshaller = context.createUnmarshaller();
 
     //noinspection unchecked
     root = (JAXBElement<PublicationDeliveryStructure>) unmarshaller.unmarshal(stream);
@@ -29,10 +33,10 @@ public class NetexXmlParser {
     return root.getValue();
   }
 
-  /** factory method for unmarshaller */
-  private static Unmarshaller createUnmarshaller() {
+  /** factory method for the JAXB context */
+  private static JAXBContext createContext() {
     try {
-      return JAXBContext.newInstance(PublicationDeliveryStructure.class).createUnmarshaller();
+      return JAXBContext.newInstance(PublicationDeliveryStructure.class);
     } catch (JAXBException e) {
       // This is a programming error - not expected!
       // We abort early and also allow for this to happen in the constructor;
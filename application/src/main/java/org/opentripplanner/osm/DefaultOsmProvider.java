@@ -1,6 +1,6 @@
 package org.opentripplanner.osm;
 
-import crosby.binary.file.BlockInputStream;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
@@ -65,16 +65,14 @@ public class DefaultOsmProvider implements OsmProvider {
   }
 
   public void readOsm(OsmDatabase osmdb) {
-    try {
-      OsmParser parser = new OsmParser(osmdb, this);
-
-      parsePhase(parser, OsmParserPhase.Relations);
+    try (var reader = new OsmPbfReader(this)) {
+      parsePhase(reader, OsmParserPhase.Relations, osmdb);
       osmdb.doneFirstPhaseRelations();
 
-      parsePhase(parser, OsmParserPhase.Ways);
+      parsePhase(reader, OsmParserPhase.Ways, osmdb);
       osmdb.doneSecondPhaseWays();
 
-      parsePhase(parser, OsmParserPhase.Nodes);
+      parsePhase(reader, OsmParserPhase.Nodes, osmdb);
       osmdb.doneThirdPhaseNodes();
     } catch (Exception ex) {
       throw new IllegalStateException("error loading OSM from path " + source.path(), ex);
@@ -102,21 +100,10 @@ public class DefaultOsmProvider implements OsmProvider {
     return ProgressTracker.track("Parse OSM " + phase, 1000, size, inputStream, m -> LOG.info(m));
   }
 
-  private void parsePhase(OsmParser parser, OsmParserPhase phase) throws IOException {
-    parser.setPhase(phase);
-    BlockInputStream in = null;
-    try {
-      in = new BlockInputStream(createInputStream(phase), parser);
-      in.process();
-    } finally {
-      // Close
-      try {
-        if (in != null) {
-          in.close();
-        }
-      } catch (Exception e) {
-        LOG.error(e.getMessage(), e);
-      }
+  private void parsePhase(OsmPbfReader reader, OsmParserPhase phase, OsmDatabase osmdb)
+    throws IOException, InterruptedException {
+    try (var in = new BufferedInputStream(createInputStream(phase))) {
+      reader.readPhase(in, phase, osmdb);
     }
   }
 
@@ -2,11 +2,11 @@ package org.opentripplanner.osm;
 
 import crosby.binary.BinaryParser;
 import crosby.binary.Osmformat;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import org.opentripplanner.graph_builder.module.osm.OsmDatabase;
+import java.util.function.LongPredicate;
 import org.opentripplanner.osm.model.OsmMemberType;
 import org.opentripplanner.osm.model.OsmNode;
 import org.opentripplanner.osm.model.OsmRelation;
@@ -15,20 +15,38 @@ import org.opentripplanner.osm.model.OsmTag;
 import org.opentripplanner.osm.model.OsmWay;
 
 /**
- * Parser for the OpenStreetMap PBF Format.
+ * Parser for the OpenStreetMap PBF Format. A parser decodes a single block, and collects the
+ * entities of the phase being parsed. The blocks are decoded in parallel, so each block gets its
+ * own parser and the entities are added to the database in the order of the blocks by the
+ * {@link OsmPbfReader}.
  *
  * @since 0.4
  */
 class OsmParser extends BinaryParser {
 
-  private final OsmDatabase osmdb;
-  private final Map<String, String> stringTable = new HashMap<>();
   private final DefaultOsmProvider provider;
-  private OsmParserPhase parsePhase;
+  private final OsmParserPhase parsePhase;
+  private final Map<String, String> stringTable;
+  private final LongPredicate isNodeReferenced;
 
-  public OsmParser(OsmDatabase osmdb, DefaultOsmProvider provider) {
-    this.osmdb = Objects.requireNonNull(osmdb);
+  private final List<OsmNode> nodes = new ArrayList<>();
+  private final List<OsmWay> ways = new ArrayList<>();
+  private final List<OsmRelation> relations = new ArrayList<>();
+
+  /**
+   * @param stringTable a thread-safe map shared by the parsers of all blocks
+   * @param isNodeReferenced untagged nodes are only kept if they are referenced by a way
+   */
+  OsmParser(
+    DefaultOsmProvider provider,
+    OsmParserPhase phase,
+    Map<String, String> stringTable,
+    LongPredicate isNodeReferenced
+  ) {
     this.provider = Objects.requireNonNull(provider);
+    this.parsePhase = Objects.requireNonNull(phase);
+    this.stringTable = stringTable;
+    this.isNodeReferenced = isNodeReferenced;
   }
 
   // The strings are already being pulled from a string table in the PBF file,
@@ -36,12 +54,8 @@ class OsmParser extends BinaryParser {
   // String.intern grinds to a halt on large PBF files (as it did on GTFS import), so
   // we implement our own.
   public String internalize(String s) {
-    String fromTable = stringTable.get(s);
-    if (fromTable == null) {
-      stringTable.put(s, s);
-      return s;
-    }
-    return fromTable;
+    String fromTable = stringTable.putIfAbsent(s, s);
+    return fromTable == null ? s : fromTable;
   }
 
   @Override
@@ -49,11 +63,16 @@ class OsmParser extends BinaryParser {
     // Jump in circles
   }
 
-  /**
-   * Set the phase to be parsed
-   */
-  public void setPhase(OsmParserPhase phase) {
-    this.parsePhase = phase;
+  List<OsmNode> nodes() {
+    return nodes;
+  }
+
+  List<OsmWay> ways() {
+    return ways;
+  }
+
+  List<OsmRelation> relations() {
+    return relations;
   }
 
   @Override
@@ -100,7 +119,7 @@ class OsmParser extends BinaryParser {
         tmp.addMember(relMember);
       }
 
-      osmdb.addRelation(tmp);
+      relations.add(tmp);
     }
   }
 
@@ -117,23 +136,29 @@ class OsmParser extends BinaryParser {
     }
 
     for (int i = 0; i < nodes.getIdCount(); i++) {
-      OsmNode tmp = new OsmNode();
-
       long lat = nodes.getLat(i) + lastLat;
       lastLat = lat;
       long lon = nodes.getLon(i) + lastLon;
       lastLon = lon;
       long id = nodes.getId(i) + lastId;
       lastId = id;
-      double latf = parseLat(lat);
-      double lonf = parseLon(lon);
 
+      // If empty, assume that nothing here has keys or vals.
+      boolean hasTags = nodes.getKeysValsCount() > 0 && nodes.getKeysVals(j) != 0;
+      if (!hasTags && !isNodeReferenced.test(id)) {
+        // Skip over the '0' delimiter.
+        if (nodes.getKeysValsCount() > 0) {
+          j++;
+        }
+        continue;
+      }
+
+      OsmNode tmp = new OsmNode();
       tmp.setId(id);
       tmp.setOsmProvider(provider);
-      tmp.lat = latf;
-      tmp.lon = lonf;
+      tmp.lat = parseLat(lat);
+      tmp.lon = parseLon(lon);
 
-      // If empty, assume that nothing here has keys or vals.
       if (nodes.getKeysValsCount() > 0) {
         while (nodes.getKeysVals(j) != 0) {
           int keyid = nodes.getKeysVals(j++);
@@ -150,7 +175,7 @@ class OsmParser extends BinaryParser {
         j++;
       }
 
-      osmdb.addNode(tmp);
+      this.nodes.add(tmp);
     }
   }
 
@@ -161,6 +186,9 @@ class OsmParser extends BinaryParser {
     }
 
     for (Osmformat.Node i : nodes) {
+      if (i.getKeysCount() == 0 && !isNodeReferenced.test(i.getId())) {
+        continue;
+      }
       OsmNode tmp = new OsmNode();
       tmp.setId(i.getId());
       tmp.setOsmProvider(provider);
@@ -177,7 +205,7 @@ class OsmParser extends BinaryParser {
         tmp.addTag(tag);
       }
 
-      osmdb.addNode(tmp);
+      this.nodes.add(tmp);
     }
   }
 
@@ -207,7 +235,7 @@ class OsmParser extends BinaryParser {
         lastId = j + lastId;
       }
 
-      osmdb.addWay(tmp);
+      this.ways.add(tmp);
     }
   }
 
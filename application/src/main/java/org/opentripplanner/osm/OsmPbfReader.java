@@ -0,0 +1,304 @@
+package org.opentripplanner.osm;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import crosby.binary.Fileformat;
+import crosby.binary.Osmformat;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongPredicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.annotation.Nullable;
+import org.opentripplanner.graph_builder.module.osm.OsmDatabase;
+import org.opentripplanner.osm.model.OsmNode;
+import org.opentripplanner.osm.model.OsmRelation;
+import org.opentripplanner.osm.model.OsmWay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the blocks of an OSM PBF file and decompresses and decodes them on a pool of worker
+ * threads. The decoded entities are added to the {@link OsmDatabase} in the order of the blocks in
+ * the file, by the calling thread, so the result is the same as reading the file sequentially.
+ * <p>
+ * The file is read once for each {@link OsmParserPhase}. The first pass records which entity types
+ * each block contains, which is found by scanning the decompressed block without decoding it. The
+ * following passes skip the blocks without entities of their phase, so each block is only decoded
+ * once in total. In the node pass untagged nodes not referenced by a way are dropped while
+ * decoding, using the node ids collected by the database in the way pass.
+ * <p>
+ * A reader is used for the passes over a single file, and is not thread-safe.
+ */
+class OsmPbfReader implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OsmPbfReader.class);
+
+  private static final String OSM_HEADER = "OSMHeader";
+  private static final String OSM_DATA = "OSMData";
+
+  /** The maximum sizes of a blob header and a blob given by the PBF specification. */
+  private static final int MAX_BLOB_HEADER_SIZE = 64 * 1024;
+  private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+  /** The field numbers of the entity types in a PrimitiveGroup. */
+  private static final int GROUP_FIELD = 2;
+  private static final int NODES_FIELD = 1;
+  private static final int DENSE_FIELD = 2;
+  private static final int WAYS_FIELD = 3;
+  private static final int RELATIONS_FIELD = 4;
+
+  private final DefaultOsmProvider provider;
+  private final int numberOfThreads;
+  private final ExecutorService executor;
+  private final Map<String, String> stringTable = new ConcurrentHashMap<>();
+
+  /** The entity types of each data block, by the index of the block. Set by the first pass. */
+  @Nullable
+  private List<Set<OsmParserPhase>> blockContents;
+
+  OsmPbfReader(DefaultOsmProvider provider) {
+    this.provider = provider;
+    this.numberOfThreads = Runtime.getRuntime().availableProcessors();
+    this.executor = Executors.newFixedThreadPool(
+      numberOfThreads,
+      new ThreadFactoryBuilder().setNameFormat("osm-pbf-%d").setDaemon(true).build()
+    );
+  }
+
+  /**
+   * Read the entities of the given phase from the file and add them to the database.
+   */
+  void readPhase(InputStream input, OsmParserPhase phase, OsmDatabase osmdb)
+    throws IOException, InterruptedException {
+    long startTime = System.currentTimeMillis();
+    boolean firstPass = blockContents == null;
+    List<Set<OsmParserPhase>> contents = firstPass ? new ArrayList<>() : blockContents;
+    LongPredicate isNodeReferenced = phase == OsmParserPhase.Nodes
+      ? osmdb::isNodeReferenced
+      : id -> false;
+
+    // Keep enough blocks in flight to keep all the threads busy, without reading the whole file
+    int maxBlocksInFlight = 4 * numberOfThreads;
+    Deque<Future<DecodedBlock>> pending = new ArrayDeque<>();
+    var stats = new Stats();
+    int blockIndex = 0;
+
+    while (true) {
+      var header = readBlobHeader(input);
+      if (header == null) {
+        break;
+      }
+      stats.bytes += header.getDatasize();
+      if (header.getType().equals(OSM_HEADER)) {
+        readHeaderBlock(readBlob(input, header));
+        continue;
+      }
+      if (!header.getType().equals(OSM_DATA)) {
+        LOG.info("Skipping OSM block of unknown type: {}", header.getType());
+        input.skipNBytes(header.getDatasize());
+        continue;
+      }
+      Set<OsmParserPhase> known = firstPass ? null : contents.get(blockIndex);
+      blockIndex++;
+      if (known != null && !known.contains(phase)) {
+        input.skipNBytes(header.getDatasize());
+        continue;
+      }
+      byte[] blob = readBlob(input, header);
+      pending.add(executor.submit(() -> decode(blob, phase, known, isNodeReferenced)));
+
+      while (pending.size() >= maxBlocksInFlight) {
+        addToDatabase(await(pending.poll()), phase, osmdb, contents, firstPass, stats);
+      }
+    }
+    while (!pending.isEmpty()) {
+      addToDatabase(await(pending.poll()), phase, osmdb, contents, firstPass, stats);
+    }
+    if (firstPass) {
+      blockContents = contents;
+    }
+
+    double seconds = Math.max(System.currentTimeMillis() - startTime, 1) / 1000.0;
+    LOG.info(
+      "Parsed OSM {}: {} entities from {} of {} blocks in {} s, {} MB/s using {} threads",
+      phase,
+      stats.entities,
+      stats.decodedBlocks,
+      blockIndex,
+      String.format("%.1f", seconds),
+      String.format("%.1f", stats.bytes / seconds / 1_000_000),
+      numberOfThreads
+    );
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private DecodedBlock decode(
+    byte[] blob,
+    OsmParserPhase phase,
+    @Nullable Set<OsmParserPhase> known,
+    LongPredicate isNodeReferenced
+  ) throws IOException {
+    byte[] data = decompress(blob);
+    Set<OsmParserPhase> contents = known == null ? scanContents(data) : known;
+    if (!contents.contains(phase)) {
+      return new DecodedBlock(contents, List.of(), List.of(), List.of());
+    }
+    var parser = new OsmParser(provider, phase, stringTable, isNodeReferenced);
+    parser.parse(Osmformat.PrimitiveBlock.parseFrom(data));
+    return new DecodedBlock(contents, parser.nodes(), parser.ways(), parser.relations());
+  }
+
+  private void addToDatabase(
+    DecodedBlock block,
+    OsmParserPhase phase,
+    OsmDatabase osmdb,
+    List<Set<OsmParserPhase>> contents,
+    boolean firstPass,
+    Stats stats
+  ) {
+    if (firstPass) {
+      contents.add(block.contents());
+    }
+    if (block.contents().contains(phase)) {
+      stats.decodedBlocks++;
+    }
+    block.relations().forEach(osmdb::addRelation);
+    block.ways().forEach(osmdb::addWay);
+    block.nodes().forEach(osmdb::addNode);
+    stats.entities += block.relations().size() + block.ways().size() + block.nodes().size();
+  }
+
+  private void readHeaderBlock(byte[] blob) throws IOException {
+    var header = Osmformat.HeaderBlock.parseFrom(decompress(blob));
+    new OsmParser(provider, OsmParserPhase.Relations, stringTable, id -> false).parse(header);
+  }
+
+  private static DecodedBlock await(Future<DecodedBlock> future)
+    throws IOException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw new IllegalStateException("Failed to decode OSM block", e.getCause());
+    }
+  }
+
+  /** Read the header of the next blob, or return null at the end of the file. */
+  @Nullable
+  private static Fileformat.BlobHeader readBlobHeader(InputStream input) throws IOException {
+    int first = input.read();
+    if (first < 0) {
+      return null;
+    }
+    byte[] rest = readFully(input, 3);
+    int size =
+      (first << 24) | ((rest[0] & 0xff) << 16) | ((rest[1] & 0xff) << 8) | (rest[2] & 0xff);
+    if (size < 0 || size > MAX_BLOB_HEADER_SIZE) {
+      throw new IOException("Invalid OSM PBF blob header size: " + size);
+    }
+    return Fileformat.BlobHeader.parseFrom(readFully(input, size));
+  }
+
+  private static byte[] readBlob(InputStream input, Fileformat.BlobHeader header)
+    throws IOException {
+    int size = header.getDatasize();
+    if (size < 0 || size > MAX_BLOB_SIZE) {
+      throw new IOException("Invalid OSM PBF blob size: " + size);
+    }
+    return readFully(input, size);
+  }
+
+  private static byte[] readFully(InputStream input, int size) throws IOException {
+    byte[] bytes = input.readNBytes(size);
+    if (bytes.length < size) {
+      throw new EOFException("Truncated OSM PBF file");
+    }
+    return bytes;
+  }
+
+  private static byte[] decompress(byte[] bytes) throws IOException {
+    var blob = Fileformat.Blob.parseFrom(bytes);
+    if (blob.hasRaw()) {
+      return blob.getRaw().toByteArray();
+    }
+    if (!blob.hasZlibData()) {
+      throw new IOException("Unsupported OSM PBF blob compression, only zlib is supported");
+    }
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(blob.getZlibData().toByteArray());
+      byte[] data = new byte[blob.getRawSize()];
+      int size = inflater.inflate(data);
+      if (size != data.length || !inflater.finished()) {
+        throw new IOException("Unexpected size of decompressed OSM PBF blob");
+      }
+      return data;
+    } catch (DataFormatException e) {
+      throw new IOException("Invalid zlib data in OSM PBF blob", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Find the entity types of a PrimitiveBlock by skipping through the fields of its groups,
+   * without decoding the entities.
+   */
+  private static Set<OsmParserPhase> scanContents(byte[] data) throws IOException {
+    var contents = EnumSet.noneOf(OsmParserPhase.class);
+    var in = CodedInputStream.newInstance(data);
+    for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+      if (WireFormat.getTagFieldNumber(tag) != GROUP_FIELD) {
+        in.skipField(tag);
+        continue;
+      }
+      int limit = in.pushLimit(in.readRawVarint32());
+      for (int groupTag = in.readTag(); groupTag != 0; groupTag = in.readTag()) {
+        switch (WireFormat.getTagFieldNumber(groupTag)) {
+          case NODES_FIELD, DENSE_FIELD -> contents.add(OsmParserPhase.Nodes);
+          case WAYS_FIELD -> contents.add(OsmParserPhase.Ways);
+          case RELATIONS_FIELD -> contents.add(OsmParserPhase.Relations);
+          default -> {}
+        }
+        in.skipField(groupTag);
+      }
+      in.popLimit(limit);
+    }
+    return contents;
+  }
+
+  private record DecodedBlock(
+    Set<OsmParserPhase> contents,
+    List<OsmNode> nodes,
+    List<OsmWay> ways,
+    List<OsmRelation> relations
+  ) {}
+
+  private static class Stats {
+
+    private long bytes = 0;
+    private long entities = 0;
+    private int decodedBlocks = 0;
+  }
+}
@@ -10,6 +10,7 @@ import java.util.Objects;
 import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
 import org.opentripplanner.core.model.i18n.I18NString;
 import org.opentripplanner.core.model.i18n.LocalizedString;
 import org.opentripplanner.model.plan.leg.ElevationProfile;
@@ -25,6 +26,7 @@ import org.opentripplanner.service.streetdetails.StreetDetailsService;
 import org.opentripplanner.street.geometry.DirectionUtils;
 import org.opentripplanner.street.geometry.WgsCoordinate;
 import org.opentripplanner.street.internal.notes.StreetNotesService;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.edge.AreaEdge;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.ElevatorAlightEdge;
@@ -59,6 +61,13 @@ public class StatesToWalkStepsMapper {
   private final VerticalTransportationUseFactory verticalTransportationUseFactory;
 
   private final List<State> states;
+
+  /**
+   * The edges of the vertices on the path, including the temporary edges of the request the path
+   * was found in.
+   */
+  private final AStarGraphOverlay<Edge, Vertex> graph;
+
   private final WalkStep previous;
   private final List<WalkStepBuilder> steps = new ArrayList<>();
   private final EntranceResolver entranceResolver;
@@ -92,6 +101,8 @@ public class StatesToWalkStepsMapper {
     double ellipsoidToGeoidDifference
   ) {
     this.states = states;
+    var overlay = StreetGraphOverlay.of(states.stream().map(State::getVertex).toList());
+    this.graph = overlay != null ? overlay : AStarGraphOverlay.empty();
     this.previous = previousStep;
     this.streetNotesService = streetNotesService;
     this.entranceResolver = entranceResolver;
@@ -467,7 +478,7 @@ public class StatesToWalkStepsMapper {
     if (edge instanceof StreetEdge) {
       // the next edges will be PlainStreetEdges, we hope
       double angleDiff = getAbsoluteAngleDiff(thisAngle, lastAngle);
-      for (StreetEdge alternative : backState.getVertex().getOutgoingStreetEdges()) {
+      for (StreetEdge alternative : outgoingStreetEdges(backState.getVertex())) {
         if (isTurnToOtherStreet(streetName, angleDiff, alternative)) {
           return true;
         }
@@ -477,8 +488,8 @@ public class StatesToWalkStepsMapper {
       // FIXME: this code might be wrong with the removal of the edge-based graph
       State twoStatesBack = backState.getBackState();
       Vertex backVertex = twoStatesBack.getVertex();
-      for (StreetEdge alternative : backVertex.getOutgoingStreetEdges()) {
-        for (StreetEdge innerAlternative : alternative.getToVertex().getOutgoingStreetEdges()) {
+      for (StreetEdge alternative : outgoingStreetEdges(backVertex)) {
+        for (StreetEdge innerAlternative : outgoingStreetEdges(alternative.getToVertex())) {
           if (isTurnToOtherStreet(streetName, angleDiff, innerAlternative)) {
             return true;
           }
@@ -511,10 +522,10 @@ public class StatesToWalkStepsMapper {
     );
   }
 
-  private static boolean multipleTurnOptionsInPreviousState(State state) {
+  private boolean multipleTurnOptionsInPreviousState(State state) {
     boolean foundAlternatePaths = false;
     TraverseMode requestedMode = state.currentMode();
-    for (Edge out : state.getBackState().getVertex().getOutgoing()) {
+    for (Edge out : graph.getOutgoing(state.getBackState().getVertex())) {
       if (out == state.backEdge) {
         continue;
       }
@@ -537,7 +548,7 @@ public class StatesToWalkStepsMapper {
       //now, from here, try a continuing path.
       Vertex tov = outState.getVertex();
       boolean found = false;
-      for (Edge out2 : tov.getOutgoing()) {
+      for (Edge out2 : graph.getOutgoing(tov)) {
         var outStates2 = out2.traverse(outState);
         if (
           !State.isEmpty(outStates2) && !Objects.equals(outStates2[0].getBackMode(), requestedMode)
@@ -559,6 +570,16 @@ public class StatesToWalkStepsMapper {
     return foundAlternatePaths;
   }
 
+  private List<StreetEdge> outgoingStreetEdges(Vertex vertex) {
+    var result = new ArrayList<StreetEdge>();
+    for (Edge out : graph.getOutgoing(vertex)) {
+      if (out instanceof StreetEdge streetEdge) {
+        result.add(streetEdge);
+      }
+    }
+    return result;
+  }
+
   private void createFirstStep(State backState, State forwardState) {
     current = createWalkStep(forwardState, backState);
 
@@ -88,7 +88,10 @@ public class TransitRouter {
     this.viaTransferResolver = serverContext.viaTransferResolver();
     this.linkingContext = linkingContext;
     this.transitServiceResolver = new TransitServiceResolver(serverContext.transitService());
-    this.accessEgressRouter = new AccessEgressRouter(this.transitServiceResolver);
+    this.accessEgressRouter = new AccessEgressRouter(
+      this.transitServiceResolver,
+      serverContext.edgeCostCache()
+    );
     this.carpoolingService = carpoolingService;
   }
 
@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.graph_builder.module.nearbystops.StopResolver;
 import org.opentripplanner.graph_builder.module.nearbystops.StreetNearbyStopFinder;
@@ -13,6 +14,7 @@ import org.opentripplanner.routing.graphfinder.NearbyStopFactory;
 import org.opentripplanner.routing.linking.LinkingContext;
 import org.opentripplanner.street.model.StreetMode;
 import org.opentripplanner.street.model.edge.ExtensionRequestContext;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
 import org.opentripplanner.utils.collection.ListUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,9 +28,24 @@ public class AccessEgressRouter {
   private final StopResolver stopResolver;
   private final NearbyStopFactory nearbyStopFactory;
 
+  @Nullable
+  private final StreetEdgeCostCache edgeCostCache;
+
   public AccessEgressRouter(StopResolver stopResolver) {
+    this(stopResolver, null);
+  }
+
+  /**
+   * @param edgeCostCache If set, the street searches use the precomputed edge costs for their
+   *                      street profile, if they exist.
+   */
+  public AccessEgressRouter(
+    StopResolver stopResolver,
+    @Nullable StreetEdgeCostCache edgeCostCache
+  ) {
     this.stopResolver = stopResolver;
     this.nearbyStopFactory = new NearbyStopFactory(stopResolver::getRegularStop);
+    this.edgeCostCache = edgeCostCache;
   }
 
   /**
@@ -67,6 +84,7 @@ public class AccessEgressRouter {
     var streetAccessEgress = StreetNearbyStopFinder.of(stopResolver, durationLimit, maxStopCount)
       .withIgnoreVertices(ignoreVertices)
       .withExtensionRequestContexts(extensionRequestContexts)
+      .withEdgeCostCache(edgeCostCache)
       .build()
       .findNearbyStops(originVertices, request, streetMode, accessOrEgress.isEgress());
 
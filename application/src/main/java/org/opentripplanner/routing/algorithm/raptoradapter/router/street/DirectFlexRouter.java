@@ -25,7 +25,8 @@ public class DirectFlexRouter {
     LinkingContext linkingContext
   ) {
     var accessEgressRouter = new AccessEgressRouter(
-      new TransitServiceResolver(serverContext.transitService())
+      new TransitServiceResolver(serverContext.transitService()),
+      serverContext.edgeCostCache()
     );
     if (!StreetMode.FLEXIBLE.equals(request.journey().direct().mode())) {
       return Collections.emptyList();
@@ -46,7 +46,10 @@ public class DirectStreetRouter {
       GraphPathFinder gpFinder = new GraphPathFinder(
         serverContext.traverseVisitor(),
         serverContext.listExtensionRequestContexts(request),
-        maxCarSpeed
+        maxCarSpeed,
+        serverContext.graph().getLandmarkIndex(),
+        serverContext.graph().getCarContractionHierarchy(),
+        serverContext.edgeCostCache()
       );
       List<GraphPath<State, Edge, Vertex>> paths = gpFinder.graphPathFinderEntryPoint(
         request,
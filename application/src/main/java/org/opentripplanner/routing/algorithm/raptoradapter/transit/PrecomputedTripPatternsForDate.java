@@ -0,0 +1,35 @@
+package org.opentripplanner.routing.algorithm.raptoradapter.transit;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The scheduled trip patterns for each running date, computed when the graph is saved and stored
+ * in the graph file together with the timetable they are computed from. When the graph is
+ * loaded, they are used to create the {@link RaptorTransitData} instead of filtering all trip
+ * patterns for every service date again. The hash of the timetable is used to check that the
+ * timetable is the same as when the trip patterns were computed.
+ */
+public class PrecomputedTripPatternsForDate implements Serializable {
+
+  private final long timetableHash;
+  private final Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate;
+
+  public PrecomputedTripPatternsForDate(
+    long timetableHash,
+    Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate
+  ) {
+    this.timetableHash = timetableHash;
+    this.tripPatternsRunningOnDate = tripPatternsRunningOnDate;
+  }
+
+  public long timetableHash() {
+    return timetableHash;
+  }
+
+  public Map<LocalDate, List<TripPatternForDate>> tripPatternsRunningOnDate() {
+    return tripPatternsRunningOnDate;
+  }
+}
@@ -14,6 +14,7 @@ import java.util.Set;
 import javax.annotation.Nullable;
 import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.raptor.spi.RaptorCostConverter;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.PrecomputedTripPatternsForDate;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransitData;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParameters;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TripPatternForDate;
@@ -24,6 +25,7 @@ import org.opentripplanner.transfer.regular.TransferRepository;
 import org.opentripplanner.transfer.regular.model.Transfer;
 import org.opentripplanner.transit.model.network.TripPattern;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
+import org.opentripplanner.transit.model.timetable.TripTimes;
 import org.opentripplanner.transit.service.DefaultTransitService;
 import org.opentripplanner.transit.service.SiteRepository;
 import org.opentripplanner.transit.service.TimetableRepository;
@@ -50,6 +52,9 @@ public class RaptorTransitDataMapper {
   private final SiteRepository siteRepository;
   private final TransferRepository transferRepository;
 
+  @Nullable
+  private final PrecomputedTripPatternsForDate precomputedTripPatterns;
+
   private RaptorTransitDataMapper(
     TimetableRepository timetableRepository,
     TransferRepository transferRepository
@@ -57,6 +62,7 @@ public class RaptorTransitDataMapper {
     this.transitService = new DefaultTransitService(timetableRepository);
     this.siteRepository = timetableRepository.getSiteRepository();
     this.transferRepository = transferRepository;
+    this.precomputedTripPatterns = timetableRepository.removePrecomputedTripPatternsForDate();
   }
 
   public static RaptorTransitData map(
@@ -69,8 +75,22 @@ public class RaptorTransitDataMapper {
     );
   }
 
+  /**
+   * Compute the scheduled trip patterns for each running date, to be stored in the graph file and
+   * used by {@link #map(TransitTuningParameters, TimetableRepository, TransferRepository)} when
+   * the graph is loaded. The timetable repository must be indexed.
+   */
+  public static PrecomputedTripPatternsForDate precomputeTripPatterns(
+    TimetableRepository timetableRepository
+  ) {
+    var transitService = new DefaultTransitService(timetableRepository);
+    LOG.info("Precomputing the trip patterns for each date for Raptor...");
+    var tripPatterns = mapTripPatterns(transitService, transitService.listTripPatterns());
+    return new PrecomputedTripPatternsForDate(timetableHash(transitService), tripPatterns);
+  }
+
   private RaptorTransitData map(TransitTuningParameters tuningParameters) {
-    HashMap<LocalDate, List<TripPatternForDate>> tripPatternsByStopByDate;
+    Map<LocalDate, List<TripPatternForDate>> tripPatternsByStopByDate;
     List<List<Transfer>> transfersByStopIndex;
     ConstrainedTransfersForPatterns constrainedTransfers = null;
 
@@ -78,7 +98,18 @@ public class RaptorTransitDataMapper {
 
     Collection<TripPattern> allTripPatterns = transitService.listTripPatterns();
 
-    tripPatternsByStopByDate = mapTripPatterns(allTripPatterns);
+    if (
+      precomputedTripPatterns != null &&
+      precomputedTripPatterns.timetableHash() == timetableHash(transitService)
+    ) {
+      LOG.info("Using the trip patterns for each date precomputed when the graph was saved.");
+      tripPatternsByStopByDate = precomputedTripPatterns.tripPatternsRunningOnDate();
+    } else {
+      if (precomputedTripPatterns != null) {
+        LOG.warn("The timetable has changed since the trip patterns for each date were computed.");
+      }
+      tripPatternsByStopByDate = mapTripPatterns(transitService, allTripPatterns);
+    }
 
     transfersByStopIndex = mapTransfers(siteRepository, transferRepository);
 
@@ -113,7 +144,8 @@ public class RaptorTransitDataMapper {
    * Part of this method runs IN PARALLEL.
    * <p>
    */
-  private HashMap<LocalDate, List<TripPatternForDate>> mapTripPatterns(
+  private static HashMap<LocalDate, List<TripPatternForDate>> mapTripPatterns(
+    TransitService transitService,
     Collection<TripPattern> allTripPatterns
   ) {
     TripPatternForDateMapper tripPatternForDateMapper = new TripPatternForDateMapper(
@@ -155,7 +187,7 @@ public class RaptorTransitDataMapper {
   /**
    * Returns a map of TripPatternsForDate objects by their active dates.
    */
-  private HashMap<LocalDate, List<TripPatternForDate>> keyByRunningPeriodDates(
+  private static HashMap<LocalDate, List<TripPatternForDate>> keyByRunningPeriodDates(
     List<TripPatternForDate> tripPatternForDates
   ) {
     // Create multimap by running period dates
@@ -175,6 +207,29 @@ public class RaptorTransitDataMapper {
     return result;
   }
 
+  /**
+   * A hash of the scheduled timetable used to map the trip patterns: the service codes running on
+   * each date, and the trips of each pattern. The hash does not depend on the order of the
+   * patterns, and is the same for a timetable after a round trip through serialization.
+   */
+  private static long timetableHash(TransitService transitService) {
+    long hash = transitService.getServiceCodesRunningForDate().hashCode();
+    for (TripPattern pattern : transitService.listTripPatterns()) {
+      var timetable = pattern.getScheduledTimetable();
+      long patternHash = pattern.getId().hashCode();
+      patternHash = 31 * patternHash + pattern.getRoutingTripPattern().patternIndex();
+      for (TripTimes tripTimes : timetable.getTripTimes()) {
+        patternHash = 31 * patternHash + tripTimes.getTrip().getId().hashCode();
+        patternHash = 31 * patternHash + tripTimes.getServiceCode();
+        patternHash = 31 * patternHash + tripTimes.getDepartureTime(0);
+      }
+      patternHash = 31 * patternHash + timetable.getFrequencyEntries().size();
+      // Spread the bits before summing, the sum does not depend on the order of the patterns
+      hash += patternHash * 0x9E3779B97F4A7C15L;
+    }
+    return hash;
+  }
+
   /**
    * Create static board/alight cost for Raptor to apply during transfer
    */
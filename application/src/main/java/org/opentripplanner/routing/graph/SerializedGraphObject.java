@@ -20,10 +20,14 @@ import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.ext.emission.EmissionRepository;
 import org.opentripplanner.ext.empiricaldelay.EmpiricalDelayRepository;
 import org.opentripplanner.ext.stopconsolidation.StopConsolidationRepository;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OtpAppException;
+import org.opentripplanner.framework.io.CompressedBlockInputStream;
+import org.opentripplanner.framework.io.CompressedBlockOutputStream;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.model.projectinfo.GraphFileHeader;
 import org.opentripplanner.model.projectinfo.OtpProjectInfo;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.RaptorTransitDataMapper;
 import org.opentripplanner.routing.fares.FareServiceFactory;
 import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
 import org.opentripplanner.service.osminfo.OsmInfoGraphBuildRepository;
@@ -36,7 +40,6 @@ import org.opentripplanner.street.StreetRepository;
 import org.opentripplanner.street.geometry.CompactElevationProfile;
 import org.opentripplanner.street.graph.Graph;
 import org.opentripplanner.street.model.edge.Edge;
-import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.transfer.regular.TransferRepository;
 import org.opentripplanner.transit.model.basic.SubMode;
 import org.opentripplanner.transit.model.network.RoutingTripPattern;
@@ -56,6 +59,16 @@ import org.slf4j.LoggerFactory;
  * serializer to know that vertices referenced by the edges are the same vertices stored in the
  * graph itself. The easiest way to do this is to make only one serialization call, serializing a
  * single object that contains both the graph and the edge collection.
+ * <p>
+ * After the file header, the serialized object is written as a sequence of compressed blocks,
+ * each with a checksum, see {@link CompressedBlockOutputStream}. The blocks are compressed and
+ * decompressed on a pool of worker threads, while Kryo writes and reads the object on the calling
+ * thread. The repositories in the file reference each other, for example the transfers reference
+ * the street edges, so they can not be deserialized independently of each other.
+ * <p>
+ * The exceptions are the sandbox repositories which only reference the transit model by id, like
+ * the emissions. They are stored as separate blocks of bytes, see {@link SerializedRepository},
+ * and only deserialized when requested. They are skipped if the feature using them is off.
  */
 public class SerializedGraphObject implements Serializable {
 
@@ -90,8 +103,8 @@ public class SerializedGraphObject implements Serializable {
   public final DataImportIssueSummary issueSummary;
   public final StopConsolidationRepository stopConsolidationRepository;
   private final int routingTripPatternCounter;
-  public final EmissionRepository emissionRepository;
-  public final @Nullable EmpiricalDelayRepository empiricalDelayRepository;
+  private final SerializedRepository<EmissionRepository> emissionRepository;
+  private final SerializedRepository<EmpiricalDelayRepository> empiricalDelayRepository;
   public final FareServiceFactory fareServiceFactory;
   public final StreetRepository streetRepository;
   public final VehicleParkingRepository parkingRepository;
@@ -125,8 +138,8 @@ public class SerializedGraphObject implements Serializable {
     this.buildConfig = buildConfig;
     this.routerConfig = routerConfig;
     this.issueSummary = issueSummary;
-    this.emissionRepository = emissionRepository;
-    this.empiricalDelayRepository = empiricalDelayRepository;
+    this.emissionRepository = SerializedRepository.of(emissionRepository);
+    this.empiricalDelayRepository = SerializedRepository.of(empiricalDelayRepository);
     this.allTransitSubModes = SubMode.listAllCachedSubModes();
     this.routingTripPatternCounter = RoutingTripPattern.indexCounter();
     this.stopConsolidationRepository = stopConsolidationRepository;
@@ -162,21 +175,31 @@ public class SerializedGraphObject implements Serializable {
     }
   }
 
+  /**
+   * The emission repository, or {@code null} if the {@link OTPFeature#Emission} feature is off.
+   * The repository is deserialized the first time it is requested.
+   */
+  @Nullable
+  public EmissionRepository emissionRepository() {
+    return OTPFeature.Emission.isOn() ? emissionRepository.get() : null;
+  }
+
+  /**
+   * The empirical delay repository, or {@code null} if the {@link OTPFeature#EmpiricalDelay}
+   * feature is off. The repository is deserialized the first time it is requested.
+   */
+  @Nullable
+  public EmpiricalDelayRepository empiricalDelayRepository() {
+    return OTPFeature.EmpiricalDelay.isOn() ? empiricalDelayRepository.get() : null;
+  }
+
   /**
    * After deserialization, the vertices will all have null outgoing and incoming edge lists because
    * those edge lists are marked transient, to prevent excessive recursion depth while serializing.
    * This method will reconstruct all those edge lists after deserialization.
    */
   public void reconstructEdgeLists() {
-    for (Vertex v : graph.getVertices()) {
-      v.initEdgeLists();
-    }
-    for (Edge e : edges) {
-      Vertex fromVertex = e.getFromVertex();
-      Vertex toVertex = e.getToVertex();
-      fromVertex.addOutgoing(e);
-      toVertex.addIncoming(e);
-    }
+    graph.reconstructEdgeLists(edges);
   }
 
   /**
@@ -184,6 +207,7 @@ public class SerializedGraphObject implements Serializable {
    */
   public void save(@Nullable DataSource target) {
     if (target != null) {
+      precomputeRaptorTripPatterns();
       save(target.asOutputStream(), target.name(), target.size());
     } else {
       LOG.info("Not saving graph to disk, as requested.");
@@ -196,15 +220,17 @@ public class SerializedGraphObject implements Serializable {
     // TODO store version information, halt load if versions mismatch
     try (inputStream) {
       LOG.info("Reading graph from '{}'", sourceDescription);
-      Input input = new Input(inputStream);
 
       validateGraphSerializationId(
-        input.readBytes(GraphFileHeader.headerLength()),
+        inputStream.readNBytes(GraphFileHeader.headerLength()),
         sourceDescription
       );
 
       Kryo kryo = KryoBuilder.create();
-      SerializedGraphObject serObj = (SerializedGraphObject) kryo.readClassAndObject(input);
+      SerializedGraphObject serObj;
+      try (Input input = new Input(new CompressedBlockInputStream(inputStream))) {
+        serObj = (SerializedGraphObject) kryo.readClassAndObject(input);
+      }
       SubMode.deserializeSubModeCache(serObj.allTransitSubModes);
       RoutingTripPattern.initIndexCounter(serObj.routingTripPatternCounter);
       CompactElevationProfile.setDistanceBetweenSamplesM(
@@ -272,12 +298,30 @@ public class SerializedGraphObject implements Serializable {
     }
   }
 
+  /**
+   * Store the trip patterns for each date in the timetable repository, so a server loading the
+   * graph does not need to compute them, see {@link OTPFeature#PrecomputeRaptorTripPatterns}.
+   */
+  private void precomputeRaptorTripPatterns() {
+    if (OTPFeature.PrecomputeRaptorTripPatterns.isOn() && timetableRepository.hasTransit()) {
+      timetableRepository.index();
+      timetableRepository.setPrecomputedTripPatternsForDate(
+        RaptorTransitDataMapper.precomputeTripPatterns(timetableRepository)
+      );
+    }
+  }
+
   private void save(OutputStream outputStream, String graphName, long size) {
     LOG.info("Writing graph {}  ...", graphName);
     outputStream = wrapOutputStreamWithProgressTracker(graphName, outputStream, size);
     Kryo kryo = KryoBuilder.create();
-    Output output = new Output(outputStream);
-    output.write(OtpProjectInfo.projectInfo().graphFileHeaderInfo.header());
+    try {
+      outputStream.write(OtpProjectInfo.projectInfo().graphFileHeaderInfo.header());
+    } catch (IOException e) {
+      throw new KryoException(e);
+    }
+    // The header is not compressed, to be able to check the version before reading the graph
+    Output output = new Output(new CompressedBlockOutputStream(outputStream));
     kryo.writeClassAndObject(output, this);
     output.close();
     LOG.info("Graph written: {}", graphName);
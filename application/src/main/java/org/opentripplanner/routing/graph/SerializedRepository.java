@@ -0,0 +1,58 @@
+package org.opentripplanner.routing.graph;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import javax.annotation.Nullable;
+import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+
+/**
+ * A repository stored in the graph file as a separate block of bytes, serialized independently of
+ * the rest of the graph. When the graph is loaded, the bytes are read, but the repository is only
+ * deserialized the first time it is requested. A repository which is not used, because the
+ * feature using it is turned off, is never deserialized.
+ * <p>
+ * Only repositories which do not reference the other objects in the graph, like the street edges
+ * or the trip patterns, can be stored this way. A referenced object would be deserialized as a
+ * copy, not as the object in the graph.
+ */
+class SerializedRepository<T> implements Serializable {
+
+  private final byte[] bytes;
+
+  @Nullable
+  private transient T repository;
+
+  private transient boolean deserialized;
+
+  private SerializedRepository(byte[] bytes, @Nullable T repository) {
+    this.bytes = bytes;
+    this.repository = repository;
+    this.deserialized = true;
+  }
+
+  static <T> SerializedRepository<T> of(@Nullable T repository) {
+    var kryo = KryoBuilder.create();
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new Output(bytes)) {
+      kryo.writeClassAndObject(output, repository);
+    }
+    return new SerializedRepository<>(bytes.toByteArray(), repository);
+  }
+
+  /**
+   * Return the repository, deserialize it if this is the first time it is requested.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  synchronized T get() {
+    if (!deserialized) {
+      try (var input = new Input(bytes)) {
+        repository = (T) KryoBuilder.create().readClassAndObject(input);
+      }
+      deserialized = true;
+    }
+    return repository;
+  }
+}
@@ -7,9 +7,11 @@ import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
 import org.opentripplanner.astar.spi.TraverseVisitor;
 import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
 import org.opentripplanner.astar.strategy.PathComparator;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OTPRequestTimeoutException;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.api.request.preference.StreetPreferences;
@@ -18,9 +20,14 @@ import org.opentripplanner.routing.linking.LinkingContext;
 import org.opentripplanner.street.model.StreetConstants;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.ExtensionRequestContext;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.EuclideanRemainingWeightHeuristic;
 import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.ch.CarContractionHierarchy;
+import org.opentripplanner.street.search.ch.CarContractionHierarchyRouter;
+import org.opentripplanner.street.search.landmark.LandmarkIndex;
+import org.opentripplanner.street.search.landmark.LandmarkRemainingWeightHeuristic;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
 import org.opentripplanner.streetadapter.StreetSearchRequestMapper;
@@ -60,6 +67,15 @@ public class GraphPathFinder {
 
   private final float maxCarSpeed;
 
+  @Nullable
+  private final LandmarkIndex landmarkIndex;
+
+  @Nullable
+  private final CarContractionHierarchy carContractionHierarchy;
+
+  @Nullable
+  private final StreetEdgeCostCache edgeCostCache;
+
   public GraphPathFinder(@Nullable TraverseVisitor<State, Edge> traverseVisitor) {
     this(traverseVisitor, List.of(), StreetConstants.DEFAULT_MAX_CAR_SPEED);
   }
@@ -68,10 +84,32 @@ public class GraphPathFinder {
     @Nullable TraverseVisitor<State, Edge> traverseVisitor,
     Collection<ExtensionRequestContext> extensionRequestContexts,
     float maxCarSpeed
+  ) {
+    this(traverseVisitor, extensionRequestContexts, maxCarSpeed, null, null, null);
+  }
+
+  /**
+   * @param landmarkIndex If set, the search uses the landmark heuristic instead of the euclidean
+   *                      heuristic.
+   * @param carContractionHierarchy If set, car searches supported by the hierarchy use it instead
+   *                                of A*.
+   * @param edgeCostCache If set, the search uses the precomputed edge costs for its street
+   *                      profile, if they exist.
+   */
+  public GraphPathFinder(
+    @Nullable TraverseVisitor<State, Edge> traverseVisitor,
+    Collection<ExtensionRequestContext> extensionRequestContexts,
+    float maxCarSpeed,
+    @Nullable LandmarkIndex landmarkIndex,
+    @Nullable CarContractionHierarchy carContractionHierarchy,
+    @Nullable StreetEdgeCostCache edgeCostCache
   ) {
     this.traverseVisitor = traverseVisitor;
     this.extensionRequestContexts = Objects.requireNonNull(extensionRequestContexts);
     this.maxCarSpeed = maxCarSpeed;
+    this.landmarkIndex = landmarkIndex;
+    this.carContractionHierarchy = carContractionHierarchy;
+    this.edgeCostCache = edgeCostCache;
   }
 
   /**
@@ -84,23 +122,41 @@ public class GraphPathFinder {
     Set<Vertex> to
   ) {
     StreetPreferences preferences = request.preferences().street();
+    var maxDirectDuration = preferences
+      .maxDirectDuration()
+      .valueOf(request.journey().direct().mode());
+    var streetRequest = StreetSearchRequestMapper.map(request)
+      .withExtensionRequestContexts(extensionRequestContexts)
+      .withMode(request.journey().direct().mode())
+      .build();
+
+    // The visualizer needs to see the A* search, so the contraction hierarchy is not used with it
+    if (
+      carContractionHierarchy != null &&
+      traverseVisitor == null &&
+      CarContractionHierarchy.supports(streetRequest)
+    ) {
+      var path = new CarContractionHierarchyRouter(carContractionHierarchy).route(
+        streetRequest,
+        from,
+        to,
+        maxDirectDuration
+      );
+      if (path.isPresent()) {
+        return List.of(path.get());
+      }
+      LOG.debug("No path found in the car contraction hierarchy, falling back to A*");
+    }
 
     StreetSearchBuilder aStar = StreetSearchBuilder.of()
       .withPreStartHook(OTPRequestTimeoutException::checkForTimeout)
-      .withHeuristic(new EuclideanRemainingWeightHeuristic(maxCarSpeed))
-      .withSkipEdgeStrategy(
-        new DurationSkipEdgeStrategy(
-          preferences.maxDirectDuration().valueOf(request.journey().direct().mode())
-        )
-      )
+      .withHeuristic(createHeuristic())
+      .withSkipEdgeStrategy(new DurationSkipEdgeStrategy(maxDirectDuration))
       // FORCING the dominance function to weight only
       .withDominanceFunction(new DominanceFunctions.MinimumWeight())
-      .withRequest(
-        StreetSearchRequestMapper.map(request)
-          .withExtensionRequestContexts(extensionRequestContexts)
-          .withMode(request.journey().direct().mode())
-          .build()
-      )
+      .withBidirectionalSearch(OTPFeature.BidirectionalStreetSearch.isOn())
+      .withEdgeCostCache(edgeCostCache)
+      .withRequest(streetRequest)
       .withFrom(from)
       .withTo(to);
 
@@ -183,4 +239,10 @@ public class GraphPathFinder {
 
     return paths;
   }
+
+  private RemainingWeightHeuristic<State> createHeuristic() {
+    return landmarkIndex == null
+      ? new EuclideanRemainingWeightHeuristic(maxCarSpeed)
+      : new LandmarkRemainingWeightHeuristic(landmarkIndex, maxCarSpeed);
+  }
 }
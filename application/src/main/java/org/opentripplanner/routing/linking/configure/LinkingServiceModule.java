@@ -25,7 +25,8 @@ public class LinkingServiceModule {
       graph,
       COMPUTE_AREA_VISIBILITY_LINES,
       streetLimitationParametersService.maxAreaNodes(),
-      OTPFeature.FlexRouting.isOn()
+      OTPFeature.FlexRouting.isOn(),
+      OTPFeature.LinkingCache.isOn() ? graph.getLinkingCache() : null
     );
   }
 
@@ -57,7 +57,11 @@ public class VertexCreationService {
       ? new LocalizedString(type.translationKey())
       : new NonLocalizedString(label);
 
-    var temporaryStreetLocation = new TemporaryStreetLocation(coordinate, name);
+    var temporaryStreetLocation = new TemporaryStreetLocation(
+      coordinate,
+      name,
+      container.overlay()
+    );
 
     var disposableEdgeCollection = vertexLinker.linkVertexForRequest(
       temporaryStreetLocation,
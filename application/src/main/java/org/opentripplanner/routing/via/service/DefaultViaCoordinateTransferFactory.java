@@ -4,6 +4,7 @@ import jakarta.inject.Inject;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.graph_builder.module.nearbystops.NearbyStopFinder;
 import org.opentripplanner.graph_builder.module.nearbystops.StraightLineNearbyStopFinder;
 import org.opentripplanner.graph_builder.module.nearbystops.StreetNearbyStopFinder;
@@ -78,11 +79,11 @@ public class DefaultViaCoordinateTransferFactory implements ViaCoordinateTransfe
     if (!graph.hasStreets) {
       return new StraightLineNearbyStopFinder(transitService, radiusAsDuration);
     } else {
-      return StreetNearbyStopFinder.of(
-        new TransitServiceResolver(transitService),
-        radiusAsDuration,
-        0
-      ).build();
+      var stopResolver = new TransitServiceResolver(transitService);
+      var edgeCostCache = OTPFeature.CachedStreetEdgeCosts.isOn() ? graph.getEdgeCostCache() : null;
+      return StreetNearbyStopFinder.of(stopResolver, radiusAsDuration, 0)
+        .withEdgeCostCache(edgeCostCache)
+        .build();
     }
   }
 
@@ -7,6 +7,7 @@ import com.beust.jcommander.ParameterException;
 import org.geotools.referencing.factory.DeferredAuthorityFactory;
 import org.geotools.util.WeakCollectionCleaner;
 import org.opentripplanner.framework.application.ApplicationShutdownSupport;
+import org.opentripplanner.framework.application.OTPFeature;
 import org.opentripplanner.framework.application.OtpAppException;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueSummary;
 import org.opentripplanner.raptor.configure.RaptorConfig;
@@ -32,6 +33,9 @@ public class OTPMain {
 
   private static final Logger LOG = LoggerFactory.getLogger(OTPMain.class);
 
+  /** The memory-mapped street network, shared by the instances started in the same directory. */
+  private static final String STREET_NETWORK_FILENAME = "streetNetwork.bin";
+
   static {
     // Disable HSQLDB reconfiguration of Java Unified Logging (j.u.l)
     //noinspection AccessOfSystemProperties
@@ -189,6 +193,10 @@ public class OTPMain {
     app.timetableRepository().index();
     app.transferRepository().index();
     app.graph().index();
+    if (OTPFeature.MappedStreetNetwork.isOn()) {
+      var file = params.getBaseDirectory().toPath().resolve(STREET_NETWORK_FILENAME);
+      app.graph().useMappedStreetNetwork(file);
+    }
 
     // publishing the config version info make it available to the APIs
     setOtpConfigVersionsOnServerInfo(app);
@@ -42,6 +42,7 @@ import org.opentripplanner.street.graph.Graph;
 import org.opentripplanner.street.linking.VertexLinker;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.ExtensionRequestContext;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.service.StreetLimitationParametersService;
 import org.opentripplanner.transfer.regular.RegularTransferService;
@@ -140,6 +141,15 @@ public interface OtpServerRequestContext {
     );
   }
 
+  /**
+   * The precomputed street edge costs, or null if the {@code CachedStreetEdgeCosts} feature is off
+   * or the graph is not indexed.
+   */
+  @Nullable
+  default StreetEdgeCostCache edgeCostCache() {
+    return OTPFeature.CachedStreetEdgeCosts.isOn() ? graph().getEdgeCostCache() : null;
+  }
+
   FlexParameters flexParameters();
 
   VectorTileConfig vectorTileConfig();
@@ -4,6 +4,7 @@ import static org.opentripplanner.framework.application.OtpFileNames.BUILD_CONFI
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V1_5;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_0;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_1;
+import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_10;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_2;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_5;
 import static org.opentripplanner.standalone.config.framework.json.OtpVersion.V2_7;
@@ -119,6 +120,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final boolean areaVisibility;
 
+  public final boolean carContractionHierarchy;
+
   public final boolean platformEntriesLinking;
 
   /** See {@link S3BucketConfig}. */
@@ -150,6 +153,8 @@ public class BuildConfig implements OtpDataStoreConfig {
 
   public final boolean osmCacheDataInMem;
 
+  public final boolean osmNodesOffHeap;
+
   /** See {@link IslandPruningConfig}. */
   public final IslandPruningConfig islandPruning;
 
@@ -174,6 +179,7 @@ public class BuildConfig implements OtpDataStoreConfig {
   public final boolean staticParkAndRide;
   public final boolean staticBikeParkAndRide;
   public final boolean includeInclinedEdgeLevelInfo;
+  public final int streetRoutingLandmarks;
   public final double distanceBetweenElevationSamples;
   public final double maxElevationPropagationMeters;
   public final boolean readCachedElevations;
@@ -214,6 +220,21 @@ public class BuildConfig implements OtpDataStoreConfig {
         """
       )
       .asBoolean(false);
+    carContractionHierarchy = root
+      .of("carContractionHierarchy")
+      .since(V2_10)
+      .summary("Build a contraction hierarchy to speed up direct car routing.")
+      .description(
+        """
+        If this is `true` the graph build contracts the car street network, using the default car
+        preferences, turn costs and turn restrictions. Direct car searches using the same
+        preferences (the car reluctance may differ) are then answered from the hierarchy, which is
+        orders of magnitude faster than A* on large graphs. Other car searches fall back to A*.
+        Building the hierarchy takes some minutes for a country sized graph and increases the graph
+        size.
+        """
+      )
+      .asBoolean(false);
     configVersion = root
       .of("configVersion")
       .since(V2_1)
@@ -319,6 +340,20 @@ public class BuildConfig implements OtpDataStoreConfig {
         """
       )
       .asBoolean(false);
+    osmNodesOffHeap = root
+      .of("osmNodesOffHeap")
+      .since(V2_10)
+      .summary("If untagged OSM nodes should be kept off the heap during processing.")
+      .description(
+        """
+        Most OSM nodes are untagged and only give the geometry of the ways. If this is `true` the
+        coordinates of these nodes are kept in a memory-mapped temporary file instead of as objects
+        on the heap while the street graph is built. This reduces the memory needed to build a
+        graph from a large extract, at the cost of some processing time. The file is deleted when
+        the street graph is built.
+        """
+      )
+      .asBoolean(false);
     platformEntriesLinking = root
       .of("platformEntriesLinking")
       .since(V2_0)
@@ -353,6 +388,23 @@ public class BuildConfig implements OtpDataStoreConfig {
         "Whether level info for inclined edges should be stored in the graph for use during runtime."
       )
       .asBoolean(false);
+    streetRoutingLandmarks = root
+      .of("streetRoutingLandmarks")
+      .since(V2_10)
+      .summary("Number of landmarks to precompute for the direct street routing heuristic.")
+      .description(
+        """
+        When set, the graph build selects this many landmarks for walking, cycling and driving and
+        stores the distance from every street vertex to and from each of them in the graph. Direct
+        street searches then use these distances (the ALT heuristic) instead of the straight-line
+        distance to guide the search, which makes long car and bicycle searches explore far fewer
+        vertices. A value between 8 and 16 is usually a good choice.
+
+        The tables use 4 bytes per vertex, landmark and mode, so the graph grows accordingly. Set
+        to 0 to disable.
+        """
+      )
+      .asInt(0);
     subwayAccessTime = root
       .of("subwayAccessTime")
       .since(V1_5)
@@ -39,6 +39,7 @@ import org.opentripplanner.standalone.server.OTPWebApplication;
 import org.opentripplanner.street.StreetRepository;
 import org.opentripplanner.street.graph.Graph;
 import org.opentripplanner.street.linking.VertexLinker;
+import org.opentripplanner.streetadapter.StreetSearchRequestMapper;
 import org.opentripplanner.transfer.regular.TransferRepository;
 import org.opentripplanner.transit.service.TimetableRepository;
 import org.opentripplanner.updater.configure.UpdaterConfigurator;
@@ -216,6 +217,10 @@ public class ConstructApplication {
 
     initializeTransferCache(routerConfig().transitTuningConfig(), timetableRepository());
 
+    if (OTPFeature.CachedStreetEdgeCosts.isOn()) {
+      initializeStreetEdgeCostCache(routerConfig().transitTuningConfig(), graph());
+    }
+
     if (OTPFeature.SandboxAPIGeocoder.isOn()) {
       LOG.info("Initializing geocoder");
       // eagerly initialize the geocoder
@@ -280,6 +285,27 @@ public class ConstructApplication {
     }
   }
 
+  /**
+   * Precompute the street edge costs for the street profiles of the transfer cache requests.
+   */
+  private static void initializeStreetEdgeCostCache(
+    TransitTuningParameters transitTuningConfig,
+    Graph graph
+  ) {
+    var edgeCostCache = graph.getEdgeCostCache();
+    if (edgeCostCache == null) {
+      LOG.warn("Cannot create the street edge costs, the graph is not indexed.");
+      return;
+    }
+    transitTuningConfig
+      .transferCacheRequests()
+      .forEach(request ->
+        edgeCostCache.initForRequest(
+          StreetSearchRequestMapper.mapToTransferRequest(request).build()
+        )
+      );
+  }
+
   public TimetableRepository timetableRepository() {
     return factory.timetableRepository();
   }
@@ -1,5 +1,6 @@
 package org.opentripplanner.standalone.configure;
 
+import java.util.Objects;
 import javax.annotation.Nullable;
 import org.opentripplanner.datastore.api.DataSource;
 import org.opentripplanner.ext.emission.EmissionRepository;
@@ -69,8 +70,12 @@ public class LoadApplication {
       obj.worldEnvelopeRepository,
       obj.parkingRepository,
       obj.issueSummary,
-      obj.emissionRepository,
-      obj.empiricalDelayRepository,
+      // The repositories of features turned off are not deserialized, use empty ones instead
+      Objects.requireNonNullElseGet(obj.emissionRepository(), factory::emptyEmissionsDataModel),
+      Objects.requireNonNullElseGet(
+        obj.empiricalDelayRepository(),
+        factory::emptyEmpiricalDelayRepository
+      ),
       obj.stopConsolidationRepository,
       obj.streetRepository,
       obj.fareServiceFactory
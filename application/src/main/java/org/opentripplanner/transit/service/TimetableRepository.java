@@ -33,6 +33,7 @@ import org.opentripplanner.model.FeedInfo;
 import org.opentripplanner.model.calendar.CalendarService;
 import org.opentripplanner.model.calendar.CalendarServiceData;
 import org.opentripplanner.model.calendar.impl.CalendarServiceImpl;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.PrecomputedTripPatternsForDate;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransitData;
 import org.opentripplanner.routing.impl.DelegatingTransitAlertServiceImpl;
 import org.opentripplanner.routing.services.TransitAlertService;
@@ -108,6 +109,14 @@ public class TimetableRepository implements Serializable {
   private final transient ConcurrentPublished<RaptorTransitData> realtimeRaptorTransitData =
     new ConcurrentPublished<>();
 
+  /**
+   * The scheduled trip patterns for each running date, computed when the graph is saved if the
+   * {@code PrecomputeRaptorTripPatterns} feature is on. They are removed when the
+   * RaptorTransitData is created from them.
+   */
+  @Nullable
+  private PrecomputedTripPatternsForDate precomputedTripPatternsForDate;
+
   private final CalendarServiceData calendarServiceData = new CalendarServiceData();
 
   private transient TimetableRepositoryIndex index;
@@ -162,6 +171,23 @@ public class TimetableRepository implements Serializable {
     this.raptorTransitData = raptorTransitData;
   }
 
+  public void setPrecomputedTripPatternsForDate(
+    @Nullable PrecomputedTripPatternsForDate precomputedTripPatternsForDate
+  ) {
+    this.precomputedTripPatternsForDate = precomputedTripPatternsForDate;
+  }
+
+  /**
+   * Return the precomputed trip patterns for each running date, if any, and remove them from this
+   * repository, so they are not kept in memory after the RaptorTransitData is created.
+   */
+  @Nullable
+  public PrecomputedTripPatternsForDate removePrecomputedTripPatternsForDate() {
+    var result = precomputedTripPatternsForDate;
+    precomputedTripPatternsForDate = null;
+    return result;
+  }
+
   /** Data model for Raptor routing, with realtime updates applied (if any). */
   @Nullable
   public RaptorTransitData getRealtimeRaptorTransitData() {
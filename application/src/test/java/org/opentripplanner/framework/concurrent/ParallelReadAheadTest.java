@@ -0,0 +1,53 @@
+package org.opentripplanner.framework.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ParallelReadAheadTest {
+
+  private static final List<Integer> INPUTS = IntStream.range(0, 20).boxed().toList();
+
+  @Test
+  void resultsAreTakenInOrder() {
+    var results = new ArrayList<String>();
+    try (var readAhead = new ParallelReadAhead<>("test-%d", 4, INPUTS, this::slowLoad)) {
+      for (Integer input : INPUTS) {
+        results.add(readAhead.take(input));
+      }
+    }
+    assertEquals(INPUTS.stream().map(String::valueOf).toList(), results);
+  }
+
+  @Test
+  void inputsMustBeTakenInOrder() {
+    try (var readAhead = new ParallelReadAhead<>("test-%d", 4, INPUTS, String::valueOf)) {
+      assertThrows(IllegalStateException.class, () -> readAhead.take(INPUTS.get(1)));
+    }
+  }
+
+  @Test
+  void checkedExceptionsAreWrapped() {
+    ParallelReadAhead.Loader<Integer, String> loader = i -> {
+      throw new IOException("Failed to load " + i);
+    };
+    for (int parallelism : List.of(1, 4)) {
+      try (var readAhead = new ParallelReadAhead<>("test-%d", parallelism, INPUTS, loader)) {
+        var e = assertThrows(RuntimeException.class, () -> readAhead.take(INPUTS.getFirst()));
+        assertInstanceOf(IOException.class, e.getCause());
+      }
+    }
+  }
+
+  private String slowLoad(Integer input) throws InterruptedException {
+    // Make the inputs finish out of order
+    Thread.sleep((INPUTS.size() - input) % 5);
+    return String.valueOf(input);
+  }
+}
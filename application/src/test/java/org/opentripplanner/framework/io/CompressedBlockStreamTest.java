@@ -0,0 +1,82 @@
+package org.opentripplanner.framework.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CompressedBlockStreamTest {
+
+  private static final int BLOCK_SIZE = 1000;
+
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 999, 1000, 1001, 54_321 })
+  void roundTrip(int size) throws IOException {
+    var data = data(size);
+    var compressed = new ByteArrayOutputStream();
+    try (var out = new CompressedBlockOutputStream(compressed, BLOCK_SIZE, 3)) {
+      // Write both single bytes and arrays crossing the block boundaries
+      int i = 0;
+      while (i < size) {
+        if (i % 7 == 0) {
+          out.write(data[i++]);
+        } else {
+          int n = Math.min(size - i, 1234);
+          out.write(data, i, n);
+          i += n;
+        }
+        out.flush();
+      }
+    }
+
+    try (
+      var in = new CompressedBlockInputStream(
+        new ByteArrayInputStream(compressed.toByteArray()),
+        2
+      )
+    ) {
+      assertArrayEquals(data, in.readAllBytes());
+    }
+  }
+
+  @Test
+  void compress() throws IOException {
+    var compressed = new ByteArrayOutputStream();
+    try (var out = new CompressedBlockOutputStream(compressed, BLOCK_SIZE, 2)) {
+      out.write(new byte[10_000]);
+    }
+    assertTrue(compressed.size() < 1000, "Size: " + compressed.size());
+  }
+
+  @Test
+  void corruptBlock() throws IOException {
+    var compressed = new ByteArrayOutputStream();
+    try (var out = new CompressedBlockOutputStream(compressed, BLOCK_SIZE, 2)) {
+      out.write(data(5000));
+    }
+    var bytes = compressed.toByteArray();
+    // Change a byte in the compressed data of the first block, after the sizes and checksum
+    bytes[20] ^= 1;
+
+    try (var in = new CompressedBlockInputStream(new ByteArrayInputStream(bytes), 2)) {
+      assertThrows(IOException.class, in::readAllBytes);
+    }
+  }
+
+  private static byte[] data(int size) {
+    var random = new Random(7);
+    var data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      // Compressible, but not trivially
+      data[i] = random.nextInt(10) < 7 ? (byte) 'a' : (byte) random.nextInt();
+    }
+    return data;
+  }
+}
@@ -0,0 +1,51 @@
+package org.opentripplanner.graph_builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model.StreetModelForTest.intersectionVertex;
+import static org.opentripplanner.street.model.StreetModelForTest.streetEdge;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.transit.service.TimetableRepository;
+
+class BuildProfilerTest {
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  void profileModules() throws IOException {
+    var graph = new Graph();
+    var profiler = new BuildProfiler(graph, new TimetableRepository());
+
+    profiler.buildGraph(() -> {
+      var a = intersectionVertex(0.0, 0.0);
+      var b = intersectionVertex(0.1, 0.1);
+      graph.addVertex(a);
+      graph.addVertex(b);
+      streetEdge(a, b);
+    });
+    profiler.buildGraph(() -> {});
+
+    var modules = profiler.modules();
+    assertEquals(2, modules.size());
+    assertEquals(2, modules.get(0).verticesCreated());
+    assertEquals(1, modules.get(0).edgesCreated());
+    assertEquals(0, modules.get(0).patternsCreated());
+    assertEquals(0, modules.get(1).verticesCreated());
+    assertTrue(modules.get(0).wallTimeMs() >= 0);
+    assertTrue(modules.get(0).peakHeapBytes() > 0);
+
+    var file = new File(tempDir, "build-profile.json");
+    profiler.writeJson(file);
+    var json = new ObjectMapper().readTree(file);
+    assertEquals(2, json.size());
+    assertEquals(2, json.get(0).get("verticesCreated").asInt());
+    assertEquals(1, json.get(0).get("edgesCreated").asInt());
+  }
+}
@@ -5,8 +5,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
-import org.opentripplanner.graph_builder.issue.api.DataImportIssue;
 import org.opentripplanner.graph_builder.issue.api.Issue;
+import org.opentripplanner.graph_builder.issue.service.DefaultDataImportIssueStore;
 
 class DataImportIssueReporterTest {
 
@@ -14,23 +14,35 @@ class DataImportIssueReporterTest {
 
   @Test
   void partitionIssues() {
-    List<DataImportIssue> issues = new ArrayList<>();
+    var issueStore = new DefaultDataImportIssueStore();
 
     // Just a bit more than max should be still contained on one page
     for (int i = 0; i < 11; i++) {
-      issues.add(Issue.issue("TypeA", "a_" + i));
+      issueStore.add(Issue.issue("TypeA", "a_" + i));
     }
 
     // This should be split equally on 20 pages
     for (int i = 0; i < 200; i++) {
-      issues.add(Issue.issue("TypeB", "b_" + i));
+      issueStore.add(Issue.issue("TypeB", "b_" + i));
     }
 
-    var buckets = DataImportIssueReporter.partitionIssues(issues, MAX_NUMBER_OF_ISSUES_PER_FILE);
+    var countByType = issueStore.summary().asMap();
+    List<Bucket> buckets = new ArrayList<>();
+    DataImportIssueReporter.partitionIssues(
+      issueStore,
+      countByType,
+      MAX_NUMBER_OF_ISSUES_PER_FILE,
+      buckets::add
+    );
 
     assertEquals(21, buckets.size());
 
     var sortedBuckets = buckets.stream().sorted().toList();
+    assertEquals(sortedBuckets, buckets);
+    assertEquals(
+      buckets.stream().map(Bucket::key).toList(),
+      DataImportIssueReporter.bucketKeys(countByType, MAX_NUMBER_OF_ISSUES_PER_FILE)
+    );
 
     assertEquals(new BucketKey("TypeA", null), sortedBuckets.get(0).key());
     assertEquals(11, sortedBuckets.get(0).issues().size());
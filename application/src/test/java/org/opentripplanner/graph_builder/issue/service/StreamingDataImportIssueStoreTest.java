@@ -0,0 +1,108 @@
+package org.opentripplanner.graph_builder.issue.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssue;
+import org.opentripplanner.graph_builder.issue.api.Issue;
+import org.opentripplanner.street.geometry.GeometryUtils;
+
+class StreamingDataImportIssueStoreTest {
+
+  private static final Geometry POINT = GeometryUtils.getGeometryFactory()
+    .createPoint(new Coordinate(10.7, 59.9));
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void summary() {
+    var subject = new StreamingDataImportIssueStore(tempDir);
+    subject.add("TypeA", "a1");
+    subject.add("TypeB", "b%d", 1);
+    subject.add("TypeA", "a2");
+
+    assertEquals(Map.of("TypeA", 2L, "TypeB", 1L), subject.summary().asMap());
+  }
+
+  @Test
+  void issuesAreReadBackByPriority() {
+    var subject = new StreamingDataImportIssueStore(tempDir);
+    subject.add(new PriorityIssue("low", 1, null));
+    subject.add(new PriorityIssue("high", 10, POINT));
+    subject.add(new PriorityIssue("medium", -1, null));
+    subject.add(new PriorityIssue("high again", 10, null));
+    subject.add("Other", "other");
+
+    var issues = new ArrayList<DataImportIssue>();
+    subject.forEachIssue(PriorityIssue.class.getSimpleName(), issues::add);
+
+    assertEquals(
+      List.of("high", "high again", "low", "medium"),
+      issues.stream().map(DataImportIssue::getMessage).toList()
+    );
+    assertEquals(10, issues.getFirst().getPriority());
+    assertEquals("<b>high</b>", issues.getFirst().getHTMLMessage());
+    assertEquals(POINT, issues.getFirst().getGeometry());
+    assertNull(issues.get(1).getGeometry());
+  }
+
+  @Test
+  void source() {
+    var subject = new StreamingDataImportIssueStore(tempDir);
+    subject.startProcessingSource("feed.zip");
+    subject.add(Issue.issue("TypeA", "a"));
+    subject.stopProcessingSource();
+    subject.add(Issue.issue("TypeA", "b"));
+
+    assertEquals(
+      List.of("a - feed.zip", "b"),
+      subject.listIssues().stream().map(DataImportIssue::getMessage).toList()
+    );
+  }
+
+  @Test
+  void closeDeletesTheLog() throws Exception {
+    var dir = tempDir.resolve("issues");
+    Files.createDirectory(dir);
+    var subject = new StreamingDataImportIssueStore(dir);
+    subject.add("TypeA", "a");
+    subject.close();
+
+    assertFalse(Files.exists(dir));
+    assertEquals(Map.of("TypeA", 1L), subject.summary().asMap());
+  }
+
+  private record PriorityIssue(String message, int priority, Geometry geometry)
+    implements DataImportIssue {
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public String getHTMLMessage() {
+      return "<b>" + message + "</b>";
+    }
+
+    @Override
+    public int getPriority() {
+      return priority;
+    }
+
+    @Override
+    public Geometry getGeometry() {
+      return geometry;
+    }
+  }
+}
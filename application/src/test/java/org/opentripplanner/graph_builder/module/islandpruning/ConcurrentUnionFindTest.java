@@ -0,0 +1,39 @@
+package org.opentripplanner.graph_builder.module.islandpruning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentUnionFindTest {
+
+  @Test
+  void rootIsTheSmallestElement() {
+    var unionFind = new ConcurrentUnionFind(6);
+    unionFind.union(5, 3);
+    unionFind.union(3, 4);
+    unionFind.union(2, 1);
+
+    assertEquals(3, unionFind.find(4));
+    assertEquals(3, unionFind.find(5));
+    assertEquals(1, unionFind.find(2));
+    assertEquals(0, unionFind.find(0));
+    assertNotEquals(unionFind.find(1), unionFind.find(3));
+  }
+
+  @Test
+  void parallelUnions() {
+    int size = 100_000;
+    var unionFind = new ConcurrentUnionFind(size);
+    // Link every element to the next one with the same remainder, in reverse and in parallel
+    IntStream.range(0, size - 3)
+      .parallel()
+      .map(i -> size - 4 - i)
+      .forEach(i -> unionFind.union(i + 3, i));
+
+    for (int i = 0; i < size; i++) {
+      assertEquals(i % 3, unionFind.find(i));
+    }
+  }
+}
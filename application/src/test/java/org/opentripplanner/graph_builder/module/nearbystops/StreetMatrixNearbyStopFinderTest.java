@@ -0,0 +1,104 @@
+package org.opentripplanner.graph_builder.module.nearbystops;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.GraphRoutingTest;
+import org.opentripplanner.routing.api.request.RouteRequest;
+import org.opentripplanner.routing.graphfinder.NearbyStop;
+import org.opentripplanner.street.geometry.WgsCoordinate;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.TransitStopVertex;
+
+class StreetMatrixNearbyStopFinderTest extends GraphRoutingTest {
+
+  private static final WgsCoordinate ORIGIN = new WgsCoordinate(0.0, 0.0);
+  private static final Duration DURATION_LIMIT = Duration.ofMinutes(10);
+
+  private TransitStopVertex isolatedStop;
+  private TransitStopVertex stopA;
+  private TransitStopVertex stopB;
+  private TransitStopVertex stopC;
+  private TransitStopVertex stopD;
+  private List<TransitStopVertex> stops;
+  private StopResolver stopResolver;
+
+  @BeforeEach
+  protected void setUp() throws Exception {
+    var model = modelOf(
+      new GraphRoutingTest.Builder() {
+        @Override
+        public void build() {
+          var isolated = intersection("isolated", ORIGIN.moveNorthMeters(1000));
+
+          var A = intersection("A", ORIGIN);
+          var B = intersection("B", ORIGIN.moveEastMeters(100));
+          var C = intersection("C", ORIGIN.moveEastMeters(200));
+          var D = intersection("D", ORIGIN.moveEastMeters(300));
+
+          biStreet(A, B, 100);
+          street(B, C, 100, StreetTraversalPermission.ALL);
+          biStreet(C, D, 400);
+
+          isolatedStop = stop("IsolatedStop", isolated.toWgsCoordinate());
+          stopA = stop("StopA", A.toWgsCoordinate());
+          stopB = stop("StopB", B.toWgsCoordinate());
+          stopC = stop("StopC", C.toWgsCoordinate());
+          stopD = stop("StopD", D.toWgsCoordinate());
+
+          biLink(A, stopA);
+          biLink(B, stopB);
+          biLink(C, stopC);
+          biLink(D, stopD);
+        }
+      }
+    );
+    this.stops = List.of(isolatedStop, stopA, stopB, stopC, stopD);
+    this.stopResolver = new SiteRepositoryResolver(model.timetableRepository().getSiteRepository());
+  }
+
+  @Test
+  void preparedStopsFindTheSameStopsAsTheStreetSearch() {
+    var request = RouteRequest.of()
+      .withPreferences(b -> b.withWalk(w -> w.withSpeed(1.0)))
+      .buildDefault();
+    var limit = Duration.ofSeconds(350);
+    var finder = new StreetMatrixNearbyStopFinder(stopResolver, limit, stops);
+    var streetFinder = StreetNearbyStopFinder.of(stopResolver, limit, 0).build();
+
+    finder.prepare(request, StreetMode.WALK, stops);
+
+    for (var stop : stops) {
+      for (boolean reverse : new boolean[] { false, true }) {
+        var expected = streetFinder.findNearbyStops(stop, request, StreetMode.WALK, reverse);
+        var result = finder.findNearbyStops(stop, request, StreetMode.WALK, reverse);
+        assertEquals(toString(expected), toString(result), stop + ", reverse: " + reverse);
+      }
+    }
+  }
+
+  @Test
+  void stopsWhichAreNotPreparedAreSearchedFromOneByOne() {
+    var request = RouteRequest.defaultValue();
+    var finder = new StreetMatrixNearbyStopFinder(stopResolver, DURATION_LIMIT, stops);
+
+    finder.prepare(request, StreetMode.WALK, List.of(stopA));
+
+    assertThat(finder.findNearbyStops(stopA, request, StreetMode.WALK, false)).hasSize(4);
+    assertThat(finder.findNearbyStops(stopD, request, StreetMode.WALK, false)).hasSize(2);
+  }
+
+  private List<String> toString(Collection<NearbyStop> nearbyStops) {
+    return nearbyStops
+      .stream()
+      .map(s -> s.stop.getId() + " " + s.distance + " " + s.edges)
+      .sorted()
+      .toList();
+  }
+}
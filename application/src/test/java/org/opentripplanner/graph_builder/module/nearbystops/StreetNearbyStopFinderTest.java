@@ -13,13 +13,22 @@ import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.opentripplanner.astar.model.HeapType;
+import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
 import org.opentripplanner.routing.algorithm.GraphRoutingTest;
 import org.opentripplanner.routing.api.request.RouteRequest;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
 import org.opentripplanner.street.geometry.WgsCoordinate;
 import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+import org.opentripplanner.streetadapter.StreetSearchRequestMapper;
 
 class StreetNearbyStopFinderTest extends GraphRoutingTest {
 
@@ -169,6 +178,60 @@ class StreetNearbyStopFinderTest extends GraphRoutingTest {
     assertStopAtDistance(stopC, 200, sortedNearbyStops.get(0));
   }
 
+  /**
+   * The finder searches with a radix heap, check that it gives the same shortest path tree as
+   * the binary heap on a grid with many paths of different weights.
+   */
+  @Test
+  void radixHeapGivesTheSameTreeAsTheBinaryHeap() {
+    var grid = new IntersectionVertex[6][6];
+    var model = modelOf(
+      new GraphRoutingTest.Builder() {
+        @Override
+        public void build() {
+          for (int i = 0; i < grid.length; i++) {
+            for (int j = 0; j < grid[i].length; j++) {
+              var c = ORIGIN.moveNorthMeters(100 * i).moveEastMeters(100 * j);
+              grid[i][j] = intersection("V" + i + "_" + j, c);
+              if (i > 0) {
+                biStreet(grid[i - 1][j], grid[i][j], 100 + 7 * j);
+              }
+              if (j > 0) {
+                biStreet(grid[i][j - 1], grid[i][j], 100 + 11 * i);
+              }
+            }
+          }
+        }
+      }
+    );
+
+    var binary = shortestPathTree(grid[2][3], HeapType.BINARY);
+    var radix = shortestPathTree(grid[2][3], HeapType.RADIX);
+
+    for (var v : model.graph().getVertices()) {
+      var expected = binary.getState(v);
+      var result = radix.getState(v);
+      assertNotNull(expected);
+      assertNotNull(result);
+      assertEquals(expected.getWeight(), result.getWeight());
+    }
+  }
+
+  private static ShortestPathTree<State, Edge, Vertex> shortestPathTree(
+    Vertex from,
+    HeapType heapType
+  ) {
+    return StreetSearchBuilder.of()
+      .withSkipEdgeStrategy(new DurationSkipEdgeStrategy<>(Duration.ofMinutes(30)))
+      .withDominanceFunction(new DominanceFunctions.MinimumWeight())
+      .withHeapType(heapType)
+      .withRequest(
+        StreetSearchRequestMapper.map(RouteRequest.defaultValue()).withMode(StreetMode.WALK).build()
+      )
+      .withFrom(from)
+      .getShortestPathTree();
+  }
+
   static List<NearbyStop> sort(Collection<NearbyStop> stops) {
     return stops.stream().sorted(Comparator.comparing(x -> x.distance)).toList();
   }
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -60,6 +61,34 @@ public class OsmDatabaseTest {
     assertEquals("platform", way.getTag("public_transport"));
   }
 
+  @Test
+  void nodesOffHeap() {
+    var file = RESOURCE_LOADER.file("ehningen-minimal.osm.pbf");
+    var onHeap = new OsmDatabase(DataImportIssueStore.NOOP);
+    new DefaultOsmProvider(file, true).readOsm(onHeap);
+    onHeap.postLoad();
+
+    try (var offHeap = new OsmDatabase(DataImportIssueStore.NOOP, true)) {
+      new DefaultOsmProvider(file, true).readOsm(offHeap);
+      offHeap.postLoad();
+
+      assertEquals(onHeap.nodeCount(), offHeap.nodeCount());
+      assertEquals(onHeap.getWalkableAreas().size(), offHeap.getWalkableAreas().size());
+      for (OsmWay way : onHeap.getWays()) {
+        for (long nodeId : way.getNodeRefs().toArray()) {
+          var expected = onHeap.getNode(nodeId);
+          var node = offHeap.getNode(nodeId);
+          assertEquals(expected == null, node == null);
+          if (node != null) {
+            assertEquals(expected.getCoordinate(), node.getCoordinate());
+            assertEquals(expected.getTags(), node.getTags());
+            assertSame(node, offHeap.getNode(nodeId));
+          }
+        }
+      }
+    }
+  }
+
   @Test
   void isNodeBelongsToWayShouldNotReturnTrueForNodesSolelyOnBarriers() {
     var osmdb = new OsmDatabase(DataImportIssueStore.NOOP);
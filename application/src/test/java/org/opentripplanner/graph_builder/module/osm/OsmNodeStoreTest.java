@@ -0,0 +1,67 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.osm.TestOsmProvider;
+import org.opentripplanner.osm.model.OsmNode;
+
+class OsmNodeStoreTest {
+
+  private static final TestOsmProvider PROVIDER = TestOsmProvider.of().build();
+
+  @Test
+  void storeAndMaterializeNodes() {
+    try (var store = new OsmNodeStore()) {
+      // Enough nodes to resize the table a few times
+      for (long id = 0; id < 10_000; id++) {
+        assertTrue(store.add(node(id, 59.0 + id * 1e-7, 10.0 - id * 1e-7)));
+      }
+      assertEquals(10_000, store.size());
+
+      var node = store.get(4711);
+      assertEquals(4711, node.getId());
+      assertEquals(59.0 + 4711 * 1e-7, node.lat);
+      assertEquals(10.0 - 4711 * 1e-7, node.lon);
+      assertSame(PROVIDER, node.getOsmProvider());
+      assertSame(node, store.get(4711));
+
+      assertNull(store.get(10_000));
+      assertFalse(store.contains(-1));
+    }
+  }
+
+  @Test
+  void keepTheFirstNodeWithAnId() {
+    try (var store = new OsmNodeStore()) {
+      assertTrue(store.add(node(7, 1.0, 2.0)));
+      assertTrue(store.add(node(7, 3.0, 4.0)));
+
+      assertEquals(1, store.size());
+      assertEquals(1.0, store.get(7).lat);
+    }
+  }
+
+  @Test
+  void onlyUntaggedNodesWithPositiveIdsAreStored() {
+    try (var store = new OsmNodeStore()) {
+      var tagged = node(1, 1.0, 2.0);
+      tagged.addTag("highway", "traffic_signals");
+
+      assertFalse(store.add(tagged));
+      assertFalse(store.add(node(-100, 1.0, 2.0)));
+      assertEquals(0, store.size());
+    }
+  }
+
+  private static OsmNode node(long id, double lat, double lon) {
+    var node = new OsmNode(lat, lon);
+    node.setId(id);
+    node.setOsmProvider(PROVIDER);
+    return node;
+  }
+}
@@ -5,10 +5,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gnu.trove.list.TLongList;
 import java.io.File;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
 import org.opentripplanner.osm.DefaultOsmProvider;
+import org.opentripplanner.osm.model.OsmMemberType;
 import org.opentripplanner.osm.model.OsmNode;
+import org.opentripplanner.osm.model.OsmRelation;
+import org.opentripplanner.osm.model.OsmRelationMember;
 import org.opentripplanner.osm.model.OsmWay;
 import org.opentripplanner.test.support.ResourceLoader;
 
@@ -43,4 +47,105 @@ public class OsmParserTest {
     assertEquals("Potlatch 0.9a", wayA.getTag("created_by"));
     assertEquals("secondary", wayA.getTag("highway"));
   }
+
+  /**
+   * The blocks are decoded in parallel when the file is read from a stream, check that every
+   * entity in the file reaches the database with all its tags, refs and members. The expected
+   * numbers are counted from the fixture by an independent decoder.
+   */
+  @Test
+  public void testBinaryParserWithoutCachedData() {
+    File osmFile = ResourceLoader.of(this).file("map.osm.pbf");
+    var osmdb = new RecordingOsmDatabase();
+
+    new DefaultOsmProvider(osmFile, false).readOsm(osmdb);
+
+    assertEquals(31, osmdb.relations);
+    assertEquals(164, osmdb.relationTags);
+    assertEquals(1979, osmdb.relationMembers);
+    OsmRelation relation = osmdb.relation48091;
+    assertEquals(
+      Map.of("created_by", "Merkaartor 0.12", "type", "multipolygon"),
+      relation.getTags()
+    );
+    assertEquals(2, relation.getMembers().size());
+    assertMember(28037415L, "outer", relation.getMembers().get(0));
+    assertMember(28037416L, "inner", relation.getMembers().get(1));
+
+    assertEquals(1511, osmdb.ways);
+    assertEquals(3673, osmdb.wayTags);
+    assertEquals(8655, osmdb.wayNodeRefs);
+    assertEquals(2849180747163L, osmdb.wayNodeRefSum);
+
+    assertEquals(4759, osmdb.taggedNodes);
+    assertEquals(7790, osmdb.nodeTags);
+
+    assertEquals(2297, osmdb.nodeCount());
+    assertEquals(545, osmdb.wayCount());
+    OsmNode node = osmdb.getNode(314192918L);
+    assertEquals(52.3750447, node.lat, 0.0000001);
+    assertEquals(16.8431974, node.lon, 0.0000001);
+    assertEquals("level_crossing", node.getTag("railway"));
+    TLongList nodeRefs = osmdb.getWay(13490353L).getNodeRefs();
+    assertEquals(2, nodeRefs.size());
+    assertEquals(123978834, nodeRefs.get(0));
+    assertEquals(123980465, nodeRefs.get(1));
+  }
+
+  private static void assertMember(long ref, String role, OsmRelationMember member) {
+    assertEquals(ref, member.getRef());
+    assertEquals(role, member.getRole());
+    assertEquals(OsmMemberType.WAY, member.getType());
+  }
+
+  /**
+   * Counts the entities handed to the database as they arrive, before the database filters or
+   * adds tags to them.
+   */
+  private static class RecordingOsmDatabase extends OsmDatabase {
+
+    private int taggedNodes;
+    private int nodeTags;
+    private int ways;
+    private int wayTags;
+    private int wayNodeRefs;
+    private long wayNodeRefSum;
+    private int relations;
+    private int relationTags;
+    private int relationMembers;
+    private OsmRelation relation48091;
+
+    RecordingOsmDatabase() {
+      super(DataImportIssueStore.NOOP);
+    }
+
+    @Override
+    public void addNode(OsmNode node) {
+      if (!node.getTags().isEmpty()) {
+        taggedNodes++;
+        nodeTags += node.getTags().size();
+      }
+      super.addNode(node);
+    }
+
+    @Override
+    public void addWay(OsmWay way) {
+      ways++;
+      wayTags += way.getTags().size();
+      wayNodeRefs += way.getNodeRefs().size();
+      wayNodeRefSum += way.getNodeRefs().sum();
+      super.addWay(way);
+    }
+
+    @Override
+    public void addRelation(OsmRelation relation) {
+      relations++;
+      relationTags += relation.getTags().size();
+      relationMembers += relation.getMembers().size();
+      if (relation.getId() == 48091L) {
+        relation48091 = relation;
+      }
+      super.addRelation(relation);
+    }
+  }
 }
@@ -201,6 +201,8 @@ class GenerateTripPatternsOperationTest {
 
     Assertions.assertEquals(1, transitServiceBuilder.getTripPatterns().size());
     Assertions.assertTrue(issueStore.listIssues().isEmpty());
+    // The stop times are released when the trip times are created
+    Assertions.assertTrue(transitServiceBuilder.getStopTimesSortedByTrip().get(trip1).isEmpty());
   }
 
   @Test
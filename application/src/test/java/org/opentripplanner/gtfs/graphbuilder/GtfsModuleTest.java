@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.List;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -65,6 +66,24 @@ class GtfsModuleTest {
     assertThrows(IllegalArgumentException.class, module::buildGraph);
   }
 
+  @Test
+  void generatedFeedIdsFollowTheConfiguredOrder() {
+    var bundles = List.of(bundle(null), bundle(null));
+    var model = buildTestModel();
+
+    var module = GtfsModuleTestFactory.forTest(
+      bundles,
+      model.timetableRepository,
+      model.graph,
+      LocalDateInterval.unbounded()
+    );
+    module.buildGraph();
+
+    int first = Integer.parseInt(bundles.get(0).getFeedId());
+    int second = Integer.parseInt(bundles.get(1).getFeedId());
+    assertEquals(first + 1, second);
+  }
+
   private static TestModels buildTestModel() {
     var siteRepository = new SiteRepository();
     var graph = new Graph();
@@ -74,7 +93,7 @@ class GtfsModuleTest {
 
   record TestModels(Graph graph, TimetableRepository timetableRepository) {}
 
-  static GtfsBundle bundle(String feedId) {
+  static GtfsBundle bundle(@Nullable String feedId) {
     return GtfsBundleTestFactory.forTest(
       ResourceLoader.of(GtfsModuleTest.class).file("/gtfs/interlining"),
       feedId
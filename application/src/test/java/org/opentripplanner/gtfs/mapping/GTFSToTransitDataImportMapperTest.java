@@ -0,0 +1,48 @@
+package org.opentripplanner.gtfs.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.onebusaway.gtfs.impl.GtfsRelationalDaoImpl;
+import org.onebusaway.gtfs.serialization.GtfsReader;
+import org.opentripplanner.ConstantsForTests;
+import org.opentripplanner.graph_builder.issue.api.DataImportIssueStore;
+import org.opentripplanner.model.impl.TransitDataImportBuilder;
+import org.opentripplanner.transit.model.site.StopTransferPriority;
+import org.opentripplanner.transit.service.SiteRepository;
+
+class GTFSToTransitDataImportMapperTest {
+
+  private static final String FEED_ID = "F";
+
+  @Test
+  void stopTimesAreReleasedFromTheGtfsDataWhenMapped() throws IOException {
+    var dao = new GtfsRelationalDaoImpl();
+    var reader = new GtfsReader();
+    reader.setInputLocation(ConstantsForTests.SIMPLE_GTFS);
+    reader.setEntityStore(dao);
+    reader.setDefaultAgencyId(FEED_ID);
+    reader.run();
+    int stopTimes = dao.getAllStopTimes().size();
+    assertTrue(stopTimes > 0);
+
+    var builder = new TransitDataImportBuilder(new SiteRepository(), DataImportIssueStore.NOOP);
+    var subject = new GTFSToTransitDataImportMapper(
+      builder,
+      FEED_ID,
+      DataImportIssueStore.NOOP,
+      false,
+      StopTransferPriority.ALLOWED
+    );
+    subject.mapStopTripAndRouteDataIntoBuilder(dao);
+
+    int mapped = 0;
+    for (var trip : builder.getStopTimesSortedByTrip().keys()) {
+      mapped += builder.getStopTimesSortedByTrip().get(trip).size();
+    }
+    assertEquals(stopTimes, mapped);
+    assertTrue(dao.getAllStopTimes().isEmpty());
+  }
+}
@@ -3,11 +3,13 @@ package org.opentripplanner.gtfs.mapping;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -156,6 +158,30 @@ public class StopTimeMapperTest {
     assertEquals(1, subject.map(Collections.singleton(buildDefaultStopTime())).size());
   }
 
+  @Test
+  public void testMapUncached() {
+    var stopTime = buildDefaultStopTime();
+
+    var result = subject.mapUncached(List.of(stopTime));
+
+    assertEquals(1, result.size());
+    assertEquals(ARRIVAL_TIME, result.getFirst().getArrivalTime());
+    assertNotSame(result.getFirst(), subject.mapUncached(List.of(stopTime)).getFirst());
+  }
+
+  @Test
+  public void testMapByTripAndClear() {
+    var stopTimes = new ArrayList<>(List.of(buildDefaultStopTime(), buildDefaultStopTime()));
+    var trips = new ArrayList<List<org.opentripplanner.model.StopTime>>();
+
+    subject.mapByTripAndClear(stopTimes, trips::add);
+
+    assertEquals(1, trips.size());
+    assertEquals(2, trips.getFirst().size());
+    assertEquals(ARRIVAL_TIME, trips.getFirst().getFirst().getArrivalTime());
+    assertTrue(stopTimes.isEmpty());
+  }
+
   @Test
   public void testMap() {
     var result = subject.map(buildDefaultStopTime());
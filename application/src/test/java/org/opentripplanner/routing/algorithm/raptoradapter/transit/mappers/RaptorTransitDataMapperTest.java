@@ -1,17 +1,26 @@
 package org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.PrecomputedTripPatternsForDate;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.RaptorTransitData;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.TransitTuningParametersTestFactory;
+import org.opentripplanner.transfer.regular.TransferServiceTestFactory;
 import org.opentripplanner.transit.model._data.TimetableRepositoryForTest;
+import org.opentripplanner.transit.model._data.TransitTestEnvironment;
+import org.opentripplanner.transit.model._data.TripInput;
 import org.opentripplanner.transit.model.site.RegularStop;
 import org.opentripplanner.transit.model.site.Station;
 import org.opentripplanner.transit.model.site.StopLocation;
 import org.opentripplanner.transit.model.site.StopTransferPriority;
 import org.opentripplanner.transit.service.SiteRepositoryMock;
+import org.opentripplanner.transit.service.TimetableRepository;
 
 class RaptorTransitDataMapperTest {
 
@@ -50,4 +59,58 @@ class RaptorTransitDataMapperTest {
 
     assertEquals("[6000, 360000, 6000, 2000, 0]", Arrays.toString(result));
   }
+
+  @Test
+  void usePrecomputedTripPatterns() {
+    var timetableRepository = timetableRepositoryWithTrip();
+    var precomputed = RaptorTransitDataMapper.precomputeTripPatterns(timetableRepository);
+    timetableRepository.setPrecomputedTripPatternsForDate(precomputed);
+
+    var result = map(timetableRepository);
+
+    var date = TransitTestEnvironment.of().defaultServiceDate();
+    var expected = precomputed.tripPatternsRunningOnDate().get(date);
+    assertEquals(1, expected.size());
+    assertSame(expected.getFirst(), result.getTripPatternsForRunningDate(date).iterator().next());
+    // The precomputed trip patterns are not kept after they are used
+    assertNull(timetableRepository.removePrecomputedTripPatternsForDate());
+  }
+
+  @Test
+  void ignorePrecomputedTripPatternsIfTheTimetableChanged() {
+    var timetableRepository = timetableRepositoryWithTrip();
+    var precomputed = RaptorTransitDataMapper.precomputeTripPatterns(timetableRepository);
+    timetableRepository.setPrecomputedTripPatternsForDate(
+      new PrecomputedTripPatternsForDate(
+        precomputed.timetableHash() + 1,
+        precomputed.tripPatternsRunningOnDate()
+      )
+    );
+
+    var result = map(timetableRepository);
+
+    var date = TransitTestEnvironment.of().defaultServiceDate();
+    var expected = precomputed.tripPatternsRunningOnDate().get(date).getFirst();
+    var actual = result.getTripPatternsForRunningDate(date).iterator().next();
+    assertNotSame(expected, actual);
+    assertEquals(expected.getTripPattern(), actual.getTripPattern());
+  }
+
+  private static TimetableRepository timetableRepositoryWithTrip() {
+    var builder = TransitTestEnvironment.of();
+    var stopA = builder.stop("A");
+    var stopB = builder.stop("B");
+    return builder
+      .addTrip(TripInput.of("T1").addStop(stopA, "10:00").addStop(stopB, "10:10"))
+      .build()
+      .timetableRepository();
+  }
+
+  private static RaptorTransitData map(TimetableRepository timetableRepository) {
+    return RaptorTransitDataMapper.map(
+      TransitTuningParametersTestFactory.forTest(),
+      timetableRepository,
+      TransferServiceTestFactory.defaultTransferRepository()
+    );
+  }
 }
@@ -0,0 +1,62 @@
+package org.opentripplanner.routing.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.core.model.id.FeedScopedId;
+import org.opentripplanner.ext.emission.internal.DefaultEmissionRepository;
+import org.opentripplanner.framework.model.Gram;
+import org.opentripplanner.model.plan.Emission;
+import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+
+class SerializedRepositoryTest {
+
+  private static final FeedScopedId ROUTE_ID = new FeedScopedId("F", "R1");
+  private static final Emission EMISSION = Emission.of(Gram.of(7));
+
+  @Test
+  void theRepositoryIsReturnedBeforeSerialization() {
+    var repository = new DefaultEmissionRepository();
+    var subject = SerializedRepository.of(repository);
+
+    assertSame(repository, subject.get());
+  }
+
+  @Test
+  void theRepositoryIsDeserializedWhenRequested() {
+    var repository = new DefaultEmissionRepository();
+    repository.addRouteEmissions(Map.of(ROUTE_ID, EMISSION));
+
+    var copy = roundTrip(SerializedRepository.of(repository));
+    var result = (DefaultEmissionRepository) copy.get();
+
+    assertNotSame(repository, result);
+    assertEquals(EMISSION, result.routePassengerEmissionsPerMeter(ROUTE_ID).orElseThrow());
+    // The repository is only deserialized once
+    assertSame(result, copy.get());
+  }
+
+  @Test
+  void nullRepository() {
+    assertNull(roundTrip(SerializedRepository.of(null)).get());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> SerializedRepository<T> roundTrip(SerializedRepository<T> repository) {
+    var kryo = KryoBuilder.create();
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new Output(bytes)) {
+      kryo.writeClassAndObject(output, repository);
+    }
+    try (var input = new Input(bytes.toByteArray())) {
+      return (SerializedRepository<T>) kryo.readClassAndObject(input);
+    }
+  }
+}
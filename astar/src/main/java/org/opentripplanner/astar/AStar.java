@@ -7,10 +7,12 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
-import org.opentripplanner.astar.model.BinHeap;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.HeapType;
+import org.opentripplanner.astar.model.MinHeap;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
 import org.opentripplanner.astar.spi.AStarState;
 import org.opentripplanner.astar.spi.AStarVertex;
 import org.opentripplanner.astar.spi.DominanceFunction;
@@ -45,9 +47,10 @@ public class AStar<
   private final SearchTerminationStrategy<State> terminationStrategy;
   private final TraverseVisitor<State, Edge> traverseVisitor;
   private final Duration timeout;
+  private final AStarGraphOverlay<Edge, Vertex> graphOverlay;
 
   private final ShortestPathTree<State, Edge, Vertex> spt;
-  private final BinHeap<State> pq;
+  private final MinHeap<State> pq;
   private final List<State> targetAcceptedStates;
 
   private State u;
@@ -64,6 +67,8 @@ public class AStar<
     SearchTerminationStrategy<State> terminationStrategy,
     DominanceFunction<State> dominanceFunction,
     Duration timeout,
+    HeapType heapType,
+    AStarGraphOverlay<Edge, Vertex> graphOverlay,
     Collection<State> initialStates
   ) {
     this.heuristic = heuristic;
@@ -74,12 +79,13 @@ public class AStar<
     this.arriveBy = arriveBy;
     this.terminationStrategy = terminationStrategy;
     this.timeout = Objects.requireNonNull(timeout);
+    this.graphOverlay = graphOverlay;
 
     this.spt = new ShortestPathTree<>(dominanceFunction);
     this.preSearchHook = preSearchHook;
 
     // Initialized with a reasonable size, see #4445
-    this.pq = new BinHeap<>(1000);
+    this.pq = heapType.create(1000);
     this.nVisited = 0;
     this.targetAcceptedStates = new ArrayList<>();
 
@@ -135,7 +141,9 @@ public class AStar<
       LOG.debug("   vertex {}", u_vertex);
     }
 
-    Collection<Edge> edges = arriveBy ? u_vertex.getIncoming() : u_vertex.getOutgoing();
+    Collection<Edge> edges = arriveBy
+      ? graphOverlay.getIncoming(u_vertex)
+      : graphOverlay.getOutgoing(u_vertex);
     for (Edge edge : edges) {
       if (skipEdgeStrategy != null && skipEdgeStrategy.shouldSkipEdge(u, edge)) {
         continue;
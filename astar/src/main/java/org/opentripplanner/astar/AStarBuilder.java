@@ -6,9 +6,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.HeapType;
 import org.opentripplanner.astar.model.ShortestPathTree;
 import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
 import org.opentripplanner.astar.spi.AStarState;
 import org.opentripplanner.astar.spi.AStarVertex;
 import org.opentripplanner.astar.spi.DominanceFunction;
@@ -39,6 +42,8 @@ public abstract class AStarBuilder<
   private Set<Vertex> toVertices;
   private SearchTerminationStrategy<State> terminationStrategy;
   private DominanceFunction<State> dominanceFunction;
+  private boolean bidirectional;
+  private HeapType heapType = HeapType.BINARY;
 
   protected AStarBuilder() {}
 
@@ -110,6 +115,28 @@ public abstract class AStarBuilder<
     return builder;
   }
 
+  /**
+   * Search from both the origin and the destination at the same time, see
+   * {@link BidirectionalAStar}. This only applies to {@link #getPathsToTarget()} searches without
+   * a termination strategy, and only if the builder can create the reversed search (see
+   * {@link #createReverseInitialStates} and {@link #createReverseHeuristic}). Otherwise the normal
+   * unidirectional search is used.
+   */
+  public Builder withBidirectionalSearch(boolean bidirectional) {
+    this.bidirectional = bidirectional;
+    return builder;
+  }
+
+  /**
+   * Select the priority queue implementation, the default is {@link HeapType#BINARY}. A
+   * {@link HeapType#RADIX} heap requires monotone keys and is only used when no heuristic is set,
+   * otherwise the binary heap is used.
+   */
+  public Builder withHeapType(HeapType heapType) {
+    this.heapType = heapType;
+    return builder;
+  }
+
   protected abstract Duration streetRoutingTimeout();
 
   public ShortestPathTree<State, Edge, Vertex> getShortestPathTree() {
@@ -117,6 +144,12 @@ public abstract class AStarBuilder<
   }
 
   public List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
+    if (bidirectional) {
+      var search = buildBidirectional();
+      if (search != null) {
+        return search.getPathsToTarget();
+      }
+    }
     return build().getPathsToTarget();
   }
 
@@ -139,12 +172,102 @@ public abstract class AStarBuilder<
       terminationStrategy,
       Optional.ofNullable(dominanceFunction).orElseGet(this::createDefaultDominanceFunction),
       streetRoutingTimeout(),
+      effectiveHeapType(),
+      graphOverlay(origin, destination),
       initialStates
     );
   }
 
+  /** @return the bidirectional search, or null if it is not supported for this search */
+  @Nullable
+  private BidirectionalAStar<State, Edge, Vertex> buildBidirectional() {
+    if (terminationStrategy != null || fromVertices == null || toVertices == null) {
+      return null;
+    }
+    final Set<Vertex> origin = arriveBy ? toVertices : fromVertices;
+    final Set<Vertex> destination = arriveBy ? fromVertices : toVertices;
+
+    var reverseHeuristic = createReverseHeuristic(heuristic);
+    if (reverseHeuristic == null) {
+      return null;
+    }
+    Collection<State> reverseInitialStates = createReverseInitialStates(destination);
+    if (reverseInitialStates.isEmpty()) {
+      return null;
+    }
+    Collection<State> initialStates = createInitialStates(origin);
+
+    initializeHeuristic(heuristic, origin, destination, arriveBy);
+    initializeHeuristic(reverseHeuristic, destination, origin, !arriveBy);
+
+    return new BidirectionalAStar<>(
+      heuristic,
+      reverseHeuristic,
+      preStartHook,
+      skipEdgeStrategy,
+      traverseVisitor,
+      arriveBy,
+      origin,
+      destination,
+      Optional.ofNullable(dominanceFunction).orElseGet(this::createDefaultDominanceFunction),
+      streetRoutingTimeout(),
+      effectiveHeapType(),
+      graphOverlay(origin, destination),
+      initialStates,
+      reverseInitialStates
+    );
+  }
+
+  private HeapType effectiveHeapType() {
+    if (heapType.requiresMonotoneKeys() && heuristic != RemainingWeightHeuristic.TRIVIAL) {
+      return HeapType.BINARY;
+    }
+    return heapType;
+  }
+
+  private AStarGraphOverlay<Edge, Vertex> graphOverlay(
+    Set<Vertex> origin,
+    @Nullable Set<Vertex> destination
+  ) {
+    var overlay = findGraphOverlay(origin, destination);
+    return overlay == null ? AStarGraphOverlay.empty() : overlay;
+  }
+
   protected abstract Collection<State> createInitialStates(Set<Vertex> originVertices);
 
+  /**
+   * Find the overlay with the temporary edges of the search, if the origin or destination vertices
+   * are part of one. Return null if the search only uses the edges of the vertices.
+   */
+  @Nullable
+  protected AStarGraphOverlay<Edge, Vertex> findGraphOverlay(
+    Set<Vertex> originVertices,
+    @Nullable Set<Vertex> destinationVertices
+  ) {
+    return null;
+  }
+
+  /**
+   * Create the initial states of the reversed search used by the bidirectional search, that is a
+   * search from the destination with the arrive-by flag inverted. Return an empty collection if
+   * the search can not be reversed, then the unidirectional search is used.
+   */
+  protected Collection<State> createReverseInitialStates(Set<Vertex> destinationVertices) {
+    return List.of();
+  }
+
+  /**
+   * Create a heuristic of the same kind as the given one, for the reversed search used by the
+   * bidirectional search. It is initialized with {@link #initializeHeuristic}. Return null if this
+   * is not possible, then the unidirectional search is used.
+   */
+  @Nullable
+  protected RemainingWeightHeuristic<State> createReverseHeuristic(
+    RemainingWeightHeuristic<State> heuristic
+  ) {
+    return heuristic == RemainingWeightHeuristic.TRIVIAL ? heuristic : null;
+  }
+
   protected abstract void initializeHeuristic(
     RemainingWeightHeuristic<State> heuristic,
     Set<Vertex> origin,
@@ -0,0 +1,266 @@
+package org.opentripplanner.astar;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.model.HeapType;
+import org.opentripplanner.astar.model.MinHeap;
+import org.opentripplanner.astar.model.ShortestPathTree;
+import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
+import org.opentripplanner.astar.spi.AStarState;
+import org.opentripplanner.astar.spi.AStarVertex;
+import org.opentripplanner.astar.spi.DominanceFunction;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.astar.spi.SkipEdgeStrategy;
+import org.opentripplanner.astar.spi.TraverseVisitor;
+import org.opentripplanner.utils.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Find the shortest path between two sets of vertices by searching from both ends at the same
+ * time. The "main" search runs in the direction of the request (forward, or backward from the
+ * destination for arrive-by requests) and the "opposite" search runs in the other direction with
+ * the request reversed.
+ * <p>
+ * Both searches use the average of the two heuristics as potential: a state at vertex {@code v}
+ * gets the key {@code weight + (h_main(v) - h_opposite(v)) / 2} in the main search and
+ * {@code weight + (h_opposite(v) - h_main(v)) / 2} in the opposite search. With consistent
+ * heuristics the reduced edge weights are the same in both directions and non-negative, so the
+ * classic bidirectional Dijkstra stopping criterion applies: the search stops when the sum of the
+ * smallest keys in the two queues is at least the weight of the best path found so far. With the
+ * trivial heuristic this is a plain bidirectional Dijkstra search.
+ * <p>
+ * When a state is added to one tree, it is joined with the states the other tree has at the same
+ * vertex. The join re-traverses the edges of the opposite state in the main direction, so the
+ * resulting path is a normal chain of states of the main request, with correct times and turn
+ * costs, and the {@link SkipEdgeStrategy} is applied along the whole path exactly like in the
+ * unidirectional search. The skip edge strategy is also applied to the opposite search, which
+ * assumes it only skips edges because the path so far is too long (like the
+ * {@link org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy}).
+ * <p>
+ * Search termination strategies can not be supported, since they are defined in terms of the
+ * states of a single search. {@link AStarBuilder} falls back to the unidirectional {@link AStar}
+ * for those.
+ */
+class BidirectionalAStar<
+  State extends AStarState<State, Edge, Vertex>,
+  Edge extends AStarEdge<State, Edge, Vertex>,
+  Vertex extends AStarVertex<State, Edge, Vertex>
+> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BidirectionalAStar.class);
+
+  private final Runnable preSearchHook;
+  private final SkipEdgeStrategy<State, Edge> skipEdgeStrategy;
+  private final TraverseVisitor<State, Edge> traverseVisitor;
+  private final Set<Vertex> fromVertices;
+  private final Set<Vertex> toVertices;
+  private final Duration timeout;
+  private final AStarGraphOverlay<Edge, Vertex> graphOverlay;
+
+  private final Direction main;
+  private final Direction opposite;
+
+  /** The best complete path found so far, a state of the main search at the destination. */
+  private State best;
+  private double bestWeight = Double.POSITIVE_INFINITY;
+  private int nVisited;
+
+  BidirectionalAStar(
+    RemainingWeightHeuristic<State> mainHeuristic,
+    RemainingWeightHeuristic<State> oppositeHeuristic,
+    Runnable preSearchHook,
+    SkipEdgeStrategy<State, Edge> skipEdgeStrategy,
+    TraverseVisitor<State, Edge> traverseVisitor,
+    boolean arriveBy,
+    Set<Vertex> fromVertices,
+    Set<Vertex> toVertices,
+    DominanceFunction<State> dominanceFunction,
+    Duration timeout,
+    HeapType heapType,
+    AStarGraphOverlay<Edge, Vertex> graphOverlay,
+    Collection<State> initialStates,
+    Collection<State> oppositeInitialStates
+  ) {
+    this.preSearchHook = preSearchHook;
+    this.skipEdgeStrategy = skipEdgeStrategy;
+    this.traverseVisitor = traverseVisitor;
+    this.fromVertices = fromVertices;
+    this.toVertices = toVertices;
+    this.timeout = Objects.requireNonNull(timeout);
+    this.graphOverlay = graphOverlay;
+
+    this.main = new Direction(
+      true,
+      arriveBy,
+      mainHeuristic,
+      oppositeHeuristic,
+      dominanceFunction,
+      heapType
+    );
+    this.opposite = new Direction(
+      false,
+      !arriveBy,
+      oppositeHeuristic,
+      mainHeuristic,
+      dominanceFunction,
+      heapType
+    );
+
+    for (State s : initialStates) {
+      main.enqueue(s, opposite);
+    }
+    for (State s : oppositeInitialStates) {
+      opposite.enqueue(s, main);
+    }
+  }
+
+  List<GraphPath<State, Edge, Vertex>> getPathsToTarget() {
+    runSearch();
+    return best == null ? List.of() : List.of(new GraphPath<>(best));
+  }
+
+  private void runSearch() {
+    preSearchHook.run();
+    long abortTime = DateUtils.absoluteTimeout(timeout);
+
+    while (!main.queue.empty() && !opposite.queue.empty()) {
+      if (nVisited % 100 == 0 && System.currentTimeMillis() > abortTime) {
+        LOG.warn("Search timeout. origin={} target={}", fromVertices, toVertices);
+        break;
+      }
+      if (main.queue.peek_min_key() + opposite.queue.peek_min_key() >= bestWeight) {
+        break;
+      }
+      // Expand the smaller frontier, this keeps the two searches balanced
+      if (main.queue.size() <= opposite.queue.size()) {
+        main.iterate(opposite);
+      } else {
+        opposite.iterate(main);
+      }
+    }
+    LOG.debug("total vertices visited {}", nVisited);
+  }
+
+  /**
+   * Join a state of the main search with a state of the opposite search at the same vertex, and
+   * keep the result if it is better than the best path found so far.
+   */
+  private void join(State mainState, State oppositeState) {
+    // The sum of the weights is a lower bound (it misses the turn cost at the meeting vertex)
+    if (mainState.getWeight() + oppositeState.getWeight() >= bestWeight) {
+      return;
+    }
+    State s = mainState;
+    for (State o = oppositeState; o.getBackState() != null; o = o.getBackState()) {
+      Edge edge = o.getBackEdge();
+      if (skipEdgeStrategy != null && skipEdgeStrategy.shouldSkipEdge(s, edge)) {
+        return;
+      }
+      s = bestOf(edge.traverse(s));
+      if (s == null || s.getWeight() >= bestWeight) {
+        return;
+      }
+    }
+    if (s.isFinal()) {
+      best = s;
+      bestWeight = s.getWeight();
+    }
+  }
+
+  @Nullable
+  private State bestOf(State[] states) {
+    State result = null;
+    for (State s : states) {
+      if (result == null || s.getWeight() < result.getWeight()) {
+        result = s;
+      }
+    }
+    return result;
+  }
+
+  /** One of the two searches. */
+  private class Direction {
+
+    private final boolean isMain;
+    private final boolean backward;
+    private final RemainingWeightHeuristic<State> heuristic;
+    private final RemainingWeightHeuristic<State> otherHeuristic;
+    private final ShortestPathTree<State, Edge, Vertex> spt;
+    private final MinHeap<State> queue;
+
+    private Direction(
+      boolean isMain,
+      boolean backward,
+      RemainingWeightHeuristic<State> heuristic,
+      RemainingWeightHeuristic<State> otherHeuristic,
+      DominanceFunction<State> dominanceFunction,
+      HeapType heapType
+    ) {
+      this.isMain = isMain;
+      this.backward = backward;
+      this.heuristic = heuristic;
+      this.otherHeuristic = otherHeuristic;
+      this.spt = new ShortestPathTree<>(dominanceFunction);
+      // Initialized with a reasonable size, see #4445
+      this.queue = heapType.create(1000);
+    }
+
+    private void iterate(Direction other) {
+      State u = queue.extract_min();
+      if (!spt.visit(u)) {
+        return;
+      }
+      if (traverseVisitor != null) {
+        traverseVisitor.visitVertex(u);
+      }
+      ++nVisited;
+
+      Vertex vertex = u.getVertex();
+      var edges = backward ? graphOverlay.getIncoming(vertex) : graphOverlay.getOutgoing(vertex);
+      for (Edge edge : edges) {
+        if (skipEdgeStrategy != null && skipEdgeStrategy.shouldSkipEdge(u, edge)) {
+          continue;
+        }
+        for (State v : edge.traverse(u)) {
+          if (traverseVisitor != null) {
+            traverseVisitor.visitEdge(edge);
+          }
+          enqueue(v, other);
+        }
+      }
+    }
+
+    private void enqueue(State s, Direction other) {
+      double h = heuristic.estimateRemainingWeight(s);
+      double otherH = otherHeuristic.estimateRemainingWeight(s);
+      if (h < 0 || otherH < 0 || Double.isInfinite(h) || Double.isInfinite(otherH)) {
+        return;
+      }
+      if (!spt.add(s)) {
+        return;
+      }
+      if (traverseVisitor != null) {
+        traverseVisitor.visitEnqueue();
+      }
+      queue.insert(s, s.getWeight() + (h - otherH) / 2);
+
+      List<State> meeting = other.spt.getStates(s.getVertex());
+      if (meeting != null) {
+        for (State o : meeting) {
+          if (isMain) {
+            join(s, o);
+          } else {
+            join(o, s);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package org.opentripplanner.astar.ch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * A contraction hierarchy over a graph of int nodes and non-negative int arc weights. Every node
+ * has a rank, and the hierarchy contains the original arcs plus shortcut arcs added when
+ * contracting the nodes in rank order. A shortest path query is a bidirectional Dijkstra search,
+ * where both directions only follow arcs towards higher ranked nodes. This settles a tiny fraction
+ * of the nodes a plain Dijkstra or A* search would, but it only works for the fixed weights the
+ * hierarchy was built with.
+ * <p>
+ * The returned paths are sequences of nodes in the original graph, with all shortcuts unpacked.
+ * <p>
+ * Instances are immutable and thread-safe. Use {@link ContractionHierarchyBuilder} to create one.
+ */
+public final class ContractionHierarchy implements Serializable {
+
+  private static final int NONE = -1;
+
+  private final int nNodes;
+
+  private final int[] arcFrom;
+  private final int[] arcTo;
+  private final int[] arcWeight;
+
+  /** The two arcs a shortcut replaces, or {@link #NONE} for original arcs. */
+  private final int[] arcFirst;
+  private final int[] arcSecond;
+
+  /** Arcs {@code u -> w} with {@code rank(w) > rank(u)}, indexed on {@code u}. */
+  private final int[] upOffsets;
+  private final int[] upArcs;
+
+  /** Arcs {@code u -> w} with {@code rank(u) > rank(w)}, indexed on {@code w}. */
+  private final int[] downOffsets;
+  private final int[] downArcs;
+
+  ContractionHierarchy(
+    int nNodes,
+    int[] arcFrom,
+    int[] arcTo,
+    int[] arcWeight,
+    int[] arcFirst,
+    int[] arcSecond,
+    int[] rank
+  ) {
+    this.nNodes = nNodes;
+    this.arcFrom = arcFrom;
+    this.arcTo = arcTo;
+    this.arcWeight = arcWeight;
+    this.arcFirst = arcFirst;
+    this.arcSecond = arcSecond;
+
+    int nArcs = arcFrom.length;
+    this.upOffsets = new int[nNodes + 1];
+    this.downOffsets = new int[nNodes + 1];
+    for (int a = 0; a < nArcs; a++) {
+      if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+        ++upOffsets[arcFrom[a] + 1];
+      } else {
+        ++downOffsets[arcTo[a] + 1];
+      }
+    }
+    for (int i = 0; i < nNodes; i++) {
+      upOffsets[i + 1] += upOffsets[i];
+      downOffsets[i + 1] += downOffsets[i];
+    }
+    this.upArcs = new int[upOffsets[nNodes]];
+    this.downArcs = new int[downOffsets[nNodes]];
+    int[] upPos = Arrays.copyOf(upOffsets, nNodes);
+    int[] downPos = Arrays.copyOf(downOffsets, nNodes);
+    for (int a = 0; a < nArcs; a++) {
+      if (rank[arcTo[a]] > rank[arcFrom[a]]) {
+        upArcs[upPos[arcFrom[a]]++] = a;
+      } else {
+        downArcs[downPos[arcTo[a]]++] = a;
+      }
+    }
+  }
+
+  public int nNodes() {
+    return nNodes;
+  }
+
+  public int nArcs() {
+    return arcFrom.length;
+  }
+
+  public int nShortcuts() {
+    int count = 0;
+    for (int first : arcFirst) {
+      if (first != NONE) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Find the shortest path from any of the sources to any of the targets.
+   *
+   * @param sources the nodes to start from
+   * @param sourceWeights the weight of reaching each source node
+   * @param targets the nodes to end at
+   * @param targetWeights the weight of getting from each target node to the destination, may be
+   *                      negative as long as the total weight of any path is not.
+   * @return the nodes on the shortest path, starting with a source and ending with a target, or
+   *         null if no target can be reached.
+   */
+  @Nullable
+  public int[] findPath(int[] sources, long[] sourceWeights, int[] targets, long[] targetWeights) {
+    var forward = new SearchSpace();
+    var backward = new SearchSpace();
+    var forwardQueue = new IntMinHeap(64);
+    var backwardQueue = new IntMinHeap(64);
+
+    for (int i = 0; i < sources.length; i++) {
+      if (forward.relax(sources[i], sourceWeights[i], NONE)) {
+        forwardQueue.insert(sources[i], sourceWeights[i]);
+      }
+    }
+    // The stopping criterion needs non-negative weights, shifting all targets by the same offset
+    // does not change which path is the shortest.
+    long offset = 0;
+    for (long w : targetWeights) {
+      offset = Math.min(offset, w);
+    }
+    for (int i = 0; i < targets.length; i++) {
+      long weight = targetWeights[i] - offset;
+      if (backward.relax(targets[i], weight, NONE)) {
+        backwardQueue.insert(targets[i], weight);
+      }
+    }
+
+    long best = Long.MAX_VALUE;
+    int meet = NONE;
+
+    while (!forwardQueue.isEmpty() || !backwardQueue.isEmpty()) {
+      long minForward = forwardQueue.isEmpty() ? Long.MAX_VALUE : forwardQueue.peekKey();
+      long minBackward = backwardQueue.isEmpty() ? Long.MAX_VALUE : backwardQueue.peekKey();
+      if (Math.min(minForward, minBackward) >= best) {
+        break;
+      }
+      boolean isForward = minForward <= minBackward;
+      var queue = isForward ? forwardQueue : backwardQueue;
+      var space = isForward ? forward : backward;
+      var other = isForward ? backward : forward;
+
+      long d = queue.peekKey();
+      int u = queue.poll();
+      if (d > space.dist(u)) {
+        continue;
+      }
+      long otherDist = other.dist(u);
+      if (otherDist != Long.MAX_VALUE && d + otherDist < best) {
+        best = d + otherDist;
+        meet = u;
+      }
+      if (isForward) {
+        for (int p = upOffsets[u]; p < upOffsets[u + 1]; p++) {
+          int a = upArcs[p];
+          long nd = d + arcWeight[a];
+          if (forward.relax(arcTo[a], nd, a)) {
+            forwardQueue.insert(arcTo[a], nd);
+          }
+        }
+      } else {
+        for (int p = downOffsets[u]; p < downOffsets[u + 1]; p++) {
+          int a = downArcs[p];
+          long nd = d + arcWeight[a];
+          if (backward.relax(arcFrom[a], nd, a)) {
+            backwardQueue.insert(arcFrom[a], nd);
+          }
+        }
+      }
+    }
+
+    if (meet == NONE) {
+      return null;
+    }
+    return unpackPath(forward, backward, meet);
+  }
+
+  private int[] unpackPath(SearchSpace forward, SearchSpace backward, int meet) {
+    // Arcs from a source up to the meeting node, collected in reverse order
+    var forwardArcs = new IntList();
+    int node = meet;
+    for (int a = forward.parent(node); a != NONE; a = forward.parent(node)) {
+      forwardArcs.add(a);
+      node = arcFrom[a];
+    }
+    var path = new IntList();
+    path.add(node);
+    for (int i = forwardArcs.size() - 1; i >= 0; i--) {
+      unpack(forwardArcs.get(i), path);
+    }
+    node = meet;
+    for (int a = backward.parent(node); a != NONE; a = backward.parent(node)) {
+      unpack(a, path);
+      node = arcTo[a];
+    }
+    return path.toArray();
+  }
+
+  /** Append the nodes of the arc to the path, excluding the from-node. */
+  private void unpack(int arc, IntList path) {
+    var stack = new IntList();
+    stack.add(arc);
+    while (stack.size() > 0) {
+      int a = stack.removeLast();
+      if (arcFirst[a] == NONE) {
+        path.add(arcTo[a]);
+      } else {
+        stack.add(arcSecond[a]);
+        stack.add(arcFirst[a]);
+      }
+    }
+  }
+
+  /**
+   * The nodes visited by one direction of the search, with their best weight and the arc used to
+   * reach them. This is an open addressing hash map, because a query only visits a few thousand
+   * nodes and allocating arrays for the whole graph would dominate the query time.
+   */
+  private static final class SearchSpace {
+
+    private int[] keys = new int[256];
+    private long[] dist = new long[256];
+    private int[] parent = new int[256];
+    private int size;
+
+    SearchSpace() {
+      Arrays.fill(keys, NONE);
+    }
+
+    long dist(int node) {
+      int i = find(node);
+      return keys[i] == NONE ? Long.MAX_VALUE : dist[i];
+    }
+
+    int parent(int node) {
+      return parent[find(node)];
+    }
+
+    /** @return true if the weight of the node was improved. */
+    boolean relax(int node, long weight, int arc) {
+      int i = find(node);
+      if (keys[i] == NONE) {
+        keys[i] = node;
+        dist[i] = weight;
+        parent[i] = arc;
+        if (++size * 2 > keys.length) {
+          grow();
+        }
+        return true;
+      }
+      if (weight < dist[i]) {
+        dist[i] = weight;
+        parent[i] = arc;
+        return true;
+      }
+      return false;
+    }
+
+    private int find(int node) {
+      int mask = keys.length - 1;
+      int i = (node * 0x9E3779B9) >>> 1 & mask;
+      while (keys[i] != NONE && keys[i] != node) {
+        i = (i + 1) & mask;
+      }
+      return i;
+    }
+
+    private void grow() {
+      int[] oldKeys = keys;
+      long[] oldDist = dist;
+      int[] oldParent = parent;
+      keys = new int[oldKeys.length * 2];
+      dist = new long[keys.length];
+      parent = new int[keys.length];
+      Arrays.fill(keys, NONE);
+      for (int j = 0; j < oldKeys.length; j++) {
+        if (oldKeys[j] != NONE) {
+          int i = find(oldKeys[j]);
+          keys[i] = oldKeys[j];
+          dist[i] = oldDist[j];
+          parent[i] = oldParent[j];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package org.opentripplanner.astar.ch;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import org.opentripplanner.utils.logging.ProgressTracker;
+
+/**
+ * Build a {@link ContractionHierarchy} by contracting the nodes one at a time, ordered by a lazily
+ * updated priority. Contracting a node removes it from the remaining graph and adds a shortcut
+ * between each pair of neighbours for which the path through the node is the only shortest path.
+ * This is checked with a bounded local Dijkstra search (witness search); when the search gives up
+ * a shortcut is added, which is always safe.
+ * <p>
+ * The priority is the usual edge difference (shortcuts added minus arcs removed) plus the number
+ * of contracted neighbours, which keeps the contraction spread out over the graph.
+ */
+public class ContractionHierarchyBuilder {
+
+  private static final int NONE = -1;
+
+  /** Maximum number of nodes settled in each witness search. */
+  private static final int WITNESS_SEARCH_LIMIT = 500;
+
+  private final int nNodes;
+
+  private final IntList arcFrom = new IntList(1024);
+  private final IntList arcTo = new IntList(1024);
+  private final IntList arcWeight = new IntList(1024);
+  private final IntList arcFirst = new IntList(1024);
+  private final IntList arcSecond = new IntList(1024);
+
+  private final IntList[] outArcs;
+  private final IntList[] inArcs;
+
+  private final boolean[] contracted;
+  private final int[] deletedNeighbours;
+
+  // Witness search state, reused between searches
+  private final long[] witnessDist;
+  private final IntList witnessTouched = new IntList(256);
+  private final IntMinHeap witnessQueue = new IntMinHeap(256);
+
+  public ContractionHierarchyBuilder(int nNodes) {
+    this.nNodes = nNodes;
+    this.outArcs = new IntList[nNodes];
+    this.inArcs = new IntList[nNodes];
+    this.contracted = new boolean[nNodes];
+    this.deletedNeighbours = new int[nNodes];
+    this.witnessDist = new long[nNodes];
+    Arrays.fill(witnessDist, Long.MAX_VALUE);
+  }
+
+  /** Add an arc to the original graph. Loops are ignored, and the weight must not be negative. */
+  public ContractionHierarchyBuilder addArc(int from, int to, int weight) {
+    if (weight < 0) {
+      throw new IllegalArgumentException("Negative arc weight: " + weight);
+    }
+    if (from != to) {
+      addArc(from, to, weight, NONE, NONE);
+    }
+    return this;
+  }
+
+  /**
+   * Contract all nodes and create the hierarchy.
+   * @param logger receives progress messages
+   */
+  public ContractionHierarchy build(Consumer<String> logger) {
+    var progress = ProgressTracker.track("Contract nodes", 100_000, nNodes);
+    var queue = new IntMinHeap(nNodes);
+    for (int v = 0; v < nNodes; v++) {
+      queue.insert(v, priority(v));
+    }
+    int[] rank = new int[nNodes];
+    int nextRank = 0;
+    while (!queue.isEmpty()) {
+      int v = queue.poll();
+      // Lazy update: contract the node only if it is still the best candidate
+      long priority = priority(v);
+      if (!queue.isEmpty() && priority > queue.peekKey()) {
+        queue.insert(v, priority);
+        continue;
+      }
+      contract(v, true);
+      contracted[v] = true;
+      rank[v] = nextRank++;
+      forEachNeighbour(v, n -> ++deletedNeighbours[n]);
+      progress.step(logger);
+    }
+    logger.accept(progress.completeMessage());
+
+    return new ContractionHierarchy(
+      nNodes,
+      arcFrom.toArray(),
+      arcTo.toArray(),
+      arcWeight.toArray(),
+      arcFirst.toArray(),
+      arcSecond.toArray(),
+      rank
+    );
+  }
+
+  private long priority(int v) {
+    int degree = 0;
+    for (int i = 0; i < size(inArcs[v]); i++) {
+      if (!contracted[arcFrom.get(inArcs[v].get(i))]) {
+        ++degree;
+      }
+    }
+    for (int i = 0; i < size(outArcs[v]); i++) {
+      if (!contracted[arcTo.get(outArcs[v].get(i))]) {
+        ++degree;
+      }
+    }
+    return contract(v, false) - degree + deletedNeighbours[v];
+  }
+
+  /**
+   * Find the shortcuts needed to contract the node.
+   * @param apply add the shortcuts to the graph if true, only count them if false
+   * @return the number of shortcuts
+   */
+  private int contract(int v, boolean apply) {
+    var in = inArcs[v];
+    var out = outArcs[v];
+    if (size(in) == 0 || size(out) == 0) {
+      return 0;
+    }
+    int shortcuts = 0;
+    for (int i = 0; i < in.size(); i++) {
+      int inArc = in.get(i);
+      int u = arcFrom.get(inArc);
+      if (contracted[u]) {
+        continue;
+      }
+      long maxOut = -1;
+      for (int j = 0; j < out.size(); j++) {
+        int w = arcTo.get(out.get(j));
+        if (!contracted[w] && w != u) {
+          maxOut = Math.max(maxOut, arcWeight.get(out.get(j)));
+        }
+      }
+      if (maxOut < 0) {
+        continue;
+      }
+      long inWeight = arcWeight.get(inArc);
+      witnessSearch(u, v, inWeight + maxOut);
+      for (int j = 0; j < out.size(); j++) {
+        int outArc = out.get(j);
+        int w = arcTo.get(outArc);
+        if (contracted[w] || w == u) {
+          continue;
+        }
+        long via = inWeight + arcWeight.get(outArc);
+        if (witnessDist[w] > via) {
+          ++shortcuts;
+          if (apply) {
+            addArc(u, w, (int) Math.min(Integer.MAX_VALUE, via), inArc, outArc);
+            // The new shortcut is a witness for parallel arcs later in the loop
+            if (witnessDist[w] == Long.MAX_VALUE) {
+              witnessTouched.add(w);
+            }
+            witnessDist[w] = via;
+          }
+        }
+      }
+      resetWitnessSearch();
+    }
+    return shortcuts;
+  }
+
+  /** Dijkstra from {@code source} over uncontracted nodes, avoiding {@code excluded}. */
+  private void witnessSearch(int source, int excluded, long maxWeight) {
+    witnessQueue.clear();
+    witnessDist[source] = 0;
+    witnessTouched.add(source);
+    witnessQueue.insert(source, 0);
+    int settled = 0;
+    while (!witnessQueue.isEmpty() && settled < WITNESS_SEARCH_LIMIT) {
+      long d = witnessQueue.peekKey();
+      int x = witnessQueue.poll();
+      if (d > witnessDist[x]) {
+        continue;
+      }
+      if (d > maxWeight) {
+        break;
+      }
+      ++settled;
+      var out = outArcs[x];
+      for (int i = 0; i < size(out); i++) {
+        int a = out.get(i);
+        int y = arcTo.get(a);
+        if (y == excluded || contracted[y]) {
+          continue;
+        }
+        long nd = d + arcWeight.get(a);
+        if (nd < witnessDist[y]) {
+          if (witnessDist[y] == Long.MAX_VALUE) {
+            witnessTouched.add(y);
+          }
+          witnessDist[y] = nd;
+          witnessQueue.insert(y, nd);
+        }
+      }
+    }
+  }
+
+  private void resetWitnessSearch() {
+    for (int i = 0; i < witnessTouched.size(); i++) {
+      witnessDist[witnessTouched.get(i)] = Long.MAX_VALUE;
+    }
+    witnessTouched.clear();
+  }
+
+  private void forEachNeighbour(int v, IntConsumer body) {
+    for (int i = 0; i < size(inArcs[v]); i++) {
+      int u = arcFrom.get(inArcs[v].get(i));
+      if (!contracted[u]) {
+        body.accept(u);
+      }
+    }
+    for (int i = 0; i < size(outArcs[v]); i++) {
+      int w = arcTo.get(outArcs[v].get(i));
+      if (!contracted[w]) {
+        body.accept(w);
+      }
+    }
+  }
+
+  private void addArc(int from, int to, int weight, int first, int second) {
+    int id = arcFrom.size();
+    arcFrom.add(from);
+    arcTo.add(to);
+    arcWeight.add(weight);
+    arcFirst.add(first);
+    arcSecond.add(second);
+    list(outArcs, from).add(id);
+    list(inArcs, to).add(id);
+  }
+
+  private static IntList list(IntList[] lists, int node) {
+    if (lists[node] == null) {
+      lists[node] = new IntList(4);
+    }
+    return lists[node];
+  }
+
+  private static int size(IntList list) {
+    return list == null ? 0 : list.size();
+  }
+}
@@ -0,0 +1,45 @@
+package org.opentripplanner.astar.ch;
+
+import java.util.Arrays;
+
+/** A growable list of primitive ints, used to avoid boxing when building and querying. */
+final class IntList {
+
+  private int[] values;
+  private int size;
+
+  IntList() {
+    this(8);
+  }
+
+  IntList(int capacity) {
+    this.values = new int[Math.max(capacity, 4)];
+  }
+
+  int size() {
+    return size;
+  }
+
+  int get(int index) {
+    return values[index];
+  }
+
+  void add(int value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size++] = value;
+  }
+
+  int removeLast() {
+    return values[--size];
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,80 @@
+package org.opentripplanner.astar.ch;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of int elements with long keys. Keys are not updated in place, instead the
+ * element is inserted again and stale entries are skipped by the caller.
+ */
+final class IntMinHeap {
+
+  private int[] elem;
+  private long[] keys;
+  private int size;
+
+  IntMinHeap(int capacity) {
+    capacity = Math.max(capacity, 16);
+    this.elem = new int[capacity];
+    this.keys = new long[capacity];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  long peekKey() {
+    return keys[0];
+  }
+
+  void insert(int e, long key) {
+    if (size == elem.length) {
+      elem = Arrays.copyOf(elem, size * 2);
+      keys = Arrays.copyOf(keys, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (keys[parent] <= key) {
+        break;
+      }
+      elem[i] = elem[parent];
+      keys[i] = keys[parent];
+      i = parent;
+    }
+    elem[i] = e;
+    keys[i] = key;
+  }
+
+  int poll() {
+    int result = elem[0];
+    int lastElem = elem[--size];
+    long lastKey = keys[size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && keys[child + 1] < keys[child]) {
+        child++;
+      }
+      if (lastKey <= keys[child]) {
+        break;
+      }
+      elem[i] = elem[child];
+      keys[i] = keys[child];
+      i = child;
+    }
+    elem[i] = lastElem;
+    keys[i] = lastKey;
+    return result;
+  }
+}
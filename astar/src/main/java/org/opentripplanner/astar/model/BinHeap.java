@@ -2,7 +2,7 @@ package org.opentripplanner.astar.model;
 
 import java.util.Arrays;
 
-public class BinHeap<T> {
+public class BinHeap<T> implements MinHeap<T> {
 
   private static final double GROW_FACTOR = 2.0;
 
@@ -30,14 +30,17 @@ public class BinHeap<T> {
     prio[0] = Double.NEGATIVE_INFINITY;
   }
 
+  @Override
   public int size() {
     return size;
   }
 
+  @Override
   public boolean empty() {
     return size <= 0;
   }
 
+  @Override
   public double peek_min_key() {
     if (size > 0) {
       return prio[1];
@@ -46,6 +49,7 @@ public class BinHeap<T> {
     }
   }
 
+  @Override
   public T peek_min() {
     if (size > 0) {
       return elem[1];
@@ -56,12 +60,10 @@ public class BinHeap<T> {
 
   public void rekey(T e, double p) {
     // Perform "inefficient" but straightforward linear search
-    // for an element then change its key by sifting up or down
-    int i = 0;
-    for (T t : elem) {
-      if (t == e) {
-        break;
-      }
+    // for an element then change its key by sifting up or down.
+    // Only the used part of the array is searched, it can be much larger than the queue.
+    int i = 1;
+    while (i <= size && elem[i] != e) {
       i++;
     }
     if (i > size) {
@@ -96,11 +98,13 @@ public class BinHeap<T> {
     prio[i] = p;
   }
 
+  @Override
   public void reset() {
     // empties the queue in one operation
     size = 0;
   }
 
+  @Override
   public void insert(T e, double p) {
     int i;
     size += 1;
@@ -115,6 +119,7 @@ public class BinHeap<T> {
     prio[i] = p;
   }
 
+  @Override
   public T extract_min() {
     int i, child;
     T minElem = elem[1];
@@ -0,0 +1,33 @@
+package org.opentripplanner.astar.model;
+
+/**
+ * The priority queue implementations available for the A* search.
+ */
+public enum HeapType {
+  /** A binary heap, this is the default. */
+  BINARY,
+  /**
+   * A 4-ary heap. It is shallower than the binary heap and the children of a node are next to
+   * each other in memory, so it does fewer cache misses on large queues.
+   */
+  QUATERNARY,
+  /**
+   * A monotone radix heap, see {@link RadixHeap}. It can only be used when the keys are never
+   * smaller than the last extracted key, which is the case for Dijkstra searches (A* without a
+   * heuristic). The {@link org.opentripplanner.astar.AStarBuilder} uses a binary heap instead if a
+   * heuristic is set.
+   */
+  RADIX;
+
+  public boolean requiresMonotoneKeys() {
+    return this == RADIX;
+  }
+
+  public <T> MinHeap<T> create(int capacity) {
+    return switch (this) {
+      case BINARY -> new BinHeap<>(capacity);
+      case QUATERNARY -> new QuaternaryHeap<>(capacity);
+      case RADIX -> new RadixHeap<>();
+    };
+  }
+}
@@ -0,0 +1,27 @@
+package org.opentripplanner.astar.model;
+
+/**
+ * A min-priority queue of elements with {@code double} keys, used as the open set of the A*
+ * search. See {@link HeapType} for the available implementations.
+ */
+public interface MinHeap<T> {
+  int size();
+
+  boolean empty();
+
+  /**
+   * @throws IllegalStateException if the queue is empty
+   */
+  double peek_min_key();
+
+  /** @return the element with the smallest key, or null if the queue is empty */
+  T peek_min();
+
+  void insert(T e, double p);
+
+  /** Remove and return the element with the smallest key, or null if the queue is empty */
+  T extract_min();
+
+  /** Empty the queue, the allocated memory is kept for reuse */
+  void reset();
+}
@@ -0,0 +1,118 @@
+package org.opentripplanner.astar.model;
+
+import java.util.Arrays;
+
+/**
+ * A 4-ary min-heap. Compared with the {@link BinHeap} the tree is half as deep, and the four
+ * children of a node are in the same cache line, so sifting down visits fewer cache lines. The
+ * elements and keys are stored in parallel arrays using 0-based indexing: the children of node
+ * {@code i} are {@code 4i + 1} to {@code 4i + 4}.
+ */
+public class QuaternaryHeap<T> implements MinHeap<T> {
+
+  private static final int ARITY = 4;
+
+  private double[] prio;
+  private T[] elem;
+  private int size;
+
+  public QuaternaryHeap() {
+    this(1000);
+  }
+
+  @SuppressWarnings("unchecked")
+  public QuaternaryHeap(int capacity) {
+    capacity = Math.max(capacity, 16);
+    this.elem = (T[]) new Object[capacity];
+    this.prio = new double[capacity];
+    this.size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean empty() {
+    return size <= 0;
+  }
+
+  @Override
+  public double peek_min_key() {
+    if (size > 0) {
+      return prio[0];
+    } else {
+      throw new IllegalStateException("An empty queue does not have a minimum key.");
+    }
+  }
+
+  @Override
+  public T peek_min() {
+    return size > 0 ? elem[0] : null;
+  }
+
+  @Override
+  public void insert(T e, double p) {
+    if (size == elem.length) {
+      elem = Arrays.copyOf(elem, size * 2);
+      prio = Arrays.copyOf(prio, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) / ARITY;
+      if (prio[parent] <= p) {
+        break;
+      }
+      elem[i] = elem[parent];
+      prio[i] = prio[parent];
+      i = parent;
+    }
+    elem[i] = e;
+    prio[i] = p;
+  }
+
+  @Override
+  public T extract_min() {
+    if (size <= 0) {
+      return null;
+    }
+    T minElem = elem[0];
+    --size;
+    T lastElem = elem[size];
+    double lastPrio = prio[size];
+    elem[size] = null;
+
+    if (size > 0) {
+      int i = 0;
+      while (true) {
+        int first = i * ARITY + 1;
+        if (first >= size) {
+          break;
+        }
+        int last = Math.min(first + ARITY, size);
+        int child = first;
+        for (int c = first + 1; c < last; c++) {
+          if (prio[c] < prio[child]) {
+            child = c;
+          }
+        }
+        if (prio[child] >= lastPrio) {
+          break;
+        }
+        elem[i] = elem[child];
+        prio[i] = prio[child];
+        i = child;
+      }
+      elem[i] = lastElem;
+      prio[i] = lastPrio;
+    }
+    return minElem;
+  }
+
+  @Override
+  public void reset() {
+    Arrays.fill(elem, 0, size, null);
+    size = 0;
+  }
+}
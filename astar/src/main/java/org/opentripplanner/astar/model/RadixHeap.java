@@ -0,0 +1,151 @@
+package org.opentripplanner.astar.model;
+
+import java.util.Arrays;
+
+/**
+ * A monotone radix heap. The keys must be non-negative, and a key must never be smaller than the
+ * last extracted key. Dijkstra searches satisfy this, since the weight of a state is never smaller
+ * than the weight of its parent.
+ * <p>
+ * The elements are kept in 65 buckets, by the position of the highest bit where the key differs
+ * from the last extracted key. Non-negative doubles have the same order as their bit patterns, so
+ * the bit patterns are used as keys. Inserting is constant time, and each element moves to a lower
+ * bucket at most 64 times before it is extracted. Unlike a heap there is no sifting, the elements
+ * of the same bucket are not ordered until the bucket is emptied into the lower buckets.
+ */
+public class RadixHeap<T> implements MinHeap<T> {
+
+  private static final int N_BUCKETS = Long.SIZE + 1;
+  private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+  private final Object[][] elem = new Object[N_BUCKETS][];
+  private final long[][] keys = new long[N_BUCKETS][];
+  private final int[] sizes = new int[N_BUCKETS];
+  private int size;
+
+  /** The bits of the last extracted key, all elements in bucket 0 have this key. */
+  private long last;
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean empty() {
+    return size <= 0;
+  }
+
+  @Override
+  public double peek_min_key() {
+    if (size <= 0) {
+      throw new IllegalStateException("An empty queue does not have a minimum key.");
+    }
+    fillBucketZero();
+    return Double.longBitsToDouble(last);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T peek_min() {
+    if (size <= 0) {
+      return null;
+    }
+    fillBucketZero();
+    return (T) elem[0][sizes[0] - 1];
+  }
+
+  /**
+   * @throws IllegalArgumentException if the key is negative, NaN or smaller than the last
+   *                                  extracted key
+   */
+  @Override
+  public void insert(T e, double p) {
+    if (!(p >= 0)) {
+      throw new IllegalArgumentException("The key must be non-negative: " + p);
+    }
+    // Adding 0.0 turns -0.0 into 0.0
+    long key = Double.doubleToLongBits(p + 0.0);
+    if (key < last) {
+      throw new IllegalArgumentException(
+        "The key " + p + " is smaller than the last extracted key " + Double.longBitsToDouble(last)
+      );
+    }
+    add(bucket(key), e, key);
+    ++size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T extract_min() {
+    if (size <= 0) {
+      return null;
+    }
+    fillBucketZero();
+    int i = --sizes[0];
+    T e = (T) elem[0][i];
+    elem[0][i] = null;
+    --size;
+    return e;
+  }
+
+  @Override
+  public void reset() {
+    for (int b = 0; b < N_BUCKETS; b++) {
+      if (elem[b] != null) {
+        Arrays.fill(elem[b], 0, sizes[b], null);
+      }
+      sizes[b] = 0;
+    }
+    size = 0;
+    last = 0;
+  }
+
+  /**
+   * If bucket 0 is empty, find the smallest key in the first non-empty bucket, make it the last
+   * extracted key, and redistribute the elements of that bucket. The smallest element(s) then end
+   * up in bucket 0. Must only be called on a non-empty heap.
+   */
+  private void fillBucketZero() {
+    if (sizes[0] > 0) {
+      return;
+    }
+    int b = 1;
+    while (sizes[b] == 0) {
+      ++b;
+    }
+    long[] bucketKeys = keys[b];
+    Object[] bucketElem = elem[b];
+    int n = sizes[b];
+
+    long min = bucketKeys[0];
+    for (int i = 1; i < n; i++) {
+      min = Math.min(min, bucketKeys[i]);
+    }
+    last = min;
+
+    sizes[b] = 0;
+    for (int i = 0; i < n; i++) {
+      // All keys in bucket b share the bits above b with min, so they move to a lower bucket
+      add(bucket(bucketKeys[i]), bucketElem[i], bucketKeys[i]);
+      bucketElem[i] = null;
+    }
+  }
+
+  private int bucket(long key) {
+    return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+  }
+
+  private void add(int b, Object e, long key) {
+    if (elem[b] == null) {
+      elem[b] = new Object[INITIAL_BUCKET_CAPACITY];
+      keys[b] = new long[INITIAL_BUCKET_CAPACITY];
+    } else if (sizes[b] == elem[b].length) {
+      elem[b] = Arrays.copyOf(elem[b], sizes[b] * 2);
+      keys[b] = Arrays.copyOf(keys[b], sizes[b] * 2);
+    }
+    elem[b][sizes[b]] = e;
+    keys[b][sizes[b]] = key;
+    ++sizes[b];
+  }
+}
@@ -36,12 +36,12 @@ public class ShortestPathTree<
   public final DominanceFunction<State> dominanceFunction;
 
   // Value is either a single State (common case) or List<State> (multi-state vertices)
-  private final SegmentedIdentityMap<Vertex, Object> stateSets;
+  private final VertexStateMap<Vertex, Object> stateSets;
 
   public ShortestPathTree(DominanceFunction<State> dominanceFunction) {
     this.dominanceFunction = dominanceFunction;
-    // Initialized with a reasonable size, see #4445
-    stateSets = new SegmentedIdentityMap<>(25_000);
+    // Grows with the number of visited vertices, instead of a large initial size, see #4445
+    stateSets = new VertexStateMap<>();
   }
 
   /** @return a list of GraphPaths, sometimes empty but never null. */
@@ -0,0 +1,132 @@
+package org.opentripplanner.astar.model;
+
+import java.util.function.Consumer;
+import org.opentripplanner.astar.spi.AStarVertex;
+
+/**
+ * A map from vertex to value used by the {@link ShortestPathTree}.
+ * <p>
+ * Vertices with an {@link AStarVertex#getIndex() index} are stored in small pages addressed by the
+ * index. A page is allocated when the first vertex in it is added, and the pages are found
+ * through a small open-addressing hash table keyed by the page number. The memory used grows with
+ * the number of vertices visited, not with the highest vertex index, so a short search in a large
+ * graph stays small. Graphs number their vertices so that nearby vertices get nearby indexes,
+ * which keeps the number of pages of a search small.
+ * <p>
+ * Vertices without an index, typically the temporary vertices of a request, are stored in a
+ * {@link SegmentedIdentityMap} which is created on first use.
+ * <p>
+ * No remove operation — entries are never removed from ShortestPathTree. Does not implement
+ * {@link java.util.Map}.
+ */
+class VertexStateMap<K extends AStarVertex<?, ?, ?>, V> {
+
+  private static final int PAGE_BITS = 8;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+  private static final int INITIAL_PAGE_TABLE_SIZE = 16;
+  private static final int INITIAL_OVERFLOW_SIZE = 16;
+
+  /** The page number of each slot in the page table, only valid where the page is not null. */
+  private int[] pageNumbers = new int[INITIAL_PAGE_TABLE_SIZE];
+  private Object[][] pages = new Object[INITIAL_PAGE_TABLE_SIZE][];
+  private int pageCount;
+  private SegmentedIdentityMap<K, V> overflow = null;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  V get(K key) {
+    int index = key.getIndex();
+    if (index < 0) {
+      return overflow == null ? null : overflow.get(key);
+    }
+    Object[] page = pages[slot(pages, pageNumbers, index >>> PAGE_BITS)];
+    return page == null ? null : (V) page[index & PAGE_MASK];
+  }
+
+  @SuppressWarnings("unchecked")
+  V put(K key, V value) {
+    int index = key.getIndex();
+    if (index < 0) {
+      if (overflow == null) {
+        overflow = new SegmentedIdentityMap<>(INITIAL_OVERFLOW_SIZE);
+      }
+      V old = overflow.put(key, value);
+      if (old == null) {
+        ++size;
+      }
+      return old;
+    }
+    Object[] page = page(index >>> PAGE_BITS);
+    int slot = index & PAGE_MASK;
+    V old = (V) page[slot];
+    page[slot] = value;
+    if (old == null) {
+      ++size;
+    }
+    return old;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  void forEachValue(Consumer<V> action) {
+    for (Object[] page : pages) {
+      if (page != null) {
+        for (Object value : page) {
+          if (value != null) {
+            action.accept((V) value);
+          }
+        }
+      }
+    }
+    if (overflow != null) {
+      overflow.forEachValue(action);
+    }
+  }
+
+  private Object[] page(int p) {
+    int slot = slot(pages, pageNumbers, p);
+    Object[] page = pages[slot];
+    if (page == null) {
+      page = new Object[PAGE_SIZE];
+      pages[slot] = page;
+      pageNumbers[slot] = p;
+      // Keep the table at most half full
+      if (++pageCount * 2 > pages.length) {
+        growPageTable();
+      }
+    }
+    return page;
+  }
+
+  private void growPageTable() {
+    var oldPages = pages;
+    var oldPageNumbers = pageNumbers;
+    pages = new Object[oldPages.length * 2][];
+    pageNumbers = new int[oldPages.length * 2];
+    for (int i = 0; i < oldPages.length; i++) {
+      if (oldPages[i] != null) {
+        int slot = slot(pages, pageNumbers, oldPageNumbers[i]);
+        pages[slot] = oldPages[i];
+        pageNumbers[slot] = oldPageNumbers[i];
+      }
+    }
+  }
+
+  /**
+   * Return the slot of the page with the given number, or the empty slot where it should be
+   * inserted. The table size is a power of two, and is never full.
+   */
+  private static int slot(Object[][] pages, int[] pageNumbers, int p) {
+    int mask = pages.length - 1;
+    int hash = p * 0x9E3779B9;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (pages[slot] != null && pageNumbers[slot] != p) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+}
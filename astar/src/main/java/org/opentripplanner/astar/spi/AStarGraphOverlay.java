@@ -0,0 +1,37 @@
+package org.opentripplanner.astar.spi;
+
+import java.util.Collection;
+
+/**
+ * Edges added to the graph for a single search, without modifying the vertices of the graph. The
+ * search asks the overlay for the edges of each vertex it expands, instead of asking the vertex.
+ * This lets many searches use their own temporary edges on the same graph concurrently.
+ */
+public interface AStarGraphOverlay<
+  Edge extends AStarEdge<?, Edge, Vertex>,
+  Vertex extends AStarVertex<?, Edge, Vertex>
+> {
+  /** The outgoing edges of the vertex, including the edges in the overlay. */
+  Collection<Edge> getOutgoing(Vertex vertex);
+
+  /** The incoming edges of the vertex, including the edges in the overlay. */
+  Collection<Edge> getIncoming(Vertex vertex);
+
+  /** An overlay without edges, the edges are the edges of the vertices. */
+  static <
+    Edge extends AStarEdge<?, Edge, Vertex>,
+    Vertex extends AStarVertex<?, Edge, Vertex>
+  > AStarGraphOverlay<Edge, Vertex> empty() {
+    return new AStarGraphOverlay<>() {
+      @Override
+      public Collection<Edge> getOutgoing(Vertex vertex) {
+        return vertex.getOutgoing();
+      }
+
+      @Override
+      public Collection<Edge> getIncoming(Vertex vertex) {
+        return vertex.getIncoming();
+      }
+    };
+  }
+}
@@ -7,6 +7,9 @@ public interface AStarVertex<
   Edge extends AStarEdge<State, Edge, Vertex>,
   Vertex extends AStarVertex<State, Edge, Vertex>
 > {
+  /** The index of vertices not numbered by their graph, see {@link #getIndex()}. */
+  int NO_INDEX = -1;
+
   /**
    * Get a collection containing all the edges leading from this vertex to other vertices. There is
    * probably some overhead to creating the wrapper ArrayList objects, but this allows filtering and
@@ -16,4 +19,14 @@ public interface AStarVertex<
 
   /** Get a collection containing all the edges leading from other vertices to this vertex. */
   Collection<Edge> getIncoming();
+
+  /**
+   * A dense, non-negative number given to this vertex by its graph, or {@link #NO_INDEX}. Two
+   * vertices reachable in the same search must never have the same index. The shortest path tree
+   * uses the index to keep the states in arrays instead of a hash map, vertices without an index
+   * (like the temporary vertices created for a single request) are kept in a hash map.
+   */
+  default int getIndex() {
+    return NO_INDEX;
+  }
 }
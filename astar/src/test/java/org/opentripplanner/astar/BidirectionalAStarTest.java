@@ -0,0 +1,276 @@
+package org.opentripplanner.astar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.astar.spi.AStarEdge;
+import org.opentripplanner.astar.spi.AStarRequest;
+import org.opentripplanner.astar.spi.AStarState;
+import org.opentripplanner.astar.spi.AStarVertex;
+import org.opentripplanner.astar.spi.DominanceFunction;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.astar.strategy.MaxCountTerminationStrategy;
+
+class BidirectionalAStarTest {
+
+  private static final int SIZE = 10;
+
+  private final List<V> vertices = new ArrayList<>();
+
+  /** A grid with random weights, some one-way streets and some missing streets. */
+  private void createGrid(long seed) {
+    var random = new Random(seed);
+    V[][] grid = new V[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        grid[i][j] = new V("V" + i + "_" + j);
+        vertices.add(grid[i][j]);
+      }
+    }
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        if (j + 1 < SIZE) {
+          connect(random, grid[i][j], grid[i][j + 1]);
+        }
+        if (i + 1 < SIZE) {
+          connect(random, grid[i][j], grid[i + 1][j]);
+        }
+      }
+    }
+  }
+
+  @Test
+  void findsTheSamePathWeightAsTheUnidirectionalSearch() {
+    createGrid(7);
+    for (V from : vertices) {
+      for (int k = 0; k < vertices.size(); k += 3) {
+        V to = vertices.get(k);
+        var expected = new Builder(false).withFrom(from).withTo(to).getPathsToTarget();
+        var actual = new Builder(true).withFrom(from).withTo(to).getPathsToTarget();
+
+        var message = from.name + " -> " + to.name;
+        assertEquals(expected.isEmpty(), actual.isEmpty(), message);
+        if (!actual.isEmpty()) {
+          var path = actual.getFirst();
+          assertEquals(expected.getFirst().getWeight(), path.getWeight(), 1e-9, message);
+          assertEquals(from, path.states.getFirst().getVertex(), message);
+          assertEquals(to, path.states.getLast().getVertex(), message);
+          assertPathIsConnected(path.edges);
+        }
+      }
+    }
+  }
+
+  @Test
+  void fallsBackToTheUnidirectionalSearchWithATerminationStrategy() {
+    createGrid(3);
+    V from = vertices.getFirst();
+    V to = vertices.getLast();
+    var builder = new Builder(true);
+    var paths = builder
+      .withFrom(from)
+      .withTo(to)
+      .withTerminationStrategy(new MaxCountTerminationStrategy<>(1_000_000, s -> false))
+      .getPathsToTarget();
+    assertEquals(0, builder.reverseStatesCreated);
+    var expected = new Builder(false).withFrom(from).withTo(to).getPathsToTarget();
+    assertEquals(expected.isEmpty(), paths.isEmpty());
+  }
+
+  private static void assertPathIsConnected(List<E> edges) {
+    for (int i = 1; i < edges.size(); i++) {
+      assertEquals(edges.get(i - 1).to, edges.get(i).from);
+    }
+  }
+
+  private static void connect(Random random, V a, V b) {
+    int kind = random.nextInt(8);
+    double weight = 1 + random.nextInt(50);
+    if (kind != 0) {
+      new E(a, b, weight);
+    }
+    if (kind != 1 && kind != 2) {
+      new E(b, a, weight + random.nextInt(10));
+    }
+  }
+
+  private static class Builder extends AStarBuilder<S, E, V, Builder> {
+
+    private int reverseStatesCreated = 0;
+
+    Builder(boolean bidirectional) {
+      setBuilder(this);
+      withBidirectionalSearch(bidirectional);
+      withDominanceFunction((a, b) -> a.weight <= b.weight);
+      withPreStartHook(() -> {});
+    }
+
+    @Override
+    protected Duration streetRoutingTimeout() {
+      return Duration.ofMinutes(1);
+    }
+
+    @Override
+    protected Collection<S> createInitialStates(Set<V> originVertices) {
+      return originVertices
+        .stream()
+        .map(v -> new S(v, arriveBy()))
+        .toList();
+    }
+
+    @Override
+    protected Collection<S> createReverseInitialStates(Set<V> destinationVertices) {
+      reverseStatesCreated += destinationVertices.size();
+      return destinationVertices
+        .stream()
+        .map(v -> new S(v, !arriveBy()))
+        .toList();
+    }
+
+    @Override
+    protected void initializeHeuristic(
+      RemainingWeightHeuristic<S> heuristic,
+      Set<V> origin,
+      Set<V> destination,
+      boolean arriveBy
+    ) {}
+
+    @Override
+    protected DominanceFunction<S> createDefaultDominanceFunction() {
+      return null;
+    }
+  }
+
+  private static class V implements AStarVertex<S, E, V> {
+
+    private final String name;
+    private final List<E> incoming = new ArrayList<>();
+    private final List<E> outgoing = new ArrayList<>();
+
+    V(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Collection<E> getOutgoing() {
+      return outgoing;
+    }
+
+    @Override
+    public Collection<E> getIncoming() {
+      return incoming;
+    }
+  }
+
+  private static class E implements AStarEdge<S, E, V> {
+
+    private final V from;
+    private final V to;
+    private final double weight;
+
+    E(V from, V to, double weight) {
+      this.from = from;
+      this.to = to;
+      this.weight = weight;
+      from.outgoing.add(this);
+      to.incoming.add(this);
+    }
+
+    @Override
+    public V getFromVertex() {
+      return from;
+    }
+
+    @Override
+    public V getToVertex() {
+      return to;
+    }
+
+    @Override
+    public S[] traverse(S s0) {
+      return new S[] { new S(s0.arriveBy ? from : to, s0, this, s0.weight + weight) };
+    }
+  }
+
+  private static class S implements AStarState<S, E, V> {
+
+    private final V vertex;
+    private final S backState;
+    private final E backEdge;
+    private final double weight;
+    private final boolean arriveBy;
+
+    S(V vertex, boolean arriveBy) {
+      this.vertex = vertex;
+      this.backState = null;
+      this.backEdge = null;
+      this.weight = 0;
+      this.arriveBy = arriveBy;
+    }
+
+    S(V vertex, S backState, E backEdge, double weight) {
+      this.vertex = vertex;
+      this.backState = backState;
+      this.backEdge = backEdge;
+      this.weight = weight;
+      this.arriveBy = backState.arriveBy;
+    }
+
+    @Override
+    public boolean isFinal() {
+      return true;
+    }
+
+    @Override
+    public S getBackState() {
+      return backState;
+    }
+
+    @Override
+    public S reverse() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public E getBackEdge() {
+      return backEdge;
+    }
+
+    @Override
+    public long getTimeSeconds() {
+      return 0;
+    }
+
+    @Override
+    public double getWeight() {
+      return weight;
+    }
+
+    @Override
+    public V getVertex() {
+      return vertex;
+    }
+
+    @Override
+    public long getElapsedTimeSeconds() {
+      return 0;
+    }
+
+    @Override
+    public Instant getTime() {
+      return null;
+    }
+
+    @Override
+    public AStarRequest getRequest() {
+      return () -> arriveBy;
+    }
+  }
+}
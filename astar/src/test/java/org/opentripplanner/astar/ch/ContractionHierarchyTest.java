@@ -0,0 +1,154 @@
+package org.opentripplanner.astar.ch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ContractionHierarchyTest {
+
+  private static final int SIZE = 12;
+  private static final int N = SIZE * SIZE;
+
+  /** Arc weights of a directed grid with some one-way and missing arcs, MAX_VALUE = no arc. */
+  private final int[][] weights = new int[N][N];
+
+  private ContractionHierarchy createGrid() {
+    var random = new Random(42);
+    for (int[] row : weights) {
+      Arrays.fill(row, Integer.MAX_VALUE);
+    }
+    var builder = new ContractionHierarchyBuilder(N);
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        int v = i * SIZE + j;
+        if (j + 1 < SIZE) {
+          addRandomArcs(builder, random, v, v + 1);
+        }
+        if (i + 1 < SIZE) {
+          addRandomArcs(builder, random, v, v + SIZE);
+        }
+      }
+    }
+    return builder.build(m -> {});
+  }
+
+  @Test
+  void shortestPathsAreTheSameAsDijkstra() {
+    var ch = createGrid();
+    assertEquals(N, ch.nNodes());
+    assertTrue(ch.nShortcuts() > 0);
+
+    for (int source = 0; source < N; source += 7) {
+      long[] expected = dijkstra(source);
+      for (int target = 0; target < N; target++) {
+        int[] path = ch.findPath(
+          new int[] { source },
+          new long[1],
+          new int[] { target },
+          new long[1]
+        );
+        if (expected[target] == Long.MAX_VALUE) {
+          assertNull(path);
+          continue;
+        }
+        assertNotNull(path, "No path from " + source + " to " + target);
+        assertEquals(source, path[0]);
+        assertEquals(target, path[path.length - 1]);
+        assertEquals(expected[target], pathWeight(path));
+      }
+    }
+  }
+
+  @Test
+  void sourceAndTargetWeightsAreIncluded() {
+    var ch = createGrid();
+    int[] sources = { 1, SIZE, 3 * SIZE + 5 };
+    long[] sourceWeights = { 250, 0, 90 };
+    int[] targets = { N - 1, N - SIZE - 3 };
+    long[] targetWeights = { -40, 60 };
+
+    long expected = Long.MAX_VALUE;
+    for (int i = 0; i < sources.length; i++) {
+      long[] dist = dijkstra(sources[i]);
+      for (int j = 0; j < targets.length; j++) {
+        if (dist[targets[j]] != Long.MAX_VALUE) {
+          expected = Math.min(expected, sourceWeights[i] + dist[targets[j]] + targetWeights[j]);
+        }
+      }
+    }
+
+    int[] path = ch.findPath(sources, sourceWeights, targets, targetWeights);
+    assertNotNull(path);
+    int i = Arrays.stream(sources).boxed().toList().indexOf(path[0]);
+    int j = Arrays.stream(targets).boxed().toList().indexOf(path[path.length - 1]);
+    assertEquals(expected, sourceWeights[i] + pathWeight(path) + targetWeights[j]);
+  }
+
+  @Test
+  void pathFromNodeToItself() {
+    var ch = createGrid();
+    var path = ch.findPath(new int[] { 5 }, new long[1], new int[] { 5 }, new long[1]);
+    assertArrayEquals(new int[] { 5 }, path);
+  }
+
+  @Test
+  void negativeWeightsAreRejected() {
+    var builder = new ContractionHierarchyBuilder(2);
+    assertThrows(IllegalArgumentException.class, () -> builder.addArc(0, 1, -1));
+  }
+
+  private void addRandomArcs(ContractionHierarchyBuilder builder, Random random, int a, int b) {
+    int kind = random.nextInt(6);
+    int weight = 1 + random.nextInt(100);
+    if (kind != 0) {
+      builder.addArc(a, b, weight);
+      weights[a][b] = weight;
+    }
+    if (kind != 1) {
+      // Different weights in the two directions, like turn costs
+      weight += random.nextInt(20);
+      builder.addArc(b, a, weight);
+      weights[b][a] = weight;
+    }
+  }
+
+  private long pathWeight(int[] path) {
+    long weight = 0;
+    for (int i = 1; i < path.length; i++) {
+      int w = weights[path[i - 1]][path[i]];
+      assertTrue(w != Integer.MAX_VALUE, "Not an arc: " + path[i - 1] + " -> " + path[i]);
+      weight += w;
+    }
+    return weight;
+  }
+
+  private long[] dijkstra(int source) {
+    long[] dist = new long[N];
+    Arrays.fill(dist, Long.MAX_VALUE);
+    dist[source] = 0;
+    var queue = new PriorityQueue<long[]>((a, b) -> Long.compare(a[0], b[0]));
+    queue.add(new long[] { 0, source });
+    while (!queue.isEmpty()) {
+      long[] e = queue.poll();
+      int u = (int) e[1];
+      if (e[0] > dist[u]) {
+        continue;
+      }
+      for (int v = 0; v < N; v++) {
+        if (weights[u][v] != Integer.MAX_VALUE && dist[u] + weights[u][v] < dist[v]) {
+          dist[v] = dist[u] + weights[u][v];
+          queue.add(new long[] { dist[v], v });
+        }
+      }
+    }
+    return dist;
+  }
+}
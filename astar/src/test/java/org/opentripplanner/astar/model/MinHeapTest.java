@@ -0,0 +1,104 @@
+package org.opentripplanner.astar.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class MinHeapTest {
+
+  private static final int N = 20_000;
+
+  /**
+   * Simulate a Dijkstra search: every inserted key is the last extracted key plus a non-negative
+   * increment. Many keys are equal, like weights on a grid.
+   */
+  @ParameterizedTest
+  @EnumSource(HeapType.class)
+  void extractsKeysInOrderForMonotoneInserts(HeapType type) {
+    var random = new Random(17);
+    MinHeap<double[]> heap = type.create(10);
+    var expected = new PriorityQueue<Double>();
+
+    insert(heap, expected, 0.0);
+    double lastKey = 0;
+    int nInserted = 1;
+    while (!heap.empty()) {
+      assertEquals(expected.size(), heap.size());
+      assertEquals((double) expected.peek(), heap.peek_min_key());
+      double key = heap.extract_min()[0];
+      assertEquals((double) expected.poll(), key);
+      assertTrue(key >= lastKey);
+      lastKey = key;
+
+      for (int i = 0; i < 3 && nInserted < N; i++, nInserted++) {
+        insert(heap, expected, key + random.nextInt(5) * 0.25);
+      }
+    }
+    assertTrue(expected.isEmpty());
+    assertNull(heap.peek_min());
+    assertNull(heap.extract_min());
+    assertThrows(IllegalStateException.class, heap::peek_min_key);
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = HeapType.class, names = { "BINARY", "QUATERNARY" })
+  void extractsKeysInOrderForRandomInserts(HeapType type) {
+    var random = new Random(3);
+    MinHeap<double[]> heap = type.create(10);
+    var expected = new PriorityQueue<Double>();
+    for (int i = 0; i < N; i++) {
+      insert(heap, expected, random.nextDouble() * 1000 - 500);
+      if (i % 3 == 0) {
+        assertEquals((double) expected.poll(), heap.extract_min()[0]);
+      }
+    }
+    while (!expected.isEmpty()) {
+      assertEquals((double) expected.poll(), heap.extract_min()[0]);
+    }
+    assertTrue(heap.empty());
+  }
+
+  @ParameterizedTest
+  @EnumSource(HeapType.class)
+  void resetEmptiesTheQueue(HeapType type) {
+    MinHeap<double[]> heap = type.create(10);
+    for (int i = 0; i < 100; i++) {
+      heap.insert(new double[] { i }, i);
+    }
+    heap.extract_min();
+    heap.reset();
+    assertTrue(heap.empty());
+    assertNull(heap.extract_min());
+
+    heap.insert(new double[] { 1 }, 1);
+    assertEquals(1, heap.peek_min_key());
+  }
+
+  @Test
+  void radixHeapRejectsKeysSmallerThanTheLastExtractedKey() {
+    MinHeap<String> heap = HeapType.RADIX.create(10);
+    heap.insert("A", 10);
+    heap.insert("B", 20);
+    assertEquals("A", heap.extract_min());
+
+    assertThrows(IllegalArgumentException.class, () -> heap.insert("C", 9.5));
+    assertThrows(IllegalArgumentException.class, () -> heap.insert("D", -1));
+    assertThrows(IllegalArgumentException.class, () -> heap.insert("E", Double.NaN));
+
+    heap.insert("F", 10);
+    assertEquals("F", heap.extract_min());
+    assertEquals("B", heap.extract_min());
+  }
+
+  private static void insert(MinHeap<double[]> heap, PriorityQueue<Double> expected, double key) {
+    heap.insert(new double[] { key }, key);
+    expected.add(key);
+  }
+}
@@ -0,0 +1,82 @@
+package org.opentripplanner.astar.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.astar.TestVertex;
+
+class VertexStateMapTest {
+
+  @Test
+  void emptyMap() {
+    var map = new VertexStateMap<TestVertex, String>();
+    assertEquals(0, map.size());
+    assertNull(map.get(new TestVertex("A", 3)));
+    assertNull(map.get(new TestVertex("B")));
+  }
+
+  @Test
+  void putReplace() {
+    var map = new VertexStateMap<TestVertex, Integer>();
+    var v = new TestVertex("A", 7);
+    assertNull(map.put(v, 1));
+    assertEquals(1, map.put(v, 2));
+    assertEquals(2, map.get(v));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  void indexedAndUnindexedVertices() {
+    var map = new VertexStateMap<TestVertex, Integer>();
+    List<TestVertex> vertices = new ArrayList<>();
+    // Indexes far apart, to span many pages and grow the page table
+    for (int i = 0; i < 500; i++) {
+      vertices.add(new TestVertex("I" + i, i * 997));
+    }
+    // Unindexed vertices are stored by identity
+    for (int i = 0; i < 50; i++) {
+      vertices.add(new TestVertex("T" + i));
+    }
+    for (int i = 0; i < vertices.size(); i++) {
+      map.put(vertices.get(i), i);
+    }
+
+    assertEquals(vertices.size(), map.size());
+    for (int i = 0; i < vertices.size(); i++) {
+      assertEquals(i, map.get(vertices.get(i)));
+    }
+    assertNull(map.get(new TestVertex("I", 998)));
+    assertNull(map.get(new TestVertex("I", Integer.MAX_VALUE)));
+    assertNull(map.get(new TestVertex("T")));
+
+    Set<Integer> values = new HashSet<>();
+    map.forEachValue(values::add);
+    assertEquals(vertices.size(), values.size());
+  }
+
+  @Test
+  void highIndexes() {
+    var map = new VertexStateMap<TestVertex, Integer>();
+    // A few vertices at the end of a large graph, and pages far apart from each other
+    var vertices = List.of(
+      new TestVertex("A", Integer.MAX_VALUE),
+      new TestVertex("B", Integer.MAX_VALUE - 1),
+      new TestVertex("C", 1 << 30),
+      new TestVertex("D", 0)
+    );
+    for (int i = 0; i < vertices.size(); i++) {
+      map.put(vertices.get(i), i);
+    }
+
+    assertEquals(vertices.size(), map.size());
+    for (int i = 0; i < vertices.size(); i++) {
+      assertEquals(i, map.get(vertices.get(i)));
+    }
+    assertNull(map.get(new TestVertex("E", (1 << 30) + 1)));
+  }
+}
@@ -1,5 +1,6 @@
 package org.opentripplanner.street.geometry;
 
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.LineString;
@@ -142,7 +143,29 @@ public final class CompactLineStringUtils {
     byte[] packedCoords,
     boolean reverse
   ) {
-    int[] coords = DlugoszVarLenIntPacker.unpack(packedCoords);
+    return uncompactLineString(
+      xa,
+      ya,
+      xb,
+      yb,
+      DlugoszVarLenIntPacker.unpack(packedCoords),
+      reverse
+    );
+  }
+
+  /**
+   * Same as the other version, but with the coordinates already unpacked.
+   *
+   * @param coords The unpacked delta coordinates, null for a straight line
+   */
+  public static LineString uncompactLineString(
+    double xa,
+    double ya,
+    double xb,
+    double yb,
+    @Nullable int[] coords,
+    boolean reverse
+  ) {
     double x0 = reverse ? xb : xa;
     double y0 = reverse ? yb : ya;
     double x1 = reverse ? xa : xb;
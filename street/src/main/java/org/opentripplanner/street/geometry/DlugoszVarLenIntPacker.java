@@ -1,8 +1,9 @@
 package org.opentripplanner.street.geometry;
 
 import java.io.ByteArrayOutputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
 
 /**
  * Variable-length integer encoding. This optimize integer storage when most of the values are
@@ -80,53 +81,59 @@ public class DlugoszVarLenIntPacker {
     if (arr == null) {
       return null;
     }
-    List<Integer> retval = new ArrayList<>(arr.length);
-    int i = 0;
-    while (i < arr.length) {
-      int v1 = arr[i] & 0xFF;
+    return unpack(MemorySegment.ofArray(arr), 0, arr.length);
+  }
+
+  /**
+   * Unpack the {@code size} bytes starting at {@code offset} in the segment. This decodes packed
+   * values stored off-heap without copying them to a byte array first.
+   */
+  public static int[] unpack(MemorySegment segment, long offset, int size) {
+    int[] retval = new int[size];
+    int n = 0;
+    long i = offset;
+    long end = offset + size;
+    while (i < end) {
+      int v1 = byteAt(segment, i);
       i++;
       if ((v1 & 0x80) == 0x00) {
         // 0xxx xxxx -> 7 bits value
-        int sv = (v1 & 0x7F) - 64;
-        retval.add(sv);
+        retval[n++] = (v1 & 0x7F) - 64;
       } else if ((v1 & 0xC0) == 0x80) {
         // 10xx xxxx + 8 -> 14 bits value
-        int sv = ((v1 & 0x3F) << 8) + (arr[i] & 0xFF) - 8192;
+        retval[n++] = ((v1 & 0x3F) << 8) + byteAt(segment, i) - 8192;
         i++;
-        retval.add(sv);
       } else if ((v1 & 0xE0) == 0xC0) {
         // 110 xxxx + 2x8 -> 21 bits value
-        int sv = ((v1 & 0x1F) << 16) + ((arr[i] & 0xFF) << 8) + (arr[i + 1] & 0xFF) - 1048576;
+        retval[n++] =
+          ((v1 & 0x1F) << 16) + (byteAt(segment, i) << 8) + byteAt(segment, i + 1) - 1048576;
         i += 2;
-        retval.add(sv);
       } else if ((v1 & 0xF8) == 0xE0) {
         // 1110 0xxx + 3x8 -> 27 bits value
-        int sv =
+        retval[n++] =
           ((v1 & 0x1F) << 24) +
-          ((arr[i] & 0xFF) << 16) +
-          ((arr[i + 1] & 0xFF) << 8) +
-          (arr[i + 2] & 0xFF) -
+          (byteAt(segment, i) << 16) +
+          (byteAt(segment, i + 1) << 8) +
+          byteAt(segment, i + 2) -
           67108864;
         i += 3;
-        retval.add(sv);
       } else {
         // 1110 1xxx + 4x8 -> 35 bits value
         long sv =
           (((long) v1 & 0x1F) << 32) +
-          ((arr[i] & 0xFF) << 24) +
-          ((arr[i + 1] & 0xFF) << 16) +
-          ((arr[i + 2] & 0xFF) << 8) +
-          (arr[i + 3] & 0xFF) -
+          (byteAt(segment, i) << 24) +
+          (byteAt(segment, i + 1) << 16) +
+          (byteAt(segment, i + 2) << 8) +
+          byteAt(segment, i + 3) -
           2147483648L;
         i += 4;
-        retval.add((int) sv);
+        retval[n++] = (int) sv;
       }
     }
-    int[] bufret = new int[retval.size()];
-    i = 0;
-    for (int v : retval) {
-      bufret[i++] = v;
-    }
-    return bufret;
+    return n == retval.length ? retval : Arrays.copyOf(retval, n);
+  }
+
+  private static int byteAt(MemorySegment segment, long offset) {
+    return segment.get(ValueLayout.JAVA_BYTE, offset) & 0xFF;
   }
 }
@@ -0,0 +1,305 @@
+package org.opentripplanner.street.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * A static spatial index, packed once from a known set of items and never modified. The items are
+ * sorted along a Hilbert curve by the center of their envelope and grouped bottom-up into nodes of
+ * {@link #NODE_SIZE} entries, so the tree is perfectly balanced and every node is full.
+ * <p>
+ * The envelopes are stored in a single {@code float[]}, rounded outwards so that a query never
+ * misses an item. Together with an {@code int[]} of child offsets this uses about 24 bytes per
+ * item, much less than a {@link HashGridSpatialIndex} where long items are placed in many bins.
+ * <p>
+ * A query returns the items with an envelope intersecting the query envelope. Because of the float
+ * rounding it may also return items less than about a meter outside, and like the other indexes it
+ * is up to the client to filter items by their geometry. The index is immutable and safe to query
+ * from many threads.
+ *
+ * @param <T> Type of objects to be spatial indexed.
+ */
+public final class PackedHilbertRTree<T> {
+
+  private static final int NODE_SIZE = 16;
+  private static final int HILBERT_MAX = (1 << 16) - 1;
+
+  private final int numItems;
+
+  /** The end (exclusive) of each level in the node arrays, the leaves are level 0. */
+  private final int[] levelBounds;
+
+  /** The minX, minY, maxX and maxY of each node. */
+  private final float[] boxes;
+
+  /** For a leaf the index of the item, for other nodes the position of the first child. */
+  private final int[] indices;
+
+  private final Object[] items;
+
+  private PackedHilbertRTree(
+    int numItems,
+    int[] levelBounds,
+    float[] boxes,
+    int[] indices,
+    Object[] items
+  ) {
+    this.numItems = numItems;
+    this.levelBounds = levelBounds;
+    this.boxes = boxes;
+    this.indices = indices;
+    this.items = items;
+  }
+
+  public static <T> Builder<T> of() {
+    return new Builder<>();
+  }
+
+  public int size() {
+    return numItems;
+  }
+
+  /** Return the items with an envelope intersecting the given envelope. */
+  public List<T> query(Envelope envelope) {
+    var result = new ArrayList<T>();
+    query(envelope, result::add);
+    return result;
+  }
+
+  /** Call the visitor for each item with an envelope intersecting the given envelope. */
+  public void query(Envelope envelope, Consumer<T> visitor) {
+    queryPositions(envelope, pos -> visitor.accept(item(pos)));
+  }
+
+  /**
+   * The item at the given position in the tree. The positions are numbered from zero to
+   * {@link #size()} in the order of the tree, not in the order the items were added.
+   */
+  @SuppressWarnings("unchecked")
+  public T item(int position) {
+    return (T) items[position];
+  }
+
+  /**
+   * Call the visitor with the position of each item with an envelope intersecting the given
+   * envelope, see {@link #item(int)}.
+   */
+  public void queryPositions(Envelope envelope, IntConsumer visitor) {
+    if (numItems == 0 || envelope.isNull()) {
+      return;
+    }
+    double minX = envelope.getMinX();
+    double minY = envelope.getMinY();
+    double maxX = envelope.getMaxX();
+    double maxY = envelope.getMaxY();
+
+    int[] stack = new int[16];
+    int stackSize = 0;
+    int node = indices.length - 1;
+    int level = levelBounds.length - 1;
+    int[] stackLevels = new int[16];
+
+    while (true) {
+      int end = Math.min(node + NODE_SIZE, levelBounds[level]);
+      for (int pos = node; pos < end; pos++) {
+        int b = pos * 4;
+        if (maxX < boxes[b] || maxY < boxes[b + 1] || minX > boxes[b + 2] || minY > boxes[b + 3]) {
+          continue;
+        }
+        if (level == 0) {
+          visitor.accept(indices[pos]);
+        } else {
+          if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+            stackLevels = Arrays.copyOf(stackLevels, stackSize * 2);
+          }
+          stack[stackSize] = indices[pos];
+          stackLevels[stackSize] = level - 1;
+          stackSize++;
+        }
+      }
+      if (stackSize == 0) {
+        return;
+      }
+      stackSize--;
+      node = stack[stackSize];
+      level = stackLevels[stackSize];
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "PackedHilbertRTree %d items, %d nodes, %d levels",
+      numItems,
+      indices.length,
+      levelBounds.length
+    );
+  }
+
+  /**
+   * Map a point on a 2^16 x 2^16 grid to its distance along a Hilbert curve filling the grid.
+   */
+  static long hilbert(int x, int y) {
+    long d = 0;
+    for (int s = 1 << 15; s > 0; s >>= 1) {
+      int rx = (x & s) > 0 ? 1 : 0;
+      int ry = (y & s) > 0 ? 1 : 0;
+      d += (long) s * s * ((3 * rx) ^ ry);
+      // Rotate the quadrant
+      if (ry == 0) {
+        if (rx == 1) {
+          x = HILBERT_MAX - x;
+          y = HILBERT_MAX - y;
+        }
+        int t = x;
+        x = y;
+        y = t;
+      }
+    }
+    return d;
+  }
+
+  public static class Builder<T> {
+
+    private final List<T> items = new ArrayList<>();
+    private double[] envelopes = new double[64];
+
+    private Builder() {}
+
+    public Builder<T> add(Envelope envelope, T item) {
+      int i = items.size() * 4;
+      if (i + 4 > envelopes.length) {
+        envelopes = Arrays.copyOf(envelopes, envelopes.length * 2);
+      }
+      envelopes[i] = envelope.getMinX();
+      envelopes[i + 1] = envelope.getMinY();
+      envelopes[i + 2] = envelope.getMaxX();
+      envelopes[i + 3] = envelope.getMaxY();
+      items.add(item);
+      return this;
+    }
+
+    public PackedHilbertRTree<T> build() {
+      final int n = items.size();
+
+      // Compute the number of nodes on each level
+      var levelBounds = new ArrayList<Integer>();
+      int numNodes = n;
+      int levelSize = n;
+      levelBounds.add(numNodes);
+      while (levelSize > 1) {
+        levelSize = (levelSize + NODE_SIZE - 1) / NODE_SIZE;
+        numNodes += levelSize;
+        levelBounds.add(numNodes);
+      }
+
+      float[] boxes = new float[numNodes * 4];
+      int[] indices = new int[numNodes];
+      Object[] sortedItems = new Object[n];
+
+      if (n > 0) {
+        int[] order = hilbertOrder(n);
+        for (int pos = 0; pos < n; pos++) {
+          int item = order[pos];
+          setBox(boxes, pos, envelopes, item);
+          indices[pos] = pos;
+          sortedItems[pos] = items.get(item);
+        }
+        // Build the parent nodes, level by level
+        int pos = 0;
+        int parent = n;
+        for (int level = 0; level < levelBounds.size() - 1; level++) {
+          int end = levelBounds.get(level);
+          while (pos < end) {
+            int first = pos;
+            float minX = Float.POSITIVE_INFINITY;
+            float minY = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY;
+            float maxY = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < NODE_SIZE && pos < end; i++, pos++) {
+              minX = Math.min(minX, boxes[pos * 4]);
+              minY = Math.min(minY, boxes[pos * 4 + 1]);
+              maxX = Math.max(maxX, boxes[pos * 4 + 2]);
+              maxY = Math.max(maxY, boxes[pos * 4 + 3]);
+            }
+            boxes[parent * 4] = minX;
+            boxes[parent * 4 + 1] = minY;
+            boxes[parent * 4 + 2] = maxX;
+            boxes[parent * 4 + 3] = maxY;
+            indices[parent] = first;
+            parent++;
+          }
+        }
+      }
+
+      return new PackedHilbertRTree<>(
+        n,
+        levelBounds.stream().mapToInt(Integer::intValue).toArray(),
+        boxes,
+        indices,
+        sortedItems
+      );
+    }
+
+    /** Sort the items by the Hilbert value of the center of their envelope. */
+    private int[] hilbertOrder(int n) {
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < n * 4; i += 4) {
+        minX = Math.min(minX, envelopes[i]);
+        minY = Math.min(minY, envelopes[i + 1]);
+        maxX = Math.max(maxX, envelopes[i + 2]);
+        maxY = Math.max(maxY, envelopes[i + 3]);
+      }
+      final double x0 = minX;
+      final double y0 = minY;
+      final double width = maxX - minX == 0 ? 1 : maxX - minX;
+      final double height = maxY - minY == 0 ? 1 : maxY - minY;
+
+      // The Hilbert value uses 32 bits, the item index the 31 lower bits
+      long[] keys = new long[n];
+      IntStream.range(0, n)
+        .parallel()
+        .forEach(i -> {
+          double cx = (envelopes[i * 4] + envelopes[i * 4 + 2]) / 2;
+          double cy = (envelopes[i * 4 + 1] + envelopes[i * 4 + 3]) / 2;
+          int x = (int) (HILBERT_MAX * (cx - x0) / width);
+          int y = (int) (HILBERT_MAX * (cy - y0) / height);
+          keys[i] = (hilbert(x, y) << 31) | i;
+        });
+      Arrays.parallelSort(keys);
+
+      int[] order = new int[n];
+      for (int i = 0; i < n; i++) {
+        order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+      }
+      return order;
+    }
+
+    /** Copy the envelope, rounded outwards to float precision. */
+    private static void setBox(float[] boxes, int pos, double[] envelopes, int item) {
+      boxes[pos * 4] = floorToFloat(envelopes[item * 4]);
+      boxes[pos * 4 + 1] = floorToFloat(envelopes[item * 4 + 1]);
+      boxes[pos * 4 + 2] = ceilToFloat(envelopes[item * 4 + 2]);
+      boxes[pos * 4 + 3] = ceilToFloat(envelopes[item * 4 + 3]);
+    }
+
+    private static float floorToFloat(double value) {
+      float f = (float) value;
+      return f > value ? Math.nextDown(f) : f;
+    }
+
+    private static float ceilToFloat(double value) {
+      float f = (float) value;
+      return f < value ? Math.nextUp(f) : f;
+    }
+  }
+}
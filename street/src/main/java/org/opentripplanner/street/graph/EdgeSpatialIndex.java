@@ -6,6 +6,7 @@ import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.street.Scope;
 import org.opentripplanner.street.geometry.HashGridSpatialIndex;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
 
 /**
  * Manages edge spatial indexes by scope. When linking vertices, visibility is as follows:
@@ -29,21 +30,47 @@ import org.opentripplanner.street.model.edge.Edge;
  * edge then back again to where the realtime element was connected.
  * <p>
  * See #3351
+ * <p>
+ * The street edges numbered by the graph when the index is created are kept in a
+ * {@link StaticSpatialIndex}. The other permanent edges, and the permanent edges added later, are
+ * kept in a small hash grid.
  */
 class EdgeSpatialIndex {
 
-  private final HashGridSpatialIndex<Edge> permanentEdgeIndex = new HashGridSpatialIndex<>();
+  private final StaticSpatialIndex<StreetEdge> staticEdgeIndex;
+
+  private final HashGridSpatialIndex<Edge> permanentEdgeIndex;
 
   private final HashGridSpatialIndex<Edge> realTimeEdgeIndex = new HashGridSpatialIndex<>();
 
+  /**
+   * @param staticEdgeIndex the numbered street edges of the graph when the index is created
+   * @param permanentEdgeIndex the other edges of the graph when the index is created
+   */
+  EdgeSpatialIndex(
+    StaticSpatialIndex<StreetEdge> staticEdgeIndex,
+    HashGridSpatialIndex<Edge> permanentEdgeIndex
+  ) {
+    this.staticEdgeIndex = staticEdgeIndex;
+    this.permanentEdgeIndex = permanentEdgeIndex;
+  }
+
   public void insert(Edge edge, Scope scope) {
+    // A removed edge of the static index is added again by clearing its tombstone
+    if (
+      scope == Scope.PERMANENT &&
+      edge instanceof StreetEdge streetEdge &&
+      staticEdgeIndex.restore(streetEdge)
+    ) {
+      return;
+    }
     if (edge.hasGeometry()) {
       final LineString geometry = edge.getGeometry();
       insert(geometry, edge, scope);
     }
   }
 
-  public void insert(LineString geometry, Edge edge, Scope scope) {
+  private void insert(LineString geometry, Edge edge, Scope scope) {
     switch (scope) {
       case PERMANENT -> permanentEdgeIndex.insert(geometry, edge);
       case REALTIME -> realTimeEdgeIndex.insert(geometry, edge);
@@ -52,26 +79,39 @@ class EdgeSpatialIndex {
   }
 
   public void remove(final Edge edge, Scope scope) {
-    if (edge.hasGeometry()) {
-      var envelope = edge.getGeometry().getEnvelopeInternal();
-      switch (scope) {
-        case PERMANENT -> permanentEdgeIndex.remove(envelope, edge);
-        case REALTIME -> realTimeEdgeIndex.remove(envelope, edge);
-        case REQUEST -> throw new IllegalArgumentException();
+    switch (scope) {
+      case PERMANENT -> {
+        if (!(edge instanceof StreetEdge streetEdge && staticEdgeIndex.remove(streetEdge))) {
+          var envelope = StreetIndex.edgeGeometryOrStraightLine(edge).getEnvelopeInternal();
+          permanentEdgeIndex.remove(envelope, edge);
+        }
+      }
+      case REALTIME -> {
+        if (edge.hasGeometry()) {
+          realTimeEdgeIndex.remove(edge.getGeometry().getEnvelopeInternal(), edge);
+        }
       }
+      case REQUEST -> throw new IllegalArgumentException();
     }
   }
 
   public final Stream<Edge> query(Envelope envelope, Scope scope) {
     return switch (scope) {
-      case PERMANENT, REALTIME -> permanentEdgeIndex.query(envelope).stream();
+      case PERMANENT, REALTIME -> queryPermanent(envelope);
       case REQUEST -> Stream.concat(
-        permanentEdgeIndex.query(envelope).stream(),
+        queryPermanent(envelope),
         realTimeEdgeIndex.query(envelope).stream()
       );
     };
   }
 
+  private Stream<Edge> queryPermanent(Envelope envelope) {
+    return Stream.concat(
+      staticEdgeIndex.query(envelope).stream(),
+      permanentEdgeIndex.query(envelope).stream()
+    );
+  }
+
   public void compact() {
     permanentEdgeIndex.compact();
   }
@@ -2,15 +2,23 @@ package org.opentripplanner.street.graph;
 
 import com.google.common.annotations.VisibleForTesting;
 import jakarta.inject.Inject;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
@@ -19,13 +27,19 @@ import org.opentripplanner.street.Scope;
 import org.opentripplanner.street.geometry.CompactElevationProfile;
 import org.opentripplanner.street.geometry.GeometryUtils;
 import org.opentripplanner.street.internal.notes.StreetNotesService;
+import org.opentripplanner.street.linking.LinkingCache;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.MappedStreetNetwork;
 import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
+import org.opentripplanner.street.model.edge.TemporaryEdge;
 import org.opentripplanner.street.model.openinghours.OpeningHoursCalendarService;
 import org.opentripplanner.street.model.vertex.StationCentroidVertex;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.model.vertex.VertexLabel;
+import org.opentripplanner.street.search.ch.CarContractionHierarchy;
+import org.opentripplanner.street.search.landmark.LandmarkIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,6 +72,12 @@ public class Graph implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(Graph.class);
 
+  /** The maximum number of street profiles with precomputed edge costs. */
+  private static final int EDGE_COST_CACHE_SIZE = 4;
+
+  /** The maximum number of request coordinates with cached linking results. */
+  private static final int LINKING_CACHE_SIZE = 10_000;
+
   /** Attaches text notes to street edges, which do not affect routing. */
   public final StreetNotesService streetNotesService = new StreetNotesService();
 
@@ -69,6 +89,13 @@ public class Graph implements Serializable {
 
   private transient StreetIndex streetIndex;
 
+  private transient StreetEdgeCostCache edgeCostCache;
+
+  private transient LinkingCache linkingCache;
+
+  @Nullable
+  private transient MappedStreetNetwork mappedStreetNetwork;
+
   /** The convex hull of all the graph vertices. Generated at the time the Graph is built. */
   private Geometry convexHull = null;
 
@@ -107,6 +134,14 @@ public class Graph implements Serializable {
    */
   public long nextSplitNumber = 0;
 
+  /** Precomputed landmark distances used by the street search heuristic, optional. */
+  @Nullable
+  private LandmarkIndex landmarkIndex;
+
+  /** Contraction hierarchy used for direct car routing, optional. */
+  @Nullable
+  private CarContractionHierarchy carContractionHierarchy;
+
   @Inject
   public Graph(@Nullable OpeningHoursCalendarService openingHoursCalendarService) {
     this.openingHoursCalendarService = openingHoursCalendarService;
@@ -147,6 +182,9 @@ public class Graph implements Serializable {
     if (streetIndex != null) {
       streetIndex.remove(e, scope);
     }
+    if (linkingCache != null && scope != Scope.REQUEST) {
+      linkingCache.invalidate(e);
+    }
   }
 
   /**
@@ -213,6 +251,33 @@ public class Graph implements Serializable {
     return edges;
   }
 
+  /**
+   * Set the incoming and outgoing edge lists of all vertices from the given edges. The edge lists
+   * are not serialized, so this is done after the graph is deserialized. The edges of each vertex
+   * are kept in the order of the given collection.
+   * <p>
+   * The edges are sorted by vertex in parallel, and the edge arrays of each vertex are allocated
+   * once with the exact size, instead of growing them one edge at a time. The vertices are
+   * numbered to sort the edges, the numbers are replaced when the graph is indexed.
+   */
+  public void reconstructEdgeLists(Collection<Edge> edges) {
+    Vertex[] vertexArray = vertices.values().toArray(Vertex[]::new);
+    for (int i = 0; i < vertexArray.length; i++) {
+      vertexArray[i].setIndex(i);
+    }
+    Edge[] edgeArray = edges.toArray(Edge[]::new);
+    var outgoing = new EdgesByVertex(vertexArray, edgeArray, Edge::getFromVertex);
+    var incoming = new EdgesByVertex(vertexArray, edgeArray, Edge::getToVertex);
+
+    IntStream.range(0, vertexArray.length)
+      .parallel()
+      .forEach(i -> vertexArray[i].initEdgeLists(outgoing.edges(i), incoming.edges(i)));
+
+    // Edges connected to a vertex which is not in the graph, if any, are added one by one
+    outgoing.edgesOfOtherVertices().forEach(e -> e.getFromVertex().addOutgoing(e));
+    incoming.edgesOfOtherVertices().forEach(e -> e.getToVertex().addIncoming(e));
+  }
+
   public <T extends Edge> List<T> getEdgesOfType(Class<T> cls) {
     return this.getEdges()
       .stream()
@@ -234,9 +299,12 @@ public class Graph implements Serializable {
 
   public void remove(Vertex vertex) {
     vertices.remove(vertex.getLabel());
+    // The street index finds the vertex by its index, so remove it before the index is cleared
     if (streetIndex != null) {
       streetIndex.remove(vertex);
     }
+    // The index may be given to another vertex the next time the graph is indexed
+    vertex.setIndex(Vertex.NO_INDEX);
   }
 
   public void removeIfUnconnected(Vertex v) {
@@ -274,10 +342,57 @@ public class Graph implements Serializable {
    */
   public void index() {
     LOG.info("Index street model...");
+    indexVerticesAndStreetEdges();
+    if (landmarkIndex != null) {
+      landmarkIndex.reindexVertices();
+    }
     streetIndex = new StreetIndex(this);
+    edgeCostCache = new StreetEdgeCostCache(this::getStreetEdges, EDGE_COST_CACHE_SIZE);
+    linkingCache = new LinkingCache(LINKING_CACHE_SIZE);
     LOG.info("Index street model complete.");
   }
 
+  /**
+   * Let the street edges read their geometry from a memory-mapped file, shared with the other
+   * OTP instances on the same host serving the same graph. The file is written if it does not
+   * exist, or if it was written for another graph. The graph must be indexed first, and the
+   * mapping is kept until the JVM exits.
+   * <p>
+   * If the file can not be written or mapped, the geometries are kept on the heap.
+   */
+  public void useMappedStreetNetwork(Path file) {
+    requireIndex();
+    if (mappedStreetNetwork != null) {
+      return;
+    }
+    try {
+      if (Files.exists(file)) {
+        if (attachMappedStreetNetwork(file)) {
+          LOG.info("Street edge geometries mapped from {}.", file);
+          return;
+        }
+        LOG.info("The street network file {} is for another graph, it is replaced.", file);
+      }
+      MappedStreetNetwork.write(getVertices(), getStreetEdges(), file);
+      if (attachMappedStreetNetwork(file)) {
+        LOG.info("Street edge geometries written to and mapped from {}.", file);
+      } else {
+        LOG.warn("The street network file {} does not match the graph, it is not used.", file);
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to map the street network file {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * The memory-mapped street network the street edges read their geometry from, see
+   * {@link #useMappedStreetNetwork(Path)}.
+   */
+  @Nullable
+  public MappedStreetNetwork getMappedStreetNetwork() {
+    return mappedStreetNetwork;
+  }
+
   /**
    * Index this graph if it hasn't been already. If the index already exists, this is a no-op.
    * <p>
@@ -324,6 +439,9 @@ public class Graph implements Serializable {
   public void insert(StreetEdge edge, Scope scope) {
     requireIndex();
     streetIndex.insert(edge, scope);
+    if (scope == Scope.REALTIME) {
+      linkingCache.invalidate(edge);
+    }
   }
 
   /**
@@ -359,9 +477,165 @@ public class Graph implements Serializable {
     CompactElevationProfile.setDistanceBetweenSamplesM(distanceBetweenElevationSamples);
   }
 
+  @Nullable
+  public LandmarkIndex getLandmarkIndex() {
+    return landmarkIndex;
+  }
+
+  public void setLandmarkIndex(@Nullable LandmarkIndex landmarkIndex) {
+    this.landmarkIndex = landmarkIndex;
+  }
+
+  @Nullable
+  public CarContractionHierarchy getCarContractionHierarchy() {
+    return carContractionHierarchy;
+  }
+
+  public void setCarContractionHierarchy(
+    @Nullable CarContractionHierarchy carContractionHierarchy
+  ) {
+    this.carContractionHierarchy = carContractionHierarchy;
+  }
+
+  /**
+   * The precomputed street edge costs, created when the graph is indexed.
+   */
+  @Nullable
+  public StreetEdgeCostCache getEdgeCostCache() {
+    return edgeCostCache;
+  }
+
+  /**
+   * The cached linking results of request coordinates, created when the graph is indexed. Realtime
+   * changes to the edges made through the graph invalidate the affected entries.
+   */
+  @Nullable
+  public LinkingCache getLinkingCache() {
+    return linkingCache;
+  }
+
+  /**
+   * Give every vertex a dense index, used by the street search to keep its states in arrays. The
+   * vertices are numbered along a Z-order curve, so vertices close to each other get indexes close
+   * to each other and a search in a small area touches a small part of the arrays. Vertices added
+   * later, like the temporary vertices of a request, have no index.
+   * <p>
+   * The street edges are numbered in the order of their from-vertex, for the edge cost tables.
+   */
+  private void indexVerticesAndStreetEdges() {
+    Vertex[] sorted = vertices.values().toArray(Vertex[]::new);
+    Arrays.parallelSort(sorted, Comparator.comparingLong(Graph::zOrder));
+    int edgeIndex = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i].setIndex(i);
+      for (Edge edge : sorted[i].getOutgoing()) {
+        if (edge instanceof StreetEdge streetEdge && !(edge instanceof TemporaryEdge)) {
+          streetEdge.setIndex(edgeIndex++);
+        }
+      }
+    }
+  }
+
+  /** Interleave the bits of the longitude and latitude, quantized to 31 bits each. */
+  private static long zOrder(Vertex v) {
+    long x = (long) ((v.getLon() + 180.0) / 360.0 * Integer.MAX_VALUE);
+    long y = (long) ((v.getLat() + 90.0) / 180.0 * Integer.MAX_VALUE);
+    return spreadBits(x) | (spreadBits(y) << 1);
+  }
+
+  /** Insert a zero bit in front of each of the lower 32 bits. */
+  private static long spreadBits(long v) {
+    v &= 0xFFFFFFFFL;
+    v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+    v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+    v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+    v = (v | (v << 2)) & 0x3333333333333333L;
+    v = (v | (v << 1)) & 0x5555555555555555L;
+    return v;
+  }
+
+  private boolean attachMappedStreetNetwork(Path file) {
+    MappedStreetNetwork network;
+    try {
+      network = MappedStreetNetwork.open(file);
+    } catch (IOException e) {
+      LOG.info("Unable to map the street network file {}: {}", file, e.getMessage());
+      return false;
+    }
+    if (!network.attach(getVertices(), getStreetEdges())) {
+      network.close();
+      return false;
+    }
+    mappedStreetNetwork = network;
+    return true;
+  }
+
   private void requireIndex() {
     if (streetIndex == null) {
       throw new IllegalStateException("Graph must be indexed before querying.");
     }
   }
+
+  /**
+   * The edges grouped by their from- or to-vertex, in a compressed sparse row layout: the edges
+   * are sorted by the number of their vertex, and then by their position in the edge array. The
+   * vertex number and the position are packed into a long, so the edges are sorted with a parallel
+   * sort of primitives.
+   */
+  private static class EdgesByVertex {
+
+    private static final Edge[] NO_EDGES = new Edge[0];
+    private static final long OTHER_VERTEX = Integer.MAX_VALUE;
+
+    private final Edge[] edges;
+    private final long[] sorted;
+    private final int[] start;
+
+    private EdgesByVertex(Vertex[] vertices, Edge[] edges, Function<Edge, Vertex> vertexOf) {
+      this.edges = edges;
+      this.sorted = new long[edges.length];
+      IntStream.range(0, edges.length)
+        .parallel()
+        .forEach(i -> {
+          Vertex v = vertexOf.apply(edges[i]);
+          int index = v.getIndex();
+          boolean inGraph = index >= 0 && index < vertices.length && vertices[index] == v;
+          sorted[i] = ((inGraph ? index : OTHER_VERTEX) << 32) | i;
+        });
+      Arrays.parallelSort(sorted);
+
+      // The position of the first edge of each vertex, and of the edges of other vertices last
+      this.start = new int[vertices.length + 1];
+      for (long key : sorted) {
+        int vertex = (int) (key >>> 32);
+        if (vertex < vertices.length) {
+          start[vertex + 1]++;
+        }
+      }
+      for (int i = 0; i < vertices.length; i++) {
+        start[i + 1] += start[i];
+      }
+    }
+
+    private Edge[] edges(int vertex) {
+      int from = start[vertex];
+      int to = start[vertex + 1];
+      if (from == to) {
+        return NO_EDGES;
+      }
+      var result = new Edge[to - from];
+      for (int i = from; i < to; i++) {
+        result[i - from] = edges[(int) sorted[i]];
+      }
+      return result;
+    }
+
+    private List<Edge> edgesOfOtherVertices() {
+      var result = new ArrayList<Edge>();
+      for (int i = start[start.length - 1]; i < sorted.length; i++) {
+        result.add(edges[(int) sorted[i]]);
+      }
+      return result;
+    }
+  }
 }
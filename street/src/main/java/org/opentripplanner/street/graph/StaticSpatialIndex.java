@@ -0,0 +1,105 @@
+package org.opentripplanner.street.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.street.geometry.PackedHilbertRTree;
+
+/**
+ * A {@link PackedHilbertRTree} of items numbered by the graph, like the vertices and street edges
+ * of an indexed graph, from which items can be removed and added again. The tree can not be
+ * modified, so the removed items are marked in a bitset by their position in the tree, and filtered
+ * out of the query results.
+ * <p>
+ * An item is found in the tree by its graph index, so removing an item without an index, or with
+ * an index given to it after the tree was built, does not search the tree.
+ */
+class StaticSpatialIndex<T> {
+
+  private final PackedHilbertRTree<T> tree;
+  private final ToIntFunction<T> indexOf;
+
+  /** The position in the tree of each item by its graph index, -1 if it is not in the tree. */
+  private final int[] positionByIndex;
+
+  /** One bit for each position in the tree, set if the item is removed. */
+  private final AtomicLongArray removed;
+
+  /**
+   * @param tree the items, all items must have a graph index
+   * @param indexOf the graph index of an item, negative if the item has no index
+   */
+  StaticSpatialIndex(PackedHilbertRTree<T> tree, ToIntFunction<T> indexOf) {
+    this.tree = tree;
+    this.indexOf = indexOf;
+    int maxIndex = -1;
+    for (int pos = 0; pos < tree.size(); pos++) {
+      maxIndex = Math.max(maxIndex, indexOf.applyAsInt(tree.item(pos)));
+    }
+    this.positionByIndex = new int[maxIndex + 1];
+    Arrays.fill(positionByIndex, -1);
+    for (int pos = 0; pos < tree.size(); pos++) {
+      int index = indexOf.applyAsInt(tree.item(pos));
+      if (index < 0) {
+        throw new IllegalArgumentException("The item is not indexed: " + tree.item(pos));
+      }
+      positionByIndex[index] = pos;
+    }
+    this.removed = new AtomicLongArray((tree.size() + 63) >>> 6);
+  }
+
+  /**
+   * Mark an item of the tree as removed.
+   * @return false if the item is not in the tree
+   */
+  boolean remove(T item) {
+    int pos = positionOf(item);
+    if (pos < 0) {
+      return false;
+    }
+    long bit = 1L << pos;
+    removed.getAndUpdate(pos >>> 6, word -> word | bit);
+    return true;
+  }
+
+  /**
+   * Add an item of the tree which was removed again.
+   * @return false if the item is not in the tree
+   */
+  boolean restore(T item) {
+    int pos = positionOf(item);
+    if (pos < 0) {
+      return false;
+    }
+    long bit = 1L << pos;
+    removed.getAndUpdate(pos >>> 6, word -> word & ~bit);
+    return true;
+  }
+
+  /** The items with an envelope intersecting the given envelope, which are not removed. */
+  List<T> query(Envelope envelope) {
+    var result = new ArrayList<T>();
+    tree.queryPositions(envelope, pos -> {
+      if (!isRemoved(pos)) {
+        result.add(tree.item(pos));
+      }
+    });
+    return result;
+  }
+
+  private boolean isRemoved(int pos) {
+    return (removed.get(pos >>> 6) & (1L << pos)) != 0;
+  }
+
+  private int positionOf(T item) {
+    int index = indexOf.applyAsInt(item);
+    if (index < 0 || index >= positionByIndex.length) {
+      return -1;
+    }
+    int pos = positionByIndex[index];
+    return pos >= 0 && tree.item(pos) == item ? pos : -1;
+  }
+}
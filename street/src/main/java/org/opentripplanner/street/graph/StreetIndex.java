@@ -13,7 +13,9 @@ import org.opentripplanner.core.model.id.FeedScopedId;
 import org.opentripplanner.street.Scope;
 import org.opentripplanner.street.geometry.GeometryUtils;
 import org.opentripplanner.street.geometry.HashGridSpatialIndex;
+import org.opentripplanner.street.geometry.PackedHilbertRTree;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
 import org.opentripplanner.street.model.vertex.StationCentroidVertex;
 import org.opentripplanner.street.model.vertex.TransitStopVertex;
 import org.opentripplanner.street.model.vertex.Vertex;
@@ -40,18 +42,27 @@ class StreetIndex {
   private final Map<FeedScopedId, StationCentroidVertex> stationCentroidVertices;
 
   private final EdgeSpatialIndex edgeIndex;
-  private final HashGridSpatialIndex<Vertex> vertexIndex;
+
+  /** The vertices numbered by the graph, the others are kept in the hash grid. */
+  private final StaticSpatialIndex<Vertex> vertexIndex;
+  private final HashGridSpatialIndex<Vertex> unnumberedVertexIndex = new HashGridSpatialIndex<>();
 
   /**
    * Should only be called by the graph.
    */
   StreetIndex(Graph graph) {
-    this.edgeIndex = new EdgeSpatialIndex();
-    this.vertexIndex = new HashGridSpatialIndex<>();
+    var streetEdges = PackedHilbertRTree.<StreetEdge>of();
+    var otherEdges = new HashGridSpatialIndex<Edge>();
+    var vertices = PackedHilbertRTree.<Vertex>of();
+    postSetup(graph.getVertices(), streetEdges, otherEdges, vertices, unnumberedVertexIndex);
+    this.edgeIndex = new EdgeSpatialIndex(
+      new StaticSpatialIndex<>(streetEdges.build(), StreetEdge::getIndex),
+      otherEdges
+    );
+    this.vertexIndex = new StaticSpatialIndex<>(vertices.build(), Vertex::getIndex);
     this.stopVertices = indexStopIds(graph);
 
     this.stationCentroidVertices = indexStationCentroids(graph);
-    postSetup(graph.getVertices());
   }
 
   /**
@@ -73,7 +84,7 @@ class StreetIndex {
    */
   List<Vertex> findVertices(Envelope envelope) {
     List<Vertex> vertices = vertexIndex.query(envelope);
-    // Here we assume vertices list modifiable
+    vertices.addAll(unnumberedVertexIndex.query(envelope));
     vertices.removeIf(v -> !envelope.contains(new Coordinate(v.getLon(), v.getLat())));
     return vertices;
   }
@@ -107,15 +118,17 @@ class StreetIndex {
   }
 
   /**
-   * Remove a vertex from the index.
+   * Remove a vertex from the index. This must be done before the vertex loses its index.
    */
   void remove(Vertex vertex) {
-    vertexIndex.remove(new Envelope(vertex.getCoordinate()), vertex);
+    if (!vertexIndex.remove(vertex)) {
+      unnumberedVertexIndex.remove(new Envelope(vertex.getCoordinate()), vertex);
+    }
   }
 
   // private methods
 
-  private static LineString edgeGeometryOrStraightLine(Edge e) {
+  static LineString edgeGeometryOrStraightLine(Edge e) {
     LineString geometry = e.getGeometry();
     if (geometry == null) {
       Coordinate[] coordinates = new Coordinate[] {
@@ -127,25 +140,35 @@ class StreetIndex {
     return geometry;
   }
 
-  private void postSetup(Collection<Vertex> vertices) {
+  private static void postSetup(
+    Collection<Vertex> vertices,
+    PackedHilbertRTree.Builder<StreetEdge> streetEdgeIndex,
+    HashGridSpatialIndex<Edge> otherEdgeIndex,
+    PackedHilbertRTree.Builder<Vertex> vertexIndex,
+    HashGridSpatialIndex<Vertex> otherVertexIndex
+  ) {
     var progress = ProgressTracker.track("Index street vertex", 1000, vertices.size());
     LOG.info(progress.startMessage());
 
     for (Vertex gv : vertices) {
       for (Edge e : gv.getOutgoing()) {
         LineString geometry = edgeGeometryOrStraightLine(e);
-        edgeIndex.insert(geometry, e, Scope.PERMANENT);
+        if (e instanceof StreetEdge se && se.getIndex() != StreetEdge.NO_INDEX) {
+          streetEdgeIndex.add(geometry.getEnvelopeInternal(), se);
+        } else {
+          otherEdgeIndex.insert(geometry, e);
+        }
       }
       Envelope env = new Envelope(gv.getCoordinate());
-      vertexIndex.insert(env, gv);
+      if (gv.getIndex() != Vertex.NO_INDEX) {
+        vertexIndex.add(env, gv);
+      } else {
+        otherVertexIndex.insert(env, gv);
+      }
 
       //noinspection Convert2MethodRef
       progress.step(m -> LOG.info(m));
     }
-
-    // Trim the sizes of the indices
-    edgeIndex.compact();
-    vertexIndex.compact();
     LOG.info(progress.completeMessage());
   }
 
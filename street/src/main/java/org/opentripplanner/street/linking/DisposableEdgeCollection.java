@@ -7,6 +7,7 @@ import java.util.HashSet;
 import java.util.Set;
 import org.opentripplanner.street.Scope;
 import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.vertex.Vertex;
 
@@ -39,7 +40,9 @@ public class DisposableEdgeCollection {
   }
 
   /**
-   * Removes all the edges in this collection from the graph.
+   * Removes all the edges in this collection from the graph. Edges of a request
+   * {@link OverlayGraph} are never connected to the graph, they are only removed from the
+   * temporary vertices and the overlay.
    */
   public void disposeEdges() {
     if (scope == Scope.REALTIME) {
@@ -49,6 +52,10 @@ public class DisposableEdgeCollection {
     }
     Collection<Vertex> vertices = new ArrayList<>();
     for (Edge e : edges) {
+      if (StreetGraphOverlay.of(e) != null) {
+        e.remove();
+        continue;
+      }
       vertices.add(e.getFromVertex());
       vertices.add(e.getToVertex());
       graph.removeEdge(e);
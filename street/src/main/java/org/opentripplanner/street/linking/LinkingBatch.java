@@ -0,0 +1,83 @@
+package org.opentripplanner.street.linking;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.street.geometry.HashGridSpatialIndex;
+import org.opentripplanner.street.linking.LinkingCache.LinkTarget;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseModeSet;
+
+/**
+ * A batch of vertices to be linked permanently, created by
+ * {@link VertexLinker#prepareLinkingPermanently}. The closest edges of all the vertices are found
+ * in parallel up front, while the splitting of the edges, which modifies the graph, is done one
+ * vertex at a time by the caller.
+ * <p>
+ * Splitting an edge changes the edges found near it. The envelopes of the split edges are kept in
+ * a grid of tiles, and a vertex whose search envelope intersects one of them is searched for again
+ * when it is linked. The vertices in other tiles keep the result of the parallel search, which is
+ * the same as searching for them again. So linking a batch gives the same graph as linking the
+ * vertices one by one, in the same order.
+ * <p>
+ * This class is not thread-safe, the vertices should be linked from a single thread.
+ */
+public class LinkingBatch implements AutoCloseable {
+
+  private final VertexLinker linker;
+  private final TraverseModeSet traverseModes;
+  private final Map<Vertex, Search> searches;
+  private final HashGridSpatialIndex<Envelope> splitEdges = new HashGridSpatialIndex<>();
+  private int searchedAgain = 0;
+
+  LinkingBatch(VertexLinker linker, TraverseModeSet traverseModes, Map<Vertex, Search> searches) {
+    this.linker = linker;
+    this.traverseModes = traverseModes;
+    this.searches = searches;
+  }
+
+  /**
+   * Link the vertex like {@link VertexLinker#linkVertexPermanently}, using the traverse modes of
+   * the batch.
+   */
+  public void linkVertexPermanently(
+    Vertex vertex,
+    LinkingDirection direction,
+    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
+  ) {
+    var search = searches.remove(vertex);
+    if (search == null || isChanged(search.envelope())) {
+      if (search != null) {
+        searchedAgain++;
+      }
+      linker.linkVertexPermanently(vertex, traverseModes, direction, edgeFunction);
+    } else {
+      linker.linkVertexPermanently(vertex, search.targets(), direction, edgeFunction);
+    }
+  }
+
+  /** The number of vertices searched for again, because an edge near them was split. */
+  public int searchedAgain() {
+    return searchedAgain;
+  }
+
+  @Override
+  public void close() {
+    linker.closeBatch(this);
+  }
+
+  void edgeSplit(StreetEdge edge) {
+    var envelope = edge.getGeometry().getEnvelopeInternal();
+    splitEdges.insert(envelope, envelope);
+  }
+
+  private boolean isChanged(Envelope searchEnvelope) {
+    return splitEdges.query(searchEnvelope).stream().anyMatch(searchEnvelope::intersects);
+  }
+
+  record Search(Envelope envelope, List<LinkTarget> targets) {}
+}
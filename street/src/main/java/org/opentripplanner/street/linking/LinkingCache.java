@@ -0,0 +1,141 @@
+package org.opentripplanner.street.linking;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.linearref.LinearLocation;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.TemporaryPartialStreetEdge;
+import org.opentripplanner.street.search.TraverseModeSet;
+
+/**
+ * A cache of the street edges the coordinates of requests are linked to. Many requests come from
+ * the same few places, like stop centroids or the results of a geocoder. For these the nearest
+ * edge search and the projection onto the edges is only done once, and linking the request only
+ * has to create the temporary vertices and edges.
+ * <p>
+ * The coordinates are rounded to about a meter, so requests a few centimeters apart share the
+ * entry and are linked to the same points on the same edges. An entry is removed when a realtime
+ * update adds or removes an edge it is linked to, or an edge split from one of them. Only the
+ * edges found in the search are tracked, this works because realtime updates only split and
+ * remove edges, they never add new street geometries.
+ */
+public class LinkingCache {
+
+  /** Round the coordinates to 1e-5 degrees, about a meter. */
+  private static final double COORDINATE_FACTOR = 1e5;
+
+  private final Cache<Key, List<LinkTarget>> cache;
+  private final Map<StreetEdge, Set<Key>> keysByEdge = new ConcurrentHashMap<>();
+  private final AtomicLong version = new AtomicLong();
+
+  public LinkingCache(int maxSize) {
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .removalListener(this::onRemoval)
+      .build();
+  }
+
+  /**
+   * Remove the entries linked to the edge, or to the edge it was split from. Call this when a
+   * realtime update adds or removes the edge.
+   */
+  public void invalidate(Edge edge) {
+    if (!(edge instanceof StreetEdge streetEdge)) {
+      return;
+    }
+    version.incrementAndGet();
+    if (streetEdge instanceof TemporaryPartialStreetEdge partial) {
+      invalidateKeys(partial.getParentEdge());
+    }
+    invalidateKeys(streetEdge);
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  /** Return the cached link targets for the coordinate and modes, or null if not cached. */
+  @Nullable
+  List<LinkTarget> get(Coordinate coordinate, TraverseModeSet modes) {
+    return cache.getIfPresent(Key.of(coordinate, modes));
+  }
+
+  /**
+   * The version is increased every time an edge is invalidated. Read it before searching for the
+   * link targets, and pass it to {@link #put(Coordinate, TraverseModeSet, List, long)}.
+   */
+  long version() {
+    return version.get();
+  }
+
+  /**
+   * Add the link targets found for the coordinate and modes. The targets are dropped if an edge
+   * was invalidated after the search started, since they might already be outdated.
+   */
+  void put(Coordinate coordinate, TraverseModeSet modes, List<LinkTarget> targets, long version) {
+    if (targets.isEmpty() || version != this.version.get()) {
+      return;
+    }
+    var key = Key.of(coordinate, modes);
+    for (LinkTarget target : targets) {
+      keysByEdge.computeIfAbsent(target.edge(), e -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+    cache.put(key, List.copyOf(targets));
+    // An edge invalidated while adding the entry might have missed it
+    if (version != this.version.get()) {
+      cache.invalidate(key);
+    }
+  }
+
+  private void invalidateKeys(StreetEdge edge) {
+    var keys = keysByEdge.remove(edge);
+    if (keys != null) {
+      cache.invalidateAll(keys);
+    }
+  }
+
+  private void onRemoval(RemovalNotification<Key, List<LinkTarget>> notification) {
+    // A replaced entry has the same key, which is already registered for the new edges
+    if (notification.getCause() == RemovalCause.REPLACED) {
+      return;
+    }
+    var key = notification.getKey();
+    for (LinkTarget target : notification.getValue()) {
+      keysByEdge.computeIfPresent(target.edge(), (edge, keys) -> {
+        keys.remove(key);
+        return keys.isEmpty() ? null : keys;
+      });
+    }
+  }
+
+  /**
+   * The point on a street edge a coordinate is linked to.
+   *
+   * @param location the closest point on the edge geometry, as a segment index and fraction
+   */
+  record LinkTarget(StreetEdge edge, LinearLocation location) {
+    Coordinate coordinate() {
+      return location.getCoordinate(edge.getGeometry());
+    }
+  }
+
+  private record Key(long x, long y, TraverseModeSet modes) {
+    static Key of(Coordinate coordinate, TraverseModeSet modes) {
+      return new Key(
+        Math.round(coordinate.x * COORDINATE_FACTOR),
+        Math.round(coordinate.y * COORDINATE_FACTOR),
+        modes.clone()
+      );
+    }
+  }
+}
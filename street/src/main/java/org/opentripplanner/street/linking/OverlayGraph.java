@@ -0,0 +1,101 @@
+package org.opentripplanner.street.linking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.opentripplanner.street.model.StreetGraphOverlay;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.TemporaryVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * The temporary edges of a single request, laid over the graph shared by all requests. A temporary
+ * edge is added to the edge lists of the temporary vertices at its ends, but the connections to
+ * permanent vertices are only kept here. This way linking the origin and destination of a request
+ * never writes to the permanent vertices, and other requests never see the temporary edges.
+ * <p>
+ * The temporary vertices created for the request refer to the overlay (see
+ * {@link TemporaryVertex#overlay()}), edges built between them and the graph are connected through
+ * it, and the searches find it through their origin and destination vertices. The overlay is owned
+ * by the {@link TemporaryVerticesContainer} of the request.
+ */
+public class OverlayGraph implements StreetGraphOverlay {
+
+  private final Map<Vertex, List<Edge>> outgoing = new ConcurrentHashMap<>();
+  private final Map<Vertex, List<Edge>> incoming = new ConcurrentHashMap<>();
+
+  @Override
+  public Collection<Edge> getOutgoing(Vertex vertex) {
+    return withOverlayEdges(vertex.getOutgoing(), outgoing.get(vertex));
+  }
+
+  @Override
+  public Collection<Edge> getIncoming(Vertex vertex) {
+    return withOverlayEdges(vertex.getIncoming(), incoming.get(vertex));
+  }
+
+  @Override
+  public void connect(Edge edge) {
+    var from = edge.getFromVertex();
+    var to = edge.getToVertex();
+    if (from instanceof TemporaryVertex) {
+      from.addOutgoing(edge);
+    } else {
+      add(outgoing, from, edge);
+    }
+    if (to instanceof TemporaryVertex) {
+      to.addIncoming(edge);
+    } else {
+      add(incoming, to, edge);
+    }
+  }
+
+  @Override
+  public void disconnect(Edge edge) {
+    var from = edge.getFromVertex();
+    var to = edge.getToVertex();
+    if (from instanceof TemporaryVertex) {
+      from.removeOutgoing(edge);
+    } else {
+      remove(outgoing, from, edge);
+    }
+    if (to instanceof TemporaryVertex) {
+      to.removeIncoming(edge);
+    } else {
+      remove(incoming, to, edge);
+    }
+  }
+
+  private static Collection<Edge> withOverlayEdges(
+    Collection<Edge> edges,
+    @Nullable List<Edge> overlayEdges
+  ) {
+    if (overlayEdges == null) {
+      return edges;
+    }
+    var result = new ArrayList<Edge>(edges.size() + overlayEdges.size());
+    result.addAll(edges);
+    result.addAll(overlayEdges);
+    return result;
+  }
+
+  /** The lists are replaced, not modified, so they can be read while edges are added. */
+  private static void add(Map<Vertex, List<Edge>> edges, Vertex vertex, Edge edge) {
+    edges.compute(vertex, (v, list) -> {
+      var result = list == null ? new ArrayList<Edge>(1) : new ArrayList<>(list);
+      result.add(edge);
+      return List.copyOf(result);
+    });
+  }
+
+  private static void remove(Map<Vertex, List<Edge>> edges, Vertex vertex, Edge edge) {
+    edges.computeIfPresent(vertex, (v, list) -> {
+      var result = new ArrayList<>(list);
+      result.remove(edge);
+      return result.isEmpty() ? null : List.copyOf(result);
+    });
+  }
+}
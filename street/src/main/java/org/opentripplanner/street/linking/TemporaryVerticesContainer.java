@@ -7,10 +7,19 @@ import java.util.List;
  * This class contains temporary vertices and edges that are used in A-Star searches. After they
  * are no longer needed, this class removes the temporary vertices and edges. It implements
  * AutoCloseable and the cleanup is automatically done with a try-with-resources statement.
+ * <p>
+ * Temporary vertices created with the {@link #overlay()} of the container are connected to the
+ * graph through the overlay, so the graph is not modified by the request.
  */
 public class TemporaryVerticesContainer implements AutoCloseable {
 
   private final List<DisposableEdgeCollection> tempEdgeCollections = new ArrayList<>();
+  private final OverlayGraph overlay = new OverlayGraph();
+
+  /** The overlay to create the temporary vertices of the request with. */
+  public OverlayGraph overlay() {
+    return overlay;
+  }
 
   public void addEdgeCollection(DisposableEdgeCollection collection) {
     if (!collection.isEmpty()) {
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiFunction;
@@ -21,6 +22,8 @@ import org.opentripplanner.street.Scope;
 import org.opentripplanner.street.geometry.GeometryUtils;
 import org.opentripplanner.street.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.linking.LinkingCache.LinkTarget;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.edge.Area;
 import org.opentripplanner.street.model.edge.AreaEdge;
 import org.opentripplanner.street.model.edge.AreaEdgeBuilder;
@@ -95,6 +98,13 @@ public class VertexLinker {
   private final int maxAreaNodes;
   private final boolean shouldLinkFlex;
 
+  @Nullable
+  private final LinkingCache linkingCache;
+
+  /** The batch being linked, which is told about the edges split while it is open. */
+  @Nullable
+  private LinkingBatch batch;
+
   /**
    * Construct a new VertexLinker. NOTE: Only one VertexLinker should be active on a graph at any
    * given time.
@@ -104,11 +114,25 @@ public class VertexLinker {
     VisibilityMode visibilityMode,
     int maxAreaNodes,
     boolean linkFlex
+  ) {
+    this(graph, visibilityMode, maxAreaNodes, linkFlex, null);
+  }
+
+  /**
+   * @param linkingCache if set, the edges the vertices of requests are linked to are cached
+   */
+  public VertexLinker(
+    Graph graph,
+    VisibilityMode visibilityMode,
+    int maxAreaNodes,
+    boolean linkFlex,
+    @Nullable LinkingCache linkingCache
   ) {
     this.graph = Objects.requireNonNull(graph);
     this.visibilityMode = Objects.requireNonNull(visibilityMode);
     this.maxAreaNodes = maxAreaNodes;
     this.shouldLinkFlex = linkFlex;
+    this.linkingCache = linkingCache;
   }
 
   public void linkVertexPermanently(
@@ -120,6 +144,51 @@ public class VertexLinker {
     link(vertex, traverseModes, direction, Scope.PERMANENT, edgeFunction);
   }
 
+  /**
+   * Prepare to link the given vertices permanently, by searching for the closest edges of all of
+   * them in parallel. The vertices are then linked one by one with
+   * {@link LinkingBatch#linkVertexPermanently}, with the same result as linking them with
+   * {@link #linkVertexPermanently}. The batch must be closed when done.
+   */
+  public LinkingBatch prepareLinkingPermanently(
+    Collection<? extends Vertex> vertices,
+    TraverseModeSet traverseModes
+  ) {
+    if (batch != null) {
+      throw new IllegalStateException("Only one batch can be linked at a time");
+    }
+    Map<Vertex, LinkingBatch.Search> searches = vertices
+      .parallelStream()
+      .collect(
+        Collectors.toMap(
+          v -> v,
+          v ->
+            new LinkingBatch.Search(
+              searchEnvelope(v, INITIAL_SEARCH_RADIUS_DEGREES),
+              findLinkTargets(v, traverseModes, Scope.PERMANENT)
+            ),
+          (a, b) -> a
+        )
+      );
+    batch = new LinkingBatch(this, traverseModes, searches);
+    return batch;
+  }
+
+  void linkVertexPermanently(
+    Vertex vertex,
+    List<LinkTarget> targets,
+    LinkingDirection direction,
+    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
+  ) {
+    link(vertex, targets, direction, Scope.PERMANENT, edgeFunction);
+  }
+
+  void closeBatch(LinkingBatch closed) {
+    if (batch == closed) {
+      batch = null;
+    }
+  }
+
   public DisposableEdgeCollection linkVertexForRealTime(
     Vertex vertex,
     TraverseModeSet traverseModes,
@@ -192,30 +261,24 @@ public class VertexLinker {
     LinkingDirection direction,
     Scope scope,
     BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
+  ) {
+    var targets = findLinkTargets(vertex, traverseModes, scope);
+    return link(vertex, targets, direction, scope, edgeFunction);
+  }
+
+  private DisposableEdgeCollection link(
+    Vertex vertex,
+    List<LinkTarget> targets,
+    LinkingDirection direction,
+    Scope scope,
+    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
   ) {
     DisposableEdgeCollection tempEdges = (scope != Scope.PERMANENT)
       ? new DisposableEdgeCollection(graph, scope)
       : null;
 
     try {
-      Set<StreetVertex> streetVertices = linkToStreetEdges(
-        vertex,
-        traverseModes,
-        direction,
-        scope,
-        INITIAL_SEARCH_RADIUS_DEGREES,
-        tempEdges
-      );
-      if (streetVertices.isEmpty() && scope == Scope.REQUEST) {
-        streetVertices = linkToStreetEdges(
-          vertex,
-          traverseModes,
-          direction,
-          scope,
-          MAX_SEARCH_RADIUS_DEGREES,
-          tempEdges
-        );
-      }
+      var streetVertices = linkToTargets(vertex, direction, scope, tempEdges, targets);
 
       for (StreetVertex streetVertex : streetVertices) {
         List<Edge> edges = edgeFunction.apply(vertex, streetVertex);
@@ -235,6 +298,36 @@ public class VertexLinker {
     return tempEdges;
   }
 
+  /**
+   * Find the points on the closest street edges to link the vertex to. The vertices of requests
+   * are searched for in a larger radius if nothing is found nearby, and use the linking cache if
+   * there is one.
+   */
+  private List<LinkTarget> findLinkTargets(
+    Vertex vertex,
+    TraverseModeSet traverseModes,
+    Scope scope
+  ) {
+    if (scope != Scope.REQUEST) {
+      return findLinkTargets(vertex, traverseModes, scope, INITIAL_SEARCH_RADIUS_DEGREES);
+    }
+    if (linkingCache != null) {
+      var cached = linkingCache.get(vertex.getCoordinate(), traverseModes);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    long version = linkingCache == null ? 0 : linkingCache.version();
+    var targets = findLinkTargets(vertex, traverseModes, scope, INITIAL_SEARCH_RADIUS_DEGREES);
+    if (targets.isEmpty()) {
+      targets = findLinkTargets(vertex, traverseModes, scope, MAX_SEARCH_RADIUS_DEGREES);
+    }
+    if (linkingCache != null) {
+      linkingCache.put(vertex.getCoordinate(), traverseModes, targets, version);
+    }
+    return targets;
+  }
+
   /**
    * Link a boarding location vertex to specific street edges.
    * <p>
@@ -247,36 +340,29 @@ public class VertexLinker {
     Set<StreetEdge> edges
   ) {
     var xscale = getXscale(vertex);
-    return linkToCandidateEdges(
+    var targets = closestLinkTargets(
       vertex,
       traverseModes,
-      direction,
-      Scope.PERMANENT,
-      null,
       edges
         .stream()
         .map(e -> new DistanceTo<>(e, distance(vertex, e, xscale)))
         .toList(),
       xscale
     );
+    return linkToTargets(vertex, direction, Scope.PERMANENT, null, targets);
   }
 
-  private Set<StreetVertex> linkToStreetEdges(
+  private List<LinkTarget> findLinkTargets(
     Vertex vertex,
     TraverseModeSet traverseModes,
-    LinkingDirection direction,
     Scope scope,
-    double radiusDeg,
-    @Nullable DisposableEdgeCollection tempEdges
+    double radiusDeg
   ) {
-    Envelope env = new Envelope(vertex.getCoordinate());
+    Envelope env = searchEnvelope(vertex, radiusDeg);
 
     // Perform a simple local equirectangular projection, so distances are expressed in degrees latitude.
     final double xscale = getXscale(vertex);
 
-    // Expand more in the longitude direction than the latitude direction to account for converging meridians.
-    env.expandBy(radiusDeg / xscale, radiusDeg);
-
     // Perform several transformations at once on the edges returned by the index. Only consider
     // street edges traversable by at least one of the given modes and are still present in the
     // graph. Calculate a distance to each of those edges, and keep only the ones within the search
@@ -291,41 +377,61 @@ public class VertexLinker {
       .filter(ead -> ead.distanceDegreesLat < radiusDeg)
       .toList();
 
-    return linkToCandidateEdges(
-      vertex,
-      traverseModes,
-      direction,
-      scope,
-      tempEdges,
-      candidateDistanceToEdges,
-      xscale
-    );
+    return closestLinkTargets(vertex, traverseModes, candidateDistanceToEdges, xscale);
+  }
+
+  /**
+   * The envelope of the search for the closest edges. Only edges intersecting this envelope can be
+   * within the search radius.
+   */
+  private static Envelope searchEnvelope(Vertex vertex, double radiusDeg) {
+    Envelope env = new Envelope(vertex.getCoordinate());
+    // Expand more in the longitude direction than the latitude direction to account for converging meridians.
+    env.expandBy(radiusDeg / getXscale(vertex), radiusDeg);
+    return env;
   }
 
   private static double getXscale(Vertex vertex) {
     return Math.cos((vertex.getLat() * Math.PI) / 180);
   }
 
-  private Set<StreetVertex> linkToCandidateEdges(
+  /** Project the vertex onto the closest of the candidate edges. */
+  private static List<LinkTarget> closestLinkTargets(
     Vertex vertex,
     TraverseModeSet traverseModes,
-    LinkingDirection direction,
-    Scope scope,
-    @Nullable DisposableEdgeCollection tempEdges,
     List<DistanceTo<StreetEdge>> candidateEdges,
     double xscale
   ) {
     if (candidateEdges.isEmpty()) {
+      return List.of();
+    }
+    return getClosestEdgesPerMode(traverseModes, candidateEdges)
+      .stream()
+      .map(ce -> project(vertex, ce.item, xscale))
+      .toList();
+  }
+
+  private static LinkTarget project(Vertex vertex, StreetEdge edge, double xScale) {
+    LineString transformed = equirectangularProject(edge.getGeometry(), xScale);
+    LocationIndexedLine il = new LocationIndexedLine(transformed);
+    LinearLocation ll = il.project(new Coordinate(vertex.getLon() * xScale, vertex.getLat()));
+    return new LinkTarget(edge, ll);
+  }
+
+  private Set<StreetVertex> linkToTargets(
+    Vertex vertex,
+    LinkingDirection direction,
+    Scope scope,
+    @Nullable DisposableEdgeCollection tempEdges,
+    List<LinkTarget> targets
+  ) {
+    if (targets.isEmpty()) {
       return Set.of();
     }
-    Set<DistanceTo<StreetEdge>> closestEdges = getClosestEdgesPerMode(
-      traverseModes,
-      candidateEdges
-    );
     HashMap<AreaGroup, IntersectionVertex> linkedAreas = new HashMap<>();
-    return closestEdges
+    return targets
       .stream()
-      .map(ce -> snapAndLink(vertex, ce.item, xscale, scope, direction, tempEdges, linkedAreas))
+      .map(target -> snapAndLink(vertex, target, scope, direction, tempEdges, linkedAreas))
       .filter(Objects::nonNull)
       .collect(Collectors.toSet());
   }
@@ -335,7 +441,7 @@ public class VertexLinker {
    * by all the specified modes. We use a set here to avoid duplicates in the case that edges are
    * traversable by more than one of the modes specified.
    */
-  private Set<DistanceTo<StreetEdge>> getClosestEdgesPerMode(
+  private static Set<DistanceTo<StreetEdge>> getClosestEdgesPerMode(
     TraverseModeSet traverseModeSet,
     List<DistanceTo<StreetEdge>> candidateEdges
   ) {
@@ -385,17 +491,17 @@ public class VertexLinker {
   /* Snap a vertex to and edge if necessary, create required linking and return the applied entry vertex */
   private StreetVertex snapAndLink(
     Vertex vertex,
-    StreetEdge edge,
-    double xScale,
+    LinkTarget target,
     Scope scope,
     LinkingDirection direction,
     DisposableEdgeCollection tempEdges,
     HashMap<AreaGroup, IntersectionVertex> linkedAreas
   ) {
     IntersectionVertex start = null;
+    StreetEdge edge = target.edge();
 
     // Always consider linking to closest point on the edge
-    IntersectionVertex split = findSplitVertex(vertex, edge, xScale, scope, direction, tempEdges);
+    IntersectionVertex split = findSplitVertex(vertex, target, scope, direction, tempEdges);
 
     // check if vertex is inside an area
     if (
@@ -415,7 +521,13 @@ public class VertexLinker {
             if (vertex instanceof IntersectionVertex iv) {
               start = iv;
             } else {
-              start = createSplitVertex(aEdge, scope, vertex.getLon(), vertex.getLat());
+              start = createSplitVertex(
+                aEdge,
+                scope,
+                vertex.getLon(),
+                vertex.getLat(),
+                StreetGraphOverlay.of(vertex)
+              );
             }
             linkedAreas.put(ag, start);
           }
@@ -458,16 +570,14 @@ public class VertexLinker {
    */
   private IntersectionVertex findSplitVertex(
     Vertex vertex,
-    StreetEdge edge,
-    double xScale,
+    LinkTarget target,
     Scope scope,
     LinkingDirection direction,
     DisposableEdgeCollection tempEdges
   ) {
+    StreetEdge edge = target.edge();
     LineString geom = edge.getGeometry();
-    LineString transformed = equirectangularProject(geom, xScale);
-    LocationIndexedLine il = new LocationIndexedLine(transformed);
-    LinearLocation ll = il.project(new Coordinate(vertex.getLon() * xScale, vertex.getLat()));
+    LinearLocation ll = target.location();
     double length = SphericalDistanceLibrary.length(geom);
 
     // if we're very close to one end of the edge, don't split
@@ -485,7 +595,14 @@ public class VertexLinker {
       return (IntersectionVertex) edge.getToVertex();
     }
     // split the edge and return the split vertex
-    return split(edge, ll.getCoordinate(geom), scope, direction, tempEdges);
+    return split(
+      edge,
+      target.coordinate(),
+      scope,
+      direction,
+      tempEdges,
+      StreetGraphOverlay.of(vertex)
+    );
   }
 
   /**
@@ -495,6 +612,7 @@ public class VertexLinker {
    * @param scope        the scope of the split
    * @param direction    what direction to link the edges
    * @param tempEdges    collection of temporary edges
+   * @param overlay      the overlay of the request, if the temporary edges are kept in one
    * @return Splitter vertex with added new edges
    */
   private SplitterVertex split(
@@ -502,9 +620,16 @@ public class VertexLinker {
     Coordinate splitPoint,
     Scope scope,
     LinkingDirection direction,
-    DisposableEdgeCollection tempEdges
+    DisposableEdgeCollection tempEdges,
+    @Nullable StreetGraphOverlay overlay
   ) {
-    SplitterVertex v = createSplitVertex(originalEdge, scope, splitPoint.x, splitPoint.y);
+    SplitterVertex v = createSplitVertex(
+      originalEdge,
+      scope,
+      splitPoint.x,
+      splitPoint.y,
+      overlay
+    );
 
     // Split the 'edge' at 'v' in 2 new edges and connect these 2 edges to the
     // existing vertices
@@ -529,6 +654,9 @@ public class VertexLinker {
         removeEdgeFromIndex(originalEdge, scope);
         // remove original edge from the graph
         graph.removeEdge(originalEdge);
+        if (batch != null) {
+          batch.edgeSplit(originalEdge);
+        }
       }
     }
     return v;
@@ -538,7 +666,8 @@ public class VertexLinker {
     StreetEdge originalEdge,
     Scope scope,
     double x,
-    double y
+    double y,
+    @Nullable StreetGraphOverlay overlay
   ) {
     SplitterVertex v;
     String uniqueSplitLabel = "split_" + graph.nextSplitNumber++;
@@ -548,7 +677,8 @@ public class VertexLinker {
         uniqueSplitLabel,
         x,
         y,
-        originalEdge
+        originalEdge,
+        scope == Scope.REQUEST ? overlay : null
       );
       v = tsv;
     } else {
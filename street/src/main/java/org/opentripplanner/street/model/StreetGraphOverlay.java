@@ -0,0 +1,55 @@
+package org.opentripplanner.street.model;
+
+import java.util.Collection;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.TemporaryVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * The temporary edges of a single request, laid over the graph shared by all requests. The
+ * temporary vertices of the request refer to the overlay, and edges to or from them are connected
+ * through it instead of through the permanent vertices. The overlay is implemented and owned by
+ * the linking of the request.
+ */
+public interface StreetGraphOverlay extends AStarGraphOverlay<Edge, Vertex> {
+  /**
+   * Connect the edge to the temporary vertices at its ends, and to the permanent vertices in this
+   * overlay only.
+   */
+  void connect(Edge edge);
+
+  /** Remove an edge added with {@link #connect(Edge)}. */
+  void disconnect(Edge edge);
+
+  /**
+   * Return the overlay of the first temporary vertex with one, or null if none of the vertices
+   * are part of an overlay.
+   */
+  @Nullable
+  static StreetGraphOverlay of(@Nullable Collection<Vertex> vertices) {
+    if (vertices != null) {
+      for (Vertex v : vertices) {
+        var overlay = of(v);
+        if (overlay != null) {
+          return overlay;
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Return the overlay of the vertex, or null if it is not a temporary vertex of an overlay. */
+  @Nullable
+  static StreetGraphOverlay of(Vertex vertex) {
+    return vertex instanceof TemporaryVertex tv ? tv.overlay() : null;
+  }
+
+  /** Return the overlay of the edge, that is the overlay of one of the vertices at its ends. */
+  @Nullable
+  static StreetGraphOverlay of(Edge edge) {
+    var overlay = of(edge.getFromVertex());
+    return overlay != null ? overlay : of(edge.getToVertex());
+  }
+}
@@ -10,6 +10,7 @@ import javax.annotation.Nullable;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.astar.spi.AStarEdge;
 import org.opentripplanner.core.model.i18n.I18NString;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.state.State;
 import org.slf4j.Logger;
@@ -82,11 +83,12 @@ public abstract class Edge implements AStarEdge<State, Edge, Vertex>, Serializab
    * previously not removed from the spatial index, so for all subsequent splitting operations we
    * had to check whether any edge coming out of the spatial index had been "soft deleted".
    * <p>
-   * I believe this was compensating for the fact that STRTrees are optimized at construction and
-   * read-only. That restriction no longer applies since we've been using our own hash grid spatial
-   * index instead of the STRTree. So rather than filtering out soft deleted edges, this is now an
-   * assertion that the system behaves as intended, and will log an error if the spatial index is
-   * returning edges that have been disconnected from the graph.
+   * This was compensating for the fact that STRTrees are optimized at construction and read-only.
+   * The street edges present when the graph is indexed are again kept in a read-only tree, but the
+   * spatial index now filters out the edges removed from it, see {@code StaticSpatialIndex}. So
+   * rather than filtering out soft deleted edges, this is an assertion that the system behaves as
+   * intended, and will log an error if the spatial index is returning edges that have been
+   * disconnected from the graph.
    */
   public boolean isReachableFromGraph() {
     boolean edgeReachableFromGraph = tov.getIncoming().contains(this);
@@ -202,6 +204,11 @@ public abstract class Edge implements AStarEdge<State, Edge, Vertex>, Serializab
   }
 
   public void remove() {
+    var overlay = StreetGraphOverlay.of(this);
+    if (overlay != null) {
+      overlay.disconnect(this);
+      return;
+    }
     this.fromv.removeOutgoing(this);
     this.tov.removeIncoming(this);
   }
@@ -211,8 +218,16 @@ public abstract class Edge implements AStarEdge<State, Edge, Vertex>, Serializab
    * and the list of incoming edges of the destination vertex. Once connected, the edge becomes
    * visible from other threads. This should not be done inside the constructor, otherwise the edge
    * might become reachable before being fully constructed.
+   * <p>
+   * An edge to or from a temporary vertex of a request {@link StreetGraphOverlay} is only connected
+   * to the permanent vertices in the overlay.
    */
   protected void connectToGraph() {
+    var overlay = StreetGraphOverlay.of(this);
+    if (overlay != null) {
+      overlay.connect(this);
+      return;
+    }
     fromv.addOutgoing(this);
     tov.addIncoming(this);
   }
@@ -0,0 +1,336 @@
+package org.opentripplanner.street.model.edge;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import javax.annotation.Nullable;
+import org.opentripplanner.street.geometry.CompactLineStringUtils;
+import org.opentripplanner.street.geometry.DlugoszVarLenIntPacker;
+import org.opentripplanner.street.model.vertex.Vertex;
+
+/**
+ * A read-only copy of the street network in a memory-mapped file: the vertex coordinates, the
+ * from- and to-vertex and the length of each street edge, and the compact edge geometries. The
+ * vertices and edges are identified by the index given to them when the graph is indexed.
+ * <p>
+ * Several OTP instances on the same host, serving the same graph, map the same file. The pages
+ * of the file are kept once in the page cache of the operating system, and not on the heap of
+ * each instance. When the network is {@link #attach(Collection) attached} to the street edges,
+ * the edges read their geometry from the mapping and drop the copy on the heap.
+ * <p>
+ * All values are stored little-endian:
+ * <pre>
+ * header          magic, version, vertex count, edge count
+ * lon, lat        double[vertex count] each
+ * from, to        int[edge count] each, the index of the vertex
+ * length          int[edge count], in millimeters
+ * geometry size   int[edge count], -1 if the edge has no geometry
+ * geometry offset long[edge count], from the start of the file
+ * geometries      the compact geometries, see {@link CompactLineStringUtils}
+ * </pre>
+ * The mapping is shared between threads, and is kept open until it is closed.
+ */
+public final class MappedStreetNetwork implements AutoCloseable {
+
+  private static final long MAGIC = 0x4f54505354524545L;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 32;
+  private static final int NO_GEOMETRY = -1;
+
+  private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(
+    ByteOrder.LITTLE_ENDIAN
+  );
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(
+    ByteOrder.LITTLE_ENDIAN
+  );
+  private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(
+    ByteOrder.LITTLE_ENDIAN
+  );
+
+  private final Arena arena;
+  private final MemorySegment segment;
+  private final Layout layout;
+
+  private MappedStreetNetwork(Arena arena, MemorySegment segment, Layout layout) {
+    this.arena = arena;
+    this.segment = segment;
+    this.layout = layout;
+  }
+
+  /**
+   * Write the vertices and the street edges of an indexed graph to the given file. Vertices and
+   * edges without an index, like the temporary ones, are not written. The file is written to a
+   * temporary file first and then moved in place, so other instances never map a partial file.
+   */
+  public static void write(Collection<Vertex> vertices, Collection<StreetEdge> edges, Path file)
+    throws IOException {
+    var vertexByIndex = new Vertex[vertices.size()];
+    for (Vertex v : vertices) {
+      if (v.getIndex() != Vertex.NO_INDEX) {
+        vertexByIndex[v.getIndex()] = v;
+      }
+    }
+    var edgeByIndex = new StreetEdge[edges.size()];
+    int edgeCount = 0;
+    long geometrySize = 0;
+    for (StreetEdge e : edges) {
+      if (e.getIndex() != StreetEdge.NO_INDEX) {
+        edgeByIndex[e.getIndex()] = e;
+        edgeCount = Math.max(edgeCount, e.getIndex() + 1);
+        var geometry = e.compactGeometry();
+        geometrySize += geometry == null ? 0 : geometry.length;
+      }
+    }
+    int vertexCount = 0;
+    while (vertexCount < vertexByIndex.length && vertexByIndex[vertexCount] != null) {
+      vertexCount++;
+    }
+    if (vertexCount == 0 && !vertices.isEmpty()) {
+      throw new IllegalStateException("The vertices are not indexed, index the graph first.");
+    }
+    for (int i = 0; i < edgeCount; i++) {
+      if (edgeByIndex[i] == null) {
+        throw new IllegalStateException("The street edges are not indexed, index the graph first.");
+      }
+    }
+
+    var layout = new Layout(vertexCount, edgeCount);
+    var tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "street-network", ".tmp");
+    try {
+      try (
+        var channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var arena = Arena.ofConfined()
+      ) {
+        var out = channel.map(
+          FileChannel.MapMode.READ_WRITE,
+          0,
+          layout.geometries() + geometrySize,
+          arena
+        );
+        out.set(LONG, 0, MAGIC);
+        out.set(INT, 8, VERSION);
+        out.set(INT, 12, vertexCount);
+        out.set(INT, 16, edgeCount);
+        for (int i = 0; i < vertexCount; i++) {
+          out.set(DOUBLE, layout.lon() + 8L * i, vertexByIndex[i].getLon());
+          out.set(DOUBLE, layout.lat() + 8L * i, vertexByIndex[i].getLat());
+        }
+        long offset = layout.geometries();
+        for (int i = 0; i < edgeCount; i++) {
+          var e = edgeByIndex[i];
+          out.set(INT, layout.from() + 4L * i, e.getFromVertex().getIndex());
+          out.set(INT, layout.to() + 4L * i, e.getToVertex().getIndex());
+          out.set(INT, layout.length() + 4L * i, e.getMillimeterLength());
+          var geometry = e.compactGeometry();
+          int size = geometry == null ? NO_GEOMETRY : geometry.length;
+          out.set(INT, layout.geometrySize() + 4L * i, size);
+          out.set(LONG, layout.geometryOffset() + 8L * i, offset);
+          if (geometry != null) {
+            MemorySegment.copy(geometry, 0, out, ValueLayout.JAVA_BYTE, offset, geometry.length);
+            offset += geometry.length;
+          }
+        }
+        out.force();
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Map the given file read-only.
+   *
+   * @throws IOException if the file can not be read, or is not a street network file of this
+   *                     version.
+   */
+  public static MappedStreetNetwork open(Path file) throws IOException {
+    var arena = Arena.ofShared();
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+      if (
+        segment.byteSize() < HEADER_SIZE ||
+        segment.get(LONG, 0) != MAGIC ||
+        segment.get(INT, 8) != VERSION
+      ) {
+        throw new IOException("Not a street network file of version " + VERSION + ": " + file);
+      }
+      var layout = new Layout(segment.get(INT, 12), segment.get(INT, 16));
+      if (segment.byteSize() < layout.geometries()) {
+        throw new IOException("The street network file is truncated: " + file);
+      }
+      return new MappedStreetNetwork(arena, segment, layout);
+    } catch (IOException | RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  public int vertexCount() {
+    return layout.vertexCount();
+  }
+
+  public int edgeCount() {
+    return layout.edgeCount();
+  }
+
+  public double lon(int vertex) {
+    return segment.get(DOUBLE, layout.lon() + 8L * vertex);
+  }
+
+  public double lat(int vertex) {
+    return segment.get(DOUBLE, layout.lat() + 8L * vertex);
+  }
+
+  public int fromVertex(int edge) {
+    return segment.get(INT, layout.from() + 4L * edge);
+  }
+
+  public int toVertex(int edge) {
+    return segment.get(INT, layout.to() + 4L * edge);
+  }
+
+  public int millimeterLength(int edge) {
+    return segment.get(INT, layout.length() + 4L * edge);
+  }
+
+  /**
+   * The compact geometry of the edge, copied from the mapping. Use {@link #geometryCoordinates(int)}
+   * to decode the geometry without a copy.
+   */
+  @Nullable
+  public byte[] compactGeometry(int edge) {
+    int size = segment.get(INT, layout.geometrySize() + 4L * edge);
+    if (size == NO_GEOMETRY) {
+      return null;
+    }
+    if (size == 0) {
+      return CompactLineStringUtils.STRAIGHT_LINE_PACKED;
+    }
+    var geometry = new byte[size];
+    long offset = segment.get(LONG, layout.geometryOffset() + 8L * edge);
+    MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, geometry, 0, size);
+    return geometry;
+  }
+
+  /**
+   * The unpacked delta coordinates of the compact geometry of the edge, decoded directly from the
+   * mapping. See {@link CompactLineStringUtils#uncompactLineString(double, double, double, double,
+   * int[], boolean)}.
+   */
+  @Nullable
+  public int[] geometryCoordinates(int edge) {
+    int size = segment.get(INT, layout.geometrySize() + 4L * edge);
+    if (size == NO_GEOMETRY) {
+      return null;
+    }
+    long offset = segment.get(LONG, layout.geometryOffset() + 8L * edge);
+    return DlugoszVarLenIntPacker.unpack(segment, offset, size);
+  }
+
+  /**
+   * Let the street edges read their geometry from the mapping, if the mapping contains exactly
+   * the given indexed vertices and edges. Return {@code false}, and leave the edges unchanged, if the
+   * file was written for another graph.
+   */
+  public boolean attach(Collection<Vertex> vertices, Collection<StreetEdge> edges) {
+    boolean matches =
+      vertices.stream().filter(v -> v.getIndex() != Vertex.NO_INDEX).count() == vertexCount() &&
+      vertices.parallelStream().allMatch(this::matches) &&
+      edges.stream().filter(e -> e.getIndex() != StreetEdge.NO_INDEX).count() == edgeCount() &&
+      edges.parallelStream().allMatch(this::matches);
+    if (matches) {
+      edges.forEach(e -> {
+        if (e.getIndex() != StreetEdge.NO_INDEX) {
+          e.useMappedGeometry(this);
+        }
+      });
+    }
+    return matches;
+  }
+
+  /**
+   * Unmap the file. The edges attached to the mapping must not be used after this.
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  private boolean matches(Vertex v) {
+    int i = v.getIndex();
+    if (i == Vertex.NO_INDEX) {
+      return true;
+    }
+    return i < vertexCount() && lon(i) == v.getLon() && lat(i) == v.getLat();
+  }
+
+  private boolean matches(StreetEdge e) {
+    int i = e.getIndex();
+    if (i == StreetEdge.NO_INDEX) {
+      return true;
+    }
+    if (
+      i >= edgeCount() ||
+      fromVertex(i) != e.getFromVertex().getIndex() ||
+      toVertex(i) != e.getToVertex().getIndex() ||
+      millimeterLength(i) != e.getMillimeterLength()
+    ) {
+      return false;
+    }
+    var geometry = e.compactGeometry();
+    int size = segment.get(INT, layout.geometrySize() + 4L * i);
+    if (geometry == null || size == NO_GEOMETRY) {
+      return geometry == null && size == NO_GEOMETRY;
+    }
+    if (geometry.length != size) {
+      return false;
+    }
+    long offset = segment.get(LONG, layout.geometryOffset() + 8L * i);
+    var heap = MemorySegment.ofArray(geometry);
+    return MemorySegment.mismatch(segment, offset, offset + size, heap, 0, size) == -1;
+  }
+
+  /** The offset of each section of the file. */
+  private record Layout(int vertexCount, int edgeCount) {
+    long lon() {
+      return HEADER_SIZE;
+    }
+
+    long lat() {
+      return lon() + 8L * vertexCount;
+    }
+
+    long from() {
+      return lat() + 8L * vertexCount;
+    }
+
+    long to() {
+      return from() + 4L * edgeCount;
+    }
+
+    long length() {
+      return to() + 4L * edgeCount;
+    }
+
+    long geometrySize() {
+      return length() + 4L * edgeCount;
+    }
+
+    long geometryOffset() {
+      return geometrySize() + 4L * edgeCount;
+    }
+
+    long geometries() {
+      return geometryOffset() + 8L * edgeCount;
+    }
+  }
+}
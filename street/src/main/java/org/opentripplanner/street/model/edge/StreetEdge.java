@@ -6,12 +6,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.LineString;
 import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
 import org.opentripplanner.core.model.i18n.I18NString;
 import org.opentripplanner.service.vehiclerental.model.RentalVehicleType.PropulsionType;
 import org.opentripplanner.street.geometry.CompactLineStringUtils;
 import org.opentripplanner.street.geometry.DirectionUtils;
+import org.opentripplanner.street.geometry.DlugoszVarLenIntPacker;
 import org.opentripplanner.street.geometry.GeometryUtils;
 import org.opentripplanner.street.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.street.geometry.SplitLineString;
@@ -46,7 +48,10 @@ public class StreetEdge
 
   private static final Logger LOG = LoggerFactory.getLogger(StreetEdge.class);
 
-  private static final double SAFEST_STREETS_SAFETY_FACTOR = 0.1;
+  public static final double SAFEST_STREETS_SAFETY_FACTOR = 0.1;
+
+  /** The index of street edges not numbered by the graph, see {@link #getIndex()}. */
+  public static final int NO_INDEX = -1;
 
   /** If you have more than 16 flags, increase flags to short or int */
   static final int BACK_FLAG_INDEX = 0;
@@ -113,6 +118,21 @@ public class StreetEdge
 
   private StreetElevationExtension elevationExtension;
 
+  /**
+   * A dense index of the permanent street edges, set when the graph is indexed and used to look up
+   * the precomputed costs in a {@link StreetEdgeCostTable}. Edges created after the graph is
+   * indexed have no index.
+   */
+  private int index = NO_INDEX;
+
+  /**
+   * The mapped street network this edge reads its geometry from, instead of
+   * {@link #compactGeometry}. The mapping is attached at startup, after the graph is loaded, and
+   * is not serialized.
+   */
+  @Nullable
+  private transient MappedStreetNetwork mappedNetwork;
+
   protected StreetEdge(StreetEdgeBuilder<?> builder) {
     super(builder.fromVertex(), builder.toVertex());
     this.flags = builder.getFlags();
@@ -308,6 +328,13 @@ public class StreetEdge
 
   @Override
   public State[] traverse(State s0) {
+    if (isPlainTraversal(s0)) {
+      State state = traversePlain(s0);
+      if (state != null) {
+        return new State[] { state };
+      }
+    }
+
     final StateEditor editor;
 
     final boolean arriveByRental =
@@ -445,12 +472,15 @@ public class StreetEdge
 
   @Override
   public LineString getGeometry() {
+    int[] coords = mappedNetwork == null
+      ? DlugoszVarLenIntPacker.unpack(compactGeometry)
+      : mappedNetwork.geometryCoordinates(index);
     return CompactLineStringUtils.uncompactLineString(
       fromv.getLon(),
       fromv.getLat(),
       tov.getLon(),
       tov.getLat(),
-      compactGeometry,
+      coords,
       isBack()
     );
   }
@@ -478,12 +508,25 @@ public class StreetEdge
   @Override
   public StreetEdge clone() {
     try {
-      return (StreetEdge) super.clone();
+      var clone = (StreetEdge) super.clone();
+      clone.index = NO_INDEX;
+      clone.compactGeometry = compactGeometry();
+      clone.mappedNetwork = null;
+      return clone;
     } catch (CloneNotSupportedException e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Read the geometry from the mapped street network, and drop the copy on the heap. The network
+   * must contain this edge at its current index.
+   */
+  void useMappedGeometry(MappedStreetNetwork network) {
+    this.mappedNetwork = network;
+    this.compactGeometry = null;
+  }
+
   public void shareData(StreetEdge reversedEdge) {
     if (Arrays.equals(compactGeometry, reversedEdge.compactGeometry)) {
       compactGeometry = reversedEdge.compactGeometry;
@@ -588,6 +631,21 @@ public class StreetEdge
     this.costExtension = costExtension;
   }
 
+  /** @see #index */
+  public int getIndex() {
+    return index;
+  }
+
+  /** Only the graph should set the index, when it numbers all its street edges. */
+  public void setIndex(int index) {
+    if (mappedNetwork != null && index != this.index) {
+      // The mapped geometry is looked up by the index, keep a copy on the heap instead
+      compactGeometry = compactGeometry();
+      mappedNetwork = null;
+    }
+    this.index = index;
+  }
+
   /**
    * This method is not thread-safe!
    */
@@ -794,6 +852,11 @@ public class StreetEdge
     return length_mm;
   }
 
+  @Nullable
+  byte[] compactGeometry() {
+    return mappedNetwork == null ? compactGeometry : mappedNetwork.compactGeometry(index);
+  }
+
   private int computeLength(StreetEdgeBuilder<?> builder) {
     int lengthInMillimeter = builder.hasDefaultLength()
       ? defaultMillimeterLength(builder.geometry())
@@ -983,31 +1046,94 @@ public class StreetEdge
       }
     }
 
-    var request = s0.getRequest();
+    var costs = totalTraversalCosts(s0, traverseMode, walkingBike);
 
-    // Automobiles have variable speeds depending on the edge type
-    double speed = calculateSpeed(request, traverseMode, walkingBike);
+    if (!traverseMode.isInCar()) {
+      s1.incrementWalkDistance(getDistanceWithElevation());
+    }
 
-    var traversalCosts = switch (traverseMode) {
-      case BICYCLE, SCOOTER -> bicycleOrScooterTraversalCost(request, traverseMode, speed, s0);
-      case WALK -> walkingTraversalCosts(
-        request,
-        traverseMode,
-        speed,
-        walkingBike,
-        s0.getRequest().wheelchairEnabled()
-      );
-      default -> otherTraversalCosts(request, traverseMode, walkingBike, speed);
-    };
+    s1.incrementTimeInMilliseconds(costs.timeInMilliseconds());
 
-    long time_ms = (long) Math.ceil(1000.0 * traversalCosts.time());
-    var weight = traversalCosts.weight();
+    s1.incrementWeight(costs.weight());
+
+    return s1;
+  }
+
+  /**
+   * Check if traversing this edge only changes the time, weight and walk distance of the state,
+   * so that the new state can be created without a {@link StateEditor}. This is the case when
+   * walking or cycling without renting or car pickup, when the mode stays the same and no
+   * no-through-traffic area is involved.
+   */
+  private boolean isPlainTraversal(State s0) {
+    var streetMode = s0.getRequest().mode();
+    if (streetMode.includesRenting() || streetMode.includesPickup()) {
+      return false;
+    }
+    var mode = s0.currentMode();
+    return (
+      (mode == TraverseMode.WALK || (mode == TraverseMode.BICYCLE && !s0.isBackWalkingBike())) &&
+      s0.getBackMode() == mode &&
+      !s0.hasEnteredNoThruTrafficArea() &&
+      !isNoThruTraffic(mode) &&
+      canTraverse(mode)
+    );
+  }
+
+  /**
+   * Same as {@link #doTraverse(State, TraverseMode, boolean)} for traversals accepted by
+   * {@link #isPlainTraversal(State)}, without allocating a {@link StateEditor}.
+   *
+   * @return null if the edge can not be traversed, or if the costs are invalid and the traversal
+   * should be handled (and logged) by the state editor
+   */
+  @Nullable
+  private State traversePlain(State s0) {
+    Edge backEdge = s0.getBackEdge();
+    // No illegal U-turns, see doTraverse()
+    if (backEdge != null && this.isReverseOf(backEdge)) {
+      return null;
+    }
+    var costs = totalTraversalCosts(s0, s0.currentMode(), false);
+    double weight = costs.weight();
+    if (costs.timeInMilliseconds() < 0 || !(weight >= 0) || Double.isInfinite(weight)) {
+      return null;
+    }
+    return s0.createChild(this, costs.timeInMilliseconds(), weight, getDistanceWithElevation());
+  }
+
+  /**
+   * Calculate the time and weight of traversing this edge, including the turn from the back edge
+   * of the state and the cost extension.
+   */
+  private TotalTraversalCosts totalTraversalCosts(
+    State s0,
+    TraverseMode traverseMode,
+    boolean walkingBike
+  ) {
+    Edge backEdge = s0.getBackEdge();
+    var request = s0.getRequest();
+    var propulsion = s0.rentalVehiclePropulsionType();
+
+    long time_ms;
+    double weight;
+    var costTable = request.edgeCostTable();
+    if (costTable != null && costTable.contains(this, traverseMode, walkingBike, propulsion)) {
+      time_ms = costTable.timeInMilliseconds(index);
+      weight = costTable.weight(index);
+    } else {
+      var traversalCosts = edgeTraversalCosts(request, traverseMode, walkingBike, propulsion);
+      time_ms = traversalCosts.timeInMilliseconds();
+      weight = traversalCosts.weight();
+    }
 
     /* Compute turn cost. */
     if (backEdge instanceof StreetEdge backPSE) {
       TraverseMode backMode = s0.getBackMode();
       final boolean arriveBy = s0.getRequest().arriveBy();
 
+      // Automobiles have variable speeds depending on the edge type
+      double speed = calculateSpeed(request, traverseMode, walkingBike);
       double backSpeed = backPSE.calculateSpeed(request, backMode, s0.isBackWalkingBike());
       // Units are seconds.
       final double turnDuration;
@@ -1068,19 +1194,46 @@ public class StreetEdge
       weight += modeReluctance * request.turnReluctance() * turnDuration;
     }
 
-    if (!traverseMode.isInCar()) {
-      s1.incrementWalkDistance(getDistanceWithElevation());
-    }
-
     if (costExtension != null) {
       weight += costExtension.calculateExtraCost(s0, length_mm, traverseMode);
     }
 
-    s1.incrementTimeInMilliseconds(time_ms);
+    return new TotalTraversalCosts(time_ms, weight);
+  }
 
-    s1.incrementWeight(weight);
+  /**
+   * Calculate the time and weight of traversing this edge, without the turn and the cost
+   * extension. The result only depends on the request, the mode and the propulsion type, so it
+   * can be precomputed in a {@link StreetEdgeCostTable}.
+   */
+  TotalTraversalCosts edgeTraversalCosts(
+    StreetSearchRequest request,
+    TraverseMode traverseMode,
+    boolean walkingBike,
+    @Nullable PropulsionType propulsion
+  ) {
+    // Automobiles have variable speeds depending on the edge type
+    double speed = calculateSpeed(request, traverseMode, walkingBike);
 
-    return s1;
+    var traversalCosts = switch (traverseMode) {
+      case BICYCLE, SCOOTER -> bicycleOrScooterTraversalCost(
+        request,
+        traverseMode,
+        speed,
+        propulsion
+      );
+      case WALK -> walkingTraversalCosts(
+        request,
+        traverseMode,
+        speed,
+        walkingBike,
+        request.wheelchairEnabled()
+      );
+      default -> otherTraversalCosts(request, traverseMode, walkingBike, speed);
+    };
+
+    long time_ms = (long) Math.ceil(1000.0 * traversalCosts.time());
+    return new TotalTraversalCosts(time_ms, traversalCosts.weight());
   }
 
   private TraversalCosts otherTraversalCosts(
@@ -1105,10 +1258,8 @@ public class StreetEdge
     StreetSearchRequest req,
     TraverseMode mode,
     double speed,
-    State state
+    @Nullable PropulsionType propulsion
   ) {
-    PropulsionType propulsion = state.rentalVehiclePropulsionType();
-
     double electricAssistSlopeSensitivity = req.electricAssistSlopeSensitivity(mode);
     double effectiveTimeDistance = getEffectiveDistanceForPropulsion(
       propulsion,
@@ -1285,6 +1436,9 @@ public class StreetEdge
   /** Tuple to return time and weight from calculation */
   private record TraversalCosts(double time, double weight) {}
 
+  /** Tuple to return the total time, including turns, and weight of a traversal */
+  record TotalTraversalCosts(long timeInMilliseconds, double weight) {}
+
   /**
    * The angles of the first (in) segment and last (out) segment of a LineString, encoded in one
    * byte.
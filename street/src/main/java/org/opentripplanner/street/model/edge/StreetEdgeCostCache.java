@@ -0,0 +1,133 @@
+package org.opentripplanner.street.model.edge;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of {@link StreetEdgeCostTable}s, one for each street profile used by the requests. This
+ * works like the Raptor transfer cache: the profiles of the configured transfer cache requests are
+ * built at startup, and other profiles are built the first time they are requested. Runtime
+ * profiles are built in the background, the requests use the edges to compute the costs until the
+ * table is ready.
+ * <p>
+ * A table uses 12 bytes per street edge, so the number of tables is limited to a handful. When the
+ * cache is full, the least recently used table is evicted. A profile which failed to build is
+ * built again when it is requested after a delay.
+ */
+public class StreetEdgeCostCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(StreetEdgeCostCache.class);
+
+  private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+  private final Supplier<Collection<StreetEdge>> streetEdges;
+  private final Executor executor;
+  private final Cache<StreetEdgeCostProfile, StreetEdgeCostTable> tables;
+
+  /** The profiles which are being built. */
+  private final Set<StreetEdgeCostProfile> building = ConcurrentHashMap.newKeySet();
+
+  /** The profiles which failed to build, they are not built again until they expire. */
+  private final Cache<StreetEdgeCostProfile, Boolean> failed;
+
+  private volatile StreetEdge[] edgesByIndex;
+
+  /**
+   * The tables are built in the common fork-join pool, which the table build uses anyway, so the
+   * cache does not own any threads.
+   *
+   * @param streetEdges the permanent street edges, only called when the first table is built
+   * @param maxSize the maximum number of tables
+   */
+  public StreetEdgeCostCache(Supplier<Collection<StreetEdge>> streetEdges, int maxSize) {
+    this(streetEdges, maxSize, ForkJoinPool.commonPool());
+  }
+
+  StreetEdgeCostCache(
+    Supplier<Collection<StreetEdge>> streetEdges,
+    int maxSize,
+    Executor executor
+  ) {
+    this.streetEdges = streetEdges;
+    this.executor = executor;
+    this.tables = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    this.failed = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(RETRY_DELAY)
+      .build();
+  }
+
+  /**
+   * Return the cost table for the request, or null if the request can not use a table or the
+   * table is not built yet. If the table does not exist it is built in the background.
+   */
+  @Nullable
+  public StreetEdgeCostTable get(StreetSearchRequest request) {
+    var profile = request.edgeCostProfile();
+    if (profile == null) {
+      return null;
+    }
+    var table = tables.getIfPresent(profile);
+    if (table == null && failed.getIfPresent(profile) == null && building.add(profile)) {
+      executor.execute(() -> build(profile, request, "Adding runtime request to cache: {}"));
+    }
+    return table;
+  }
+
+  /** Build the table for the request in the calling thread, if it does not exist. */
+  public void initForRequest(StreetSearchRequest request) {
+    var profile = request.edgeCostProfile();
+    if (profile != null && building.add(profile)) {
+      build(profile, request, "Initializing cache with request: {}");
+    }
+  }
+
+  long size() {
+    return tables.size();
+  }
+
+  private void build(StreetEdgeCostProfile profile, StreetSearchRequest request, String message) {
+    try {
+      // The table may have been added after the caller looked it up
+      if (tables.getIfPresent(profile) == null) {
+        LOG.info(message, profile);
+        tables.put(profile, StreetEdgeCostTable.build(profile, request, edgesByIndex()));
+      }
+    } catch (RuntimeException e) {
+      LOG.error("Failed to build the street edge cost table for {}", profile, e);
+      failed.put(profile, Boolean.TRUE);
+    } finally {
+      building.remove(profile);
+    }
+  }
+
+  private StreetEdge[] edgesByIndex() {
+    if (edgesByIndex == null) {
+      synchronized (this) {
+        if (edgesByIndex == null) {
+          var edges = streetEdges.get();
+          int size = edges.stream().mapToInt(StreetEdge::getIndex).max().orElse(-1) + 1;
+          var byIndex = new StreetEdge[size];
+          for (StreetEdge edge : edges) {
+            if (edge.getIndex() >= 0) {
+              byIndex[edge.getIndex()] = edge;
+            }
+          }
+          edgesByIndex = byIndex;
+        }
+      }
+    }
+    return edgesByIndex;
+  }
+}
@@ -0,0 +1,53 @@
+package org.opentripplanner.street.model.edge;
+
+import javax.annotation.Nullable;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.request.BikeRequest;
+import org.opentripplanner.street.search.request.CarRequest;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.request.WalkRequest;
+import org.opentripplanner.street.search.request.WheelchairRequest;
+
+/**
+ * The part of a {@link StreetSearchRequest} which the time and weight of traversing a single street
+ * edge depend on, for one traverse mode. Requests with the same profile can share a
+ * {@link StreetEdgeCostTable}. Parameters which are not used by the mode are replaced by their
+ * default, so that they do not create new profiles.
+ * <p>
+ * Use {@link StreetSearchRequest#edgeCostProfile()}, which computes the profile once per request.
+ */
+public record StreetEdgeCostProfile(
+  TraverseMode mode,
+  boolean wheelchairEnabled,
+  WalkRequest walk,
+  BikeRequest bike,
+  CarRequest car,
+  WheelchairRequest wheelchair
+) {
+  /**
+   * @return the profile of the main traverse mode of the request, or null if the request changes
+   * traverse mode during the search, like renting or parking a vehicle
+   */
+  @Nullable
+  public static StreetEdgeCostProfile of(StreetSearchRequest request) {
+    var mode = switch (request.mode()) {
+      case WALK -> TraverseMode.WALK;
+      case BIKE -> TraverseMode.BICYCLE;
+      case CAR -> TraverseMode.CAR;
+      default -> null;
+    };
+    if (mode == null) {
+      return null;
+    }
+    // The stairs time factor of the walk request is used by all modes
+    boolean wheelchairEnabled = mode == TraverseMode.WALK && request.wheelchairEnabled();
+    return new StreetEdgeCostProfile(
+      mode,
+      wheelchairEnabled,
+      request.walk(),
+      mode == TraverseMode.BICYCLE ? request.bike() : BikeRequest.DEFAULT,
+      mode == TraverseMode.CAR ? request.car() : CarRequest.DEFAULT,
+      wheelchairEnabled ? request.wheelchair() : WheelchairRequest.DEFAULT
+    );
+  }
+}
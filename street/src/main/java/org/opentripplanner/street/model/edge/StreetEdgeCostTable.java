@@ -0,0 +1,106 @@
+package org.opentripplanner.street.model.edge;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import org.opentripplanner.service.vehiclerental.model.RentalVehicleType.PropulsionType;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+
+/**
+ * The precomputed time and weight of traversing each permanent street edge, for one
+ * {@link StreetEdgeCostProfile}. The values are the same as computed by the edge itself, without
+ * the turn costs and the cost extensions, which depend on the state. A table is only used for
+ * the main traverse mode of the profile, and not when walking a bike or riding a rental vehicle.
+ * <p>
+ * The values are stored in primitive arrays indexed by {@link StreetEdge#getIndex()}. An edge is
+ * only looked up if it is the edge the table was built for, so edges created or re-indexed after
+ * the table was built are computed as usual.
+ */
+public class StreetEdgeCostTable {
+
+  private static final int NOT_COMPUTED = -1;
+
+  private final StreetEdgeCostProfile profile;
+  private final StreetEdge[] edges;
+  private final int[] timeInMilliseconds;
+  private final double[] weights;
+
+  private StreetEdgeCostTable(
+    StreetEdgeCostProfile profile,
+    StreetEdge[] edges,
+    int[] timeInMilliseconds,
+    double[] weights
+  ) {
+    this.profile = profile;
+    this.edges = edges;
+    this.timeInMilliseconds = timeInMilliseconds;
+    this.weights = weights;
+  }
+
+  /**
+   * @param edges the street edges by index, may contain nulls
+   */
+  static StreetEdgeCostTable build(
+    StreetEdgeCostProfile profile,
+    StreetSearchRequest request,
+    StreetEdge[] edges
+  ) {
+    int[] times = new int[edges.length];
+    double[] weights = new double[edges.length];
+    Arrays.fill(times, NOT_COMPUTED);
+
+    IntStream.range(0, edges.length)
+      .parallel()
+      .forEach(i -> {
+        var edge = edges[i];
+        if (edge == null || !edge.canTraverse(profile.mode())) {
+          return;
+        }
+        var costs = edge.edgeTraversalCosts(request, profile.mode(), false, null);
+        // Values which do not fit are computed by the edge, including the error handling
+        if (costs.timeInMilliseconds() >= 0 && costs.timeInMilliseconds() <= Integer.MAX_VALUE) {
+          times[i] = (int) costs.timeInMilliseconds();
+          weights[i] = costs.weight();
+        }
+      });
+    return new StreetEdgeCostTable(profile, edges, times, weights);
+  }
+
+  /** Whether this table was built for the given request. */
+  public boolean matches(StreetSearchRequest request) {
+    return profile.equals(request.edgeCostProfile());
+  }
+
+  /** Whether this table has the costs of traversing the edge in the given state. */
+  boolean contains(
+    StreetEdge edge,
+    TraverseMode mode,
+    boolean walkingBike,
+    @Nullable PropulsionType propulsion
+  ) {
+    int i = edge.getIndex();
+    return (
+      mode == profile.mode() &&
+      !walkingBike &&
+      propulsion == null &&
+      i >= 0 &&
+      i < edges.length &&
+      edges[i] == edge &&
+      timeInMilliseconds[i] != NOT_COMPUTED
+    );
+  }
+
+  long timeInMilliseconds(int index) {
+    return timeInMilliseconds[index];
+  }
+
+  double weight(int index) {
+    return weights[index];
+  }
+
+  @Override
+  public String toString() {
+    return "StreetEdgeCostTable{" + profile + ", " + edges.length + " edges}";
+  }
+}
@@ -21,12 +21,15 @@ public final class TemporaryPartialStreetEdge extends StreetEdge implements Temp
    */
   TemporaryPartialStreetEdge(TemporaryPartialStreetEdgeBuilder builder) {
     super(builder);
-    builder
-      .fromVertex()
-      .addRentalRestriction(builder.parentEdge().getFromVertex().rentalRestrictions());
-    builder
-      .toVertex()
-      .addRentalRestriction(builder.parentEdge().getToVertex().rentalRestrictions());
+    // The ends shared with the parent edge already have these restrictions, and are not modified
+    var parentFrom = builder.parentEdge().getFromVertex();
+    var parentTo = builder.parentEdge().getToVertex();
+    if (builder.fromVertex() != parentFrom) {
+      builder.fromVertex().addRentalRestriction(parentFrom.rentalRestrictions());
+    }
+    if (builder.toVertex() != parentTo) {
+      builder.toVertex().addRentalRestriction(parentTo.rentalRestrictions());
+    }
     this.parentEdge = builder.parentEdge();
     this.geometry = super.getGeometry();
   }
@@ -1,5 +1,7 @@
 package org.opentripplanner.street.model.vertex;
 
+import javax.annotation.Nullable;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.StreetEdge;
 
@@ -10,8 +12,28 @@ import org.opentripplanner.street.model.edge.StreetEdge;
  */
 public class TemporarySplitterVertex extends SplitterVertex implements TemporaryVertex {
 
+  @Nullable
+  private final StreetGraphOverlay overlay;
+
   public TemporarySplitterVertex(String label, double x, double y, StreetEdge streetEdge) {
+    this(label, x, y, streetEdge, null);
+  }
+
+  public TemporarySplitterVertex(
+    String label,
+    double x,
+    double y,
+    StreetEdge streetEdge,
+    @Nullable StreetGraphOverlay overlay
+  ) {
     super(label, x, y, streetEdge.getName());
+    this.overlay = overlay;
+  }
+
+  @Nullable
+  @Override
+  public StreetGraphOverlay overlay() {
+    return overlay;
   }
 
   @Override
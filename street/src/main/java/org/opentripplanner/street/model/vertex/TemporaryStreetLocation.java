@@ -1,8 +1,10 @@
 package org.opentripplanner.street.model.vertex;
 
 import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Coordinate;
 import org.opentripplanner.core.model.i18n.I18NString;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.edge.Edge;
 import org.opentripplanner.street.model.edge.TemporaryEdge;
 
@@ -18,8 +20,26 @@ public final class TemporaryStreetLocation extends StreetLocation implements Tem
 
   private static final AtomicLong ID_COUNTER = new AtomicLong(0);
 
+  @Nullable
+  private final StreetGraphOverlay overlay;
+
   public TemporaryStreetLocation(Coordinate nearestPoint, I18NString name) {
+    this(nearestPoint, name, null);
+  }
+
+  public TemporaryStreetLocation(
+    Coordinate nearestPoint,
+    I18NString name,
+    @Nullable StreetGraphOverlay overlay
+  ) {
     super("TempVertex-" + ID_COUNTER.incrementAndGet(), nearestPoint, name);
+    this.overlay = overlay;
+  }
+
+  @Nullable
+  @Override
+  public StreetGraphOverlay overlay() {
+    return overlay;
   }
 
   @Override
@@ -1,5 +1,8 @@
 package org.opentripplanner.street.model.vertex;
 
+import javax.annotation.Nullable;
+import org.opentripplanner.street.model.StreetGraphOverlay;
+
 /**
  * Marker interface for temporary vertices.
  * <p>
@@ -8,6 +11,16 @@ package org.opentripplanner.street.model.vertex;
  * </p>
  */
 public interface TemporaryVertex {
+  /**
+   * The overlay of the request this vertex is created for. Edges between this vertex and the
+   * permanent graph are kept in the overlay instead of in the permanent vertices. If null, the
+   * edges are added to the permanent vertices and must be removed with {@link #dispose(Vertex)}.
+   */
+  @Nullable
+  default StreetGraphOverlay overlay() {
+    return null;
+  }
+
   /**
    * This method traverse the subgraph of temporary vertices, and cuts that subgraph off from the
    * main graph at each point it encounters a non-temporary vertexes. OTP then holds no references
@@ -38,6 +38,9 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
   private transient Edge[] outgoing = new Edge[0];
   private RentalRestrictionExtension rentalRestrictions = RentalRestrictionExtension.NO_RESTRICTION;
 
+  /** Set by the graph when it is indexed, see {@link #getIndex()}. */
+  private int index = NO_INDEX;
+
   /* CONSTRUCTORS */
 
   protected Vertex(double x, double y) {
@@ -67,6 +70,19 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
     this.incoming = new Edge[0];
   }
 
+  /**
+   * Set the edge lists in one step, when all the edges of the vertex are known. The arrays are
+   * used as they are, they must not be modified by the caller after this. This is used when the
+   * edge lists of all vertices are reconstructed after deserialization, see
+   * {@link org.opentripplanner.street.graph.Graph#reconstructEdgeLists}.
+   */
+  public void initEdgeLists(Edge[] outgoing, Edge[] incoming) {
+    synchronized (this) {
+      this.outgoing = outgoing;
+      this.incoming = incoming;
+    }
+  }
+
   /* EDGE UTILITY METHODS (use arrays to eliminate copy-on-write set objects) */
 
   public void addOutgoing(Edge edge) {
@@ -115,6 +131,19 @@ public abstract class Vertex implements AStarVertex<State, Edge, Vertex>, Serial
     return incoming.length;
   }
 
+  @Override
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Only the graph should set the index, when it numbers all its vertices. See
+   * {@link AStarVertex#getIndex()}.
+   */
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
   /** Get the longitude of the vertex */
   public final double getX() {
     return getLon();
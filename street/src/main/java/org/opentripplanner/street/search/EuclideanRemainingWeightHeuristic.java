@@ -33,6 +33,10 @@ public class EuclideanRemainingWeightHeuristic implements RemainingWeightHeurist
     this.maxCarSpeed = maxCarSpeed != null ? maxCarSpeed : DEFAULT_MAX_CAR_SPEED;
   }
 
+  float maxCarSpeed() {
+    return maxCarSpeed;
+  }
+
   // TODO This currently only uses the first toVertex. If there are multiple toVertices, it will
   //      not work correctly.
   public void initialize(Set<Vertex> toVertices, boolean arriveBy, StreetSearchRequest req) {
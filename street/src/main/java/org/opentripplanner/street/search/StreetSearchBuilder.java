@@ -2,12 +2,19 @@ package org.opentripplanner.street.search;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.opentripplanner.astar.AStarBuilder;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
 import org.opentripplanner.astar.spi.DominanceFunction;
 import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
+import org.opentripplanner.street.model.edge.StreetEdgeCostTable;
 import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.landmark.LandmarkRemainingWeightHeuristic;
 import org.opentripplanner.street.search.request.StreetSearchRequest;
 import org.opentripplanner.street.search.state.State;
 import org.opentripplanner.street.search.strategy.DominanceFunctions;
@@ -16,6 +23,9 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
 
   private StreetSearchRequest request;
 
+  @Nullable
+  private StreetEdgeCostCache edgeCostCache;
+
   public static StreetSearchBuilder of() {
     return new StreetSearchBuilder();
   }
@@ -31,20 +41,69 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
     return this;
   }
 
+  /**
+   * Use the precomputed edge costs of the cache, if the cache has a table for the street profile
+   * of the request.
+   */
+  public StreetSearchBuilder withEdgeCostCache(@Nullable StreetEdgeCostCache edgeCostCache) {
+    this.edgeCostCache = edgeCostCache;
+    return this;
+  }
+
   @Override
   protected Duration streetRoutingTimeout() {
     return request.timeout();
   }
 
+  @Nullable
+  @Override
+  protected AStarGraphOverlay<Edge, Vertex> findGraphOverlay(
+    Set<Vertex> originVertices,
+    @Nullable Set<Vertex> destinationVertices
+  ) {
+    var overlay = StreetGraphOverlay.of(originVertices);
+    return overlay != null ? overlay : StreetGraphOverlay.of(destinationVertices);
+  }
+
   @Override
   protected Collection<State> createInitialStates(Set<Vertex> originVertices) {
     StreetSearchRequest streetSearchRequest = StreetSearchRequest.copyOf(request)
       .withArriveBy(arriveBy())
+      .withEdgeCostTable(edgeCostTable())
       .build();
 
     return State.getInitialStates(originVertices, streetSearchRequest);
   }
 
+  @Override
+  protected Collection<State> createReverseInitialStates(Set<Vertex> destinationVertices) {
+    var mode = request.mode();
+    // The state machines for rental, parking and pickup are not symmetric, so these searches can
+    // only be run in one direction
+    if (mode.includesRenting() || mode.includesParking() || mode.includesPickup()) {
+      return List.of();
+    }
+    StreetSearchRequest reverseRequest = StreetSearchRequest.copyOf(request)
+      .withArriveBy(!arriveBy())
+      .withEdgeCostTable(edgeCostTable())
+      .build();
+
+    return State.getInitialStates(destinationVertices, reverseRequest);
+  }
+
+  @Nullable
+  @Override
+  protected RemainingWeightHeuristic<State> createReverseHeuristic(
+    RemainingWeightHeuristic<State> heuristic
+  ) {
+    if (heuristic instanceof EuclideanRemainingWeightHeuristic euclideanHeuristic) {
+      return new EuclideanRemainingWeightHeuristic(euclideanHeuristic.maxCarSpeed());
+    } else if (heuristic instanceof LandmarkRemainingWeightHeuristic landmarkHeuristic) {
+      return landmarkHeuristic.copy();
+    }
+    return super.createReverseHeuristic(heuristic);
+  }
+
   @Override
   protected void initializeHeuristic(
     RemainingWeightHeuristic<State> heuristic,
@@ -56,6 +115,8 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
       // No initialization needed
     } else if (heuristic instanceof EuclideanRemainingWeightHeuristic euclideanHeuristic) {
       euclideanHeuristic.initialize(destination, arriveBy, request);
+    } else if (heuristic instanceof LandmarkRemainingWeightHeuristic landmarkHeuristic) {
+      landmarkHeuristic.initialize(destination, arriveBy, request);
     } else {
       throw new IllegalArgumentException("Unknown heuristic type: " + heuristic);
     }
@@ -65,4 +126,9 @@ public class StreetSearchBuilder extends AStarBuilder<State, Edge, Vertex, Stree
   protected DominanceFunction<State> createDefaultDominanceFunction() {
     return new DominanceFunctions.Pareto();
   }
+
+  @Nullable
+  private StreetEdgeCostTable edgeCostTable() {
+    return edgeCostCache == null ? request.edgeCostTable() : edgeCostCache.get(request);
+  }
 }
@@ -0,0 +1,110 @@
+package org.opentripplanner.street.search.ch;
+
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.opentripplanner.astar.ch.ContractionHierarchy;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.utils.tostring.ToStringBuilder;
+
+/**
+ * A contraction hierarchy for car routing. The hierarchy is edge based: each node is a
+ * {@link StreetEdge} and each arc is a turn from one street edge onto the next, weighted with the
+ * turn cost plus the cost of traversing the next edge. This way turn costs are part of the
+ * optimization, and turn restrictions, which are modelled in the graph structure, are respected.
+ * <p>
+ * The weights are computed with a fixed car profile, see {@link #profileRequest()}. Car weights
+ * (traversal and turn costs) all scale with the car reluctance, so the shortest paths are the same
+ * for any car reluctance. Requests that change anything else fall back to A*, see
+ * {@link #supports(StreetSearchRequest)}.
+ */
+public class CarContractionHierarchy implements Serializable {
+
+  /** Weights are stored as integers, in thousandths of a weight unit. */
+  static final double WEIGHT_SCALE = 1000.0;
+
+  private final StreetEdge[] edges;
+
+  /** The weight of traversing each edge from a standstill, scaled by {@link #WEIGHT_SCALE}. */
+  private final int[] edgeWeights;
+
+  private final ContractionHierarchy hierarchy;
+
+  private transient volatile Map<StreetEdge, Integer> edgeIndex;
+
+  CarContractionHierarchy(StreetEdge[] edges, int[] edgeWeights, ContractionHierarchy hierarchy) {
+    this.edges = edges;
+    this.edgeWeights = edgeWeights;
+    this.hierarchy = hierarchy;
+  }
+
+  /** The request the weights of the hierarchy are computed with. */
+  static StreetSearchRequest profileRequest() {
+    return StreetSearchRequest.of().withMode(StreetMode.CAR).build();
+  }
+
+  /**
+   * @return true if the shortest path for the request is the same as for the
+   * {@link #profileRequest()}.
+   */
+  public static boolean supports(StreetSearchRequest request) {
+    var profile = StreetSearchRequest.DEFAULT;
+    return (
+      request.mode() == StreetMode.CAR &&
+      request.turnReluctance() == profile.turnReluctance() &&
+      IntersectionTraversalCalculator.DEFAULT.equals(request.intersectionTraversalCalculator()) &&
+      request.listExtensionRequestContexts().isEmpty()
+    );
+  }
+
+  ContractionHierarchy hierarchy() {
+    return hierarchy;
+  }
+
+  StreetEdge edge(int node) {
+    return edges[node];
+  }
+
+  int edgeWeight(int node) {
+    return edgeWeights[node];
+  }
+
+  /** @return the node of the edge, or -1 if the edge is not part of the hierarchy. */
+  int indexOf(Edge edge) {
+    if (!(edge instanceof StreetEdge)) {
+      return -1;
+    }
+    Integer index = edgeIndex().get(edge);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder.of(CarContractionHierarchy.class)
+      .addNum("edges", edges.length)
+      .addNum("arcs", hierarchy.nArcs())
+      .addNum("shortcuts", hierarchy.nShortcuts())
+      .toString();
+  }
+
+  private Map<StreetEdge, Integer> edgeIndex() {
+    var index = edgeIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = edgeIndex;
+        if (index == null) {
+          index = new IdentityHashMap<>(edges.length);
+          for (int i = 0; i < edges.length; i++) {
+            index.put(edges[i], i);
+          }
+          edgeIndex = index;
+        }
+      }
+    }
+    return index;
+  }
+}
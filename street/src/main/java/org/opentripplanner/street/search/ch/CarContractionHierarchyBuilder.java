@@ -0,0 +1,99 @@
+package org.opentripplanner.street.search.ch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.ch.ContractionHierarchyBuilder;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.edge.TemporaryEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build a {@link CarContractionHierarchy} for the street edges that can be driven by car. The
+ * weights are computed by traversing the edges with the
+ * {@link CarContractionHierarchy#profileRequest()}, so they include everything the normal A*
+ * search takes into account for that request: speeds, turn costs and the turn restrictions
+ * encoded in the graph structure.
+ */
+public class CarContractionHierarchyBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CarContractionHierarchyBuilder.class);
+
+  private final StreetSearchRequest request = CarContractionHierarchy.profileRequest();
+
+  public CarContractionHierarchy build(Collection<Vertex> vertices) {
+    List<StreetEdge> edges = new ArrayList<>();
+    List<State> states = new ArrayList<>();
+    Map<StreetEdge, Integer> index = new IdentityHashMap<>();
+    for (Vertex v : vertices) {
+      for (StreetEdge e : v.getOutgoingStreetEdges()) {
+        if (e instanceof TemporaryEdge) {
+          continue;
+        }
+        State s = traverseByCar(e, new State(e.getFromVertex(), request));
+        if (s != null) {
+          index.put(e, edges.size());
+          edges.add(e);
+          states.add(s);
+        }
+      }
+    }
+
+    int[] edgeWeights = new int[edges.size()];
+    var builder = new ContractionHierarchyBuilder(edges.size());
+    long nTurns = 0;
+    for (int i = 0; i < edges.size(); i++) {
+      State s1 = states.get(i);
+      edgeWeights[i] = intWeight(s1.getWeight());
+      for (StreetEdge next : edges.get(i).getToVertex().getOutgoingStreetEdges()) {
+        Integer j = index.get(next);
+        if (j == null) {
+          continue;
+        }
+        State s2 = traverseByCar(next, s1);
+        if (s2 != null) {
+          builder.addArc(i, j, Math.max(0, intWeight(s2.getWeight() - s1.getWeight())));
+          ++nTurns;
+        }
+      }
+    }
+    LOG.info("Contracting {} car edges with {} turns.", edges.size(), nTurns);
+
+    var hierarchy = builder.build(LOG::info);
+    var result = new CarContractionHierarchy(
+      edges.toArray(StreetEdge[]::new),
+      edgeWeights,
+      hierarchy
+    );
+    LOG.info("Car contraction hierarchy done: {}", result);
+    return result;
+  }
+
+  /** Traverse the edge and return the resulting state, if the edge can be driven. */
+  @Nullable
+  static State traverseByCar(Edge edge, State s0) {
+    for (State s : edge.traverse(s0)) {
+      if (s.getBackMode() == TraverseMode.CAR) {
+        return s;
+      }
+    }
+    return null;
+  }
+
+  static long scale(double weight) {
+    return Math.round(weight * CarContractionHierarchy.WEIGHT_SCALE);
+  }
+
+  private static int intWeight(double weight) {
+    return (int) Math.min(Integer.MAX_VALUE, scale(weight));
+  }
+}
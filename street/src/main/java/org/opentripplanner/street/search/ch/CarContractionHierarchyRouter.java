@@ -0,0 +1,267 @@
+package org.opentripplanner.street.search.ch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.model.GraphPath;
+import org.opentripplanner.astar.spi.AStarGraphOverlay;
+import org.opentripplanner.street.model.StreetGraphOverlay;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.TemporaryPartialStreetEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * Find the shortest car path between two sets of vertices using a {@link CarContractionHierarchy}.
+ * <p>
+ * The origin and destination are usually temporary vertices linked into the street graph, so the
+ * router first explores the few edges between them and the edges of the hierarchy. The path found
+ * in the hierarchy is then traversed again with the real request, to get the states with the
+ * correct times and weights. If the re-traversal fails, for example because the path enters a
+ * no-thru-traffic area which is not modelled in the hierarchy, no path is returned and the caller
+ * should fall back to a normal A* search.
+ */
+public class CarContractionHierarchyRouter {
+
+  /** Maximum number of states visited when connecting the origin/destination to the hierarchy. */
+  private static final int MAX_ACCESS_STATES = 100;
+
+  private final CarContractionHierarchy ch;
+  private final StreetSearchRequest profile = CarContractionHierarchy.profileRequest();
+
+  public CarContractionHierarchyRouter(CarContractionHierarchy ch) {
+    this.ch = ch;
+  }
+
+  /**
+   * @param maxDuration paths longer than this are not returned
+   * @return the shortest path, or empty if the hierarchy can not be used for the request or no
+   *         path is found.
+   */
+  public Optional<GraphPath<State, Edge, Vertex>> route(
+    StreetSearchRequest request,
+    Set<Vertex> from,
+    Set<Vertex> to,
+    Duration maxDuration
+  ) {
+    if (!CarContractionHierarchy.supports(request)) {
+      return Optional.empty();
+    }
+    AStarGraphOverlay<Edge, Vertex> graph = StreetGraphOverlay.of(from);
+    if (graph == null) {
+      graph = StreetGraphOverlay.of(to);
+    }
+    if (graph == null) {
+      graph = AStarGraphOverlay.empty();
+    }
+    var sources = findSources(graph, from, to);
+    var targets = findTargets(graph, to);
+    if (sources == null || sources.isEmpty() || targets.isEmpty()) {
+      return Optional.empty();
+    }
+
+    int[] sourceNodes = sources.keySet().stream().mapToInt(Integer::intValue).toArray();
+    long[] sourceWeights = new long[sourceNodes.length];
+    for (int i = 0; i < sourceNodes.length; i++) {
+      sourceWeights[i] = sources.get(sourceNodes[i]).weight();
+    }
+    int[] targetNodes = targets.keySet().stream().mapToInt(Integer::intValue).toArray();
+    long[] targetWeights = new long[targetNodes.length];
+    for (int i = 0; i < targetNodes.length; i++) {
+      targetWeights[i] = targets.get(targetNodes[i]).weight();
+    }
+
+    int[] nodes = ch.hierarchy().findPath(sourceNodes, sourceWeights, targetNodes, targetWeights);
+    if (nodes == null) {
+      return Optional.empty();
+    }
+
+    var source = sources.get(nodes[0]);
+    var target = targets.get(nodes[nodes.length - 1]);
+    List<Edge> edges = new ArrayList<>(source.edges());
+    for (int i = 1; i < nodes.length; i++) {
+      edges.add(ch.edge(nodes[i]));
+    }
+    if (target.replacesNode()) {
+      // The path to the destination starts partway along the last edge
+      if (nodes.length == 1 && !source.endsWithNode()) {
+        return Optional.empty();
+      }
+      edges.removeLast();
+    }
+    edges.addAll(target.edges());
+
+    State state = traverse(request, edges);
+    if (state == null || state.getElapsedTimeSeconds() > maxDuration.toSeconds()) {
+      return Optional.empty();
+    }
+    return Optional.of(new GraphPath<>(state));
+  }
+
+  /**
+   * Explore forward from the origin until the edges of the hierarchy are reached.
+   *
+   * @return the hierarchy nodes to start from, or null if the destination is reached directly.
+   */
+  @Nullable
+  private Map<Integer, Access> findSources(
+    AStarGraphOverlay<Edge, Vertex> graph,
+    Set<Vertex> from,
+    Set<Vertex> to
+  ) {
+    Map<Integer, Access> sources = new HashMap<>();
+    Set<Vertex> visited = new HashSet<>();
+    PriorityQueue<State> queue = new PriorityQueue<>(
+      Comparator.comparingDouble(State::getWeight)
+    );
+    for (Vertex v : from) {
+      queue.add(new State(v, profile));
+    }
+    int nVisited = 0;
+    while (!queue.isEmpty() && nVisited < MAX_ACCESS_STATES) {
+      State s0 = queue.poll();
+      if (!visited.add(s0.getVertex())) {
+        continue;
+      }
+      ++nVisited;
+      if (s0.getBackState() != null && to.contains(s0.getVertex())) {
+        // The origin and destination are so close that a normal search is best
+        return null;
+      }
+      for (Edge e : graph.getOutgoing(s0.getVertex())) {
+        State s1 = CarContractionHierarchyBuilder.traverseByCar(e, s0);
+        if (s1 == null) {
+          continue;
+        }
+        int node = ch.indexOf(e);
+        if (node >= 0) {
+          addAccess(sources, node, new Access(s1, edgesTo(s1), false, true));
+        } else if (
+          e instanceof TemporaryPartialStreetEdge partial &&
+          partial.getToVertex() == partial.getParentEdge().getToVertex() &&
+          (node = ch.indexOf(partial.getParentEdge())) >= 0
+        ) {
+          // Continue as if the whole parent edge was traversed
+          addAccess(sources, node, new Access(s1, edgesTo(s1), false, false));
+        } else {
+          queue.add(s1);
+        }
+      }
+    }
+    return sources;
+  }
+
+  /** Explore backward from the destination until the edges of the hierarchy are reached. */
+  private Map<Integer, Access> findTargets(AStarGraphOverlay<Edge, Vertex> graph, Set<Vertex> to) {
+    Map<Integer, Access> targets = new HashMap<>();
+    Set<Vertex> visited = new HashSet<>();
+    List<Suffix> queue = new ArrayList<>();
+    for (Vertex v : to) {
+      queue.add(new Suffix(v, List.of()));
+    }
+    for (int i = 0; i < queue.size() && i < MAX_ACCESS_STATES; i++) {
+      var suffix = queue.get(i);
+      if (!visited.add(suffix.vertex())) {
+        continue;
+      }
+      for (Edge e : graph.getIncoming(suffix.vertex())) {
+        int node = ch.indexOf(e);
+        if (node >= 0) {
+          State s = traverse(profile, prepend(e, suffix.edges()));
+          if (s != null) {
+            long weight = CarContractionHierarchyBuilder.scale(s.getWeight()) - ch.edgeWeight(node);
+            addAccess(targets, node, new Access(weight, suffix.edges(), false, false));
+          }
+        } else if (
+          e instanceof TemporaryPartialStreetEdge partial &&
+          partial.getFromVertex() == partial.getParentEdge().getFromVertex() &&
+          (node = ch.indexOf(partial.getParentEdge())) >= 0
+        ) {
+          // Leave the parent edge partway, instead of traversing all of it
+          var edges = prepend(e, suffix.edges());
+          State s = traverse(profile, edges);
+          if (s != null) {
+            long weight = CarContractionHierarchyBuilder.scale(s.getWeight()) - ch.edgeWeight(node);
+            addAccess(targets, node, new Access(weight, edges, true, false));
+          }
+        } else {
+          queue.add(new Suffix(e.getFromVertex(), prepend(e, suffix.edges())));
+        }
+      }
+    }
+    return targets;
+  }
+
+  /**
+   * Traverse the edges with the given request, in reverse order for arrive-by requests.
+   *
+   * @return the last state, or null if any edge can not be traversed.
+   */
+  @Nullable
+  private static State traverse(StreetSearchRequest request, List<Edge> edges) {
+    if (edges.isEmpty()) {
+      return null;
+    }
+    boolean arriveBy = request.arriveBy();
+    Vertex start = arriveBy ? edges.getLast().getToVertex() : edges.getFirst().getFromVertex();
+    State state = new State(start, request);
+    for (int i = 0; i < edges.size() && state != null; i++) {
+      Edge e = edges.get(arriveBy ? edges.size() - 1 - i : i);
+      state = CarContractionHierarchyBuilder.traverseByCar(e, state);
+    }
+    return state;
+  }
+
+  /** The edges traversed to reach the state, in order. */
+  private static List<Edge> edgesTo(State state) {
+    List<Edge> edges = new ArrayList<>();
+    for (State s = state; s.getBackState() != null; s = s.getBackState()) {
+      edges.add(s.getBackEdge());
+    }
+    Collections.reverse(edges);
+    return edges;
+  }
+
+  private static List<Edge> prepend(Edge edge, List<Edge> edges) {
+    List<Edge> result = new ArrayList<>(edges.size() + 1);
+    result.add(edge);
+    result.addAll(edges);
+    return result;
+  }
+
+  private static void addAccess(Map<Integer, Access> accesses, int node, Access access) {
+    accesses.merge(node, access, (a, b) -> a.weight() <= b.weight() ? a : b);
+  }
+
+  private record Suffix(Vertex vertex, List<Edge> edges) {}
+
+  /**
+   * How the origin or destination is connected to a node of the hierarchy.
+   *
+   * @param weight the scaled weight of the connection
+   * @param edges the edges of the connection
+   * @param replacesNode the connection starts partway along the edge of the node, so the node edge
+   *                     should be replaced with the connection edges.
+   * @param endsWithNode the connection edges end with the edge of the node
+   */
+  private record Access(long weight, List<Edge> edges, boolean replacesNode, boolean endsWithNode) {
+    Access(State state, List<Edge> edges, boolean replacesNode, boolean endsWithNode) {
+      this(
+        CarContractionHierarchyBuilder.scale(state.getWeight()),
+        edges,
+        replacesNode,
+        endsWithNode
+      );
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package org.opentripplanner.street.search.landmark;
+
+import java.util.Arrays;
+
+/**
+ * A minimal binary min-heap of int elements with float priorities, used by the landmark
+ * Dijkstra searches to avoid boxing. Elements are not updated in place; the caller inserts
+ * duplicates and skips stale entries when polling.
+ */
+final class IntFloatHeap {
+
+  private int[] elem;
+  private float[] prio;
+  private int size;
+
+  IntFloatHeap(int capacity) {
+    capacity = Math.max(capacity, 16);
+    elem = new int[capacity];
+    prio = new float[capacity];
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  float peekPriority() {
+    return prio[0];
+  }
+
+  void insert(int e, float p) {
+    if (size == elem.length) {
+      elem = Arrays.copyOf(elem, size * 2);
+      prio = Arrays.copyOf(prio, size * 2);
+    }
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (prio[parent] <= p) {
+        break;
+      }
+      elem[i] = elem[parent];
+      prio[i] = prio[parent];
+      i = parent;
+    }
+    elem[i] = e;
+    prio[i] = p;
+  }
+
+  int poll() {
+    int result = elem[0];
+    int lastElem = elem[--size];
+    float lastPrio = prio[size];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && prio[child + 1] < prio[child]) {
+        child++;
+      }
+      if (lastPrio <= prio[child]) {
+        break;
+      }
+      elem[i] = elem[child];
+      prio[i] = prio[child];
+      i = child;
+    }
+    elem[i] = lastElem;
+    prio[i] = lastPrio;
+    return result;
+  }
+}
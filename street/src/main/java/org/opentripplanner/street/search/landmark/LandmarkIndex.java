@@ -0,0 +1,111 @@
+package org.opentripplanner.street.search.landmark;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.EnumMap;
+import javax.annotation.Nullable;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.utils.tostring.ToStringBuilder;
+
+/**
+ * Precomputed landmark distances for the permanent street graph, used by the
+ * {@link LandmarkRemainingWeightHeuristic}. The index is built by the graph builder and serialized
+ * with the graph. Vertices added after the index was built (temporary vertices, vertices created
+ * by later linking) are not part of it.
+ * <p>
+ * The rows of the tables are found through the {@link Vertex#getIndex()} the graph gives each
+ * vertex when it is indexed. The index is not serialized, so the lookup is rebuilt when the graph
+ * is indexed after it is loaded.
+ */
+public class LandmarkIndex implements Serializable {
+
+  private final Vertex[] vertices;
+  private final EnumMap<LandmarkMode, LandmarkTable> tables;
+
+  /**
+   * The row in the landmark tables of each vertex, by vertex index. -1 for vertices not in the
+   * tables. Created lazily after deserialization, and replaced when the graph is indexed again.
+   */
+  private transient volatile int[] rowByVertexIndex;
+
+  LandmarkIndex(Vertex[] vertices, EnumMap<LandmarkMode, LandmarkTable> tables) {
+    this.vertices = vertices;
+    this.tables = tables;
+  }
+
+  @Nullable
+  LandmarkTable table(LandmarkMode mode) {
+    return tables.get(mode);
+  }
+
+  public boolean supports(LandmarkMode mode) {
+    return tables.containsKey(mode);
+  }
+
+  int nVertices() {
+    return vertices.length;
+  }
+
+  Vertex vertex(int index) {
+    return vertices[index];
+  }
+
+  /** @return the row of the vertex in the landmark tables, or -1 if the vertex is not indexed. */
+  int indexOf(Vertex vertex) {
+    var rows = rowByVertexIndex;
+    if (rows == null) {
+      rows = rowsByVertexIndex(vertices);
+      rowByVertexIndex = rows;
+    }
+    return row(rows, vertices, vertex);
+  }
+
+  /**
+   * Update the lookup from vertex index to row after the graph has numbered its vertices. Called
+   * by the graph, a lookup which is out of date only misses vertices, it never returns the row of
+   * another vertex.
+   */
+  public void reindexVertices() {
+    rowByVertexIndex = rowsByVertexIndex(vertices);
+  }
+
+  @Override
+  public String toString() {
+    long bytes = tables.values().stream().mapToLong(LandmarkTable::sizeInBytes).sum();
+    return ToStringBuilder.of(LandmarkIndex.class)
+      .addNum("vertices", vertices.length)
+      .addCol("modes", tables.keySet())
+      .addNum("sizeMb", bytes / (1024 * 1024))
+      .toString();
+  }
+
+  /**
+   * Create a lookup from {@link Vertex#getIndex()} to the position of the vertex in the given
+   * array. Vertices without an index are left out.
+   */
+  static int[] rowsByVertexIndex(Vertex[] vertices) {
+    int max = -1;
+    for (Vertex v : vertices) {
+      max = Math.max(max, v.getIndex());
+    }
+    int[] rows = new int[max + 1];
+    Arrays.fill(rows, -1);
+    for (int i = 0; i < vertices.length; i++) {
+      int index = vertices[i].getIndex();
+      if (index >= 0) {
+        rows[index] = i;
+      }
+    }
+    return rows;
+  }
+
+  /** @return the position of the vertex in the array, or -1 if it is not found by its index. */
+  static int row(int[] rows, Vertex[] vertices, Vertex vertex) {
+    int index = vertex.getIndex();
+    if (index < 0 || index >= rows.length) {
+      return -1;
+    }
+    int row = rows[index];
+    return row >= 0 && vertices[row] == vertex ? row : -1;
+  }
+}
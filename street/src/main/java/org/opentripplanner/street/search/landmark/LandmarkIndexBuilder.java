@@ -0,0 +1,320 @@
+package org.opentripplanner.street.search.landmark;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.stream.IntStream;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Select landmarks and compute the quantized distances to and from them for every vertex in the
+ * graph. Landmarks are selected with the "farthest" strategy: each new landmark is the vertex
+ * farthest away from all landmarks selected so far. This spreads the landmarks out along the
+ * perimeter of the graph, which is where they give the best bounds.
+ * <p>
+ * The vertices must be indexed by the graph, the edges are looked up by the
+ * {@link Vertex#getIndex()} of their vertices.
+ */
+public class LandmarkIndexBuilder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LandmarkIndexBuilder.class);
+
+  private final Vertex[] vertices;
+  private final int[] rowByVertexIndex;
+  private final int nLandmarks;
+
+  public LandmarkIndexBuilder(Collection<Vertex> vertices, int nLandmarks) {
+    if (nLandmarks < 1) {
+      throw new IllegalArgumentException("At least one landmark is required: " + nLandmarks);
+    }
+    this.vertices = vertices.toArray(Vertex[]::new);
+    for (Vertex v : this.vertices) {
+      if (v.getIndex() < 0) {
+        throw new IllegalArgumentException("The vertex is not indexed: " + v.getLabel());
+      }
+    }
+    this.rowByVertexIndex = LandmarkIndex.rowsByVertexIndex(this.vertices);
+    this.nLandmarks = nLandmarks;
+  }
+
+  public LandmarkIndex build() {
+    var tables = new EnumMap<LandmarkMode, LandmarkTable>(LandmarkMode.class);
+    for (LandmarkMode mode : LandmarkMode.values()) {
+      long start = System.currentTimeMillis();
+      LandmarkTable table = buildTable(mode);
+      if (table != null) {
+        tables.put(mode, table);
+        LOG.info(
+          "Computed {} {} landmarks in {} ms.",
+          table.nLandmarks(),
+          mode,
+          System.currentTimeMillis() - start
+        );
+      }
+    }
+    return new LandmarkIndex(vertices, tables);
+  }
+
+  private LandmarkTable buildTable(LandmarkMode mode) {
+    final int n = vertices.length;
+    var forward = adjacency(mode, false);
+    var reverse = adjacency(mode, true);
+
+    int seed = seedVertex(forward);
+    if (seed < 0) {
+      return null;
+    }
+
+    var dijkstra = new Dijkstra(n);
+    int[] landmarks = new int[nLandmarks];
+    short[][] fromColumns = new short[nLandmarks][];
+    float[] fromQuantum = new float[nLandmarks];
+    float[] minDist = new float[n];
+    Arrays.fill(minDist, Float.POSITIVE_INFINITY);
+
+    // Start with the vertex farthest away from the center of the graph
+    int next = farthest(dijkstra.run(forward, seed));
+    int count = 0;
+    while (count < nLandmarks && next >= 0) {
+      landmarks[count] = next;
+      float[] dist = dijkstra.run(forward, next);
+      fromColumns[count] = new short[n];
+      fromQuantum[count] = quantize(dist, fromColumns[count]);
+      for (int v = 0; v < n; v++) {
+        minDist[v] = Math.min(minDist[v], dist[v]);
+      }
+      ++count;
+      next = farthest(minDist);
+    }
+
+    final int k = count;
+    final int[] selected = Arrays.copyOf(landmarks, k);
+    short[][] toColumns = new short[k][];
+    float[] toQuantum = new float[k];
+    IntStream.range(0, k)
+      .parallel()
+      .forEach(l -> {
+        float[] dist = new Dijkstra(n).run(reverse, selected[l]);
+        toColumns[l] = new short[n];
+        toQuantum[l] = quantize(dist, toColumns[l]);
+      });
+
+    return new LandmarkTable(
+      selected,
+      interleave(fromColumns, k, n),
+      interleave(toColumns, k, n),
+      Arrays.copyOf(fromQuantum, k),
+      toQuantum,
+      (float) minSafetyRatio(mode),
+      mode == LandmarkMode.BICYCLE ? (float) minSafestRatio() : 1f
+    );
+  }
+
+  /**
+   * Build a compressed sparse row adjacency list of the edges traversable in the given mode. If
+   * {@code reverse} is set, the edges are indexed on the to-vertex instead of the from-vertex.
+   */
+  private Adjacency adjacency(LandmarkMode mode, boolean reverse) {
+    final int n = vertices.length;
+    int[] offsets = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      for (Edge e : vertices[i].getOutgoing()) {
+        int j = LandmarkIndex.row(rowByVertexIndex, vertices, e.getToVertex());
+        if (j >= 0 && !Double.isNaN(mode.lowerBoundDistance(e))) {
+          ++offsets[(reverse ? j : i) + 1];
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] pos = Arrays.copyOf(offsets, n);
+    int[] targets = new int[offsets[n]];
+    float[] weights = new float[offsets[n]];
+    for (int i = 0; i < n; i++) {
+      for (Edge e : vertices[i].getOutgoing()) {
+        int j = LandmarkIndex.row(rowByVertexIndex, vertices, e.getToVertex());
+        if (j < 0) {
+          continue;
+        }
+        double d = mode.lowerBoundDistance(e);
+        if (Double.isNaN(d)) {
+          continue;
+        }
+        int from = reverse ? j : i;
+        int p = pos[from]++;
+        targets[p] = reverse ? i : j;
+        weights[p] = (float) Math.max(0.0, d);
+      }
+    }
+    return new Adjacency(offsets, targets, weights);
+  }
+
+  /**
+   * The vertex closest to the mean coordinate of all vertices with at least one traversable
+   * edge, or -1 if there are no such vertices.
+   */
+  private int seedVertex(Adjacency adjacency) {
+    double lat = 0;
+    double lon = 0;
+    int count = 0;
+    for (int i = 0; i < vertices.length; i++) {
+      if (adjacency.degree(i) > 0) {
+        lat += vertices[i].getLat();
+        lon += vertices[i].getLon();
+        ++count;
+      }
+    }
+    if (count == 0) {
+      return -1;
+    }
+    lat /= count;
+    lon /= count;
+    int best = -1;
+    double bestDist = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < vertices.length; i++) {
+      if (adjacency.degree(i) > 0) {
+        double dLat = vertices[i].getLat() - lat;
+        double dLon = vertices[i].getLon() - lon;
+        double d = dLat * dLat + dLon * dLon;
+        if (d < bestDist) {
+          bestDist = d;
+          best = i;
+        }
+      }
+    }
+    return best;
+  }
+
+  private double minSafetyRatio(LandmarkMode mode) {
+    double min = 1.0;
+    for (Vertex v : vertices) {
+      for (Edge e : v.getOutgoing()) {
+        if (e instanceof StreetEdge se) {
+          double ratio = mode.safetyRatio(se, mode.lowerBoundDistance(se));
+          if (ratio < min) {
+            min = ratio;
+          }
+        }
+      }
+    }
+    return min;
+  }
+
+  /**
+   * The bicycle "safest streets" optimization uses the raw safety factor, and discounts the
+   * safest streets by a third.
+   */
+  private double minSafestRatio() {
+    double min = 1.0;
+    for (Vertex v : vertices) {
+      for (Edge e : v.getOutgoing()) {
+        if (e instanceof StreetEdge se) {
+          double lb = LandmarkMode.BICYCLE.lowerBoundDistance(se);
+          if (!(lb > 0.0)) {
+            continue;
+          }
+          double factor = se.getBicycleSafetyFactor();
+          double weight = factor * se.getDistanceMeters();
+          if (factor <= StreetEdge.SAFEST_STREETS_SAFETY_FACTOR) {
+            weight *= 0.66;
+          }
+          min = Math.min(min, weight / lb);
+        }
+      }
+    }
+    return min;
+  }
+
+  /** Index of the vertex with the largest finite distance, or -1 if all are zero or infinite. */
+  private static int farthest(float[] dist) {
+    int best = -1;
+    float bestDist = 0f;
+    for (int i = 0; i < dist.length; i++) {
+      if (dist[i] > bestDist && dist[i] != Float.POSITIVE_INFINITY) {
+        bestDist = dist[i];
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Round all distances down to a multiple of a quantum chosen so that the longest distance fits
+   * in 16 bits.
+   * @return the quantum in meters
+   */
+  private static float quantize(float[] dist, short[] column) {
+    float max = 0f;
+    for (float d : dist) {
+      if (d != Float.POSITIVE_INFINITY) {
+        max = Math.max(max, d);
+      }
+    }
+    float quantum = max > 0f ? max / LandmarkTable.MAX_VALUE : 1f;
+    for (int i = 0; i < dist.length; i++) {
+      int value = dist[i] == Float.POSITIVE_INFINITY
+        ? LandmarkTable.UNREACHABLE
+        : Math.min(LandmarkTable.MAX_VALUE, (int) Math.floor(dist[i] / quantum));
+      column[i] = (short) value;
+    }
+    return quantum;
+  }
+
+  private static short[] interleave(short[][] columns, int k, int n) {
+    short[] result = new short[n * k];
+    for (int l = 0; l < k; l++) {
+      short[] column = columns[l];
+      for (int v = 0; v < n; v++) {
+        result[v * k + l] = column[v];
+      }
+    }
+    return result;
+  }
+
+  private record Adjacency(int[] offsets, int[] targets, float[] weights) {
+    int degree(int v) {
+      return offsets[v + 1] - offsets[v];
+    }
+  }
+
+  /** One-to-all Dijkstra over an {@link Adjacency}. Not thread-safe, use one per thread. */
+  private static final class Dijkstra {
+
+    private final int n;
+    private final IntFloatHeap heap;
+
+    Dijkstra(int n) {
+      this.n = n;
+      this.heap = new IntFloatHeap(1024);
+    }
+
+    float[] run(Adjacency adjacency, int source) {
+      float[] dist = new float[n];
+      Arrays.fill(dist, Float.POSITIVE_INFINITY);
+      dist[source] = 0f;
+      heap.clear();
+      heap.insert(source, 0f);
+      while (!heap.isEmpty()) {
+        float d = heap.peekPriority();
+        int v = heap.poll();
+        if (d > dist[v]) {
+          continue;
+        }
+        for (int p = adjacency.offsets[v]; p < adjacency.offsets[v + 1]; p++) {
+          int w = adjacency.targets[p];
+          float nd = d + adjacency.weights[p];
+          if (nd < dist[w]) {
+            dist[w] = nd;
+            heap.insert(w, nd);
+          }
+        }
+      }
+      return dist;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.opentripplanner.street.search.landmark;
+
+import java.util.Optional;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.search.TraverseMode;
+
+/**
+ * The mode classes landmark distances are precomputed for. Each class is a superset of the edges
+ * a search in the corresponding {@link StreetMode} is able to traverse, so that distances in the
+ * landmark graph are never longer than in the graph the search actually sees.
+ */
+public enum LandmarkMode {
+  WALK,
+  BICYCLE,
+  CAR;
+
+  /**
+   * Only searches that stay in one mode class the whole way can use landmarks. Mixed modes,
+   * like park-and-ride or rental, leave the mode class graph half-way.
+   */
+  public static Optional<LandmarkMode> of(StreetMode mode) {
+    return switch (mode) {
+      case WALK -> Optional.of(WALK);
+      case BIKE -> Optional.of(BICYCLE);
+      case CAR -> Optional.of(CAR);
+      default -> Optional.empty();
+    };
+  }
+
+  /**
+   * A lower bound on the distance in meters used in the cost function when traversing the edge in
+   * this mode class. Returns {@code NaN} if the edge can not be traversed.
+   * <p>
+   * The cost of non-street edges (links, elevators, pathways, ...) depends on the state, so they
+   * are always included with a zero distance.
+   */
+  double lowerBoundDistance(Edge edge) {
+    if (!(edge instanceof StreetEdge se)) {
+      return 0.0;
+    }
+    return switch (this) {
+      case WALK -> se.canTraverse(TraverseMode.WALK)
+        ? min(se.getDistanceMeters(), se.getEffectiveWalkDistance(), se.getEffectiveBikeDistance())
+        : Double.NaN;
+      case BICYCLE -> se.canTraverse(TraverseMode.BICYCLE) || se.canTraverse(TraverseMode.WALK)
+        ? min(
+            se.getDistanceMeters(),
+            se.getEffectiveBikeDistance(),
+            se.getEffectiveBikeDistanceForWorkCost()
+          )
+        : Double.NaN;
+      case CAR -> se.canTraverse(TraverseMode.CAR) ? se.getDistanceMeters() : Double.NaN;
+    };
+  }
+
+  /**
+   * The ratio between the safety weighted distance and the {@link #lowerBoundDistance(Edge)} for
+   * the given edge, or {@code NaN} if it does not apply.
+   */
+  double safetyRatio(StreetEdge edge, double lowerBoundDistance) {
+    if (lowerBoundDistance <= 0.0) {
+      return Double.NaN;
+    }
+    return switch (this) {
+      case WALK -> edge.getEffectiveWalkSafetyDistance() / lowerBoundDistance;
+      case BICYCLE -> edge.getEffectiveBicycleSafetyDistance() / lowerBoundDistance;
+      case CAR -> Double.NaN;
+    };
+  }
+
+  private static double min(double a, double b, double c) {
+    return Math.min(a, Math.min(b, c));
+  }
+}
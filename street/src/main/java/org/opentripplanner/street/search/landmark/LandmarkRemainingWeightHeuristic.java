@@ -0,0 +1,244 @@
+package org.opentripplanner.street.search.landmark;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.street.model.StreetConstants;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * A remaining weight heuristic based on precomputed distances to and from a set of landmarks
+ * (A*, Landmarks and the Triangle inequality - ALT). For a vertex {@code v}, a target {@code t}
+ * and a landmark {@code L}, the triangle inequality gives the two lower bounds
+ * {@code d(v,t) >= d(L,t) - d(L,v)} and {@code d(v,t) >= d(v,L) - d(t,L)}. The best bound over
+ * all landmarks is usually much tighter than the straight-line distance, in particular in graphs
+ * with rivers, motorways and other barriers.
+ * <p>
+ * The landmark distances are lower bounds in meters, so they are converted to weight using the
+ * smallest weight per meter any street can have with the preferences of the request. This keeps
+ * the heuristic admissible for all reluctance, speed and safety settings. The heuristic never
+ * returns less than the {@link EuclideanRemainingWeightHeuristic}, and falls back to it for
+ * street modes without landmarks and for vertices that are not part of the index.
+ */
+public class LandmarkRemainingWeightHeuristic implements RemainingWeightHeuristic<State> {
+
+  /** Limit on the number of temporary vertices explored around the destination. */
+  private static final int MAX_TEMPORARY_VERTICES = 1000;
+
+  private final LandmarkIndex index;
+  private final EuclideanRemainingWeightHeuristic euclidean;
+  private final float maxCarSpeed;
+
+  /** Null if landmarks can not be used for the current search. */
+  private LandmarkTable table;
+  private boolean arriveBy;
+  private double weightPerMeter;
+
+  /**
+   * Lower and upper bounds in meters of the distances from each landmark to the destination, and
+   * from the destination to each landmark. NaN if the destination is not reachable.
+   */
+  private double[] fromLandmarkLow;
+  private double[] fromLandmarkHigh;
+  private double[] toLandmarkLow;
+  private double[] toLandmarkHigh;
+
+  public LandmarkRemainingWeightHeuristic(LandmarkIndex index, Float maxCarSpeed) {
+    this.index = index;
+    this.maxCarSpeed = maxCarSpeed != null ? maxCarSpeed : StreetConstants.DEFAULT_MAX_CAR_SPEED;
+    this.euclidean = new EuclideanRemainingWeightHeuristic(this.maxCarSpeed);
+  }
+
+  /** Create a new, uninitialized heuristic using the same landmarks. */
+  public LandmarkRemainingWeightHeuristic copy() {
+    return new LandmarkRemainingWeightHeuristic(index, maxCarSpeed);
+  }
+
+  public void initialize(Set<Vertex> toVertices, boolean arriveBy, StreetSearchRequest req) {
+    euclidean.initialize(toVertices, arriveBy, req);
+    this.arriveBy = arriveBy;
+    this.table = null;
+
+    var mode = LandmarkMode.of(req.mode()).orElse(null);
+    var modeTable = mode == null ? null : index.table(mode);
+    if (modeTable == null) {
+      return;
+    }
+    int[] targets = indexedTargets(toVertices, arriveBy);
+    if (targets.length == 0) {
+      return;
+    }
+    this.weightPerMeter = weightPerMeter(mode, modeTable, req);
+    if (!(weightPerMeter > 0.0) || Double.isInfinite(weightPerMeter)) {
+      return;
+    }
+    int k = modeTable.nLandmarks();
+    fromLandmarkLow = new double[k];
+    fromLandmarkHigh = new double[k];
+    toLandmarkLow = new double[k];
+    toLandmarkHigh = new double[k];
+    for (int l = 0; l < k; l++) {
+      aggregate(targets, modeTable, l, true, fromLandmarkLow, fromLandmarkHigh);
+      aggregate(targets, modeTable, l, false, toLandmarkLow, toLandmarkHigh);
+    }
+    this.table = modeTable;
+  }
+
+  @Override
+  public double estimateRemainingWeight(State s) {
+    double estimate = euclidean.estimateRemainingWeight(s);
+    if (table == null) {
+      return estimate;
+    }
+    int v = index.indexOf(s.getVertex());
+    if (v < 0) {
+      return estimate;
+    }
+    double best = 0.0;
+    int k = table.nLandmarks();
+    for (int l = 0; l < k; l++) {
+      int from = table.fromLandmark(v, l);
+      int to = table.toLandmark(v, l);
+      double fq = table.fromQuantum(l);
+      double tq = table.toQuantum(l);
+      if (arriveBy) {
+        // Remaining distance is d(target, v)
+        if (from != LandmarkTable.UNREACHABLE && !Double.isNaN(fromLandmarkHigh[l])) {
+          best = Math.max(best, from * fq - fromLandmarkHigh[l]);
+        }
+        if (to != LandmarkTable.UNREACHABLE && !Double.isNaN(toLandmarkLow[l])) {
+          best = Math.max(best, toLandmarkLow[l] - (to + 1) * tq);
+        }
+      } else {
+        // Remaining distance is d(v, target)
+        if (from != LandmarkTable.UNREACHABLE && !Double.isNaN(fromLandmarkLow[l])) {
+          best = Math.max(best, fromLandmarkLow[l] - (from + 1) * fq);
+        }
+        if (to != LandmarkTable.UNREACHABLE && !Double.isNaN(toLandmarkHigh[l])) {
+          best = Math.max(best, to * tq - toLandmarkHigh[l]);
+        }
+      }
+    }
+    return Math.max(estimate, best * weightPerMeter);
+  }
+
+  /**
+   * The smallest weight per meter of lower bound distance for any edge in the mode class, given
+   * the preferences of the request. Turn costs, slope and no-thru-traffic penalties only add
+   * weight, so they are ignored.
+   */
+  private double weightPerMeter(LandmarkMode mode, LandmarkTable table, StreetSearchRequest req) {
+    var walk = req.walk();
+    double stairsTime = Math.min(1.0, walk.stairsTimeFactor());
+    return switch (mode) {
+      case WALK -> {
+        if (req.wheelchairEnabled()) {
+          var wheelchair = req.wheelchair();
+          yield (
+            (walk.reluctance() *
+              Math.min(1.0, wheelchair.inaccessibleStreetReluctance()) *
+              Math.min(1.0, wheelchair.stairsReluctance()) *
+              stairsTime) /
+            walk.speed()
+          );
+        }
+        double safety = walk.safetyFactor();
+        double factor = safety * table.safetyRatio() + (1 - safety);
+        yield (
+          (factor * walk.reluctance() * Math.min(1.0, walk.stairsReluctance()) * stairsTime) /
+          walk.speed()
+        );
+      }
+      case BICYCLE -> {
+        var bike = req.bike();
+        double factor = switch (bike.optimizeType()) {
+          case SAFEST_STREETS -> table.safestRatio();
+          case SAFE_STREETS -> table.safetyRatio();
+          case TRIANGLE -> {
+            var triangle = bike.optimizeTriangle();
+            yield triangle.time() + triangle.slope() + triangle.safety() * table.safetyRatio();
+          }
+          default -> 1.0;
+        };
+        double cycling = (factor * bike.reluctance() * stairsTime) / bike.speed();
+        var walking = bike.walking();
+        double walkingBike =
+          (walking.reluctance() * Math.min(1.0, walking.stairsReluctance()) * stairsTime) /
+          walking.speed();
+        yield Math.min(cycling, walkingBike);
+      }
+      case CAR -> (req.car().reluctance() * stairsTime) / maxCarSpeed;
+    };
+  }
+
+  /**
+   * Find the indexed vertices closest to the destination. Temporary vertices are not part of the
+   * index, so we explore the graph from the destination, against the search direction, until we
+   * reach indexed vertices. Every path to the destination has to pass through one of them, so the
+   * distance to the closest one is a lower bound on the distance to the destination.
+   *
+   * @return an empty array if the indexed vertices could not be determined.
+   */
+  private int[] indexedTargets(Set<Vertex> toVertices, boolean arriveBy) {
+    var result = new HashSet<Integer>();
+    var visited = Collections.newSetFromMap(new IdentityHashMap<Vertex, Boolean>());
+    var queue = new ArrayDeque<Vertex>(toVertices);
+    visited.addAll(toVertices);
+    int explored = 0;
+    while (!queue.isEmpty()) {
+      Vertex v = queue.poll();
+      int i = index.indexOf(v);
+      if (i >= 0) {
+        result.add(i);
+        continue;
+      }
+      if (++explored > MAX_TEMPORARY_VERTICES) {
+        return new int[0];
+      }
+      for (Edge e : arriveBy ? v.getOutgoing() : v.getIncoming()) {
+        Vertex next = arriveBy ? e.getToVertex() : e.getFromVertex();
+        if (visited.add(next)) {
+          queue.add(next);
+        }
+      }
+    }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Compute the lower and upper bound of the distances between landmark {@code l} and the set of
+   * targets. The lower bound is the minimum over all targets, the upper bound the maximum. Both are
+   * NaN if any of the targets is unreachable.
+   */
+  private static void aggregate(
+    int[] targets,
+    LandmarkTable table,
+    int l,
+    boolean fromLandmark,
+    double[] low,
+    double[] high
+  ) {
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int t : targets) {
+      int value = fromLandmark ? table.fromLandmark(t, l) : table.toLandmark(t, l);
+      if (value == LandmarkTable.UNREACHABLE) {
+        low[l] = Double.NaN;
+        high[l] = Double.NaN;
+        return;
+      }
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    double quantum = fromLandmark ? table.fromQuantum(l) : table.toQuantum(l);
+    low[l] = min * quantum;
+    high[l] = (max + 1) * quantum;
+  }
+}
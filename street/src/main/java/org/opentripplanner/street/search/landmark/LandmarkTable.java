@@ -0,0 +1,101 @@
+package org.opentripplanner.street.search.landmark;
+
+import java.io.Serializable;
+
+/**
+ * Quantized shortest path distances between all vertices and a small set of landmarks for one
+ * {@link LandmarkMode}. The distances are stored as unsigned 16-bit values, row-major on vertex, so
+ * all landmarks of a vertex are next to each other in memory. Each landmark has its own quantum
+ * (meters per unit), so that the longest distance from/to the landmark fits into 16 bits.
+ * <p>
+ * Stored values are rounded down, so {@code value * quantum} is a lower bound and
+ * {@code (value + 1) * quantum} is an upper bound on the real distance.
+ */
+final class LandmarkTable implements Serializable {
+
+  static final int UNREACHABLE = 0xFFFF;
+  static final int MAX_VALUE = UNREACHABLE - 1;
+
+  private final int nLandmarks;
+
+  /** Vertex index of each landmark. */
+  private final int[] landmarks;
+
+  /** Distance from landmark to vertex, {@code [vertex * nLandmarks + landmark]}. */
+  private final short[] fromLandmark;
+
+  /** Distance from vertex to landmark, {@code [vertex * nLandmarks + landmark]}. */
+  private final short[] toLandmark;
+
+  private final float[] fromQuantum;
+  private final float[] toQuantum;
+
+  /**
+   * The smallest ratio between the safety weighted distance and the lower bound distance for any
+   * edge in this mode class, capped at 1.0.
+   */
+  private final float safetyRatio;
+
+  /**
+   * Same as {@link #safetyRatio}, but for the bicycle "safest streets" optimization, which
+   * discounts the safest streets even further.
+   */
+  private final float safestRatio;
+
+  LandmarkTable(
+    int[] landmarks,
+    short[] fromLandmark,
+    short[] toLandmark,
+    float[] fromQuantum,
+    float[] toQuantum,
+    float safetyRatio,
+    float safestRatio
+  ) {
+    this.nLandmarks = landmarks.length;
+    this.landmarks = landmarks;
+    this.fromLandmark = fromLandmark;
+    this.toLandmark = toLandmark;
+    this.fromQuantum = fromQuantum;
+    this.toQuantum = toQuantum;
+    this.safetyRatio = safetyRatio;
+    this.safestRatio = safestRatio;
+  }
+
+  int nLandmarks() {
+    return nLandmarks;
+  }
+
+  int landmarkVertex(int landmark) {
+    return landmarks[landmark];
+  }
+
+  /** The raw quantized distance from the landmark to the vertex, or {@link #UNREACHABLE}. */
+  int fromLandmark(int vertex, int landmark) {
+    return Short.toUnsignedInt(fromLandmark[vertex * nLandmarks + landmark]);
+  }
+
+  /** The raw quantized distance from the vertex to the landmark, or {@link #UNREACHABLE}. */
+  int toLandmark(int vertex, int landmark) {
+    return Short.toUnsignedInt(toLandmark[vertex * nLandmarks + landmark]);
+  }
+
+  float fromQuantum(int landmark) {
+    return fromQuantum[landmark];
+  }
+
+  float toQuantum(int landmark) {
+    return toQuantum[landmark];
+  }
+
+  float safetyRatio() {
+    return safetyRatio;
+  }
+
+  float safestRatio() {
+    return safestRatio;
+  }
+
+  long sizeInBytes() {
+    return 2L * (fromLandmark.length + toLandmark.length);
+  }
+}
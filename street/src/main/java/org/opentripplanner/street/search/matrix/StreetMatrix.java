@@ -0,0 +1,108 @@
+package org.opentripplanner.street.search.matrix;
+
+import javax.annotation.Nullable;
+import org.opentripplanner.street.search.state.State;
+
+/**
+ * The result of a {@link StreetMatrixSearch}: the targets reached from each source, with the
+ * duration, distance and weight of the path. The entries are stored in primitive arrays, grouped
+ * by source. The entries of a source are in the order the targets were reached, that is by
+ * increasing weight.
+ * <p>
+ * Sources and targets are referred to by their position in the lists given to the search.
+ */
+public class StreetMatrix {
+
+  public static final int UNREACHED = -1;
+
+  private final int[] sourceStart;
+  private final int[] targets;
+  private final int[] durations;
+  private final double[] distances;
+  private final double[] weights;
+
+  @Nullable
+  private final State[] states;
+
+  StreetMatrix(
+    int[] sourceStart,
+    int[] targets,
+    int[] durations,
+    double[] distances,
+    double[] weights,
+    @Nullable State[] states
+  ) {
+    this.sourceStart = sourceStart;
+    this.targets = targets;
+    this.durations = durations;
+    this.distances = distances;
+    this.weights = weights;
+    this.states = states;
+  }
+
+  public int nSources() {
+    return sourceStart.length - 1;
+  }
+
+  /** The total number of entries of all sources. */
+  public int size() {
+    return targets.length;
+  }
+
+  /** The first entry of the source. */
+  public int start(int source) {
+    return sourceStart[source];
+  }
+
+  /** The entry after the last entry of the source. */
+  public int end(int source) {
+    return sourceStart[source + 1];
+  }
+
+  public int target(int entry) {
+    return targets[entry];
+  }
+
+  public int durationSeconds(int entry) {
+    return durations[entry];
+  }
+
+  /** The sum of the distance of the edges of the path. */
+  public double distanceMeters(int entry) {
+    return distances[entry];
+  }
+
+  public double weight(int entry) {
+    return weights[entry];
+  }
+
+  /**
+   * The state at the end of the path, which the path can be read from. This is null unless the
+   * search was told to keep the states.
+   */
+  @Nullable
+  public State state(int entry) {
+    return states == null ? null : states[entry];
+  }
+
+  /** Return the entry of the target for the source, or {@link #UNREACHED}. */
+  public int entry(int source, int target) {
+    for (int entry = start(source); entry < end(source); entry++) {
+      if (targets[entry] == target) {
+        return entry;
+      }
+    }
+    return UNREACHED;
+  }
+
+  /** Return the duration from the source to the target, or {@link #UNREACHED}. */
+  public int durationSeconds(int source, int target) {
+    int entry = entry(source, target);
+    return entry == UNREACHED ? UNREACHED : durations[entry];
+  }
+
+  @Override
+  public String toString() {
+    return "StreetMatrix{" + nSources() + " sources, " + size() + " entries}";
+  }
+}
@@ -0,0 +1,298 @@
+package org.opentripplanner.street.search.matrix;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import org.opentripplanner.astar.model.HeapType;
+import org.opentripplanner.astar.spi.SearchTerminationStrategy;
+import org.opentripplanner.astar.strategy.DurationSkipEdgeStrategy;
+import org.opentripplanner.street.model.edge.StreetEdgeCostCache;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+
+/**
+ * A bounded many-to-many street search. The paths from each source to all targets within the max
+ * duration are found, and returned in a {@link StreetMatrix} of primitive arrays. This is meant for
+ * callers doing many street searches with the same request in the same area, like transfer
+ * generation.
+ * <p>
+ * The work which does not depend on the source is done once for all sources. The edge costs of
+ * the street profile of the request are precomputed in a cost table before the first source is
+ * searched, and the targets are looked up by vertex index in a primitive array. The sources are
+ * sorted by vertex index, which follows the spatial order of the graph, and split in batches of
+ * neighbouring sources. The batches are searched in parallel. Each batch collects its results in
+ * buffers of its own, which are merged without locks when all batches are done.
+ * <p>
+ * Each source is searched with the full costs of the request, including the turn costs, so the
+ * paths are the same as the ones of a single street search. Sharing the search space between the
+ * sources would need a contraction hierarchy of the street profile, and the only hierarchy in the
+ * graph is the car hierarchy.
+ * <p>
+ * For an arrive-by request the searches run backwards, and the entries of a source are the paths
+ * from the targets to the source.
+ */
+public class StreetMatrixSearch {
+
+  /** The number of neighbouring sources searched one after the other by the same worker. */
+  private static final int BATCH_SIZE = 64;
+
+  private final StreetSearchRequest request;
+  private final Duration maxDuration;
+  private final int nTargets;
+  private final boolean keepStates;
+
+  /** The position of each target in the list of targets by vertex index, -1 if not a target. */
+  private final int[] targetByVertexIndex;
+
+  private StreetMatrixSearch(Builder builder) {
+    this.request = builder.effectiveRequest();
+    this.maxDuration = builder.maxDuration;
+    this.nTargets = builder.targets.size();
+    this.keepStates = builder.keepStates;
+    this.targetByVertexIndex = targetByVertexIndex(builder.targets);
+  }
+
+  /**
+   * @param request the request of all searches, the arrive-by flag sets the search direction
+   * @param maxDuration the searches are not continued from states further away from the source, so
+   *                    the last edge to a target must start within the max duration
+   */
+  public static Builder of(StreetSearchRequest request, Duration maxDuration) {
+    return new Builder(request, maxDuration);
+  }
+
+  /** Find the paths from each of the sources to the targets. */
+  public StreetMatrix search(List<? extends Vertex> sources) {
+    int[] order = IntStream.range(0, sources.size())
+      .boxed()
+      .sorted(Comparator.comparingInt(i -> sources.get(i).getIndex()))
+      .mapToInt(Integer::intValue)
+      .toArray();
+    int nBatches = (order.length + BATCH_SIZE - 1) / BATCH_SIZE;
+
+    List<Batch> batches = IntStream.range(0, nBatches)
+      .parallel()
+      .mapToObj(b -> {
+        var batch = new Batch();
+        for (int i = b * BATCH_SIZE; i < Math.min(order.length, (b + 1) * BATCH_SIZE); i++) {
+          search(order[i], sources.get(order[i]), batch);
+        }
+        return batch;
+      })
+      .toList();
+
+    return merge(sources.size(), batches);
+  }
+
+  private void search(int source, Vertex vertex, Batch batch) {
+    var search = StreetSearchBuilder.of()
+      .withSkipEdgeStrategy(new DurationSkipEdgeStrategy<>(maxDuration))
+      .withDominanceFunction(new DominanceFunctions.MinimumWeight())
+      // There is no heuristic, so the keys of the queue are monotone and the radix heap can be used
+      .withHeapType(HeapType.RADIX)
+      .withTerminationStrategy(new TargetCollector(source, batch))
+      .withRequest(request)
+      .withArriveBy(request.arriveBy());
+    if (request.arriveBy()) {
+      search.withTo(vertex);
+    } else {
+      search.withFrom(vertex);
+    }
+    search.getShortestPathTree();
+  }
+
+  /**
+   * Merge the entries of the batches into one matrix. The entries of a source are all in the same
+   * batch, and their order is kept.
+   */
+  private StreetMatrix merge(int nSources, List<Batch> batches) {
+    int[] sourceStart = new int[nSources + 1];
+    for (Batch batch : batches) {
+      for (int i = 0; i < batch.sources.size(); i++) {
+        sourceStart[batch.sources.get(i) + 1]++;
+      }
+    }
+    for (int s = 0; s < nSources; s++) {
+      sourceStart[s + 1] += sourceStart[s];
+    }
+
+    int size = sourceStart[nSources];
+    int[] next = Arrays.copyOf(sourceStart, nSources);
+    int[] targets = new int[size];
+    int[] durations = new int[size];
+    double[] distances = new double[size];
+    double[] weights = new double[size];
+    State[] states = keepStates ? new State[size] : null;
+
+    for (Batch batch : batches) {
+      for (int i = 0; i < batch.sources.size(); i++) {
+        int entry = next[batch.sources.get(i)]++;
+        targets[entry] = batch.targets.get(i);
+        durations[entry] = batch.durations.get(i);
+        distances[entry] = batch.distances.get(i);
+        weights[entry] = batch.weights.get(i);
+        if (states != null) {
+          states[entry] = batch.states.get(i);
+        }
+      }
+    }
+    return new StreetMatrix(sourceStart, targets, durations, distances, weights, states);
+  }
+
+  private static int[] targetByVertexIndex(Collection<? extends Vertex> targets) {
+    int maxIndex = -1;
+    for (Vertex target : targets) {
+      if (target.getIndex() < 0) {
+        throw new IllegalArgumentException("The target is not indexed: " + target);
+      }
+      maxIndex = Math.max(maxIndex, target.getIndex());
+    }
+    int[] result = new int[maxIndex + 1];
+    Arrays.fill(result, -1);
+    int t = 0;
+    for (Vertex target : targets) {
+      if (result[target.getIndex()] != -1) {
+        throw new IllegalArgumentException("The target is given more than once: " + target);
+      }
+      result[target.getIndex()] = t++;
+    }
+    return result;
+  }
+
+  private static double distanceMeters(State state) {
+    double distance = 0;
+    for (State s = state; s.getBackState() != null; s = s.getBackState()) {
+      distance += s.getBackEdge().getDistanceMeters();
+    }
+    return distance;
+  }
+
+  /**
+   * The entries found by the searches of one batch of sources, in the order they are found. The
+   * buffers are only used by the worker searching the batch.
+   */
+  private class Batch {
+
+    private final TIntArrayList sources = new TIntArrayList();
+    private final TIntArrayList targets = new TIntArrayList();
+    private final TIntArrayList durations = new TIntArrayList();
+    private final TDoubleArrayList distances = new TDoubleArrayList();
+    private final TDoubleArrayList weights = new TDoubleArrayList();
+    private final List<State> states = new ArrayList<>();
+
+    /** The last source which reached each target, reused by all searches of the batch. */
+    private final int[] reachedBy = new int[nTargets];
+
+    private Batch() {
+      Arrays.fill(reachedBy, -1);
+    }
+
+    private void add(int source, int target, State state) {
+      sources.add(source);
+      targets.add(target);
+      durations.add((int) state.getElapsedTimeSeconds());
+      distances.add(distanceMeters(state));
+      weights.add(state.getWeight());
+      if (keepStates) {
+        states.add(state);
+      }
+    }
+  }
+
+  /**
+   * Add the targets to the batch as the search reaches them, and terminate the search when all
+   * targets are reached. The states are visited in order of increasing weight, so the first final
+   * state at a target is the best one.
+   */
+  private class TargetCollector implements SearchTerminationStrategy<State> {
+
+    private final int source;
+    private final Batch batch;
+    private int nReached = 0;
+
+    private TargetCollector(int source, Batch batch) {
+      this.source = source;
+      this.batch = batch;
+    }
+
+    @Override
+    public boolean shouldSearchTerminate(State current) {
+      int index = current.getVertex().getIndex();
+      if (
+        index < 0 ||
+        index >= targetByVertexIndex.length ||
+        targetByVertexIndex[index] < 0 ||
+        !current.isFinal()
+      ) {
+        return false;
+      }
+      int target = targetByVertexIndex[index];
+      if (batch.reachedBy[target] == source) {
+        return false;
+      }
+      batch.reachedBy[target] = source;
+      batch.add(source, target, current);
+      return ++nReached == nTargets;
+    }
+  }
+
+  public static class Builder {
+
+    private final StreetSearchRequest request;
+    private final Duration maxDuration;
+    private Collection<? extends Vertex> targets = List.of();
+    private StreetEdgeCostCache edgeCostCache;
+    private boolean keepStates = false;
+
+    private Builder(StreetSearchRequest request, Duration maxDuration) {
+      this.request = Objects.requireNonNull(request);
+      this.maxDuration = Objects.requireNonNull(maxDuration);
+    }
+
+    /** The distinct target vertices, all targets must be indexed by the graph. */
+    public Builder withTargets(Collection<? extends Vertex> targets) {
+      this.targets = targets;
+      return this;
+    }
+
+    /**
+     * Precompute the edge costs of the request in the cache before searching, if the request can
+     * use precomputed edge costs.
+     */
+    public Builder withEdgeCostCache(@Nullable StreetEdgeCostCache edgeCostCache) {
+      this.edgeCostCache = edgeCostCache;
+      return this;
+    }
+
+    /** Keep the state at the end of each path in the matrix, so that the path can be read. */
+    public Builder withStates(boolean keepStates) {
+      this.keepStates = keepStates;
+      return this;
+    }
+
+    public StreetMatrixSearch build() {
+      return new StreetMatrixSearch(this);
+    }
+
+    private StreetSearchRequest effectiveRequest() {
+      if (edgeCostCache == null) {
+        return request;
+      }
+      edgeCostCache.initForRequest(request);
+      return StreetSearchRequest.copyOf(request)
+        .withEdgeCostTable(edgeCostCache.get(request))
+        .build();
+    }
+  }
+}
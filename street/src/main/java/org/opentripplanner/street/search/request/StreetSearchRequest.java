@@ -12,6 +12,8 @@ import org.locationtech.jts.geom.Envelope;
 import org.opentripplanner.astar.spi.AStarRequest;
 import org.opentripplanner.street.model.StreetMode;
 import org.opentripplanner.street.model.edge.ExtensionRequestContext;
+import org.opentripplanner.street.model.edge.StreetEdgeCostProfile;
+import org.opentripplanner.street.model.edge.StreetEdgeCostTable;
 import org.opentripplanner.street.model.vertex.Vertex;
 import org.opentripplanner.street.search.TraverseMode;
 import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
@@ -51,6 +53,13 @@ public class StreetSearchRequest implements AStarRequest {
   @Nullable
   private final RentalPeriod rentalPeriod;
 
+  @Nullable
+  private final StreetEdgeCostTable edgeCostTable;
+
+  /** Computed when first used, empty if the request has no profile. */
+  @Nullable
+  private Optional<StreetEdgeCostProfile> edgeCostProfile;
+
   /**
    * Constructor only used for creating a default instance.
    */
@@ -70,6 +79,7 @@ public class StreetSearchRequest implements AStarRequest {
     this.wheelchairRequest = WheelchairRequest.DEFAULT;
     this.elevator = ElevatorRequest.DEFAULT;
     this.rentalPeriod = null;
+    this.edgeCostTable = null;
     this.intersectionTraversalCalculator = IntersectionTraversalCalculator.DEFAULT;
     this.extensionRequestContexts = List.of();
     this.timeout = Duration.ofSeconds(5);
@@ -94,6 +104,10 @@ public class StreetSearchRequest implements AStarRequest {
     this.intersectionTraversalCalculator = requireNonNull(builder.intersectionTraversalCalculator);
     this.extensionRequestContexts = List.copyOf(requireNonNull(builder.extensionRequestContexts));
     this.timeout = requireNonNull(builder.timeout);
+    // Drop the table if the builder changed a parameter used by the edge costs
+    this.edgeCostTable = builder.edgeCostTable != null && builder.edgeCostTable.matches(this)
+      ? builder.edgeCostTable
+      : null;
   }
 
   public static StreetSearchRequestBuilder of() {
@@ -166,6 +180,26 @@ public class StreetSearchRequest implements AStarRequest {
     return rentalPeriod;
   }
 
+  /**
+   * The precomputed edge costs for the street profile of this request, if they are available.
+   */
+  @Nullable
+  public StreetEdgeCostTable edgeCostTable() {
+    return edgeCostTable;
+  }
+
+  /**
+   * The street profile the edge costs of this request depend on, or null if the request can not
+   * use precomputed edge costs.
+   */
+  @Nullable
+  public StreetEdgeCostProfile edgeCostProfile() {
+    if (edgeCostProfile == null) {
+      edgeCostProfile = Optional.ofNullable(StreetEdgeCostProfile.of(this));
+    }
+    return edgeCostProfile.orElse(null);
+  }
+
   public IntersectionTraversalCalculator intersectionTraversalCalculator() {
     return intersectionTraversalCalculator;
   }
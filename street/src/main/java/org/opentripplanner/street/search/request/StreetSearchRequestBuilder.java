@@ -8,6 +8,7 @@ import javax.annotation.Nullable;
 import org.locationtech.jts.geom.Envelope;
 import org.opentripplanner.street.model.StreetMode;
 import org.opentripplanner.street.model.edge.ExtensionRequestContext;
+import org.opentripplanner.street.model.edge.StreetEdgeCostTable;
 import org.opentripplanner.street.search.intersection_model.IntersectionTraversalCalculator;
 
 public class StreetSearchRequestBuilder {
@@ -30,6 +31,9 @@ public class StreetSearchRequestBuilder {
   @Nullable
   RentalPeriod rentalPeriod;
 
+  @Nullable
+  StreetEdgeCostTable edgeCostTable;
+
   IntersectionTraversalCalculator intersectionTraversalCalculator;
   Collection<ExtensionRequestContext> extensionRequestContexts;
   Duration timeout;
@@ -50,6 +54,7 @@ public class StreetSearchRequestBuilder {
     this.wheelchair = original.wheelchair();
     this.elevator = original.elevator();
     this.rentalPeriod = original.rentalPeriod();
+    this.edgeCostTable = original.edgeCostTable();
     this.intersectionTraversalCalculator = original.intersectionTraversalCalculator();
     this.extensionRequestContexts = original.listExtensionRequestContexts();
     this.timeout = original.timeout();
@@ -137,6 +142,14 @@ public class StreetSearchRequestBuilder {
     return this;
   }
 
+  /**
+   * Use precomputed edge costs. The table is ignored if it was built for another street profile.
+   */
+  public StreetSearchRequestBuilder withEdgeCostTable(@Nullable StreetEdgeCostTable table) {
+    this.edgeCostTable = table;
+    return this;
+  }
+
   public StreetSearchRequestBuilder withIntersectionTraversalCalculator(
     IntersectionTraversalCalculator ic
   ) {
@@ -158,6 +158,32 @@ public class State implements AStarState<State, Edge, Vertex>, Cloneable {
     return new StateEditor(this, e);
   }
 
+  /**
+   * Create the child of this state after traversing the given edge, when only the time, weight and
+   * walk distance change. This gives the same result as incrementing these values using
+   * {@link #edit(Edge)}, but does not allocate a {@link StateEditor} and shares the
+   * {@link StateData} with this state. It is used for the most common street traversals, walking
+   * and cycling without renting or car pickup.
+   * <p>
+   * The caller must make sure that the increments are finite and non-negative, they are not
+   * validated like in the {@link StateEditor}.
+   */
+  public State createChild(Edge edge, long timeInMilliseconds, double weight, double walkDistance) {
+    State child = clone();
+    child.backState = this;
+    child.backEdge = edge;
+    if (request.arriveBy()) {
+      child.vertex = edge.getFromVertex();
+      child.time_ms -= timeInMilliseconds;
+    } else {
+      child.vertex = edge.getToVertex();
+      child.time_ms += timeInMilliseconds;
+    }
+    child.weight += weight;
+    child.walkDistance += walkDistance;
+    return child;
+  }
+
   /*
    * FIELD ACCESSOR METHODS States are immutable, so they have only get methods. The corresponding
    * set methods are in StateEditor.
@@ -0,0 +1,81 @@
+package org.opentripplanner.street.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+
+class PackedHilbertRTreeTest {
+
+  private static final double X0 = -0.05;
+  private static final double Y0 = 44.0;
+  private static final double DX = 0.1;
+  private static final double DY = 0.1;
+  private static final double FLOAT_PRECISION = 1e-5;
+
+  /**
+   * Insert random envelopes into both the packed tree and a JTS STRtree, and check with random
+   * queries that the tree finds all intersecting envelopes. Envelopes closer to the query than the
+   * float precision may be found as well. The number of items cover trees with one to five levels
+   * and partially filled nodes.
+   */
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 15, 16, 17, 300, 5000 })
+  @SuppressWarnings("unchecked")
+  void findsTheIntersectingEnvelopes(int nItems) {
+    Random rand = new Random(42);
+    var builder = PackedHilbertRTree.<Envelope>of();
+    var strTree = new STRtree();
+
+    for (int i = 0; i < nItems; i++) {
+      Envelope envelope = randomEnvelope(rand, 0.01);
+      builder.add(envelope, envelope);
+      strTree.insert(envelope, envelope);
+    }
+    var tree = builder.build();
+    assertEquals(nItems, tree.size());
+
+    for (int i = 0; i < 1000; i++) {
+      Envelope searchEnv = randomEnvelope(rand, 0.02);
+      List<Envelope> found = tree.query(searchEnv);
+      Set<Envelope> expected = new HashSet<>(strTree.query(searchEnv));
+      expected.removeIf(e -> !e.intersects(searchEnv));
+
+      assertEquals(found.size(), new HashSet<>(found).size());
+      assertTrue(found.containsAll(expected));
+      var expanded = new Envelope(searchEnv);
+      expanded.expandBy(FLOAT_PRECISION);
+      assertTrue(found.stream().allMatch(expanded::intersects));
+    }
+  }
+
+  @Test
+  void pointsAreFoundOnTheQueryBorder() {
+    var point = new Envelope(new Coordinate(10.123456789, 59.987654321));
+    var tree = PackedHilbertRTree.<Envelope>of().add(point, point).build();
+
+    assertEquals(List.of(point), tree.query(point));
+    assertTrue(tree.query(new Envelope(10.0, 10.12345, 59.9, 60.0)).isEmpty());
+  }
+
+  @Test
+  void emptyTree() {
+    var tree = PackedHilbertRTree.<Envelope>of().build();
+    assertTrue(tree.query(new Envelope(X0, X0 + DX, Y0, Y0 + DY)).isEmpty());
+  }
+
+  private static Envelope randomEnvelope(Random rand, double maxSize) {
+    double x = rand.nextDouble() * DX + X0;
+    double y = rand.nextDouble() * DY + Y0;
+    return new Envelope(x, x + rand.nextDouble() * maxSize, y, y + rand.nextDouble() * maxSize);
+  }
+}
@@ -0,0 +1,85 @@
+package org.opentripplanner.street.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.street.model.StreetModelFactory.intersectionVertex;
+import static org.opentripplanner.street.model.StreetModelFactory.streetEdge;
+
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.opentripplanner.street.Scope;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.edge.StreetEdge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+
+class EdgeSpatialIndexTest {
+
+  private static final Envelope ALL = new Envelope(9.0, 11.0, 59.0, 61.0);
+
+  private final Graph graph = new Graph();
+  private final StreetVertex a = intersectionVertex("A", 60.0, 10.0);
+  private final StreetVertex b = intersectionVertex("B", 60.001, 10.0);
+  private final StreetVertex c = intersectionVertex("C", 60.001, 10.001);
+  private StreetEdge ab;
+  private StreetEdge bc;
+
+  @BeforeEach
+  void setup() {
+    graph.addVertex(a);
+    graph.addVertex(b);
+    graph.addVertex(c);
+    ab = streetEdge(a, b);
+    bc = streetEdge(b, c);
+    graph.index();
+  }
+
+  @Test
+  void removedEdgeIsFilteredOutAndFoundAgainWhenInserted() {
+    assertEdges(Scope.PERMANENT, ab, bc);
+
+    graph.removeEdge(ab);
+    assertEdges(Scope.PERMANENT, bc);
+
+    graph.insert(ab, Scope.PERMANENT);
+    assertEdges(Scope.PERMANENT, ab, bc);
+  }
+
+  @Test
+  void edgeAddedAfterTheGraphIsIndexedCanBeRemoved() {
+    var ca = streetEdge(c, a);
+    graph.insert(ca, Scope.PERMANENT);
+    assertEdges(Scope.PERMANENT, ab, bc, ca);
+
+    graph.removeEdge(ca);
+    graph.removeEdge(bc);
+    assertEdges(Scope.PERMANENT, ab);
+  }
+
+  @Test
+  void realtimeEdgesAreOnlyFoundByRequests() {
+    var ca = streetEdge(c, a);
+    graph.insert(ca, Scope.REALTIME);
+    assertEdges(Scope.REALTIME, ab, bc);
+    assertEdges(Scope.REQUEST, ab, bc, ca);
+
+    graph.removeEdge(ca, Scope.REALTIME);
+    assertEdges(Scope.REQUEST, ab, bc);
+  }
+
+  @Test
+  void removedVertexIsFilteredOut() {
+    graph.removeEdge(ab);
+    graph.remove(a);
+
+    var found = graph.findVertices(ALL);
+    assertEquals(2, found.size());
+    assertEquals(Set.of(b, c), Set.copyOf(found));
+  }
+
+  private void assertEdges(Scope scope, Edge... expected) {
+    var found = graph.findEdges(ALL, scope);
+    assertEquals(expected.length, found.size(), () -> "Found " + found);
+    assertEquals(Set.of(expected), Set.copyOf(found));
+  }
+}
@@ -129,6 +129,68 @@ class GraphTest {
     assertEquals(allStreetEdges, edges);
   }
 
+  @Test
+  void reconstructEdgeLists() {
+    var g = new Graph();
+    Vertex a = intersectionVertex("A", 5, 5);
+    Vertex b = intersectionVertex("B", 6, 6);
+    Vertex c = intersectionVertex("C", 3, 2);
+    // Not in the graph, but connected to it
+    Vertex d = intersectionVertex("D", 4, 4);
+    g.addVertex(a);
+    g.addVertex(b);
+    g.addVertex(c);
+
+    List<Edge> edges = List.of(
+      FreeEdge.createFreeEdge(a, b),
+      FreeEdge.createFreeEdge(c, b),
+      FreeEdge.createFreeEdge(a, c),
+      FreeEdge.createFreeEdge(b, a),
+      FreeEdge.createFreeEdge(d, a),
+      FreeEdge.createFreeEdge(a, d)
+    );
+    for (Vertex v : List.of(a, b, c, d)) {
+      v.initEdgeLists();
+    }
+
+    g.reconstructEdgeLists(edges);
+
+    // The edges of each vertex are in the order of the given edges
+    assertEquals(List.of(edges.get(0), edges.get(2), edges.get(5)), List.copyOf(a.getOutgoing()));
+    assertEquals(List.of(edges.get(3), edges.get(4)), List.copyOf(a.getIncoming()));
+    assertEquals(List.of(edges.get(3)), List.copyOf(b.getOutgoing()));
+    assertEquals(List.of(edges.get(0), edges.get(1)), List.copyOf(b.getIncoming()));
+    assertEquals(List.of(edges.get(1)), List.copyOf(c.getOutgoing()));
+    assertEquals(List.of(edges.get(2)), List.copyOf(c.getIncoming()));
+    assertEquals(List.of(edges.get(4)), List.copyOf(d.getOutgoing()));
+    assertEquals(List.of(edges.get(5)), List.copyOf(d.getIncoming()));
+  }
+
+  @Test
+  void indexGivesEachVertexADenseIndex() {
+    var g = new Graph();
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      var v = intersectionVertex("V" + i, 60 + (i % 3) * 0.01, 10 + i * 0.01);
+      g.addVertex(v);
+      vertices.add(v);
+    }
+    var added = intersectionVertex("added", 60, 10);
+    assertEquals(Vertex.NO_INDEX, added.getIndex());
+
+    g.index();
+    g.addVertex(added);
+
+    Set<Integer> indexes = new HashSet<>();
+    vertices.forEach(v -> indexes.add(v.getIndex()));
+    assertEquals(Set.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), indexes);
+    assertEquals(Vertex.NO_INDEX, added.getIndex());
+
+    var removed = vertices.getFirst();
+    g.remove(removed);
+    assertEquals(Vertex.NO_INDEX, removed.getIndex());
+  }
+
   /**
    * Create an edge. If twoWay, create two edges (back and forth).
    */
@@ -0,0 +1,72 @@
+package org.opentripplanner.street.linking;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.opentripplanner.street.linking.LinkingDirection.BIDIRECTIONAL;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.street.model.StreetModelFactory;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
+import org.opentripplanner.street.search.TraverseModeSet;
+
+class LinkingBatchTest {
+
+  private static final IntersectionVertex NEAR_FIRST = StreetModelFactory.intersectionVertex(
+    0.02,
+    0.02
+  );
+  private static final IntersectionVertex NEAR_SECOND = StreetModelFactory.intersectionVertex(
+    0.08,
+    0.08
+  );
+  private static final IntersectionVertex FAR_AWAY = StreetModelFactory.intersectionVertex(
+    1.05,
+    1.05
+  );
+
+  @Test
+  void vertexNearSplitEdgeIsSearchedAgain() {
+    var env = buildEnv();
+    assertThat(env.graph().listStreetEdges()).hasSize(2);
+
+    var vertices = List.of(NEAR_FIRST, NEAR_SECOND, FAR_AWAY);
+    try (
+      var batch = env
+        .linker()
+        .prepareLinkingPermanently(vertices, TraverseModeSet.allModes())
+    ) {
+      for (var vertex : vertices) {
+        batch.linkVertexPermanently(vertex, BIDIRECTIONAL, (v, streetVertex) -> List.of());
+      }
+      // The second vertex is linked to one of the halves of the edge split by the first
+      assertThat(batch.searchedAgain()).isEqualTo(1);
+    }
+    assertThat(env.graph().listStreetEdges()).hasSize(5);
+  }
+
+  @Test
+  void onlyOneBatchAtATime() {
+    var env = buildEnv();
+    var modes = TraverseModeSet.allModes();
+    try (var batch = env.linker().prepareLinkingPermanently(List.of(NEAR_FIRST), modes)) {
+      assertThrows(IllegalStateException.class, () ->
+        env.linker().prepareLinkingPermanently(List.of(FAR_AWAY), modes)
+      );
+    }
+    // The linker can be used for a new batch when the first is closed
+    env.linker().prepareLinkingPermanently(List.of(FAR_AWAY), modes).close();
+  }
+
+  private static LinkingEnvironment buildEnv() {
+    var v1 = StreetModelFactory.intersectionVertex(0.0, 0.0);
+    var v2 = StreetModelFactory.intersectionVertex(0.1, 0.1);
+    var v3 = StreetModelFactory.intersectionVertex(1.0, 1.0);
+    var v4 = StreetModelFactory.intersectionVertex(1.1, 1.1);
+
+    StreetModelFactory.streetEdge(v1, v2);
+    StreetModelFactory.streetEdge(v3, v4);
+
+    return new LinkingEnvironment(v1, v2, v3, v4);
+  }
+}
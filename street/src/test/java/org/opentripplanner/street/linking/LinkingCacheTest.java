@@ -0,0 +1,100 @@
+package org.opentripplanner.street.linking;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.opentripplanner.street.linking.LinkingDirection.BIDIRECTIONAL;
+import static org.opentripplanner.street.linking.VisibilityMode.COMPUTE_AREA_VISIBILITY_LINES;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.core.model.i18n.I18NString;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetConstants;
+import org.opentripplanner.street.model.StreetModelFactory;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.TemporaryStreetLocation;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.TraverseModeSet;
+
+class LinkingCacheTest {
+
+  private static final TraverseModeSet WALK = new TraverseModeSet(TraverseMode.WALK);
+
+  private final Graph graph = new Graph();
+  private final LinkingCache cache;
+  private final VertexLinker linker;
+
+  LinkingCacheTest() {
+    var v1 = StreetModelFactory.intersectionVertex(0.0, 0.0);
+    var v2 = StreetModelFactory.intersectionVertex(0.1, 0.1);
+    var v3 = StreetModelFactory.intersectionVertex(1.0, 1.0);
+    var v4 = StreetModelFactory.intersectionVertex(1.1, 1.1);
+    StreetModelFactory.streetEdge(v1, v2);
+    StreetModelFactory.streetEdge(v3, v4);
+    for (var v : List.of(v1, v2, v3, v4)) {
+      graph.addVertex(v);
+    }
+    graph.index();
+    cache = graph.getLinkingCache();
+    linker = new VertexLinker(
+      graph,
+      COMPUTE_AREA_VISIBILITY_LINES,
+      StreetConstants.DEFAULT_MAX_AREA_NODES,
+      false,
+      cache
+    );
+  }
+
+  @Test
+  void nearbyCoordinatesAreLinkedToTheSamePoint() {
+    var first = linkForRequest(0.05, 0.05, WALK);
+    var second = linkForRequest(0.050001, 0.050002, WALK);
+
+    assertEquals(1, cache.size());
+    assertThat(first).hasSize(1);
+    assertThat(second).hasSize(1);
+    assertNotSame(first.getFirst(), second.getFirst());
+    assertEquals(first.getFirst().getCoordinate(), second.getFirst().getCoordinate());
+  }
+
+  @Test
+  void modesAreCachedSeparately() {
+    linkForRequest(0.05, 0.05, WALK);
+    linkForRequest(0.05, 0.05, new TraverseModeSet(TraverseMode.CAR));
+    linkForRequest(0.06, 0.05, WALK);
+
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  void realtimeSplitOfTheLinkedEdgeInvalidatesTheEntry() {
+    linkForRequest(0.05, 0.05, WALK);
+    linkForRequest(1.05, 1.05, WALK);
+    assertEquals(2, cache.size());
+
+    var station = StreetModelFactory.intersectionVertex(0.02, 0.02);
+    var realtime = linker.linkVertexForRealTime(station, WALK, BIDIRECTIONAL, (v1, v2) ->
+      List.of()
+    );
+    assertEquals(1, cache.size());
+
+    linkForRequest(0.05, 0.05, WALK);
+    assertEquals(2, cache.size());
+
+    realtime.disposeEdges();
+    assertEquals(1, cache.size());
+  }
+
+  private List<StreetVertex> linkForRequest(double lat, double lon, TraverseModeSet modes) {
+    var linked = new ArrayList<StreetVertex>();
+    var location = new TemporaryStreetLocation(new Coordinate(lon, lat), I18NString.of("Temp"));
+    linker.linkVertexForRequest(location, modes, BIDIRECTIONAL, (vertex, streetVertex) -> {
+      linked.add(streetVertex);
+      return List.of();
+    });
+    return linked;
+  }
+}
@@ -2,15 +2,20 @@ package org.opentripplanner.street.linking;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.opentripplanner.core.model.i18n.NonLocalizedString;
 import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetGraphOverlay;
 import org.opentripplanner.street.model.StreetModelFactory;
 import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.StreetEdge;
 import org.opentripplanner.street.model.edge.TemporaryFreeEdge;
+import org.opentripplanner.street.model.vertex.IntersectionVertex;
 import org.opentripplanner.street.model.vertex.TemporaryStreetLocation;
 import org.opentripplanner.street.model.vertex.TemporaryVertex;
 import org.opentripplanner.street.search.TraverseMode;
@@ -18,18 +23,27 @@ import org.opentripplanner.street.search.TraverseModeSet;
 
 public class TemporaryVerticesContainerTest {
 
-  @Test
-  void temporaryChangesRemovedOnClose() {
-    var graph = new Graph();
-    var intersectionVertexA = StreetModelFactory.intersectionVertex(new Coordinate(0, 0));
-    var intersectionVertexB = StreetModelFactory.intersectionVertex(new Coordinate(0, 1));
-    var intersectionVertexC = StreetModelFactory.intersectionVertex(new Coordinate(1, 0));
+  private final Graph graph = new Graph();
+  private final IntersectionVertex intersectionVertexA = StreetModelFactory.intersectionVertex(
+    new Coordinate(0, 0)
+  );
+  private final IntersectionVertex intersectionVertexB = StreetModelFactory.intersectionVertex(
+    new Coordinate(0, 1)
+  );
+  private final IntersectionVertex intersectionVertexC = StreetModelFactory.intersectionVertex(
+    new Coordinate(1, 0)
+  );
+  private StreetEdge secondEdge;
+  private VertexLinker vertexLinker;
+
+  @BeforeEach
+  void setup() {
     StreetModelFactory.streetEdge(
       intersectionVertexA,
       intersectionVertexB,
       StreetTraversalPermission.PEDESTRIAN
     );
-    var secondEdge = StreetModelFactory.streetEdge(
+    secondEdge = StreetModelFactory.streetEdge(
       intersectionVertexB,
       intersectionVertexC,
       StreetTraversalPermission.PEDESTRIAN
@@ -38,25 +52,17 @@ public class TemporaryVerticesContainerTest {
     graph.addVertex(intersectionVertexB);
     graph.addVertex(intersectionVertexC);
     graph.index();
+    vertexLinker = new VertexLinker(graph, VisibilityMode.COMPUTE_AREA_VISIBILITY_LINES, 50, true);
+  }
+
+  @Test
+  void temporaryChangesRemovedOnClose() {
     try (var container = new TemporaryVerticesContainer()) {
-      var vertexLinker = new VertexLinker(
-        graph,
-        VisibilityMode.COMPUTE_AREA_VISIBILITY_LINES,
-        50,
-        true
-      );
       var temporaryLocation = new TemporaryStreetLocation(
         new Coordinate(0.5, 0.5),
         new NonLocalizedString("Temp location")
       );
-      var collection = vertexLinker.linkVertexForRequest(
-        temporaryLocation,
-        new TraverseModeSet(TraverseMode.WALK),
-        LinkingDirection.OUTGOING,
-        (vertex, streetVertex) ->
-          List.of(TemporaryFreeEdge.createTemporaryFreeEdge((TemporaryVertex) vertex, streetVertex))
-      );
-      container.addEdgeCollection(collection);
+      container.addEdgeCollection(link(temporaryLocation));
       // There should be vertices from B -> C and B -> to split edge
       assertThat(intersectionVertexB.getOutgoing()).hasSize(2);
       // There should not be other temporary changes
@@ -71,4 +77,40 @@ public class TemporaryVerticesContainerTest {
     var edge = intersectionVertexB.getOutgoing().iterator().next();
     assertEquals(secondEdge, edge);
   }
+
+  @Test
+  void overlayLeavesTheGraphUnchanged() {
+    OverlayGraph overlay;
+    try (var container = new TemporaryVerticesContainer()) {
+      overlay = container.overlay();
+      var temporaryLocation = new TemporaryStreetLocation(
+        new Coordinate(0.5, 0.5),
+        new NonLocalizedString("Temp location"),
+        overlay
+      );
+      container.addEdgeCollection(link(temporaryLocation));
+      assertSame(overlay, StreetGraphOverlay.of(temporaryLocation));
+
+      // The split edge from B is only visible through the overlay
+      assertThat(intersectionVertexB.getOutgoing()).containsExactly(secondEdge);
+      assertThat(overlay.getOutgoing(intersectionVertexB)).hasSize(2);
+      assertThat(intersectionVertexA.getOutgoing()).hasSize(1);
+      assertThat(intersectionVertexB.getIncoming()).hasSize(1);
+      assertThat(intersectionVertexC.getIncoming()).hasSize(1);
+      assertThat(temporaryLocation.getOutgoing()).hasSize(1);
+    }
+    assertThat(intersectionVertexB.getOutgoing()).containsExactly(secondEdge);
+    assertThat(overlay.getOutgoing(intersectionVertexB)).containsExactly(secondEdge);
+    assertThat(overlay.getIncoming(intersectionVertexB)).hasSize(1);
+  }
+
+  private DisposableEdgeCollection link(TemporaryStreetLocation temporaryLocation) {
+    return vertexLinker.linkVertexForRequest(
+      temporaryLocation,
+      new TraverseModeSet(TraverseMode.WALK),
+      LinkingDirection.OUTGOING,
+      (vertex, streetVertex) ->
+        List.of(TemporaryFreeEdge.createTemporaryFreeEdge((TemporaryVertex) vertex, streetVertex))
+    );
+  }
 }
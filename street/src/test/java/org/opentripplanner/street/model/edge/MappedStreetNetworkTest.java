@@ -0,0 +1,152 @@
+package org.opentripplanner.street.model.edge;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model.StreetModelFactory.intersectionVertex;
+import static org.opentripplanner.street.model.StreetModelFactory.streetEdge;
+import static org.opentripplanner.street.model.StreetModelFactory.streetEdgeBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.street.geometry.DlugoszVarLenIntPacker;
+import org.opentripplanner.street.geometry.GeometryUtils;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+
+class MappedStreetNetworkTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void writeAndOpen() throws IOException {
+    var graph = graph(0);
+    var file = tempDir.resolve("network.bin");
+    MappedStreetNetwork.write(graph.getVertices(), graph.getStreetEdges(), file);
+
+    try (var subject = MappedStreetNetwork.open(file)) {
+      assertEquals(3, subject.vertexCount());
+      assertEquals(3, subject.edgeCount());
+      for (var v : graph.getVertices()) {
+        assertEquals(v.getLon(), subject.lon(v.getIndex()));
+        assertEquals(v.getLat(), subject.lat(v.getIndex()));
+      }
+      for (var e : graph.getStreetEdges()) {
+        int i = e.getIndex();
+        assertEquals(e.getFromVertex().getIndex(), subject.fromVertex(i));
+        assertEquals(e.getToVertex().getIndex(), subject.toVertex(i));
+        assertEquals(e.getMillimeterLength(), subject.millimeterLength(i));
+        assertArrayEquals(e.compactGeometry(), subject.compactGeometry(i));
+        assertArrayEquals(
+          DlugoszVarLenIntPacker.unpack(e.compactGeometry()),
+          subject.geometryCoordinates(i)
+        );
+      }
+    }
+  }
+
+  @Test
+  void attach() throws IOException {
+    var graph = graph(0);
+    var file = tempDir.resolve("network.bin");
+    MappedStreetNetwork.write(graph.getVertices(), graph.getStreetEdges(), file);
+    var geometries = graph.getStreetEdges().stream().map(StreetEdge::getGeometry).toList();
+
+    try (var subject = MappedStreetNetwork.open(file)) {
+      assertTrue(subject.attach(graph.getVertices(), graph.getStreetEdges()));
+
+      assertEquals(
+        geometries,
+        graph.getStreetEdges().stream().map(StreetEdge::getGeometry).toList()
+      );
+      // A clone has no index, and keeps its geometry on the heap
+      var edge = graph.getStreetEdges().iterator().next();
+      assertEquals(edge.getGeometry(), edge.clone().getGeometry());
+    }
+  }
+
+  @Test
+  void attachToAnotherGraphIsRejected() throws IOException {
+    var file = tempDir.resolve("network.bin");
+    var other = graph(0.001);
+    MappedStreetNetwork.write(other.getVertices(), other.getStreetEdges(), file);
+
+    var graph = graph(0);
+    try (var subject = MappedStreetNetwork.open(file)) {
+      assertFalse(subject.attach(graph.getVertices(), graph.getStreetEdges()));
+    }
+  }
+
+  @Test
+  void attachToGraphWithMoreVerticesIsRejected() throws IOException {
+    var file = tempDir.resolve("network.bin");
+    var graph = graph(0);
+    MappedStreetNetwork.write(graph.getVertices(), graph.getStreetEdges(), file);
+
+    graph.addVertex(intersectionVertex("D", 60.03, 10.0));
+    graph.index();
+    try (var subject = MappedStreetNetwork.open(file)) {
+      assertFalse(subject.attach(graph.getVertices(), graph.getStreetEdges()));
+    }
+  }
+
+  @Test
+  void openOtherFile() throws IOException {
+    var file = tempDir.resolve("other.bin");
+    Files.write(file, new byte[100]);
+
+    assertThrows(IOException.class, () -> MappedStreetNetwork.open(file));
+  }
+
+  @Test
+  void graphWritesTheFileIfMissing() {
+    var file = tempDir.resolve("network.bin");
+    var first = graph(0);
+    first.useMappedStreetNetwork(file);
+    assertTrue(Files.exists(file));
+    assertNotNull(first.getMappedStreetNetwork());
+
+    // A second instance maps the same file
+    var second = graph(0);
+    second.useMappedStreetNetwork(file);
+    assertNotNull(second.getMappedStreetNetwork());
+
+    first.getMappedStreetNetwork().close();
+    second.getMappedStreetNetwork().close();
+  }
+
+  /** Three vertices, connected by a curved edge and two straight ones. */
+  private static Graph graph(double offset) {
+    var graph = new Graph();
+    var a = intersectionVertex("A", 60.0 + offset, 10.0);
+    var b = intersectionVertex("B", 60.01, 10.01);
+    var c = intersectionVertex("C", 60.02, 10.0);
+    for (var v : List.of(a, b, c)) {
+      graph.addVertex(v);
+    }
+    var curve = GeometryUtils.getGeometryFactory()
+      .createLineString(
+        new Coordinate[] {
+          a.getCoordinate(),
+          new Coordinate(10.005, 60.008),
+          b.getCoordinate(),
+        }
+      );
+    streetEdgeBuilder(a, b, 1500, StreetTraversalPermission.ALL)
+      .withGeometry(curve)
+      .buildAndConnect();
+    streetEdge(b, c);
+    streetEdge(c, a);
+    graph.index();
+    return graph;
+  }
+}
@@ -0,0 +1,154 @@
+package org.opentripplanner.street.model.edge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.street.model.StreetModelFactory.intersectionVertex;
+import static org.opentripplanner.street.model.StreetModelFactory.streetEdgeBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.VehicleRoutingOptimizeType;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.search.TraverseMode;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+
+class StreetEdgeCostCacheTest {
+
+  private final List<StreetEdge> path = new ArrayList<>();
+  private StreetEdgeCostCache cache;
+
+  /** A path of edges with different lengths, safety factors, car speeds and stairs. */
+  @BeforeEach
+  void setup() {
+    var graph = new Graph();
+    StreetVertex from = intersectionVertex("V0", 60.0, 10.0);
+    graph.addVertex(from);
+    for (int i = 1; i < 8; i++) {
+      StreetVertex to = intersectionVertex("V" + i, 60.0 + i * 0.001, 10.0 + (i % 3) * 0.001);
+      graph.addVertex(to);
+      path.add(
+        streetEdgeBuilder(from, to, 50.0 + i * 17, StreetTraversalPermission.ALL)
+          .withBicycleSafetyFactor(0.5f + i * 0.3f)
+          .withWalkSafetyFactor(2.0f - i * 0.2f)
+          .withCarSpeed(5.0f + i)
+          .withStairs(i == 4)
+          .buildAndConnect()
+      );
+      from = to;
+    }
+    graph.index();
+    cache = graph.getEdgeCostCache();
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StreetMode.class, names = { "WALK", "BIKE", "CAR" })
+  void tableHasTheSameCostsAsTheEdges(StreetMode mode) {
+    var request = StreetSearchRequest.of()
+      .withMode(mode)
+      .withBike(b -> b.withOptimizeType(VehicleRoutingOptimizeType.SAFE_STREETS))
+      .build();
+    cache.initForRequest(request);
+    var table = cache.get(request);
+    assertNotNull(table);
+
+    var withTable = StreetSearchRequest.copyOf(request).withEdgeCostTable(table).build();
+    assertSame(table, withTable.edgeCostTable());
+
+    State expected = new State(path.getFirst().getFromVertex(), request);
+    State actual = new State(path.getFirst().getFromVertex(), withTable);
+    for (StreetEdge edge : path) {
+      assertTrue(table.contains(edge, actual.currentMode(), false, null), edge.toString());
+      expected = edge.traverse(expected)[0];
+      actual = edge.traverse(actual)[0];
+      assertEquals(expected.getTimeSeconds(), actual.getTimeSeconds());
+      assertEquals(expected.getWeight(), actual.getWeight());
+    }
+  }
+
+  @Test
+  void tableIsDroppedIfTheProfileChanges() {
+    var request = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    cache.initForRequest(request);
+    var table = cache.get(request);
+
+    // Bike parameters are not used when walking
+    var bike = StreetSearchRequest.copyOf(request)
+      .withEdgeCostTable(table)
+      .withBike(b -> b.withSpeed(3.0))
+      .build();
+    assertSame(table, bike.edgeCostTable());
+
+    var walk = StreetSearchRequest.copyOf(bike).withWalk(w -> w.withSpeed(0.5)).build();
+    assertNull(walk.edgeCostTable());
+  }
+
+  @Test
+  void onlyTheMainModeOfTheProfileIsCached() {
+    var request = StreetSearchRequest.of().withMode(StreetMode.BIKE).build();
+    cache.initForRequest(request);
+    var table = cache.get(request);
+    var edge = path.getFirst();
+
+    assertTrue(table.contains(edge, TraverseMode.BICYCLE, false, null));
+    assertFalse(table.contains(edge, TraverseMode.BICYCLE, true, null));
+    assertFalse(table.contains(edge, TraverseMode.WALK, false, null));
+    assertFalse(table.contains(edge.clone(), TraverseMode.BICYCLE, false, null));
+  }
+
+  @Test
+  void requestsChangingModeHaveNoTable() {
+    var request = StreetSearchRequest.of().withMode(StreetMode.BIKE_RENTAL).build();
+    cache.initForRequest(request);
+    assertNull(cache.get(request));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void leastRecentlyUsedTableIsEvicted() {
+    var subject = new StreetEdgeCostCache(() -> path, 1, Runnable::run);
+    var walk = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    var bike = StreetSearchRequest.of().withMode(StreetMode.BIKE).build();
+
+    // The table is built by the first request and used by the next
+    assertNull(subject.get(walk));
+    assertNotNull(subject.get(walk));
+
+    assertNull(subject.get(bike));
+    assertNotNull(subject.get(bike));
+    assertEquals(1, subject.size());
+    assertNull(subject.get(walk));
+    assertNotNull(subject.get(walk));
+  }
+
+  @Test
+  void failedTableIsNotBuiltAgainRightAway() {
+    var calls = new AtomicInteger();
+    var subject = new StreetEdgeCostCache(
+      () -> {
+        calls.incrementAndGet();
+        throw new IllegalStateException("Expected by the test");
+      },
+      1,
+      Runnable::run
+    );
+    var request = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+
+    assertNull(subject.get(request));
+    assertNull(subject.get(request));
+    assertEquals(1, calls.get());
+    assertEquals(0, subject.size());
+  }
+}
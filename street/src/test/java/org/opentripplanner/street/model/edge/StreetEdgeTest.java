@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.opentripplanner.street.model.StreetModelFactory.intersectionVertex;
 import static org.opentripplanner.street.model.StreetModelFactory.streetEdge;
@@ -227,6 +228,39 @@ public class StreetEdgeTest {
     assertEquals(100.00, s2.getWalkDistance());
   }
 
+  /**
+   * After the first edge, walking only changes the time, weight and distance. Those states are
+   * created without a state editor and share the state data with their parent. The result must
+   * be the same in both directions, like for the traversals using the state editor.
+   */
+  @Test
+  void testTraverseWalkWithoutStateEditor() {
+    var vWithTrafficLight = new LabelledIntersectionVertex("maple_1st", 2.0, 2.0, false, true);
+    StreetEdge e0 = streetEdge(v0, vWithTrafficLight, 50.0, StreetTraversalPermission.PEDESTRIAN);
+    StreetEdge e1 = streetEdge(vWithTrafficLight, v2, 30.0, StreetTraversalPermission.PEDESTRIAN);
+
+    State s0 = new State(v0, StreetSearchRequest.copyOf(proto).withMode(StreetMode.WALK).build());
+    State s1 = e0.traverse(s0)[0];
+    State s2 = e1.traverse(s1)[0];
+
+    var reverse = StreetSearchRequest.copyOf(proto).withMode(StreetMode.WALK).withArriveBy(true);
+    State s3 = new State(v2, reverse.build());
+    State s4 = e1.traverse(s3)[0];
+    State s5 = e0.traverse(s4)[0];
+
+    assertEquals(v2, s2.getVertex());
+    assertEquals(s1, s2.getBackState());
+    assertEquals(e1, s2.getBackEdge());
+    assertSame(s1.stateData, s2.stateData);
+    assertEquals(80.0, s2.getWalkDistance(), DELTA);
+
+    assertEquals(v0, s5.getVertex());
+    assertSame(s4.stateData, s5.stateData);
+    assertEquals(s2.getElapsedTimeSeconds(), s5.getElapsedTimeSeconds());
+    assertEquals(s2.getWeight(), s5.getWeight(), DELTA);
+    assertEquals(s2.getWalkDistance(), s5.getWalkDistance(), DELTA);
+  }
+
   /**
    * Test the bike switching penalty feature, both its cost penalty and its separate time penalty.
    */
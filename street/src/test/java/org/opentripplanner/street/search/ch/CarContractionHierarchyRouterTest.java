@@ -0,0 +1,119 @@
+package org.opentripplanner.street.search.ch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.street.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.StreetModelFactory;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+
+class CarContractionHierarchyRouterTest {
+
+  private static final int SIZE = 6;
+  private static final Duration MAX_DURATION = Duration.ofHours(1);
+
+  /** A 6x6 grid where some streets are one-way or closed for cars. */
+  private static final List<StreetVertex> VERTICES = new ArrayList<>();
+  private static CarContractionHierarchy ch;
+
+  @BeforeAll
+  static void setup() {
+    StreetVertex[][] grid = new StreetVertex[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        grid[i][j] = StreetModelFactory.intersectionVertex(
+          "V" + i + "_" + j,
+          60.0 + i * 0.001,
+          10.0 + j * 0.002
+        );
+        VERTICES.add(grid[i][j]);
+      }
+    }
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        if (j + 1 < SIZE) {
+          connect(grid[i][j], grid[i][j + 1], i + j);
+        }
+        if (i + 1 < SIZE) {
+          connect(grid[i][j], grid[i + 1][j], i * j);
+        }
+      }
+    }
+    ch = new CarContractionHierarchyBuilder().build(new ArrayList<>(VERTICES));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { false, true })
+  void pathHasTheSameWeightAsAStar(boolean arriveBy) {
+    var request = StreetSearchRequest.of().withMode(StreetMode.CAR).withArriveBy(arriveBy).build();
+    var router = new CarContractionHierarchyRouter(ch);
+
+    for (StreetVertex origin : VERTICES) {
+      for (StreetVertex destination : VERTICES) {
+        if (origin == destination) {
+          continue;
+        }
+        var expected = StreetSearchBuilder.of()
+          .withHeuristic(RemainingWeightHeuristic.TRIVIAL)
+          .withDominanceFunction(new DominanceFunctions.MinimumWeight())
+          .withRequest(request)
+          .withFrom(origin)
+          .withTo(destination)
+          .getPathsToTarget();
+        var actual = router.route(request, Set.of(origin), Set.of(destination), MAX_DURATION);
+
+        assertEquals(expected.isEmpty(), actual.isEmpty(), origin + " -> " + destination);
+        if (actual.isPresent()) {
+          var path = actual.get();
+          assertEquals(expected.getFirst().getWeight(), path.getWeight(), 0.01);
+          assertEquals(origin, path.states.getFirst().getVertex());
+          assertEquals(destination, path.states.getLast().getVertex());
+        }
+      }
+    }
+  }
+
+  @Test
+  void unsupportedRequestsAreNotRouted() {
+    var walk = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    var turns = StreetSearchRequest.of().withMode(StreetMode.CAR).withTurnReluctance(2.0).build();
+    var car = StreetSearchRequest.of().withMode(StreetMode.CAR).build();
+    assertFalse(CarContractionHierarchy.supports(walk));
+    assertFalse(CarContractionHierarchy.supports(turns));
+    assertTrue(CarContractionHierarchy.supports(car));
+
+    var from = Set.<Vertex>of(VERTICES.getFirst());
+    var to = Set.<Vertex>of(VERTICES.getLast());
+    assertTrue(new CarContractionHierarchyRouter(ch).route(walk, from, to, MAX_DURATION).isEmpty());
+  }
+
+  private static void connect(StreetVertex a, StreetVertex b, int seed) {
+    double length =
+      SphericalDistanceLibrary.distance(a.getCoordinate(), b.getCoordinate()) *
+      (1.0 + (seed % 4) * 0.25);
+    switch (seed % 5) {
+      case 1 -> StreetModelFactory.streetEdge(a, b, length, StreetTraversalPermission.PEDESTRIAN);
+      case 3 -> StreetModelFactory.streetEdge(a, b, length, StreetTraversalPermission.ALL);
+      default -> {
+        StreetModelFactory.streetEdge(a, b, length, StreetTraversalPermission.ALL);
+        StreetModelFactory.streetEdge(b, a, length, StreetTraversalPermission.ALL);
+      }
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package org.opentripplanner.street.search.landmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.street.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.StreetModelFactory;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.EuclideanRemainingWeightHeuristic;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.state.State;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+
+class LandmarkRemainingWeightHeuristicTest {
+
+  private static final int SIZE = 6;
+
+  /**
+   * A 6x6 grid with a "river" between column 2 and 3, which can only be crossed on the first
+   * row. Some streets are pedestrian or car only, and the lengths vary, so the three mode classes
+   * see different graphs.
+   */
+  private static final List<StreetVertex> VERTICES = new ArrayList<>();
+  private static LandmarkIndex index;
+
+  @BeforeAll
+  static void setup() {
+    StreetVertex[][] grid = new StreetVertex[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        grid[i][j] = StreetModelFactory.intersectionVertex(
+          "V" + i + "_" + j,
+          60.0 + i * 0.001,
+          10.0 + j * 0.002
+        );
+        VERTICES.add(grid[i][j]);
+      }
+    }
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        if (j + 1 < SIZE && (j != 2 || i == 0)) {
+          connect(grid[i][j], grid[i][j + 1], i + j);
+        }
+        if (i + 1 < SIZE) {
+          connect(grid[i][j], grid[i + 1][j], i * j);
+        }
+      }
+    }
+    var graph = new Graph();
+    VERTICES.forEach(graph::addVertex);
+    graph.index();
+    index = new LandmarkIndexBuilder(new ArrayList<>(VERTICES), 3).build();
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StreetMode.class, names = { "WALK", "BIKE", "CAR" })
+  void landmarkEstimateNeverExceedsTheShortestPathWeight(StreetMode mode) {
+    var request = StreetSearchRequest.of().withMode(mode).build();
+    var arriveByRequest = StreetSearchRequest.of().withMode(mode).withArriveBy(true).build();
+    var heuristic = new LandmarkRemainingWeightHeuristic(index, 40f);
+    var euclidean = new EuclideanRemainingWeightHeuristic(40f);
+    boolean betterThanEuclidean = false;
+
+    for (StreetVertex origin : VERTICES) {
+      var tree = StreetSearchBuilder.of()
+        .withHeuristic(RemainingWeightHeuristic.TRIVIAL)
+        .withDominanceFunction(new DominanceFunctions.MinimumWeight())
+        .withRequest(request)
+        .withFrom(origin)
+        .getShortestPathTree();
+
+      for (StreetVertex destination : VERTICES) {
+        var path = tree.getPath(destination);
+        if (path == null) {
+          continue;
+        }
+        double weight = path.getWeight();
+
+        heuristic.initialize(Set.of(destination), false, request);
+        double estimate = heuristic.estimateRemainingWeight(new State(origin, request));
+        assertTrue(estimate <= weight + 1e-6, message(origin, destination, estimate, weight));
+
+        euclidean.initialize(Set.of(destination), false, request);
+        if (estimate > euclidean.estimateRemainingWeight(new State(origin, request)) + 1e-6) {
+          betterThanEuclidean = true;
+        }
+
+        // In an arrive-by search the heuristic estimates the weight from the origin
+        heuristic.initialize(Set.of(origin), true, arriveByRequest);
+        estimate = heuristic.estimateRemainingWeight(new State(destination, arriveByRequest));
+        assertTrue(estimate <= weight + 1e-6, message(destination, origin, estimate, weight));
+      }
+    }
+    assertTrue(betterThanEuclidean, "The landmarks should improve on the euclidean estimate");
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = StreetMode.class, names = { "WALK", "BIKE", "CAR" })
+  void searchWithLandmarksFindsTheShortestPath(StreetMode mode) {
+    var request = StreetSearchRequest.of().withMode(mode).build();
+    Vertex from = VERTICES.get(SIZE * SIZE - 1);
+    Vertex to = VERTICES.get(SIZE - 1 - 3);
+
+    var expected = StreetSearchBuilder.of()
+      .withHeuristic(RemainingWeightHeuristic.TRIVIAL)
+      .withRequest(request)
+      .withFrom(from)
+      .withTo(to)
+      .getPathsToTarget();
+    var actual = StreetSearchBuilder.of()
+      .withHeuristic(new LandmarkRemainingWeightHeuristic(index, 40f))
+      .withRequest(request)
+      .withFrom(from)
+      .withTo(to)
+      .getPathsToTarget();
+
+    assertEquals(expected.isEmpty(), actual.isEmpty());
+    if (!expected.isEmpty()) {
+      assertEquals(expected.getFirst().getWeight(), actual.getFirst().getWeight(), 1e-6);
+    }
+  }
+
+  @Test
+  void verticesAreFoundAfterTheGraphIsIndexedAgain() {
+    var a = StreetModelFactory.intersectionVertex("A", 60.0, 10.0);
+    var b = StreetModelFactory.intersectionVertex("B", 60.001, 10.0);
+    connect(a, b, 0);
+    var graph = new Graph();
+    graph.addVertex(a);
+    graph.addVertex(b);
+    graph.index();
+    var landmarks = new LandmarkIndexBuilder(List.of(a, b), 1).build();
+    graph.setLandmarkIndex(landmarks);
+    assertEquals(0, landmarks.indexOf(a));
+    assertEquals(1, landmarks.indexOf(b));
+
+    // A vertex south-west of the others is numbered first, and moves the others
+    var c = StreetModelFactory.intersectionVertex("C", 59.0, 9.0);
+    graph.addVertex(c);
+    graph.index();
+
+    assertEquals(0, landmarks.indexOf(a));
+    assertEquals(1, landmarks.indexOf(b));
+    assertEquals(-1, landmarks.indexOf(c));
+  }
+
+  private static void connect(StreetVertex a, StreetVertex b, int seed) {
+    var permission = switch (seed % 5) {
+      case 1 -> StreetTraversalPermission.PEDESTRIAN;
+      case 3 -> StreetTraversalPermission.CAR;
+      default -> StreetTraversalPermission.ALL;
+    };
+    double length =
+      SphericalDistanceLibrary.distance(a.getCoordinate(), b.getCoordinate()) *
+      (1.0 + (seed % 4) * 0.25);
+    StreetModelFactory.streetEdge(a, b, length, permission);
+    StreetModelFactory.streetEdge(b, a, length, permission);
+  }
+
+  private static String message(Vertex from, Vertex to, double estimate, double weight) {
+    return "Estimate %.2f from %s to %s exceeds the weight %.2f".formatted(
+      estimate,
+      from.getLabel(),
+      to.getLabel(),
+      weight
+    );
+  }
+}
@@ -0,0 +1,171 @@
+package org.opentripplanner.street.search.matrix;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.opentripplanner.astar.spi.RemainingWeightHeuristic;
+import org.opentripplanner.street.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.street.graph.Graph;
+import org.opentripplanner.street.model.StreetMode;
+import org.opentripplanner.street.model.StreetModelFactory;
+import org.opentripplanner.street.model.StreetTraversalPermission;
+import org.opentripplanner.street.model.edge.Edge;
+import org.opentripplanner.street.model.vertex.StreetVertex;
+import org.opentripplanner.street.model.vertex.Vertex;
+import org.opentripplanner.street.search.StreetSearchBuilder;
+import org.opentripplanner.street.search.request.StreetSearchRequest;
+import org.opentripplanner.street.search.strategy.DominanceFunctions;
+
+class StreetMatrixSearchTest {
+
+  private static final int SIZE = 5;
+  private static final Duration MAX_DURATION = Duration.ofHours(2);
+
+  /** A 5x5 grid where some streets are one-way or closed for walking. */
+  private static final List<Vertex> VERTICES = new ArrayList<>();
+  private static final Graph GRAPH = new Graph();
+
+  @BeforeAll
+  static void setup() {
+    StreetVertex[][] grid = new StreetVertex[SIZE][SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        grid[i][j] = StreetModelFactory.intersectionVertex(
+          "V" + i + "_" + j,
+          60.0 + i * 0.001,
+          10.0 + j * 0.002
+        );
+        GRAPH.addVertex(grid[i][j]);
+        VERTICES.add(grid[i][j]);
+      }
+    }
+    for (int i = 0; i < SIZE; i++) {
+      for (int j = 0; j < SIZE; j++) {
+        if (j + 1 < SIZE) {
+          connect(grid[i][j], grid[i][j + 1], i + j);
+        }
+        if (i + 1 < SIZE) {
+          connect(grid[i][j], grid[i + 1][j], i * j);
+        }
+      }
+    }
+    GRAPH.index();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { false, true })
+  void matrixIsTheSameAsOneSearchPerPair(boolean arriveBy) {
+    var request = StreetSearchRequest.of().withMode(StreetMode.WALK).withArriveBy(arriveBy).build();
+    var sources = VERTICES.subList(0, 12);
+    var targets = VERTICES.subList(8, SIZE * SIZE);
+
+    var matrix = StreetMatrixSearch.of(request, MAX_DURATION)
+      .withTargets(targets)
+      .withEdgeCostCache(GRAPH.getEdgeCostCache())
+      .build()
+      .search(sources);
+
+    assertEquals(sources.size(), matrix.nSources());
+    for (int s = 0; s < sources.size(); s++) {
+      for (int t = 0; t < targets.size(); t++) {
+        var from = arriveBy ? targets.get(t) : sources.get(s);
+        var to = arriveBy ? sources.get(s) : targets.get(t);
+        var expected = StreetSearchBuilder.of()
+          .withHeuristic(RemainingWeightHeuristic.TRIVIAL)
+          .withDominanceFunction(new DominanceFunctions.MinimumWeight())
+          .withRequest(request)
+          .withArriveBy(arriveBy)
+          .withFrom(from)
+          .withTo(to)
+          .getPathsToTarget();
+
+        var message = from + " -> " + to;
+        int entry = matrix.entry(s, t);
+        if (from == to) {
+          assertEquals(0, matrix.durationSeconds(entry), message);
+          assertEquals(0.0, matrix.distanceMeters(entry), message);
+        } else if (expected.isEmpty()) {
+          assertEquals(StreetMatrix.UNREACHED, entry, message);
+        } else {
+          var path = expected.getFirst();
+          assertEquals(path.getDuration(), matrix.durationSeconds(entry), message);
+          assertEquals(path.getWeight(), matrix.weight(entry), 0.001, message);
+          double distance = path.edges.stream().mapToDouble(Edge::getDistanceMeters).sum();
+          assertEquals(distance, matrix.distanceMeters(entry), 0.001, message);
+          assertNull(matrix.state(entry));
+        }
+      }
+    }
+  }
+
+  @Test
+  void entriesOfASourceAreOrderedByWeight() {
+    var request = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+
+    var matrix = StreetMatrixSearch.of(request, MAX_DURATION)
+      .withTargets(VERTICES)
+      .withStates(true)
+      .build()
+      .search(List.of(VERTICES.get(12)));
+
+    assertTrue(matrix.size() > 1);
+    assertEquals(12, matrix.target(matrix.start(0)));
+    for (int entry = matrix.start(0); entry < matrix.end(0); entry++) {
+      var state = matrix.state(entry);
+      assertNotNull(state);
+      assertSame(VERTICES.get(matrix.target(entry)), state.getVertex());
+      if (entry > matrix.start(0)) {
+        assertTrue(matrix.weight(entry - 1) <= matrix.weight(entry));
+      }
+    }
+  }
+
+  @Test
+  void targetsOutsideTheMaxDurationAreNotReached() {
+    var request = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    var near = VERTICES.get(1);
+    var far = VERTICES.getLast();
+
+    var matrix = StreetMatrixSearch.of(request, Duration.ofMinutes(3))
+      .withTargets(List.of(near, far))
+      .build()
+      .search(List.of(VERTICES.getFirst()));
+
+    assertTrue(matrix.durationSeconds(0, 0) > 0);
+    assertEquals(StreetMatrix.UNREACHED, matrix.durationSeconds(0, 1));
+  }
+
+  @Test
+  void targetsMustBeDistinct() {
+    var request = StreetSearchRequest.of().withMode(StreetMode.WALK).build();
+    var builder = StreetMatrixSearch.of(request, MAX_DURATION).withTargets(
+      List.of(VERTICES.get(1), VERTICES.get(1))
+    );
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  private static void connect(StreetVertex a, StreetVertex b, int seed) {
+    double length =
+      SphericalDistanceLibrary.distance(a.getCoordinate(), b.getCoordinate()) *
+      (1.0 + (seed % 4) * 0.25);
+    switch (seed % 5) {
+      case 1 -> StreetModelFactory.streetEdge(a, b, length, StreetTraversalPermission.CAR);
+      case 3 -> StreetModelFactory.streetEdge(a, b, length, StreetTraversalPermission.PEDESTRIAN);
+      default -> {
+        StreetModelFactory.streetEdge(a, b, length, StreetTraversalPermission.ALL);
+        StreetModelFactory.streetEdge(b, a, length, StreetTraversalPermission.ALL);
+      }
+    }
+  }
+}